@@ -32,6 +32,7 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -66,6 +67,13 @@ class CSVRecordToMutation extends DoFn<KV<String, CSVRecord>, Mutation> {
 
   private Mutation.WriteBuilder writeBuilder = null;
 
+  // Formatters of the DATE and TIMESTAMP columns, built once per DoFn instance.
+  private transient DateTimeFormatter dateFormatter;
+  private transient DateTimeFormatter timestampFormatter;
+
+  // Compiled plans of the tables, built on the first row of each table.
+  private transient Map<String, TablePlan> tablePlans;
+
   public CSVRecordToMutation(
       PCollectionView<Ddl> ddlView,
       PCollectionView<Map<String, List<TableManifest.Column>>> tableColumnsView,
@@ -81,6 +89,18 @@ class CSVRecordToMutation extends DoFn<KV<String, CSVRecord>, Mutation> {
     this.errorTag = errorTag;
   }
 
+  @Setup
+  public void setup() {
+    dateFormatter =
+        DateTimeFormatter.ofPattern(
+            dateFormat.get() == null ? "yyyy-M[M]-d[d][' 00:00:00']" : dateFormat.get());
+    timestampFormatter =
+        timestampFormat.get() == null
+            ? DateTimeFormatter.ISO_INSTANT
+            : DateTimeFormatter.ofPattern(timestampFormat.get());
+    tablePlans = new HashMap<>();
+  }
+
   @ProcessElement
   public void processElement(ProcessContext c) throws IOException {
     /**
@@ -89,13 +109,18 @@ class CSVRecordToMutation extends DoFn<KV<String, CSVRecord>, Mutation> {
      */
     KV<String, CSVRecord> kv = c.element();
     String tableName = kv.getKey();
-    Ddl ddl = c.sideInput(ddlView);
-    Map<String, List<TableManifest.Column>> tableColumnsMap = c.sideInput(tableColumnsView);
-    Table table = ddl.table(tableName);
+    TablePlan plan = tablePlans.get(tableName);
+    if (plan == null) {
+      Ddl ddl = c.sideInput(ddlView);
+      Map<String, List<TableManifest.Column>> tableColumnsMap = c.sideInput(tableColumnsView);
+      plan = new TablePlan(ddl.table(tableName), tableColumnsMap.get(tableName));
+      tablePlans.put(tableName, plan);
+    }
+    Table table = plan.table;
     CSVRecord row = kv.getValue();
     writeBuilder = Mutation.newInsertOrUpdateBuilder(table.name());
     try {
-      c.output(parseRow(writeBuilder, row, table, tableColumnsMap.get(tableName)));
+      c.output(plan.parseRow(writeBuilder, row));
     } catch (IllegalArgumentException e) {
 
       // Send to error tag only if output path is given, otherwise, throw exception.
@@ -110,178 +135,192 @@ class CSVRecordToMutation extends DoFn<KV<String, CSVRecord>, Mutation> {
     }
   }
 
+  /** Parses the cell of a column of a given type into its {@link Value}. */
+  private interface ColumnParser {
+    Value parse(String cellValue);
+  }
+
   /**
-   * Takes a {@link CSVRecord} and converts it into a Mutation object base on the input table's
-   * schema.
-   *
-   * @param builder MutationBuilder to construct
-   * @param row CSVRecord parsed list of data cell
-   * @param table table with column names and column data types
-   * @return the Mutation object built from the CSVRecord
+   * The compiled plan of a table: the name of the column of each cell index, and the parser of its
+   * type, so that rows are converted without looking up the columns and their types per cell.
    */
-  protected final Mutation parseRow(
-      Mutation.WriteBuilder builder,
-      CSVRecord row,
-      Table table,
-      List<TableManifest.Column> manifestColumns)
-      throws IllegalArgumentException {
-    // The input row's column count could be less than or equal to that of DB schema's.
-    if (row.size() > table.columns().size()) {
-      throw new RuntimeException(
-          String.format(
-              "Parsed row's column count is larger than that of the schema's. "
-                  + "Row size: %d, Column size: %d, Row content: %s",
-              row.size(), table.columns().size(), row.toString()));
+  private final class TablePlan {
+    private final Table table;
+    private final List<TableManifest.Column> manifestColumns;
+    private final String[] columnNames;
+    // Compiled on the first cell of each column, so that a manifest column missing from the table
+    // only fails the rows that have it.
+    private final ColumnParser[] columnParsers;
+
+    TablePlan(Table table, List<TableManifest.Column> manifestColumns) {
+      this.table = table;
+      this.manifestColumns = manifestColumns;
+      // If column info is provided in manifest, we use the name from manifest.
+      // Otherwise, we use the column name read from DB.
+      boolean useManifestColumns = manifestColumns != null && manifestColumns.size() > 0;
+      int columnCount = useManifestColumns ? manifestColumns.size() : table.columns().size();
+      this.columnNames = new String[columnCount];
+      for (int i = 0; i < columnCount; i++) {
+        columnNames[i] =
+            useManifestColumns
+                ? manifestColumns.get(i).getColumnName()
+                : table.columns().get(i).name();
+      }
+      this.columnParsers = new ColumnParser[columnCount];
     }
 
-    if (manifestColumns.size() > 0 && row.size() > manifestColumns.size()) {
-      throw new RuntimeException(
-          String.format(
-              "Parsed row's column count is larger than that of the manifest's column list. "
-                  + "Row size: %d, Manifest column size: %d, Row content: %s",
-              row.size(), manifestColumns.size(), row.toString()));
+    /**
+     * Takes a {@link CSVRecord} and converts it into a Mutation object base on the table's schema.
+     *
+     * @param builder MutationBuilder to construct
+     * @param row CSVRecord parsed list of data cell
+     * @return the Mutation object built from the CSVRecord
+     */
+    Mutation parseRow(Mutation.WriteBuilder builder, CSVRecord row)
+        throws IllegalArgumentException {
+      // The input row's column count could be less than or equal to that of DB schema's.
+      if (row.size() > table.columns().size()) {
+        throw new RuntimeException(
+            String.format(
+                "Parsed row's column count is larger than that of the schema's. "
+                    + "Row size: %d, Column size: %d, Row content: %s",
+                row.size(), table.columns().size(), row.toString()));
+      }
+
+      if (manifestColumns.size() > 0 && row.size() > manifestColumns.size()) {
+        throw new RuntimeException(
+            String.format(
+                "Parsed row's column count is larger than that of the manifest's column list. "
+                    + "Row size: %d, Manifest column size: %d, Row content: %s",
+                row.size(), manifestColumns.size(), row.toString()));
+      }
+
+      // Extract cell by cell and construct Mutation object
+      for (int i = 0; i < row.size(); i++) {
+        ColumnParser columnParser = columnParsers[i];
+        if (columnParser == null) {
+          columnParser = columnParser(table.column(columnNames[i]).type());
+          columnParsers[i] = columnParser;
+        }
+        builder.set(columnNames[i]).to(columnParser.parse(row.get(i)));
+      }
+
+      return builder.build();
     }
+  }
 
-    // Extract cell by cell and construct Mutation object
-    for (int i = 0; i < row.size(); i++) {
-      // If column info is provided in manifest, we use the name from manifest.
-      // Otherwise, we use the column name read from DB.
-      String columnName =
-          manifestColumns != null && manifestColumns.size() > 0
-              ? manifestColumns.get(i).getColumnName()
-              : table.columns().get(i).name();
-      com.google.cloud.teleport.spanner.common.Type columnType = table.column(columnName).type();
-      String cellValue = row.get(i);
-      boolean isNullValue = Strings.isNullOrEmpty(cellValue);
-      Value columnValue = null;
-      // TODO: make the tests below match Spanner's SQL literal rules wherever possible,
-      // in terms of how input is accepted, and throw exceptions on invalid input.
-      switch (columnType.getCode()) {
-        case BOOL:
-        case PG_BOOL:
-          if (isNullValue) {
-            columnValue = Value.bool(null);
-          } else {
-            Boolean bCellValue;
-            if (cellValue.trim().equalsIgnoreCase("true")) {
-              bCellValue = Boolean.TRUE;
-            } else if (cellValue.trim().equalsIgnoreCase("false")) {
-              bCellValue = Boolean.FALSE;
-            } else {
-              throw new IllegalArgumentException(
-                  cellValue.trim() + " is not recognizable value " + "for BOOL type");
-            }
-            columnValue = Value.bool(Boolean.valueOf(cellValue));
+  private ColumnParser columnParser(com.google.cloud.teleport.spanner.common.Type columnType) {
+    // TODO: make the tests below match Spanner's SQL literal rules wherever possible,
+    // in terms of how input is accepted, and throw exceptions on invalid input.
+    switch (columnType.getCode()) {
+      case BOOL:
+      case PG_BOOL:
+        return cellValue -> {
+          if (Strings.isNullOrEmpty(cellValue)) {
+            return Value.bool(null);
           }
-          break;
-        case INT64:
-        case PG_INT8:
-          columnValue =
-              isNullValue ? Value.int64(null) : Value.int64(Long.valueOf(cellValue.trim()));
-          break;
-        case FLOAT32:
-        case PG_FLOAT4:
-          columnValue =
-              isNullValue ? Value.float32(null) : Value.float32(Float.valueOf(cellValue.trim()));
-          break;
-        case FLOAT64:
-        case PG_FLOAT8:
-          columnValue =
-              isNullValue ? Value.float64(null) : Value.float64(Double.valueOf(cellValue.trim()));
-          break;
-        case STRING:
-        case PG_VARCHAR:
-        case PG_TEXT:
-          columnValue = Value.string(cellValue);
-          break;
-        case DATE:
-        case PG_DATE:
-          if (isNullValue) {
-            columnValue = Value.date(null);
-          } else {
-            LocalDate dt =
-                LocalDate.parse(
-                    cellValue.trim(),
-                    DateTimeFormatter.ofPattern(
-                        dateFormat.get() == null
-                            ? "yyyy-M[M]-d[d][' 00:00:00']"
-                            : dateFormat.get()));
-            columnValue =
-                Value.date(
-                    com.google.cloud.Date.fromYearMonthDay(
-                        dt.getYear(), dt.getMonthValue(), dt.getDayOfMonth()));
+          if (!cellValue.trim().equalsIgnoreCase("true")
+              && !cellValue.trim().equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException(
+                cellValue.trim() + " is not recognizable value " + "for BOOL type");
           }
-          break;
-        case TIMESTAMP:
-        case PG_TIMESTAMPTZ:
-        case PG_SPANNER_COMMIT_TIMESTAMP:
-          if (isNullValue) {
-            columnValue = Value.timestamp(null);
-          } else {
-            // Timestamp is either a long integer representing Unix epoch time or a string, which
-            // will be parsed using the pattern corresponding to the timestampFormat flag.
-            Long microseconds = Longs.tryParse(cellValue);
-            if (microseconds != null) {
-              columnValue =
-                  Value.timestamp(com.google.cloud.Timestamp.ofTimeMicroseconds(microseconds));
-            } else {
-              DateTimeFormatter formatter =
-                  timestampFormat.get() == null
-                      ? DateTimeFormatter.ISO_INSTANT
-                      : DateTimeFormatter.ofPattern(timestampFormat.get());
-              TemporalAccessor temporalAccessor = formatter.parse(cellValue.trim());
-
-              Instant ts;
-              try {
-                ts = Instant.from(temporalAccessor);
-              } catch (DateTimeException e) {
-                // Date format may not be converted because it lacks timezone, retry with UTC
-                LocalDateTime localDateTime = LocalDateTime.from(temporalAccessor);
-                ZonedDateTime zonedDateTime = ZonedDateTime.of(localDateTime, ZoneOffset.UTC);
-                ts = Instant.from(zonedDateTime);
-              }
-
-              columnValue =
-                  Value.timestamp(
-                      com.google.cloud.Timestamp.ofTimeSecondsAndNanos(
-                          ts.getEpochSecond(), ts.getNano()));
-            }
+          return Value.bool(Boolean.valueOf(cellValue));
+        };
+      case INT64:
+      case PG_INT8:
+        return cellValue ->
+            Strings.isNullOrEmpty(cellValue)
+                ? Value.int64(null)
+                : Value.int64(Long.valueOf(cellValue.trim()));
+      case FLOAT32:
+      case PG_FLOAT4:
+        return cellValue ->
+            Strings.isNullOrEmpty(cellValue)
+                ? Value.float32(null)
+                : Value.float32(Float.valueOf(cellValue.trim()));
+      case FLOAT64:
+      case PG_FLOAT8:
+        return cellValue ->
+            Strings.isNullOrEmpty(cellValue)
+                ? Value.float64(null)
+                : Value.float64(Double.valueOf(cellValue.trim()));
+      case STRING:
+      case PG_VARCHAR:
+      case PG_TEXT:
+        return Value::string;
+      case DATE:
+      case PG_DATE:
+        return cellValue -> {
+          if (Strings.isNullOrEmpty(cellValue)) {
+            return Value.date(null);
           }
-          break;
-        case NUMERIC:
-        case JSON:
-        case PG_JSONB:
-          columnValue = isNullValue ? Value.string(null) : Value.string(cellValue.trim());
-          break;
-        case PG_NUMERIC:
-          columnValue = isNullValue ? Value.pgNumeric(null) : Value.pgNumeric(cellValue.trim());
-          break;
-        case BYTES:
-        case PG_BYTEA:
-          columnValue =
-              isNullValue ? Value.bytes(null) : Value.bytes(ByteArray.fromBase64(cellValue.trim()));
-          break;
-        case PROTO:
-          columnValue =
-              isNullValue
-                  ? Value.protoMessage(null, columnType.getProtoTypeFqn())
-                  : Value.protoMessage(
-                      ByteArray.fromBase64(cellValue.trim()), columnType.getProtoTypeFqn());
-          break;
-        case ENUM:
-          columnValue =
-              isNullValue
-                  ? Value.protoEnum(null, columnType.getProtoTypeFqn())
-                  : Value.protoEnum(Long.valueOf(cellValue.trim()), columnType.getProtoTypeFqn());
-          break;
-        default:
+          LocalDate dt = LocalDate.parse(cellValue.trim(), dateFormatter);
+          return Value.date(
+              com.google.cloud.Date.fromYearMonthDay(
+                  dt.getYear(), dt.getMonthValue(), dt.getDayOfMonth()));
+        };
+      case TIMESTAMP:
+      case PG_TIMESTAMPTZ:
+      case PG_SPANNER_COMMIT_TIMESTAMP:
+        return this::parseTimestamp;
+      case NUMERIC:
+      case JSON:
+      case PG_JSONB:
+        return cellValue ->
+            Strings.isNullOrEmpty(cellValue) ? Value.string(null) : Value.string(cellValue.trim());
+      case PG_NUMERIC:
+        return cellValue ->
+            Strings.isNullOrEmpty(cellValue)
+                ? Value.pgNumeric(null)
+                : Value.pgNumeric(cellValue.trim());
+      case BYTES:
+      case PG_BYTEA:
+        return cellValue ->
+            Strings.isNullOrEmpty(cellValue)
+                ? Value.bytes(null)
+                : Value.bytes(ByteArray.fromBase64(cellValue.trim()));
+      case PROTO:
+        return cellValue ->
+            Strings.isNullOrEmpty(cellValue)
+                ? Value.protoMessage(null, columnType.getProtoTypeFqn())
+                : Value.protoMessage(
+                    ByteArray.fromBase64(cellValue.trim()), columnType.getProtoTypeFqn());
+      case ENUM:
+        return cellValue ->
+            Strings.isNullOrEmpty(cellValue)
+                ? Value.protoEnum(null, columnType.getProtoTypeFqn())
+                : Value.protoEnum(Long.valueOf(cellValue.trim()), columnType.getProtoTypeFqn());
+      default:
+        return cellValue -> {
           throw new IllegalArgumentException(
               "Unrecognized column data type: " + columnType.getCode());
-      }
+        };
+    }
+  }
 
-      builder.set(columnName).to(columnValue);
+  private Value parseTimestamp(String cellValue) {
+    if (Strings.isNullOrEmpty(cellValue)) {
+      return Value.timestamp(null);
+    }
+    // Timestamp is either a long integer representing Unix epoch time or a string, which
+    // will be parsed using the pattern corresponding to the timestampFormat flag.
+    Long microseconds = Longs.tryParse(cellValue);
+    if (microseconds != null) {
+      return Value.timestamp(com.google.cloud.Timestamp.ofTimeMicroseconds(microseconds));
+    }
+    TemporalAccessor temporalAccessor = timestampFormatter.parse(cellValue.trim());
+
+    Instant ts;
+    try {
+      ts = Instant.from(temporalAccessor);
+    } catch (DateTimeException e) {
+      // Date format may not be converted because it lacks timezone, retry with UTC
+      LocalDateTime localDateTime = LocalDateTime.from(temporalAccessor);
+      ZonedDateTime zonedDateTime = ZonedDateTime.of(localDateTime, ZoneOffset.UTC);
+      ts = Instant.from(zonedDateTime);
     }
 
-    return builder.build();
+    return Value.timestamp(
+        com.google.cloud.Timestamp.ofTimeSecondsAndNanos(ts.getEpochSecond(), ts.getNano()));
   }
 }
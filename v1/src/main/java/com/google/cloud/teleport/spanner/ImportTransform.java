@@ -36,6 +36,7 @@ import com.google.common.base.Verify;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.util.JsonFormat;
 import com.google.spanner.admin.database.v1.UpdateDatabaseDdlMetadata;
@@ -49,7 +50,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -100,6 +105,9 @@ public class ImportTransform extends PTransform<PBegin, PDone> {
 
   private static final Logger LOG = LoggerFactory.getLogger(ImportTransform.class);
   private static final int MAX_DEPTH = 8;
+  // Number of groups the interleave hierarchies are spread over, each group is loaded
+  // independently.
+  private static final int HIERARCHY_GROUPS = 4;
 
   private final SpannerConfig spannerConfig;
   private final ValueProvider<String> importDirectory;
@@ -209,20 +217,6 @@ public class ImportTransform extends PTransform<PBegin, PDone> {
 
     PCollectionView<Ddl> ddlView = ddl.apply("Cloud Spanner DDL as view", View.asSingleton());
 
-    PCollectionView<HashMultimap<Integer, String>> levelsView =
-        ddl.apply(
-                "Group tables by depth",
-                ParDo.of(
-                    new DoFn<Ddl, HashMultimap<Integer, String>>() {
-
-                      @ProcessElement
-                      public void processElement(ProcessContext c) {
-                        Ddl ddl = c.element();
-                        c.output(ddl.perLevelView());
-                      }
-                    }))
-            .apply(View.asSingleton());
-
     PCollection<HashMultimap<String, String>> acc =
         tableFiles
             .apply("Combine table files", Combine.globally(AsList.fn()))
@@ -240,51 +234,122 @@ public class ImportTransform extends PTransform<PBegin, PDone> {
                         c.output(result);
                       }
                     }));
+    PCollectionView<HashMultimap<String, String>> tableFilesView =
+        acc.apply("Table files as view", View.asSingleton());
+
+    // Tables are loaded per interleave hierarchy group and depth, see tablesPerSlot. A child table
+    // only waits for the tables of its own group at the previous depth, not for all of them.
+    PCollectionView<HashMultimap<Integer, String>> slotsView =
+        ddl.apply(
+                "Group tables by hierarchy and depth",
+                ParDo.of(
+                        new DoFn<Ddl, HashMultimap<Integer, String>>() {
 
-    PCollection<?> previousComputation = ddl;
-    for (int i = 0; i < MAX_DEPTH; i++) {
-      final int depth = i;
-      PCollection<KV<String, String>> levelFiles =
-          acc.apply(
-                  "Get Avro filenames depth " + depth,
-                  ParDo.of(
-                          new DoFn<HashMultimap<String, String>, KV<String, String>>() {
-
-                            @ProcessElement
-                            public void processElement(ProcessContext c) {
-                              HashMultimap<String, String> allFiles = c.element();
-                              HashMultimap<Integer, String> levels = c.sideInput(levelsView);
-
-                              Set<String> tables = levels.get(depth);
-                              for (String table : tables) {
-                                for (String file : allFiles.get(table)) {
-                                  c.output(KV.of(file, table));
+                          @ProcessElement
+                          public void processElement(ProcessContext c) {
+                            c.output(
+                                tablesPerSlot(
+                                    c.element(), c.sideInput(tableFilesView), HIERARCHY_GROUPS));
+                          }
+                        })
+                    .withSideInputs(tableFilesView))
+            .apply("Slots as view", View.asSingleton());
+
+    List<PCollection<?>> loadedSlots = new ArrayList<>();
+    for (int group = 0; group < HIERARCHY_GROUPS; group++) {
+      PCollection<?> previousComputation = ddl;
+      for (int depth = 0; depth < MAX_DEPTH; depth++) {
+        final int slot = slot(group, depth);
+        final String slotName = "group " + group + " depth " + depth;
+        PCollection<KV<String, String>> slotFiles =
+            acc.apply(
+                    "Get Avro filenames " + slotName,
+                    ParDo.of(
+                            new DoFn<HashMultimap<String, String>, KV<String, String>>() {
+
+                              @ProcessElement
+                              public void processElement(ProcessContext c) {
+                                HashMultimap<String, String> allFiles = c.element();
+                                HashMultimap<Integer, String> slots = c.sideInput(slotsView);
+
+                                Set<String> tables = slots.get(slot);
+                                for (String table : tables) {
+                                  for (String file : allFiles.get(table)) {
+                                    c.output(KV.of(file, table));
+                                  }
                                 }
                               }
-                            }
-                          })
-                      .withSideInputs(levelsView))
-              .apply("Wait for previous depth " + depth, Wait.on(previousComputation));
-      PCollection<Mutation> mutations =
-          levelFiles.apply(
-              "Avro files as mutations " + depth, new AvroTableFileAsMutations(ddlView));
-
-      SpannerWriteResult result =
-          mutations.apply(
-              "Write mutations " + depth,
-              LocalSpannerIO.write()
-                  .withSchemaReadySignal(ddl)
-                  .withSpannerConfig(spannerConfig)
-                  .withCommitDeadline(Duration.standardMinutes(1))
-                  .withMaxCumulativeBackoff(Duration.standardHours(2))
-                  .withMaxNumMutations(10000)
-                  .withGroupingFactor(100)
-                  .withDialectView(dialectView));
-      previousComputation = result.getOutput();
+                            })
+                        .withSideInputs(slotsView))
+                .apply("Wait for parents of " + slotName, Wait.on(previousComputation));
+        PCollection<Mutation> mutations =
+            slotFiles.apply(
+                "Avro files as mutations " + slotName, new AvroTableFileAsMutations(ddlView));
+
+        SpannerWriteResult result =
+            mutations.apply(
+                "Write mutations " + slotName,
+                LocalSpannerIO.write()
+                    .withSchemaReadySignal(ddl)
+                    .withSpannerConfig(spannerConfig)
+                    .withCommitDeadline(Duration.standardMinutes(1))
+                    .withMaxCumulativeBackoff(Duration.standardHours(2))
+                    .withMaxNumMutations(10000)
+                    .withGroupingFactor(100)
+                    .withDialectView(dialectView));
+        previousComputation = result.getOutput();
+
+        // The indexes of the tables of the slot are created as soon as their data is written,
+        // while the rest of the import continues.
+        final PCollectionView<List<String>> slotIndexes =
+            ddl.apply(
+                    "Get pending indexes " + slotName,
+                    ParDo.of(
+                            new DoFn<Ddl, List<String>>() {
+
+                              @ProcessElement
+                              public void processElement(ProcessContext c) {
+                                c.output(
+                                    indexesOfTables(
+                                        c.element(),
+                                        c.sideInput(slotsView).get(slot),
+                                        c.sideInput(pendingIndexes)));
+                              }
+                            })
+                        .withSideInputs(slotsView, pendingIndexes))
+                .apply("Pending indexes as view " + slotName, View.asSingleton());
+        loadedSlots.add(
+            ddl.apply("Wait for " + slotName, Wait.on(previousComputation))
+                .apply(
+                    "Create Indexes " + slotName,
+                    new ApplyDDLTransform(spannerConfig, slotIndexes, waitForIndexes)));
+      }
     }
-    ddl.apply(Wait.on(previousComputation))
+
+    // Indexes of tables that are not in any slot, if any, are created once all data is loaded.
+    final PCollectionView<List<String>> remainingIndexes =
+        ddl.apply(
+                "Get remaining pending indexes",
+                ParDo.of(
+                        new DoFn<Ddl, List<String>>() {
+
+                          @ProcessElement
+                          public void processElement(ProcessContext c) {
+                            List<String> remaining = new ArrayList<>(c.sideInput(pendingIndexes));
+                            remaining.removeAll(
+                                indexesOfTables(
+                                    c.element(),
+                                    ImmutableSet.copyOf(c.sideInput(slotsView).values()),
+                                    remaining));
+                            c.output(remaining);
+                          }
+                        })
+                    .withSideInputs(slotsView, pendingIndexes))
+            .apply("Remaining indexes as view", View.asSingleton());
+    ddl.apply(Wait.on(loadedSlots))
         .apply(
-            "Create Indexes", new ApplyDDLTransform(spannerConfig, pendingIndexes, waitForIndexes))
+            "Create Indexes",
+            new ApplyDDLTransform(spannerConfig, remainingIndexes, waitForIndexes))
         .apply(
             "Add Foreign Keys",
             new ApplyDDLTransform(spannerConfig, pendingForeignKeys, waitForForeignKeys))
@@ -294,6 +359,81 @@ public class ImportTransform extends PTransform<PBegin, PDone> {
     return PDone.in(begin.getPipeline());
   }
 
+  private static int slot(int group, int depth) {
+    return group * MAX_DEPTH + depth;
+  }
+
+  /**
+   * Assigns every table to the slot of its interleave hierarchy group and its depth. The
+   * hierarchies, i.e. root tables with all their descendants, are spread over {@code groups} groups
+   * so as to balance their number of files. Tables of a given hierarchy are always in the same
+   * group, so that a child table only waits for its own parents to be loaded.
+   *
+   * @param ddl the DDL of the database.
+   * @param tableFiles the files of every table, keyed by lower case table name.
+   * @param groups the number of groups.
+   * @return the tables per slot, see {@link #slot(int, int)}.
+   */
+  @VisibleForTesting
+  static HashMultimap<Integer, String> tablesPerSlot(
+      Ddl ddl, Multimap<String, String> tableFiles, int groups) {
+    Map<String, String> rootTables = ddl.rootTableNames();
+    Map<String, Integer> filesPerHierarchy = new HashMap<>();
+    for (Map.Entry<String, String> entry : rootTables.entrySet()) {
+      filesPerHierarchy.merge(
+          entry.getValue(), tableFiles.get(entry.getKey()).size(), Integer::sum);
+    }
+
+    // Largest hierarchies first, each to the least loaded group.
+    List<String> hierarchies = new ArrayList<>(filesPerHierarchy.keySet());
+    hierarchies.sort(
+        Comparator.comparing((String root) -> filesPerHierarchy.get(root))
+            .reversed()
+            .thenComparing(Comparator.naturalOrder()));
+    long[] groupFiles = new long[groups];
+    Map<String, Integer> hierarchyGroups = new HashMap<>();
+    for (String root : hierarchies) {
+      int group = 0;
+      for (int i = 1; i < groups; i++) {
+        if (groupFiles[i] < groupFiles[group]) {
+          group = i;
+        }
+      }
+      hierarchyGroups.put(root, group);
+      groupFiles[group] += filesPerHierarchy.get(root);
+    }
+
+    HashMultimap<Integer, String> result = HashMultimap.create();
+    HashMultimap<Integer, String> levels = ddl.perLevelView();
+    for (Map.Entry<Integer, String> entry : levels.entries()) {
+      int depth = entry.getKey();
+      if (depth < MAX_DEPTH) {
+        String table = entry.getValue();
+        result.put(slot(hierarchyGroups.get(rootTables.get(table)), depth), table);
+      }
+    }
+    return result;
+  }
+
+  /** Returns the pending index statements that belong to the given tables. */
+  @VisibleForTesting
+  static List<String> indexesOfTables(Ddl ddl, Set<String> tables, List<String> pendingIndexes) {
+    Set<String> pending = new HashSet<>(pendingIndexes);
+    List<String> result = new ArrayList<>();
+    for (String tableName : tables) {
+      Table table = ddl.table(tableName);
+      if (table == null) {
+        continue;
+      }
+      for (String index : table.indexes()) {
+        if (pending.contains(index)) {
+          result.add(index);
+        }
+      }
+    }
+    return result;
+  }
+
   /** Read contents of the top-level manifest file. */
   @VisibleForTesting
   static class ReadExportManifestFile extends PTransform<PBegin, PCollection<Export>> {
@@ -26,6 +26,7 @@ import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.util.List;
+import java.util.function.Consumer;
 import org.apache.beam.sdk.io.BoundedSource;
 import org.apache.beam.sdk.io.FileSystems;
 import org.apache.beam.sdk.io.fs.ResourceId;
@@ -46,6 +47,9 @@ import org.slf4j.LoggerFactory;
 class ReadFileShardFn extends DoFn<FileShard, KV<String, CSVRecord>> {
   private static final Logger LOG = LoggerFactory.getLogger(ReadFileShardFn.class);
 
+  // Maximum number of lines without field qualifiers or escapes parsed together.
+  private static final int MAX_UNQUOTED_LINES = 1000;
+
   private final ValueProvider<Character> columnDelimiter;
   private final ValueProvider<Character> fieldQualifier;
   private final ValueProvider<Boolean> trailingDelimiter;
@@ -53,6 +57,8 @@ class ReadFileShardFn extends DoFn<FileShard, KV<String, CSVRecord>> {
   private final ValueProvider<String> nullString;
   private final ValueProvider<Boolean> handleNewLine;
 
+  private transient CSVFormat csvFormat;
+
   ReadFileShardFn(
       ValueProvider<Character> columnDelimiter,
       ValueProvider<Character> fieldQualifier,
@@ -68,17 +74,20 @@ class ReadFileShardFn extends DoFn<FileShard, KV<String, CSVRecord>> {
     this.handleNewLine = handleNewLine;
   }
 
-  @ProcessElement
-  public void processElement(ProcessContext c) throws FileNotFoundException {
+  @Setup
+  public void setup() {
     // CSVFormat
-    CSVFormat csvFormat =
+    csvFormat =
         CSVFormat.newFormat(columnDelimiter.get())
             .withQuote(fieldQualifier.get())
             .withIgnoreEmptyLines(true)
             .withTrailingDelimiter(trailingDelimiter.get())
             .withEscape(escape.get())
             .withNullString(nullString.get());
+  }
 
+  @ProcessElement
+  public void processElement(ProcessContext c) throws FileNotFoundException {
     FileShard shard = c.element();
     ResourceId readingFile = shard.getFile().getMetadata().resourceId();
     if (!handleNewLine.get()) {
@@ -98,18 +107,15 @@ class ReadFileShardFn extends DoFn<FileShard, KV<String, CSVRecord>> {
                     shard.getRange().getFrom(),
                     shard.getRange().getTo())
                 .createReader(c.getPipelineOptions());
+        String tableName = shard.getTableName();
+        LineParser lineParser =
+            new LineParser(csvFormat, true, record -> c.output(KV.of(tableName, record)));
         for (boolean more = reader.start(); more; more = reader.advance()) {
-          Reader in = new StringReader(reader.getCurrent());
-          CSVParser parser = new CSVParser(in, csvFormat);
-          List<CSVRecord> list = parser.getRecords();
-          if (!list.isEmpty()) {
-            if (list.size() > 1) {
-              throw new RuntimeException("Unable to parse this row: " + c.element());
-            }
-            CSVRecord record = list.get(0);
-            c.output(KV.of(shard.getTableName(), record));
+          if (!lineParser.parse(reader.getCurrent())) {
+            throw new RuntimeException("Unable to parse this row: " + c.element());
           }
         }
+        lineParser.flush();
       } catch (IOException e) {
         throw new RuntimeException("Unable to readFile: " + readingFile, e);
       }
@@ -148,4 +154,76 @@ class ReadFileShardFn extends DoFn<FileShard, KV<String, CSVRecord>> {
       }
     }
   }
+
+  /**
+   * Parses the lines of a shard read without new line handling, where each line holds at most one
+   * record.
+   *
+   * <p>A line without field qualifiers or escapes is exactly one record, so when {@code
+   * batchUnquotedLines} is set, runs of such lines are parsed together rather than with a parser
+   * per line. The other lines are always parsed one at a time.
+   */
+  @VisibleForTesting
+  static final class LineParser {
+    private final CSVFormat csvFormat;
+    private final boolean batchUnquotedLines;
+    private final Consumer<CSVRecord> output;
+
+    private final StringBuilder unquotedLines = new StringBuilder();
+    private int unquotedLineCount = 0;
+
+    LineParser(CSVFormat csvFormat, boolean batchUnquotedLines, Consumer<CSVRecord> output) {
+      this.csvFormat = csvFormat;
+      this.batchUnquotedLines = batchUnquotedLines;
+      this.output = output;
+    }
+
+    /**
+     * Parses a line, returning false when it holds more than one record. The records of the lines
+     * are output in order, but those of batched lines only once the batch is parsed.
+     */
+    boolean parse(String line) throws IOException {
+      if (batchUnquotedLines && isUnquoted(line)) {
+        unquotedLines.append(line).append('\n');
+        unquotedLineCount++;
+        if (unquotedLineCount == MAX_UNQUOTED_LINES) {
+          flush();
+        }
+        return true;
+      }
+      flush();
+      Reader in = new StringReader(line);
+      CSVParser parser = new CSVParser(in, csvFormat);
+      List<CSVRecord> list = parser.getRecords();
+      if (!list.isEmpty()) {
+        if (list.size() > 1) {
+          return false;
+        }
+        output.accept(list.get(0));
+      }
+      return true;
+    }
+
+    /** Parses the batched lines, if any. */
+    void flush() throws IOException {
+      if (unquotedLineCount == 0) {
+        return;
+      }
+      try (CSVParser parser =
+          new CSVParser(new StringReader(unquotedLines.toString()), csvFormat)) {
+        for (CSVRecord record : parser) {
+          output.accept(record);
+        }
+      }
+      unquotedLines.setLength(0);
+      unquotedLineCount = 0;
+    }
+
+    private boolean isUnquoted(String line) {
+      Character quote = csvFormat.getQuoteCharacter();
+      Character escapeCharacter = csvFormat.getEscapeCharacter();
+      return (quote == null || line.indexOf(quote) < 0)
+          && (escapeCharacter == null || line.indexOf(escapeCharacter) < 0);
+    }
+  }
 }
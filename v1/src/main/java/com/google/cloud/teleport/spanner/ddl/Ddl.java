@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -458,6 +459,24 @@ public class Ddl implements Serializable {
     return result;
   }
 
+  /**
+   * Returns the root table of the interleave hierarchy of every table, i.e. its ancestor that is
+   * not interleaved in another table. Table names are in lower case, as in {@link #perLevelView()}.
+   */
+  public Map<String, String> rootTableNames() {
+    Map<String, String> result = new HashMap<>();
+    for (String root : childTableNames(ROOT)) {
+      LinkedList<String> hierarchy = Lists.newLinkedList();
+      hierarchy.add(root);
+      while (!hierarchy.isEmpty()) {
+        String tableName = hierarchy.poll();
+        result.put(tableName, root);
+        hierarchy.addAll(childTableNames(tableName));
+      }
+    }
+    return result;
+  }
+
   public String prettyPrint() {
     StringBuilder sb = new StringBuilder();
     try {
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.splunk;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import javax.annotation.Nullable;
+
+/**
+ * {@link AdaptiveBatchSizer} adapts the number of {@link SplunkEvent}s sent per request to Splunk's
+ * Http Event Collector (HEC) to the latency and payload size of the previous requests.
+ *
+ * <p>The batch count grows slowly while full batches are written quickly, shrinks when requests get
+ * slow or large, and is halved when HEC pushes back with a 503 (server busy) or a 429 (too many
+ * requests). It always stays within {@code [minBatchCount, maxBatchCount]}; a sizer with equal
+ * bounds keeps the batch count fixed.
+ *
+ * <p>This class is thread-safe.
+ */
+class AdaptiveBatchSizer {
+
+  @VisibleForTesting static final long TARGET_LATENCY_MS = 1000L;
+
+  @VisibleForTesting static final long TARGET_PAYLOAD_BYTES = 1_000_000L;
+
+  private static final int SERVICE_UNAVAILABLE = 503;
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final int minBatchCount;
+  private final int maxBatchCount;
+  private int batchCount;
+
+  AdaptiveBatchSizer(int initialBatchCount, int minBatchCount, int maxBatchCount) {
+    checkArgument(minBatchCount >= 1, "minBatchCount must be at least 1.");
+    checkArgument(maxBatchCount >= minBatchCount, "maxBatchCount must be >= minBatchCount.");
+    this.minBatchCount = minBatchCount;
+    this.maxBatchCount = maxBatchCount;
+    this.batchCount = clamp(initialBatchCount);
+  }
+
+  /**
+   * Creates a sizer that always returns the given batch count.
+   *
+   * @param batchCount fixed batch count
+   * @return {@link AdaptiveBatchSizer}
+   */
+  static AdaptiveBatchSizer fixed(int batchCount) {
+    return new AdaptiveBatchSizer(batchCount, batchCount, batchCount);
+  }
+
+  /** Returns the number of events that should be sent in the next request. */
+  synchronized int batchCount() {
+    return batchCount;
+  }
+
+  /**
+   * Updates the batch count with the outcome of a request.
+   *
+   * @param statusCode HTTP status code of the response, null if no response was received
+   * @param success whether the events were written successfully
+   * @param latencyMillis time taken by the request
+   * @param payloadBytes size of the request payload
+   * @param eventCount number of events sent in the request
+   */
+  synchronized void onResponse(
+      @Nullable Integer statusCode,
+      boolean success,
+      long latencyMillis,
+      long payloadBytes,
+      int eventCount) {
+    if (statusCode != null
+        && (statusCode == SERVICE_UNAVAILABLE || statusCode == TOO_MANY_REQUESTS)) {
+      batchCount = clamp(batchCount / 2);
+    } else if (!success) {
+      // Other failures say nothing about the batch size.
+      return;
+    } else if (latencyMillis > TARGET_LATENCY_MS || payloadBytes > TARGET_PAYLOAD_BYTES) {
+      batchCount = clamp(batchCount - Math.max(1, batchCount / 4));
+    } else if (eventCount >= batchCount) {
+      // Only full batches show that a larger batch would have been used.
+      batchCount = clamp(batchCount + Math.max(1, batchCount / 10));
+    }
+  }
+
+  private int clamp(int value) {
+    return Math.max(minBatchCount, Math.min(maxBatchCount, value));
+  }
+}
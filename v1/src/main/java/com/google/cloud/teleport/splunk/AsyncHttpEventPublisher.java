@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.splunk;
+
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link AsyncHttpEventPublisher} publishes batches of {@link SplunkEvent}s to Splunk's Http Event
+ * Collector (HEC) without blocking the caller on the round trip.
+ *
+ * <p>An instance is shared by all the {@link SplunkEventWriter}s of a worker that use the same
+ * configuration, so that the pooled HEC connections are reused across keys and at most {@code
+ * maxInFlightRequests} requests are in flight per worker. {@link #publish(List)} blocks while that
+ * many requests are in flight, which pushes back on the writers when HEC is slow.
+ *
+ * <p>The shared {@link AdaptiveBatchSizer} is updated with the outcome of every request.
+ */
+class AsyncHttpEventPublisher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncHttpEventPublisher.class);
+
+  private static final Map<String, AsyncHttpEventPublisher> SHARED_PUBLISHERS = new HashMap<>();
+
+  /** Creates the {@link HttpEventPublisher} wrapped by a new {@link AsyncHttpEventPublisher}. */
+  interface PublisherFactory {
+    HttpEventPublisher create(int maxConnections) throws GeneralSecurityException, IOException;
+  }
+
+  private final String key;
+  private final HttpEventPublisher publisher;
+  private final AdaptiveBatchSizer batchSizer;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final AtomicInteger inFlightRequests = new AtomicInteger();
+  private int references;
+
+  private AsyncHttpEventPublisher(
+      String key,
+      HttpEventPublisher publisher,
+      AdaptiveBatchSizer batchSizer,
+      int maxInFlightRequests) {
+    this.key = key;
+    this.publisher = publisher;
+    this.batchSizer = batchSizer;
+    this.executor = Executors.newFixedThreadPool(maxInFlightRequests);
+    this.permits = new Semaphore(maxInFlightRequests);
+  }
+
+  /**
+   * Returns the publisher shared under {@code key}, creating it if needed. Every call must be
+   * matched by a call to {@link #release()}.
+   *
+   * @param key identifies the configuration of the publisher, must include all the settings
+   * @param maxInFlightRequests max number of concurrent requests
+   * @param batchSizer sizer used if a new publisher is created
+   * @param factory factory used if a new publisher is created
+   * @return {@link AsyncHttpEventPublisher}
+   */
+  static AsyncHttpEventPublisher acquire(
+      String key, int maxInFlightRequests, AdaptiveBatchSizer batchSizer, PublisherFactory factory)
+      throws GeneralSecurityException, IOException {
+    synchronized (SHARED_PUBLISHERS) {
+      AsyncHttpEventPublisher shared = SHARED_PUBLISHERS.get(key);
+      if (shared == null) {
+        shared =
+            new AsyncHttpEventPublisher(
+                key, factory.create(maxInFlightRequests), batchSizer, maxInFlightRequests);
+        SHARED_PUBLISHERS.put(key, shared);
+        LOG.info("Created HEC publisher with {} max in-flight requests", maxInFlightRequests);
+      }
+      shared.references++;
+      return shared;
+    }
+  }
+
+  /** Releases the publisher, closing it once it is no longer used by any writer. */
+  void release() throws IOException {
+    synchronized (SHARED_PUBLISHERS) {
+      if (--references > 0) {
+        return;
+      }
+      SHARED_PUBLISHERS.remove(key);
+    }
+    executor.shutdown();
+    publisher.close();
+  }
+
+  /** Returns the number of events that should be sent in the next request. */
+  int batchCount() {
+    return batchSizer.batchCount();
+  }
+
+  /** Returns the number of requests currently in flight. */
+  int inFlightRequests() {
+    return inFlightRequests.get();
+  }
+
+  /**
+   * Sends the events to HEC, blocking while the max number of requests are already in flight.
+   *
+   * @param events events to send
+   * @return future completed with the {@link PublishResult} of the request
+   */
+  CompletableFuture<PublishResult> publish(List<SplunkEvent> events) throws InterruptedException {
+    permits.acquire();
+    inFlightRequests.incrementAndGet();
+    try {
+      return CompletableFuture.supplyAsync(() -> send(events), executor)
+          .whenComplete(
+              (result, throwable) -> {
+                inFlightRequests.decrementAndGet();
+                permits.release();
+              });
+    } catch (RejectedExecutionException e) {
+      inFlightRequests.decrementAndGet();
+      permits.release();
+      throw e;
+    }
+  }
+
+  private PublishResult send(List<SplunkEvent> events) {
+    String payload = publisher.getStringPayload(events);
+    long startTime = System.nanoTime();
+    HttpResponse response = null;
+    PublishResult result;
+    try {
+      // Important to close this response to avoid connection leak.
+      response = publisher.executeStringPayload(payload);
+      if (response.isSuccessStatusCode()) {
+        result = PublishResult.success(events, response.getStatusCode(), elapsedMillis(startTime));
+      } else {
+        result =
+            PublishResult.failure(
+                events,
+                response.getStatusCode(),
+                response.parseAsString(),
+                response.getStatusMessage(),
+                elapsedMillis(startTime));
+      }
+    } catch (HttpResponseException e) {
+      result =
+          PublishResult.failure(
+              events,
+              e.getStatusCode(),
+              e.getContent(),
+              e.getStatusMessage(),
+              elapsedMillis(startTime));
+    } catch (IOException ioe) {
+      result =
+          PublishResult.failure(
+              events, null, ioe.toString(), ioe.toString(), elapsedMillis(startTime));
+    } finally {
+      // Errors releasing the connection are ignored, the events were either published or are
+      // reported as failed. See SplunkEventWriter for details.
+      try {
+        if (response != null) {
+          response.ignore();
+        }
+      } catch (IOException e) {
+        LOG.warn(
+            "Error ignoring response from Splunk. Messages should still have published, but there"
+                + " might be a connection leak.",
+            e);
+      }
+    }
+    batchSizer.onResponse(
+        result.statusCode(),
+        result.isSuccess(),
+        result.latencyMillis(),
+        payload.length(),
+        events.size());
+    return result;
+  }
+
+  private static long elapsedMillis(long startNanos) {
+    return Math.round(((double) (System.nanoTime() - startNanos)) / 1e6);
+  }
+
+  /** Outcome of a request sent by {@link AsyncHttpEventPublisher}. */
+  static final class PublishResult {
+
+    private final List<SplunkEvent> events;
+    private final boolean success;
+    @Nullable private final Integer statusCode;
+    @Nullable private final String content;
+    @Nullable private final String statusMessage;
+    private final long latencyMillis;
+
+    private PublishResult(
+        List<SplunkEvent> events,
+        boolean success,
+        @Nullable Integer statusCode,
+        @Nullable String content,
+        @Nullable String statusMessage,
+        long latencyMillis) {
+      this.events = events;
+      this.success = success;
+      this.statusCode = statusCode;
+      this.content = content;
+      this.statusMessage = statusMessage;
+      this.latencyMillis = latencyMillis;
+    }
+
+    static PublishResult success(List<SplunkEvent> events, int statusCode, long latencyMillis) {
+      return new PublishResult(events, true, statusCode, null, null, latencyMillis);
+    }
+
+    static PublishResult failure(
+        List<SplunkEvent> events,
+        @Nullable Integer statusCode,
+        @Nullable String content,
+        @Nullable String statusMessage,
+        long latencyMillis) {
+      return new PublishResult(events, false, statusCode, content, statusMessage, latencyMillis);
+    }
+
+    List<SplunkEvent> events() {
+      return events;
+    }
+
+    boolean isSuccess() {
+      return success;
+    }
+
+    @Nullable
+    Integer statusCode() {
+      return statusCode;
+    }
+
+    @Nullable
+    String content() {
+      return content;
+    }
+
+    @Nullable
+    String statusMessage() {
+      return statusMessage;
+    }
+
+    long latencyMillis() {
+      return latencyMillis;
+    }
+  }
+}
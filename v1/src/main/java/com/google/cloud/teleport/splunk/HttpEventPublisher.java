@@ -114,6 +114,9 @@ public abstract class HttpEventPublisher {
 
   abstract Boolean enableGzipHttpCompression();
 
+  @Nullable
+  abstract Integer maxConnections();
+
   /**
    * Executes a POST for the list of {@link SplunkEvent} objects into Splunk's Http Event Collector
    * endpoint.
@@ -122,8 +125,22 @@ public abstract class HttpEventPublisher {
    * @return {@link HttpResponse} for the POST.
    */
   public HttpResponse execute(List<SplunkEvent> events) throws IOException {
+    return execute(getContent(events));
+  }
+
+  /**
+   * Same as {@link HttpEventPublisher#execute(List)} but with a payload that was already built
+   * through {@link HttpEventPublisher#getStringPayload(List)}.
+   *
+   * @param payload payload of the POST.
+   * @return {@link HttpResponse} for the POST.
+   */
+  HttpResponse executeStringPayload(String payload) throws IOException {
+    LOG.debug("Payload content: {}", payload);
+    return execute(ByteArrayContent.fromString(CONTENT_TYPE, payload));
+  }
 
-    HttpContent content = getContent(events);
+  private HttpResponse execute(HttpContent content) throws IOException {
     HttpRequest request = requestFactory().buildPostRequest(genericUrl(), content);
 
     if (enableGzipHttpCompression()) {
@@ -239,6 +256,10 @@ public abstract class HttpEventPublisher {
 
     abstract Integer maxElapsedMillis();
 
+    abstract Builder setMaxConnections(Integer maxConnections);
+
+    abstract Integer maxConnections();
+
     abstract HttpEventPublisher autoBuild();
 
     /**
@@ -314,6 +335,18 @@ public abstract class HttpEventPublisher {
       return setMaxElapsedMillis(maxElapsedMillis);
     }
 
+    /**
+     * Method to set the max number of pooled connections to HEC, i.e. the max number of requests
+     * that can be executed concurrently. Defaults to {@value DEFAULT_MAX_CONNECTIONS}.
+     *
+     * @param maxConnections max number of connections.
+     * @return {@link Builder}
+     */
+    public Builder withMaxConnections(Integer maxConnections) {
+      checkNotNull(maxConnections, "withMaxConnections(maxConnections) called with null input.");
+      return setMaxConnections(maxConnections);
+    }
+
     /**
      * Validates and builds a {@link HttpEventPublisher} object.
      *
@@ -341,9 +374,12 @@ public abstract class HttpEventPublisher {
         setMaxElapsedMillis(ExponentialBackOff.DEFAULT_MAX_ELAPSED_TIME_MILLIS);
       }
 
+      if (maxConnections() == null) {
+        setMaxConnections(DEFAULT_MAX_CONNECTIONS);
+      }
+
       CloseableHttpClient httpClient =
-          getHttpClient(
-              DEFAULT_MAX_CONNECTIONS, disableCertificateValidation(), rootCaCertificate());
+          getHttpClient(maxConnections(), disableCertificateValidation(), rootCaCertificate());
 
       setTransport(new ApacheHttpTransport(httpClient));
       setRequestFactory(transport().createRequestFactory());
@@ -410,6 +446,7 @@ public abstract class HttpEventPublisher {
       }
 
       builder.setMaxConnTotal(maxConnections);
+      builder.setMaxConnPerRoute(maxConnections);
       builder.setDefaultRequestConfig(
           RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build());
 
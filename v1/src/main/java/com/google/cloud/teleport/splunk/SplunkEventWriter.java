@@ -18,23 +18,26 @@ package com.google.cloud.teleport.splunk;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.api.client.http.HttpResponse;
-import com.google.api.client.http.HttpResponseException;
 import com.google.auto.value.AutoValue;
+import com.google.cloud.teleport.splunk.AsyncHttpEventPublisher.PublishResult;
 import com.google.cloud.teleport.util.GCSUtils;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.google.common.net.InetAddresses;
 import com.google.common.net.InternetDomainName;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import java.io.IOException;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.CertificateException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
@@ -54,6 +57,7 @@ import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.KV;
 import org.joda.time.Duration;
+import org.joda.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,6 +69,9 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   private static final Boolean DEFAULT_DISABLE_CERTIFICATE_VALIDATION = false;
   private static final Boolean DEFAULT_ENABLE_BATCH_LOGS = true;
   private static final Boolean DEFAULT_ENABLE_GZIP_HTTP_COMPRESSION = true;
+  private static final Integer DEFAULT_MAX_IN_FLIGHT_REQUESTS = 1;
+  private static final Boolean DEFAULT_ENABLE_ADAPTIVE_BATCH_COUNT = false;
+  private static final int MAX_ADAPTIVE_BATCH_COUNT_FACTOR = 10;
   private static final Logger LOG = LoggerFactory.getLogger(SplunkEventWriter.class);
   private static final long DEFAULT_FLUSH_DELAY = 2;
   private static final Counter INPUT_COUNTER =
@@ -85,6 +92,10 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       Metrics.distribution(SplunkEventWriter.class, "unsuccessful_write_to_splunk_latency_ms");
   private static final Distribution SUCCESSFUL_WRITE_BATCH_SIZE =
       Metrics.distribution(SplunkEventWriter.class, "write_to_splunk_batch");
+  private static final Distribution IN_FLIGHT_REQUESTS =
+      Metrics.distribution(SplunkEventWriter.class, "in_flight_requests_to_splunk");
+  private static final Distribution BATCH_COUNT =
+      Metrics.distribution(SplunkEventWriter.class, "adaptive_batch_count");
   private static final String BUFFER_STATE_NAME = "buffer";
   private static final String COUNT_STATE_NAME = "count";
   private static final String TIME_ID_NAME = "expiry";
@@ -108,7 +119,10 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   private Boolean disableValidation;
   private Boolean enableBatchLogs;
   private Boolean enableGzipHttpCompression;
-  private HttpEventPublisher publisher;
+  private Integer maxInFlightRequests;
+  private Boolean enableAdaptiveBatchCount;
+  private AsyncHttpEventPublisher publisher;
+  private Deque<PendingWrite> pendingWrites;
 
   private static final Gson GSON =
       new GsonBuilder().setFieldNamingStrategy(f -> f.getName().toLowerCase()).create();
@@ -138,6 +152,12 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   @Nullable
   abstract ValueProvider<Integer> inputBatchCount();
 
+  @Nullable
+  abstract ValueProvider<Integer> inputMaxInFlightRequests();
+
+  @Nullable
+  abstract ValueProvider<Boolean> enableAdaptiveBatchCount();
+
   @Setup
   public void setup() {
 
@@ -177,6 +197,29 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       LOG.info("Enable gzip http compression set to: {}", enableGzipHttpCompression);
     }
 
+    if (maxInFlightRequests == null) {
+
+      if (inputMaxInFlightRequests() != null) {
+        maxInFlightRequests = inputMaxInFlightRequests().get();
+      }
+
+      maxInFlightRequests =
+          MoreObjects.firstNonNull(maxInFlightRequests, DEFAULT_MAX_IN_FLIGHT_REQUESTS);
+      checkArgument(maxInFlightRequests > 0, "maxInFlightRequests must be greater than 0.");
+      LOG.info("Max in-flight requests set to: {}", maxInFlightRequests);
+    }
+
+    if (enableAdaptiveBatchCount == null) {
+
+      if (enableAdaptiveBatchCount() != null) {
+        enableAdaptiveBatchCount = enableAdaptiveBatchCount().get();
+      }
+
+      enableAdaptiveBatchCount =
+          MoreObjects.firstNonNull(enableAdaptiveBatchCount, DEFAULT_ENABLE_ADAPTIVE_BATCH_COUNT);
+      LOG.info("Enable adaptive batch count set to: {}", enableAdaptiveBatchCount);
+    }
+
     // Either user supplied or default disableValidation.
     if (disableValidation == null) {
 
@@ -189,26 +232,50 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       LOG.info("Disable certificate validation set to: {}", disableValidation);
     }
 
-    try {
-      HttpEventPublisher.Builder builder =
-          HttpEventPublisher.newBuilder()
-              .withUrl(url().get())
-              .withToken(token().get())
-              .withDisableCertificateValidation(disableValidation)
-              .withEnableGzipHttpCompression(enableGzipHttpCompression);
-
-      if (rootCaCertificatePath() != null && rootCaCertificatePath().get() != null) {
-        builder.withRootCaCertificate(GCSUtils.getGcsFileAsBytes(rootCaCertificatePath().get()));
-      }
+    pendingWrites = new ArrayDeque<>();
+    String rootCaPath = rootCaCertificatePath() == null ? null : rootCaCertificatePath().get();
+    AdaptiveBatchSizer batchSizer =
+        enableAdaptiveBatchCount
+            ? new AdaptiveBatchSizer(
+                batchCount, 1, Math.max(batchCount, batchCount * MAX_ADAPTIVE_BATCH_COUNT_FACTOR))
+            : AdaptiveBatchSizer.fixed(batchCount);
+    // Writers of a worker with the same settings share their publisher, and its connections.
+    String publisherKey =
+        String.join(
+            "|",
+            url().get(),
+            token().get(),
+            String.valueOf(rootCaPath),
+            String.valueOf(disableValidation),
+            String.valueOf(enableGzipHttpCompression),
+            String.valueOf(maxInFlightRequests),
+            String.valueOf(batchCount),
+            String.valueOf(enableAdaptiveBatchCount));
 
-      publisher = builder.build();
+    try {
+      publisher =
+          AsyncHttpEventPublisher.acquire(
+              publisherKey,
+              maxInFlightRequests,
+              batchSizer,
+              maxConnections -> {
+                HttpEventPublisher.Builder builder =
+                    HttpEventPublisher.newBuilder()
+                        .withUrl(url().get())
+                        .withToken(token().get())
+                        .withDisableCertificateValidation(disableValidation)
+                        .withEnableGzipHttpCompression(enableGzipHttpCompression)
+                        .withMaxConnections(maxConnections);
+
+                if (rootCaPath != null) {
+                  builder.withRootCaCertificate(GCSUtils.getGcsFileAsBytes(rootCaPath));
+                }
+
+                return builder.build();
+              });
       LOG.info("Successfully created HttpEventPublisher");
 
-    } catch (CertificateException
-        | NoSuchAlgorithmException
-        | KeyStoreException
-        | KeyManagementException
-        | IOException e) {
+    } catch (GeneralSecurityException | IOException e) {
       LOG.error("Error creating HttpEventPublisher: {}", e.getMessage());
       throw new RuntimeException(e);
     }
@@ -217,12 +284,11 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   @ProcessElement
   public void processElement(
       @Element KV<Integer, SplunkEvent> input,
-      OutputReceiver<SplunkWriteError> receiver,
+      @Timestamp Instant timestamp,
       BoundedWindow window,
       @StateId(BUFFER_STATE_NAME) BagState<SplunkEvent> bufferState,
       @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
-      @TimerId(TIME_ID_NAME) Timer timer)
-      throws IOException {
+      @TimerId(TIME_ID_NAME) Timer timer) {
 
     Long count = MoreObjects.<Long>firstNonNull(countState.read(), 0L);
     SplunkEvent event = input.getValue();
@@ -232,26 +298,52 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
     countState.write(count);
     timer.offset(Duration.standardSeconds(DEFAULT_FLUSH_DELAY)).setRelative();
 
-    if (count >= batchCount) {
+    if (count >= publisher.batchCount()) {
       if (enableBatchLogs) {
         LOG.info("Flushing batch of {} events", count);
       }
-      flush(receiver, bufferState, countState);
+      flush(bufferState, countState, timestamp, window);
     }
   }
 
   @OnTimer(TIME_ID_NAME)
   public void onExpiry(
-      OutputReceiver<SplunkWriteError> receiver,
+      @Timestamp Instant timestamp,
+      BoundedWindow window,
       @StateId(BUFFER_STATE_NAME) BagState<SplunkEvent> bufferState,
-      @StateId(COUNT_STATE_NAME) ValueState<Long> countState)
-      throws IOException {
+      @StateId(COUNT_STATE_NAME) ValueState<Long> countState) {
 
     if (MoreObjects.<Long>firstNonNull(countState.read(), 0L) > 0) {
       if (enableBatchLogs) {
         LOG.info("Flushing window with {} events", countState.read());
       }
-      flush(receiver, bufferState, countState);
+      flush(bufferState, countState, timestamp, window);
+    }
+  }
+
+  /**
+   * Waits for the requests of the bundle that are still in flight and outputs the {@link
+   * SplunkWriteError}s of the failed ones. The bundle does not complete before every event has
+   * either been written or been output as an error.
+   */
+  @FinishBundle
+  public void finishBundle(FinishBundleContext context) {
+    while (!pendingWrites.isEmpty()) {
+      PendingWrite pendingWrite = pendingWrites.poll();
+      PublishResult result;
+      try {
+        result = pendingWrite.result.join();
+      } catch (CompletionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new RuntimeException(e.getCause());
+      }
+      handleResult(result);
+      if (!result.isSuccess()) {
+        for (SplunkWriteError error :
+            toWriteErrors(result.events(), result.statusMessage(), result.statusCode())) {
+          context.output(error, pendingWrite.timestamp, pendingWrite.window);
+        }
+      }
     }
   }
 
@@ -259,8 +351,9 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   public void tearDown() {
     if (this.publisher != null) {
       try {
-        this.publisher.close();
-        LOG.info("Successfully closed HttpEventPublisher");
+        this.publisher.release();
+        this.publisher = null;
+        LOG.info("Successfully released HttpEventPublisher");
 
       } catch (IOException e) {
         LOG.warn("Received exception while closing HttpEventPublisher: {}", e.getMessage());
@@ -269,108 +362,92 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   }
 
   /**
-   * Utility method to flush a batch of events via {@link HttpEventPublisher}.
-   *
-   * @param receiver Receiver to write {@link SplunkWriteError}s to
+   * Utility method to flush a batch of events via {@link AsyncHttpEventPublisher}. The request is
+   * sent asynchronously, its outcome is handled in a later flush or in {@link #finishBundle}.
    */
   private void flush(
-      OutputReceiver<SplunkWriteError> receiver,
       @StateId(BUFFER_STATE_NAME) BagState<SplunkEvent> bufferState,
-      @StateId(COUNT_STATE_NAME) ValueState<Long> countState)
-      throws IOException {
+      @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
+      Instant timestamp,
+      BoundedWindow window) {
 
     if (!bufferState.isEmpty().read()) {
-
-      HttpResponse response = null;
       List<SplunkEvent> events = Lists.newArrayList(bufferState.read());
-      long startTime = System.nanoTime();
+
+      // States are cleared regardless of write success or failure since we
+      // write failed events to an output PCollection.
+      bufferState.clear();
+      countState.clear();
+
+      CompletableFuture<PublishResult> result;
       try {
-        // Important to close this response to avoid connection leak.
-        response = publisher.execute(events);
-        if (!response.isSuccessStatusCode()) {
-          UNSUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
-          FAILED_WRITES.inc(countState.read());
-          int statusCode = response.getStatusCode();
-          if (statusCode >= 400 && statusCode < 500) {
-            INVALID_REQUESTS.inc();
-          } else if (statusCode >= 500 && statusCode < 600) {
-            SERVER_ERROR_REQUESTS.inc();
-          }
-
-          logWriteFailures(
-              countState,
-              response.getStatusCode(),
-              response.parseAsString(),
-              response.getStatusMessage());
-          flushWriteFailures(
-              events, response.getStatusMessage(), response.getStatusCode(), receiver);
-
-        } else {
-          SUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
-          SUCCESS_WRITES.inc(countState.read());
-          VALID_REQUESTS.inc();
-          SUCCESSFUL_WRITE_BATCH_SIZE.update(countState.read());
-
-          if (enableBatchLogs) {
-            LOG.info("Successfully wrote {} events", countState.read());
-          }
-        }
+        result = publisher.publish(events);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting to write events to Splunk", e);
+      }
+      IN_FLIGHT_REQUESTS.update(publisher.inFlightRequests());
+      BATCH_COUNT.update(publisher.batchCount());
+      pendingWrites.add(new PendingWrite(result, timestamp, window));
+      handleCompletedWrites();
+    }
+  }
 
-      } catch (HttpResponseException e) {
-        UNSUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
-        FAILED_WRITES.inc(countState.read());
-        int statusCode = e.getStatusCode();
-        if (statusCode >= 400 && statusCode < 500) {
-          INVALID_REQUESTS.inc();
-        } else if (statusCode >= 500 && statusCode < 600) {
-          SERVER_ERROR_REQUESTS.inc();
-        }
+  /**
+   * Handles the requests that already completed. Only the failed ones are kept until {@link
+   * #finishBundle} to output their errors.
+   */
+  private void handleCompletedWrites() {
+    Iterator<PendingWrite> iterator = pendingWrites.iterator();
+    while (iterator.hasNext()) {
+      PendingWrite pendingWrite = iterator.next();
+      if (!pendingWrite.result.isDone() || pendingWrite.result.isCompletedExceptionally()) {
+        continue;
+      }
+      PublishResult result = pendingWrite.result.getNow(null);
+      if (result.isSuccess()) {
+        handleResult(result);
+        iterator.remove();
+      }
+    }
+  }
 
-        logWriteFailures(countState, e.getStatusCode(), e.getContent(), e.getStatusMessage());
-        flushWriteFailures(events, e.getStatusMessage(), e.getStatusCode(), receiver);
-
-      } catch (IOException ioe) {
-        UNSUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
-        FAILED_WRITES.inc(countState.read());
-        INVALID_REQUESTS.inc();
-
-        logWriteFailures(countState, 0, ioe.toString(), null);
-        flushWriteFailures(events, ioe.toString(), null, receiver);
-
-      } finally {
-        // States are cleared regardless of write success or failure since we
-        // write failed events to an output PCollection.
-        bufferState.clear();
-        countState.clear();
-
-        // We've observed cases where errors at this point can cause the pipeline to keep retrying
-        // the same events over and over (e.g. from Dataflow Runner's Pub/Sub implementation). Since
-        // the events have either been published or wrapped for error handling, we can safely
-        // ignore this error, though there may or may not be a leak of some type depending on
-        // HttpResponse's implementation. However, any potential leak would still happen if we let
-        // the exception fall through, so this isn't considered a major issue.
-        try {
-          if (response != null) {
-            response.ignore();
-          }
-        } catch (IOException e) {
-          LOG.warn(
-              "Error ignoring response from Splunk. Messages should still have published, but there"
-                  + " might be a connection leak.",
-              e);
-        }
+  /** Utility method to update the metrics and log the outcome of a request. */
+  private void handleResult(PublishResult result) {
+    int eventCount = result.events().size();
+    if (result.isSuccess()) {
+      SUCCESSFUL_WRITE_LATENCY_MS.update(result.latencyMillis());
+      SUCCESS_WRITES.inc(eventCount);
+      VALID_REQUESTS.inc();
+      SUCCESSFUL_WRITE_BATCH_SIZE.update(eventCount);
+
+      if (enableBatchLogs) {
+        LOG.info("Successfully wrote {} events", eventCount);
       }
+      return;
     }
+
+    UNSUCCESSFUL_WRITE_LATENCY_MS.update(result.latencyMillis());
+    FAILED_WRITES.inc(eventCount);
+    Integer statusCode = result.statusCode();
+    if (statusCode == null || (statusCode >= 400 && statusCode < 500)) {
+      INVALID_REQUESTS.inc();
+    } else if (statusCode >= 500 && statusCode < 600) {
+      SERVER_ERROR_REQUESTS.inc();
+    }
+
+    logWriteFailures(
+        eventCount,
+        MoreObjects.firstNonNull(statusCode, 0),
+        result.content(),
+        statusCode == null ? null : result.statusMessage());
   }
 
   /** Utility method to log write failures. */
   private void logWriteFailures(
-      @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
-      int statusCode,
-      String content,
-      String statusMessage) {
+      int eventCount, int statusCode, String content, String statusMessage) {
     if (enableBatchLogs) {
-      LOG.error("Failed to write {} events", countState.read());
+      LOG.error("Failed to write {} events", eventCount);
     }
     LOG.error(
         "Error writing to Splunk. StatusCode: {}, content: {}, StatusMessage: {}",
@@ -380,18 +457,15 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   }
 
   /**
-   * Utility method to un-batch and flush failed write events.
+   * Utility method to un-batch failed write events.
    *
    * @param events List of {@link SplunkEvent}s to un-batch
    * @param statusMessage Status message to be added to {@link SplunkWriteError}
    * @param statusCode Status code to be added to {@link SplunkWriteError}
-   * @param receiver Receiver to write {@link SplunkWriteError}s to
+   * @return one {@link SplunkWriteError} per event
    */
-  private static void flushWriteFailures(
-      List<SplunkEvent> events,
-      String statusMessage,
-      Integer statusCode,
-      OutputReceiver<SplunkWriteError> receiver) {
+  private static List<SplunkWriteError> toWriteErrors(
+      List<SplunkEvent> events, String statusMessage, Integer statusCode) {
 
     checkNotNull(events, "SplunkEvents cannot be null.");
 
@@ -405,12 +479,12 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       builder.withStatusCode(statusCode);
     }
 
+    List<SplunkWriteError> errors = new ArrayList<>(events.size());
     for (SplunkEvent event : events) {
       String payload = GSON.toJson(event);
-      SplunkWriteError error = builder.withPayload(payload).build();
-
-      receiver.output(error);
+      errors.add(builder.withPayload(payload).build());
     }
+    return errors;
   }
 
   /**
@@ -428,14 +502,17 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
     return false;
   }
 
-  /**
-   * Converts Nanoseconds to Milliseconds.
-   *
-   * @param ns time in nanoseconds
-   * @return time in milliseconds
-   */
-  private static long nanosToMillis(long ns) {
-    return Math.round(((double) ns) / 1e6);
+  /** A request sent by a flush, with the window and timestamp to output its errors in. */
+  private static class PendingWrite {
+    private final CompletableFuture<PublishResult> result;
+    private final Instant timestamp;
+    private final BoundedWindow window;
+
+    PendingWrite(CompletableFuture<PublishResult> result, Instant timestamp, BoundedWindow window) {
+      this.result = result;
+      this.timestamp = timestamp;
+      this.window = window;
+    }
   }
 
   @AutoValue.Builder
@@ -460,6 +537,10 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
 
     abstract Builder setInputBatchCount(ValueProvider<Integer> inputBatchCount);
 
+    abstract Builder setInputMaxInFlightRequests(ValueProvider<Integer> inputMaxInFlightRequests);
+
+    abstract Builder setEnableAdaptiveBatchCount(ValueProvider<Boolean> enableAdaptiveBatchCount);
+
     abstract SplunkEventWriter autoBuild();
 
     /**
@@ -520,6 +601,27 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       return setInputBatchCount(inputBatchCount);
     }
 
+    /**
+     * Method to set the max number of requests in flight to HEC per worker.
+     *
+     * @param inputMaxInFlightRequests max number of concurrent post requests.
+     * @return {@link Builder}
+     */
+    public Builder withInputMaxInFlightRequests(ValueProvider<Integer> inputMaxInFlightRequests) {
+      return setInputMaxInFlightRequests(inputMaxInFlightRequests);
+    }
+
+    /**
+     * Method to adapt the batch count to the latency, payload size and back-pressure of HEC, up to
+     * 10 times the input batch count.
+     *
+     * @param enableAdaptiveBatchCount for enabling the adaptive batch count.
+     * @return {@link Builder}
+     */
+    public Builder withEnableAdaptiveBatchCount(ValueProvider<Boolean> enableAdaptiveBatchCount) {
+      return setEnableAdaptiveBatchCount(enableAdaptiveBatchCount);
+    }
+
     /**
      * Method to disable certificate validation.
      *
@@ -81,6 +81,12 @@ public class SplunkIO {
     @Nullable
     abstract ValueProvider<Boolean> enableGzipHttpCompression();
 
+    @Nullable
+    abstract ValueProvider<Integer> maxInFlightRequests();
+
+    @Nullable
+    abstract ValueProvider<Boolean> enableAdaptiveBatchCount();
+
     @Override
     public PCollection<SplunkWriteError> expand(PCollection<SplunkEvent> input) {
 
@@ -93,7 +99,9 @@ public class SplunkIO {
               .withToken((token()))
               .withRootCaCertificatePath(rootCaCertificatePath())
               .withEnableBatchLogs(enableBatchLogs())
-              .withEnableGzipHttpCompression(enableGzipHttpCompression());
+              .withEnableGzipHttpCompression(enableGzipHttpCompression())
+              .withInputMaxInFlightRequests(maxInFlightRequests())
+              .withEnableAdaptiveBatchCount(enableAdaptiveBatchCount());
 
       SplunkEventWriter writer = builder.build();
       LOG.info("SplunkEventWriter configured");
@@ -131,6 +139,10 @@ public class SplunkIO {
       abstract Builder setEnableGzipHttpCompression(
           ValueProvider<Boolean> enableGzipHttpCompression);
 
+      abstract Builder setMaxInFlightRequests(ValueProvider<Integer> maxInFlightRequests);
+
+      abstract Builder setEnableAdaptiveBatchCount(ValueProvider<Boolean> enableAdaptiveBatchCount);
+
       abstract Write autoBuild();
 
       /**
@@ -323,6 +335,52 @@ public class SplunkIO {
             ValueProvider.StaticValueProvider.of(enableGzipHttpCompression));
       }
 
+      /**
+       * Method to set the max number of requests in flight to HEC per worker.
+       *
+       * @param maxInFlightRequests max number of concurrent post requests.
+       * @return {@link Builder}
+       */
+      public Builder withMaxInFlightRequests(ValueProvider<Integer> maxInFlightRequests) {
+        return setMaxInFlightRequests(maxInFlightRequests);
+      }
+
+      /**
+       * Same as {@link Builder#withMaxInFlightRequests(ValueProvider)} but without a {@link
+       * ValueProvider}.
+       *
+       * @param maxInFlightRequests max number of concurrent post requests.
+       * @return {@link Builder}
+       */
+      public Builder withMaxInFlightRequests(Integer maxInFlightRequests) {
+        checkArgument(
+            maxInFlightRequests != null,
+            "withMaxInFlightRequests(maxInFlightRequests) called with null input.");
+        return setMaxInFlightRequests(ValueProvider.StaticValueProvider.of(maxInFlightRequests));
+      }
+
+      /**
+       * Method to adapt the batch count to the latency, payload size and back-pressure of HEC.
+       *
+       * @param enableAdaptiveBatchCount for enabling the adaptive batch count.
+       * @return {@link Builder}
+       */
+      public Builder withEnableAdaptiveBatchCount(ValueProvider<Boolean> enableAdaptiveBatchCount) {
+        return setEnableAdaptiveBatchCount(enableAdaptiveBatchCount);
+      }
+
+      /**
+       * Same as {@link Builder#withEnableAdaptiveBatchCount(ValueProvider)} but without a {@link
+       * ValueProvider}.
+       *
+       * @param enableAdaptiveBatchCount for enabling the adaptive batch count.
+       * @return {@link Builder}
+       */
+      public Builder withEnableAdaptiveBatchCount(Boolean enableAdaptiveBatchCount) {
+        return setEnableAdaptiveBatchCount(
+            ValueProvider.StaticValueProvider.of(enableAdaptiveBatchCount));
+      }
+
       public Write build() {
         checkNotNull(url(), "HEC url is required.");
         checkNotNull(token(), "Authorization token is required.");
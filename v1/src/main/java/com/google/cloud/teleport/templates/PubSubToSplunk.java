@@ -252,6 +252,8 @@ public class PubSubToSplunk {
                     .withRootCaCertificatePath(options.getRootCaCertificatePath())
                     .withEnableBatchLogs(options.getEnableBatchLogs())
                     .withEnableGzipHttpCompression(options.getEnableGzipHttpCompression())
+                    .withMaxInFlightRequests(options.getMaxInFlightRequests())
+                    .withEnableAdaptiveBatchCount(options.getEnableAdaptiveBatchCount())
                     .build());
 
     // 5a) Wrap write failures into a FailsafeElement.
@@ -34,7 +34,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -48,6 +53,7 @@ import org.apache.beam.sdk.io.fs.MatchResult;
 import org.apache.beam.sdk.io.fs.MatchResult.Metadata;
 import org.apache.beam.sdk.io.fs.MatchResult.Status;
 import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.options.Default;
 import org.apache.beam.sdk.options.PipelineOptions;
@@ -133,12 +139,18 @@ public abstract class JavascriptTextTransformer {
     @Nullable
     public abstract Integer reloadIntervalMinutes();
 
-    private static LoadingCache<JavascriptRuntime, Invocable> cache =
+    private static final Distribution JAVASCRIPT_UDF_WAIT_TIME_US =
+        Metrics.distribution(JavascriptTextTransformer.class, "javascript_udf_wait_time_us");
+
+    private static final Distribution JAVASCRIPT_UDF_EXECUTION_TIME_US =
+        Metrics.distribution(JavascriptTextTransformer.class, "javascript_udf_execution_time_us");
+
+    private static LoadingCache<JavascriptRuntime, InvocablePool> cache =
         Caffeine.newBuilder()
             .expireAfter(
-                new Expiry<JavascriptRuntime, Invocable>() {
+                new Expiry<JavascriptRuntime, InvocablePool>() {
                   public long expireAfterCreate(
-                      JavascriptRuntime runtime, Invocable invocable, long currentTime) {
+                      JavascriptRuntime runtime, InvocablePool pool, long currentTime) {
                     // Do not expire if reload is disabled
                     if (runtime.reloadIntervalMinutes() == null
                         || runtime.reloadIntervalMinutes() <= 0) {
@@ -149,7 +161,7 @@ public abstract class JavascriptTextTransformer {
 
                   public long expireAfterUpdate(
                       JavascriptRuntime runtime,
-                      Invocable invocable,
+                      InvocablePool pool,
                       long currentTime,
                       long currentDuration) {
                     return currentDuration;
@@ -157,13 +169,13 @@ public abstract class JavascriptTextTransformer {
 
                   public long expireAfterRead(
                       JavascriptRuntime runtime,
-                      Invocable invocable,
+                      InvocablePool pool,
                       long currentTime,
                       long currentDuration) {
                     return currentDuration;
                   }
                 })
-            .build(runtime -> buildInvocable(runtime));
+            .build(runtime -> buildInvocablePool(runtime));
 
     /** Builder for {@link JavascriptTextTransformer}. */
     @AutoValue.Builder
@@ -187,18 +199,39 @@ public abstract class JavascriptTextTransformer {
     }
 
     /**
-     * Gets a cached Javascript Invocable, if fileSystemPath() not set, returns null.
+     * Borrows a Javascript Invocable from the pool of engines of the UDF, if fileSystemPath() not
+     * set, returns null.
+     *
+     * <p>The returned Invocable is used only by the caller, until the caller hands it back with
+     * {@link #releaseInvocable(Invocable)}. An Invocable that is not released is not reused.
      *
      * @return a Javascript Invocable or null
      */
     @Nullable
-    public Invocable getInvocable() {
+    public Invocable getInvocable() throws ScriptException {
 
       // return null if no UDF path specified.
       if (Strings.isNullOrEmpty(fileSystemPath())) {
         return null;
       }
-      return cache.get(this);
+      return cache.get(this).borrow();
+    }
+
+    /**
+     * Returns an Invocable borrowed with {@link #getInvocable()} to the pool of engines of the UDF.
+     * The Invocable must not be used by the caller afterwards.
+     *
+     * @param invocable the borrowed Invocable, ignored if null
+     */
+    public void releaseInvocable(@Nullable Invocable invocable) {
+      if (invocable == null || Strings.isNullOrEmpty(fileSystemPath())) {
+        return;
+      }
+      InvocablePool pool = cache.getIfPresent(this);
+      // Engines borrowed before the UDF was reloaded are dropped with their pool.
+      if (pool != null && pool.owns(invocable)) {
+        pool.release(invocable);
+      }
     }
 
     public static Invocable buildInvocable(JavascriptRuntime runtime)
@@ -208,6 +241,13 @@ public abstract class JavascriptTextTransformer {
       return newInvocable(scripts);
     }
 
+    private static InvocablePool buildInvocablePool(JavascriptRuntime runtime)
+        throws IOException, ScriptException {
+      // List of all scripts read from the filesystem
+      Collection<String> scripts = getScripts(runtime.fileSystemPath());
+      return new InvocablePool(scripts);
+    }
+
     /**
      * Factory method for making a new Invocable.
      *
@@ -253,14 +293,22 @@ public abstract class JavascriptTextTransformer {
      */
     @Nullable
     public String invoke(String data) throws ScriptException, IOException, NoSuchMethodException {
-      Invocable invocable = getInvocable();
-      if (invocable == null) {
+      if (Strings.isNullOrEmpty(fileSystemPath())) {
         throw new RuntimeException("No UDF was loaded");
       }
 
+      long startNanos = System.nanoTime();
+      InvocablePool pool = cache.get(this);
+      Invocable invocable = pool.borrow();
+      long borrowedNanos = System.nanoTime();
+      JAVASCRIPT_UDF_WAIT_TIME_US.update((borrowedNanos - startNanos) / 1000);
+
       Object result;
-      synchronized (invocable) {
+      try {
         result = invocable.invokeFunction(functionName(), data);
+      } finally {
+        pool.release(invocable);
+        JAVASCRIPT_UDF_EXECUTION_TIME_US.update((System.nanoTime() - borrowedNanos) / 1000);
       }
       if (result == null || ScriptObjectMirror.isUndefined(result)) {
         return null;
@@ -273,6 +321,46 @@ public abstract class JavascriptTextTransformer {
       }
     }
 
+    /**
+     * Pool of Javascript engines with the UDF scripts loaded. A Nashorn engine must not be used by
+     * multiple threads at once, so each invocation borrows an engine from the pool and returns it
+     * afterwards. Idle engines are kept in a lock-free queue and reused, so the scripts are only
+     * evaluated once per engine, and the pool grows up to the number of threads that invoke the UDF
+     * concurrently.
+     */
+    private static final class InvocablePool {
+      private final Collection<String> scripts;
+      private final Queue<Invocable> idleInvocables = new ConcurrentLinkedQueue<>();
+      // Engines created by the pool, weakly held as borrowed engines might never be released.
+      private final Set<Invocable> invocables =
+          Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+      private InvocablePool(Collection<String> scripts) throws ScriptException {
+        this.scripts = scripts;
+        // The first engine is loaded eagerly to surface script errors when the UDF is loaded.
+        idleInvocables.add(createInvocable());
+      }
+
+      private Invocable createInvocable() throws ScriptException {
+        Invocable invocable = newInvocable(scripts);
+        invocables.add(invocable);
+        return invocable;
+      }
+
+      private boolean owns(Invocable invocable) {
+        return invocables.contains(invocable);
+      }
+
+      private Invocable borrow() throws ScriptException {
+        Invocable invocable = idleInvocables.poll();
+        return (invocable != null) ? invocable : createInvocable();
+      }
+
+      private void release(Invocable invocable) {
+        idleInvocables.offer(invocable);
+      }
+    }
+
     /**
      * Loads into memory scripts from a File System from a given path. Supports any file system that
      * {@link FileSystems} supports.
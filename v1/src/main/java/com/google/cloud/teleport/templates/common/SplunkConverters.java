@@ -225,6 +225,27 @@ public class SplunkConverters {
     ValueProvider<Boolean> getEnableGzipHttpCompression();
 
     void setEnableGzipHttpCompression(ValueProvider<Boolean> enableGzipHttpCompression);
+
+    @TemplateParameter.Integer(
+        order = 13,
+        optional = true,
+        description = "Maximum number of in-flight requests per worker.",
+        helpText =
+            "The maximum number of requests to Splunk HEC that each worker sends concurrently, while it keeps batching new events. Default: `1`.")
+    ValueProvider<Integer> getMaxInFlightRequests();
+
+    void setMaxInFlightRequests(ValueProvider<Integer> maxInFlightRequests);
+
+    @TemplateParameter.Boolean(
+        order = 14,
+        optional = true,
+        description = "Enable adaptive batch count.",
+        helpText =
+            "Specifies whether the number of events per request should adapt to the latency and payload size of the requests, and to back-pressure (503 or 429) from Splunk HEC. The batch count then varies between 1 and 10 times `batchCount`. Default: `false`.")
+    @Default.Boolean(false)
+    ValueProvider<Boolean> getEnableAdaptiveBatchCount();
+
+    void setEnableAdaptiveBatchCount(ValueProvider<Boolean> enableAdaptiveBatchCount);
   }
 
   private static class FailsafeStringToSplunkEvent
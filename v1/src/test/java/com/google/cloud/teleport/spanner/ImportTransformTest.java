@@ -24,14 +24,19 @@ import com.google.cloud.teleport.spanner.ImportTransform.ReadExportManifestFile;
 import com.google.cloud.teleport.spanner.ImportTransform.ReadManifestFiles;
 import com.google.cloud.teleport.spanner.ImportTransform.ReadTableManifestFile;
 import com.google.cloud.teleport.spanner.ImportTransform.ValidateInputFiles;
+import com.google.cloud.teleport.spanner.ddl.Ddl;
 import com.google.cloud.teleport.spanner.proto.ExportProtos.Export;
 import com.google.cloud.teleport.spanner.proto.ExportProtos.TableManifest;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
@@ -313,4 +318,104 @@ public class ImportTransformTest {
             });
     pipeline.run();
   }
+
+  @Test
+  public void tablesPerSlot() {
+    Ddl ddl =
+        Ddl.builder()
+            .createTable("Users")
+            .column("id")
+            .int64()
+            .endColumn()
+            .primaryKey()
+            .asc("id")
+            .end()
+            .endTable()
+            .createTable("Account")
+            .column("id")
+            .int64()
+            .endColumn()
+            .primaryKey()
+            .asc("id")
+            .end()
+            .interleaveInParent("Users")
+            .endTable()
+            .createTable("Products")
+            .column("id")
+            .int64()
+            .endColumn()
+            .primaryKey()
+            .asc("id")
+            .end()
+            .endTable()
+            .createTable("Orders")
+            .column("id")
+            .int64()
+            .endColumn()
+            .primaryKey()
+            .asc("id")
+            .end()
+            .endTable()
+            .build();
+    HashMultimap<String, String> tableFiles = HashMultimap.create();
+    tableFiles.putAll("users", ImmutableList.of("users-1", "users-2"));
+    tableFiles.putAll("account", ImmutableList.of("account-1", "account-2"));
+    tableFiles.putAll("products", ImmutableList.of("products-1", "products-2", "products-3"));
+    tableFiles.put("orders", "orders-1");
+
+    HashMultimap<Integer, String> slots = ImportTransform.tablesPerSlot(ddl, tableFiles, 2);
+
+    // Users and Account (4 files) go to the first group, Products (3) and Orders (1) to the
+    // second one. Children stay in the group of their root table, one depth below.
+    assertEquals(ImmutableSet.of("users"), slots.get(0));
+    assertEquals(ImmutableSet.of("account"), slots.get(1));
+    assertEquals(ImmutableSet.of("products", "orders"), slots.get(8));
+    assertEquals(4, slots.size());
+  }
+
+  @Test
+  public void indexesOfTables() {
+    Ddl ddl =
+        Ddl.builder()
+            .createTable("Users")
+            .column("id")
+            .int64()
+            .endColumn()
+            .column("name")
+            .string()
+            .max()
+            .endColumn()
+            .primaryKey()
+            .asc("id")
+            .end()
+            .indexes(ImmutableList.of("CREATE INDEX `UsersByName` ON `Users` (`name`)"))
+            .endTable()
+            .createTable("Orders")
+            .column("id")
+            .int64()
+            .endColumn()
+            .column("user_id")
+            .int64()
+            .endColumn()
+            .primaryKey()
+            .asc("id")
+            .end()
+            .indexes(ImmutableList.of("CREATE INDEX `OrdersByUser` ON `Orders` (`user_id`)"))
+            .endTable()
+            .build();
+    List<String> pendingIndexes =
+        ImmutableList.of(
+            "CREATE INDEX `UsersByName` ON `Users` (`name`)",
+            "CREATE INDEX `OrdersByUser` ON `Orders` (`user_id`)");
+
+    assertEquals(
+        ImmutableList.of("CREATE INDEX `UsersByName` ON `Users` (`name`)"),
+        ImportTransform.indexesOfTables(ddl, ImmutableSet.of("users"), pendingIndexes));
+    assertEquals(
+        ImmutableList.of(),
+        ImportTransform.indexesOfTables(ddl, ImmutableSet.of("users"), ImmutableList.of()));
+    assertEquals(
+        ImmutableList.of(),
+        ImportTransform.indexesOfTables(ddl, ImmutableSet.of("unknown"), pendingIndexes));
+  }
 }
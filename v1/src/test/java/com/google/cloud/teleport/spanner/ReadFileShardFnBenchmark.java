@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.spanner;
+
+import com.google.cloud.teleport.spanner.ReadFileShardFn.LineParser;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Compares parsing the lines of a shard with a parser per line and with runs of unquoted lines
+ * parsed together, see {@link LineParser}.
+ *
+ * <p>Usage: {@code ReadFileShardFnBenchmark [lines] [percentage of quoted lines] [iterations]}.
+ */
+public class ReadFileShardFnBenchmark {
+
+  private static final CSVFormat CSV_FORMAT =
+      CSVFormat.newFormat(',')
+          .withQuote('"')
+          .withIgnoreEmptyLines(true)
+          .withTrailingDelimiter(false)
+          .withEscape(null)
+          .withNullString(null);
+
+  public static void main(String[] args) throws IOException {
+    int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int quotedPercentage = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+    int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+    List<String> lines = new ArrayList<>(lineCount);
+    for (int i = 0; i < lineCount; i++) {
+      String name = i % 100 < quotedPercentage ? "\"name, " + i + "\"" : "name" + i;
+      lines.add(i + "," + name + ",2024-01-01,12.5," + (i * 7L) + ",true,some text value");
+    }
+
+    List<String> perLineValues = parse(lines, false);
+    List<String> batchedValues = parse(lines, true);
+    if (!perLineValues.equals(batchedValues)) {
+      throw new AssertionError("The batched lines are not parsed as the lines one at a time.");
+    }
+
+    // The first half of the iterations warms up the JIT.
+    for (int i = 0; i < iterations; i++) {
+      long perLineNanos = time(lines, false);
+      long batchedNanos = time(lines, true);
+      if (i >= iterations / 2) {
+        System.out.printf(
+            "%d lines, %d%% quoted: per line %d ms, batched %d ms (%.2fx)%n",
+            lineCount,
+            quotedPercentage,
+            perLineNanos / 1_000_000,
+            batchedNanos / 1_000_000,
+            (double) perLineNanos / batchedNanos);
+      }
+    }
+  }
+
+  private static long time(List<String> lines, boolean batchUnquotedLines) throws IOException {
+    long[] recordCount = {0};
+    long start = System.nanoTime();
+    LineParser lineParser =
+        new LineParser(CSV_FORMAT, batchUnquotedLines, record -> recordCount[0]++);
+    for (String line : lines) {
+      lineParser.parse(line);
+    }
+    lineParser.flush();
+    long nanos = System.nanoTime() - start;
+    if (recordCount[0] != lines.size()) {
+      throw new AssertionError("Parsed " + recordCount[0] + " records of " + lines.size());
+    }
+    return nanos;
+  }
+
+  private static List<String> parse(List<String> lines, boolean batchUnquotedLines)
+      throws IOException {
+    List<String> values = new ArrayList<>(lines.size());
+    LineParser lineParser =
+        new LineParser(CSV_FORMAT, batchUnquotedLines, record -> values.add(toValues(record)));
+    for (String line : lines) {
+      lineParser.parse(line);
+    }
+    lineParser.flush();
+    return values;
+  }
+
+  private static String toValues(CSVRecord record) {
+    List<String> values = new ArrayList<>(record.size());
+    record.forEach(values::add);
+    return String.join("|", values);
+  }
+}
@@ -354,6 +354,75 @@ public final class ReadFileShardFnTest implements Serializable {
     pipeline.run();
   }
 
+  @Test
+  public void readQuotedAndUnquotedLinesWithoutNewlineHandling() throws Exception {
+    Path inputFile = Files.createTempFile(testTableName, ".csv");
+
+    Charset charset = Charset.forName("UTF-8");
+    String data = "1,abc,def\n2,\"a,b\",def\n\n3,abc,\n4,\"\"\"c\"\"\",def\n5,abc,def";
+    try (BufferedWriter writer = Files.newBufferedWriter(inputFile, charset)) {
+      writer.write(data, 0, data.length());
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    PCollection<FileShard> fileShard =
+        pipeline
+            .apply("Create file name collection", Create.of(inputFile.toString()))
+            .apply(FileIO.matchAll().withEmptyMatchTreatment(EmptyMatchTreatment.DISALLOW))
+            // PCollection<Match.Metadata>
+            .apply(FileIO.readMatches())
+            // PCollection<FileIO.ReadableFile>
+            .apply(
+                "Create file shard collection",
+                ParDo.of(
+                    new DoFn<FileIO.ReadableFile, FileShard>() {
+
+                      @ProcessElement
+                      public void processElement(ProcessContext c) {
+                        c.output(
+                            FileShard.create(
+                                testTableName,
+                                c.element(),
+                                new OffsetRange(0L, data.length()),
+                                5L));
+                      }
+                    }))
+            .setCoder(FileShard.Coder.of());
+
+    PCollection<KV<String, CSVRecord>> records =
+        fileShard.apply(
+            ParDo.of(
+                new ReadFileShardFn(
+                    columnDelimiter,
+                    fieldQualifier,
+                    trailingDelimiter,
+                    escapeChar,
+                    nullString,
+                    StaticValueProvider.of(false))));
+    PCollection<KV<String, String>> csvValues =
+        records.apply(
+            "get values",
+            ParDo.of(
+                new DoFn<KV<String, CSVRecord>, KV<String, String>>() {
+
+                  @ProcessElement
+                  public void processElement(ProcessContext c) {
+                    c.output(
+                        KV.of(c.element().getKey(), csvRecordToValues(c.element().getValue())));
+                  }
+                }));
+
+    PAssert.that(csvValues)
+        .containsInAnyOrder(
+            KV.of(testTableName, "1,abc,def"),
+            KV.of(testTableName, "2,a,b,def"),
+            KV.of(testTableName, "3,abc,"),
+            KV.of(testTableName, "4,\"c\",def"),
+            KV.of(testTableName, "5,abc,def"));
+
+    pipeline.run();
+  }
+
   public String csvRecordToValues(CSVRecord csvRecord) {
     List<String> vals = new ArrayList<String>();
     for (int i = 0; i < csvRecord.size(); i++) {
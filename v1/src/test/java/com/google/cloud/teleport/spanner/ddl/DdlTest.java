@@ -37,6 +37,7 @@ import com.google.cloud.teleport.spanner.proto.ExportProtos.Export;
 import com.google.common.base.Optional;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -393,6 +394,7 @@ public class DdlTest {
     assertEquals("users", perLevelView.get(0).iterator().next());
     assertTrue(perLevelView.containsKey(1));
     assertEquals("account", perLevelView.get(1).iterator().next());
+    assertEquals(ImmutableMap.of("users", "users", "account", "users"), ddl.rootTableNames());
     assertNotNull(ddl.hashCode());
   }
 
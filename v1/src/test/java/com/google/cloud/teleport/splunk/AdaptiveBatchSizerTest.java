@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.splunk;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/** Unit tests for {@link AdaptiveBatchSizer} class. */
+public class AdaptiveBatchSizerTest {
+
+  /** Test that full batches written quickly grow the batch count up to its max. */
+  @Test
+  public void testGrowsOnFastFullBatches() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 1, 115);
+
+    sizer.onResponse(200, true, 10L, 1000L, 100);
+    assertThat(sizer.batchCount(), is(equalTo(110)));
+
+    sizer.onResponse(200, true, 10L, 1000L, 110);
+    assertThat(sizer.batchCount(), is(equalTo(115)));
+  }
+
+  /** Test that partial batches, e.g. flushed by the timer, do not grow the batch count. */
+  @Test
+  public void testKeepsBatchCountOnPartialBatches() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 1, 1000);
+
+    sizer.onResponse(200, true, 10L, 1000L, 20);
+    assertThat(sizer.batchCount(), is(equalTo(100)));
+  }
+
+  /** Test that slow or large requests shrink the batch count. */
+  @Test
+  public void testShrinksOnSlowOrLargeRequests() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 1, 1000);
+
+    sizer.onResponse(200, true, AdaptiveBatchSizer.TARGET_LATENCY_MS + 1, 1000L, 100);
+    assertThat(sizer.batchCount(), is(equalTo(75)));
+
+    sizer.onResponse(200, true, 10L, AdaptiveBatchSizer.TARGET_PAYLOAD_BYTES + 1, 75);
+    assertThat(sizer.batchCount(), is(equalTo(57)));
+  }
+
+  /** Test that back-pressure from HEC halves the batch count down to its min. */
+  @Test
+  public void testHalvesOnBackPressure() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 30, 1000);
+
+    sizer.onResponse(503, false, 10L, 1000L, 100);
+    assertThat(sizer.batchCount(), is(equalTo(50)));
+
+    sizer.onResponse(429, false, 10L, 1000L, 50);
+    assertThat(sizer.batchCount(), is(equalTo(30)));
+  }
+
+  /** Test that other failures do not change the batch count. */
+  @Test
+  public void testKeepsBatchCountOnOtherFailures() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 1, 1000);
+
+    sizer.onResponse(400, false, 10L, 1000L, 100);
+    sizer.onResponse(null, false, 10L, 1000L, 100);
+    assertThat(sizer.batchCount(), is(equalTo(100)));
+  }
+
+  /** Test that a fixed sizer never changes its batch count. */
+  @Test
+  public void testFixed() {
+    AdaptiveBatchSizer sizer = AdaptiveBatchSizer.fixed(10);
+
+    sizer.onResponse(200, true, 10L, 1000L, 10);
+    sizer.onResponse(503, false, 10L, 1000L, 10);
+    assertThat(sizer.batchCount(), is(equalTo(10)));
+  }
+}
@@ -22,7 +22,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import com.google.cloud.teleport.coders.FailsafeElementCoder;
@@ -37,6 +39,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletionException;
+import javax.script.Invocable;
 import org.apache.beam.sdk.coders.CoderRegistry;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.io.gcp.pubsub.PubsubMessage;
@@ -82,6 +85,29 @@ public class JavascriptTextTransformerTest {
   private static final String SCRIPT_PARSE_EXCEPTION_FILE_PATH =
       Resources.getResource(RESOURCES_DIR + "scriptParseException.js").getPath();
 
+  /**
+   * Test {@link JavascriptRuntime#getInvocable} hands out a distinct engine to each borrower and
+   * reuses engines returned with {@link JavascriptRuntime#releaseInvocable}.
+   */
+  @Test
+  public void testGetInvocableBorrowsFromPool() throws Exception {
+    // A function name no other test uses keeps the engines of this runtime in their own pool.
+    JavascriptRuntime javascriptRuntime =
+        JavascriptRuntime.newBuilder()
+            .setFileSystemPath(TRANSFORM_FILE_PATH)
+            .setFunctionName("transformBorrowed")
+            .setReloadIntervalMinutes(0)
+            .build();
+
+    Invocable first = javascriptRuntime.getInvocable();
+    Invocable second = javascriptRuntime.getInvocable();
+    assertNotSame(first, second);
+
+    javascriptRuntime.releaseInvocable(first);
+    assertSame(first, javascriptRuntime.getInvocable());
+    javascriptRuntime.releaseInvocable(second);
+  }
+
   /**
    * Test {@link JavascriptRuntime#getInvocable} throws IllegalArgumentException if bad filepath.
    *
@@ -32,7 +32,14 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -53,6 +60,7 @@ import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
@@ -116,6 +124,22 @@ public abstract class JavascriptTextTransformer {
 
     void setJavascriptTextTransformReloadIntervalMinutes(
         Integer javascriptTextTransformReloadIntervalMinutes);
+
+    @TemplateParameter.Integer(
+        order = 5,
+        optional = true,
+        description = "JavaScript UDF batch size",
+        helpText =
+            "The maximum number of elements to pass to the JavaScript user-defined function (UDF) "
+                + "in a single call. If the value is greater than 1, the UDF is called with an "
+                + "array of input strings and must return an array of the same length, where "
+                + "each entry is the output string of the input at the same position, `null` to "
+                + "drop that input, or an `Error` to send only that input to the dead-letter "
+                + "output. The default value is 1, which calls the UDF once for every element.")
+    @Default.Integer(1)
+    Integer getJavascriptTextTransformBatchSize();
+
+    void setJavascriptTextTransformBatchSize(Integer javascriptTextTransformBatchSize);
   }
 
   /**
@@ -138,15 +162,21 @@ public abstract class JavascriptTextTransformer {
     @Nullable
     public abstract Integer reloadIntervalMinutes();
 
+    private static final Distribution JAVASCRIPT_UDF_WAIT_TIME_US =
+        Metrics.distribution(JavascriptTextTransformer.class, "javascript_udf_wait_time_us");
+
+    private static final Distribution JAVASCRIPT_UDF_EXECUTION_TIME_US =
+        Metrics.distribution(JavascriptTextTransformer.class, "javascript_udf_execution_time_us");
+
     private static final Distribution JAVASCRIPT_RELOAD_LATENCY_MS =
         Metrics.distribution(JavascriptTextTransformer.class, "javascript_reload_latency_ms");
 
-    private static LoadingCache<JavascriptRuntime, Invocable> cache =
+    private static LoadingCache<JavascriptRuntime, InvocablePool> cache =
         Caffeine.newBuilder()
             .expireAfter(
-                new Expiry<JavascriptRuntime, Invocable>() {
+                new Expiry<JavascriptRuntime, InvocablePool>() {
                   public long expireAfterCreate(
-                      JavascriptRuntime runtime, Invocable invocable, long currentTime) {
+                      JavascriptRuntime runtime, InvocablePool pool, long currentTime) {
                     // Do not expire if reload is disabled
                     if (runtime.reloadIntervalMinutes() == null
                         || runtime.reloadIntervalMinutes() <= 0) {
@@ -157,7 +187,7 @@ public abstract class JavascriptTextTransformer {
 
                   public long expireAfterUpdate(
                       JavascriptRuntime runtime,
-                      Invocable invocable,
+                      InvocablePool pool,
                       long currentTime,
                       long currentDuration) {
                     return currentDuration;
@@ -165,13 +195,13 @@ public abstract class JavascriptTextTransformer {
 
                   public long expireAfterRead(
                       JavascriptRuntime runtime,
-                      Invocable invocable,
+                      InvocablePool pool,
                       long currentTime,
                       long currentDuration) {
                     return currentDuration;
                   }
                 })
-            .build(runtime -> buildInvocable(runtime));
+            .build(runtime -> buildInvocablePool(runtime));
 
     private Instant lastRefreshCheck = Instant.now();
 
@@ -197,7 +227,11 @@ public abstract class JavascriptTextTransformer {
     }
 
     /**
-     * Gets a cached Javascript Invocable, if fileSystemPath() not set, returns null.
+     * Borrows a Javascript Invocable from the pool of engines of the UDF, if fileSystemPath() not
+     * set, returns null.
+     *
+     * <p>The returned Invocable is used only by the caller, until the caller hands it back with
+     * {@link #releaseInvocable(Invocable)}. An Invocable that is not released is not reused.
      *
      * @return a Javascript Invocable or null
      */
@@ -209,7 +243,24 @@ public abstract class JavascriptTextTransformer {
         return null;
       }
 
-      return cache.get(this);
+      return cache.get(this).borrow();
+    }
+
+    /**
+     * Returns an Invocable borrowed with {@link #getInvocable()} to the pool of engines of the UDF.
+     * The Invocable must not be used by the caller afterwards.
+     *
+     * @param invocable the borrowed Invocable, ignored if null
+     */
+    public void releaseInvocable(@Nullable Invocable invocable) {
+      if (invocable == null || Strings.isNullOrEmpty(fileSystemPath())) {
+        return;
+      }
+      InvocablePool pool = cache.getIfPresent(this);
+      // Engines borrowed before the UDF was reloaded are dropped with their pool.
+      if (pool != null && pool.owns(invocable)) {
+        pool.release(invocable);
+      }
     }
 
     /**
@@ -227,11 +278,11 @@ public abstract class JavascriptTextTransformer {
       return (Invocable) engine;
     }
 
-    private static Invocable buildInvocable(JavascriptRuntime runtime)
+    private static InvocablePool buildInvocablePool(JavascriptRuntime runtime)
         throws IOException, ScriptException {
       // List of all scripts read from the filesystem
       Collection<String> scripts = getScripts(runtime.fileSystemPath());
-      return newInvocable(scripts);
+      return new InvocablePool(scripts);
     }
 
     private static ScriptEngine getJavaScriptEngine() {
@@ -265,14 +316,22 @@ public abstract class JavascriptTextTransformer {
      */
     @Nullable
     public String invoke(String data) throws ScriptException, IOException, NoSuchMethodException {
-      Invocable invocable = getInvocable();
-      if (invocable == null) {
+      if (Strings.isNullOrEmpty(fileSystemPath())) {
         throw new RuntimeException("No UDF was loaded");
       }
 
+      long startNanos = System.nanoTime();
+      InvocablePool pool = cache.get(this);
+      Invocable invocable = pool.borrow();
+      long borrowedNanos = System.nanoTime();
+      JAVASCRIPT_UDF_WAIT_TIME_US.update((borrowedNanos - startNanos) / 1000);
+
       Object result;
-      synchronized (invocable) {
+      try {
         result = invocable.invokeFunction(functionName(), data);
+      } finally {
+        pool.release(invocable);
+        JAVASCRIPT_UDF_EXECUTION_TIME_US.update((System.nanoTime() - borrowedNanos) / 1000);
       }
       if (result == null || ScriptObjectMirror.isUndefined(result)) {
         return null;
@@ -285,6 +344,135 @@ public abstract class JavascriptTextTransformer {
       }
     }
 
+    /**
+     * Invokes the UDF once for a batch of data. The UDF is called with a Javascript array of the
+     * data and has to return an array with an output for each input, in the same order. An output
+     * can be a String, null or undefined to disregard the input, or an {@code Error} to fail only
+     * that input.
+     *
+     * @param data data to pass to the invocable function as an array
+     * @return The result of the UDF for each input, in the order of the data
+     */
+    public List<BatchResult> invokeBatch(List<String> data)
+        throws ScriptException, IOException, NoSuchMethodException {
+      if (Strings.isNullOrEmpty(fileSystemPath())) {
+        throw new RuntimeException("No UDF was loaded");
+      }
+
+      long startNanos = System.nanoTime();
+      InvocablePool pool = cache.get(this);
+      Invocable invocable = pool.borrow();
+      long borrowedNanos = System.nanoTime();
+      JAVASCRIPT_UDF_WAIT_TIME_US.update((borrowedNanos - startNanos) / 1000);
+
+      try {
+        // The input and output arrays belong to the global of the borrowed engine, so they are
+        // only accessed until the engine is released.
+        ScriptObjectMirror input =
+            (ScriptObjectMirror) ((ScriptEngine) invocable).eval("new Array()");
+        for (int i = 0; i < data.size(); i++) {
+          input.setSlot(i, data.get(i));
+        }
+        Object result = invocable.invokeFunction(functionName(), input);
+        if (!(result instanceof ScriptObjectMirror) || !((ScriptObjectMirror) result).isArray()) {
+          String className = (result == null) ? "null" : result.getClass().getName();
+          throw new RuntimeException(
+              "UDF Function did not return an array. Instead got: " + className);
+        }
+        ScriptObjectMirror outputs = (ScriptObjectMirror) result;
+        if (outputs.size() != data.size()) {
+          throw new RuntimeException(
+              String.format(
+                  "UDF Function returned %d outputs for %d inputs.", outputs.size(), data.size()));
+        }
+        List<BatchResult> results = new ArrayList<>(data.size());
+        for (int i = 0; i < data.size(); i++) {
+          results.add(toBatchResult(outputs.getSlot(i)));
+        }
+        return results;
+      } finally {
+        pool.release(invocable);
+        JAVASCRIPT_UDF_EXECUTION_TIME_US.update((System.nanoTime() - borrowedNanos) / 1000);
+      }
+    }
+
+    private static BatchResult toBatchResult(Object output) {
+      if (output == null || ScriptObjectMirror.isUndefined(output)) {
+        return BatchResult.ofOutput(null);
+      } else if (output instanceof String) {
+        return BatchResult.ofOutput((String) output);
+      } else if (output instanceof ScriptObjectMirror
+          && "Error".equals(((ScriptObjectMirror) output).getClassName())) {
+        return BatchResult.ofError(String.valueOf(((ScriptObjectMirror) output).get("message")));
+      } else {
+        return BatchResult.ofError(
+            "UDF Function did not return a String. Instead got: " + output.getClass().getName());
+      }
+    }
+
+    /** The result of the UDF for one input of a batch, either an output or an error message. */
+    @AutoValue
+    public abstract static class BatchResult {
+      @Nullable
+      public abstract String output();
+
+      @Nullable
+      public abstract String errorMessage();
+
+      public boolean isError() {
+        return errorMessage() != null;
+      }
+
+      static BatchResult ofOutput(@Nullable String output) {
+        return new AutoValue_JavascriptTextTransformer_JavascriptRuntime_BatchResult(output, null);
+      }
+
+      static BatchResult ofError(String errorMessage) {
+        return new AutoValue_JavascriptTextTransformer_JavascriptRuntime_BatchResult(
+            null, errorMessage);
+      }
+    }
+
+    /**
+     * Pool of Javascript engines with the UDF scripts loaded. A Nashorn engine must not be used by
+     * multiple threads at once, so each invocation borrows an engine from the pool and returns it
+     * afterwards. Idle engines are kept in a lock-free queue and reused, so the scripts are only
+     * evaluated once per engine, and the pool grows up to the number of threads that invoke the UDF
+     * concurrently.
+     */
+    private static final class InvocablePool {
+      private final Collection<String> scripts;
+      private final Queue<Invocable> idleInvocables = new ConcurrentLinkedQueue<>();
+      // Engines created by the pool, weakly held as borrowed engines might never be released.
+      private final Set<Invocable> invocables =
+          Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+      private InvocablePool(Collection<String> scripts) throws ScriptException {
+        this.scripts = scripts;
+        // The first engine is loaded eagerly to surface script errors when the UDF is loaded.
+        idleInvocables.add(createInvocable());
+      }
+
+      private Invocable createInvocable() throws ScriptException {
+        Invocable invocable = newInvocable(scripts);
+        invocables.add(invocable);
+        return invocable;
+      }
+
+      private boolean owns(Invocable invocable) {
+        return invocables.contains(invocable);
+      }
+
+      private Invocable borrow() throws ScriptException {
+        Invocable invocable = idleInvocables.poll();
+        return (invocable != null) ? invocable : createInvocable();
+      }
+
+      private void release(Invocable invocable) {
+        idleInvocables.offer(invocable);
+      }
+    }
+
     /**
      * Loads into memory scripts from a File System from a given path. Supports any file system that
      * {@link FileSystems} supports.
@@ -391,6 +579,14 @@ public abstract class JavascriptTextTransformer {
 
     public abstract @Nullable Boolean loggingEnabled();
 
+    /**
+     * The max number of elements passed to the UDF in a single invocation. If greater than 1, the
+     * elements of a window are buffered and the UDF is invoked with an array of payloads, as
+     * described in {@link JavascriptRuntime#invokeBatch(List)}, once the batch is full or the
+     * bundle finishes.
+     */
+    public abstract @Nullable Integer batchSize();
+
     public abstract TupleTag<FailsafeElement<T, String>> successTag();
 
     public abstract TupleTag<FailsafeElement<T, String>> failureTag();
@@ -416,6 +612,8 @@ public abstract class JavascriptTextTransformer {
 
       public abstract Builder<T> setLoggingEnabled(@Nullable Boolean loggingEnabled);
 
+      public abstract Builder<T> setBatchSize(@Nullable Integer batchSize);
+
       public abstract Builder<T> setSuccessTag(TupleTag<FailsafeElement<T, String>> successTag);
 
       public abstract Builder<T> setFailureTag(TupleTag<FailsafeElement<T, String>> failureTag);
@@ -431,6 +629,8 @@ public abstract class JavascriptTextTransformer {
                   new DoFn<FailsafeElement<T, String>, FailsafeElement<T, String>>() {
                     private JavascriptRuntime javascriptRuntime;
                     private boolean loggingEnabled;
+                    private int udfBatchSize;
+                    private transient Map<BoundedWindow, List<PendingElement<T>>> pendingElements;
 
                     @Setup
                     public void setup() {
@@ -445,11 +645,37 @@ public abstract class JavascriptTextTransformer {
                       if (loggingEnabled() != null) {
                         loggingEnabled = loggingEnabled();
                       }
+                      udfBatchSize = (batchSize() != null) ? batchSize() : 1;
+                    }
+
+                    @StartBundle
+                    public void startBundle() {
+                      pendingElements = new HashMap<>();
                     }
 
                     @ProcessElement
-                    public void processElement(ProcessContext context) {
+                    public void processElement(ProcessContext context, BoundedWindow window) {
                       FailsafeElement<T, String> element = context.element();
+                      if (javascriptRuntime != null && udfBatchSize > 1) {
+                        List<PendingElement<T>> batch =
+                            pendingElements.computeIfAbsent(window, w -> new ArrayList<>());
+                        batch.add(new PendingElement<>(element, context.timestamp(), window));
+                        if (batch.size() >= udfBatchSize) {
+                          pendingElements.remove(window);
+                          // Outputs keep the window of the batch, but cannot be timestamped
+                          // before the element being processed.
+                          processBatch(
+                              batch,
+                              (tag, output, pending) ->
+                                  context.outputWithTimestamp(
+                                      tag,
+                                      output,
+                                      pending.timestamp.isAfter(context.timestamp())
+                                          ? pending.timestamp
+                                          : context.timestamp()));
+                        }
+                        return;
+                      }
                       String payloadStr = element.getPayload();
 
                       try {
@@ -481,9 +707,111 @@ public abstract class JavascriptTextTransformer {
                         failedCounter.inc();
                       }
                     }
+
+                    @FinishBundle
+                    public void finishBundle(FinishBundleContext context) {
+                      if (pendingElements == null || pendingElements.isEmpty()) {
+                        return;
+                      }
+                      for (List<PendingElement<T>> batch : pendingElements.values()) {
+                        processBatch(
+                            batch,
+                            (tag, output, pending) ->
+                                context.output(tag, output, pending.timestamp, pending.window));
+                      }
+                      pendingElements.clear();
+                    }
+
+                    private void processBatch(
+                        List<PendingElement<T>> batch, BatchOutput<T> context) {
+                      List<JavascriptRuntime.BatchResult> results;
+                      try {
+                        results =
+                            javascriptRuntime.invokeBatch(
+                                batch.stream()
+                                    .map(pending -> pending.element.getPayload())
+                                    .collect(Collectors.toList()));
+                      } catch (Throwable e) {
+                        // Throwable caught because UDFS can trigger Errors (e.g., StackOverflow)
+                        if (batch.size() == 1) {
+                          outputFailure(
+                              context,
+                              batch.get(0),
+                              FailsafeElement.of(batch.get(0).element)
+                                  .setErrorMessage(e.getMessage())
+                                  .setStacktrace(Throwables.getStackTraceAsString(e)));
+                          return;
+                        }
+                        // The failure of a whole batch is attributed to its elements by invoking
+                        // the UDF for each of them.
+                        for (PendingElement<T> pending : batch) {
+                          processBatch(Collections.singletonList(pending), context);
+                        }
+                        return;
+                      }
+
+                      for (int i = 0; i < batch.size(); i++) {
+                        PendingElement<T> pending = batch.get(i);
+                        JavascriptRuntime.BatchResult result = results.get(i);
+                        if (result.isError()) {
+                          outputFailure(
+                              context,
+                              pending,
+                              FailsafeElement.of(pending.element)
+                                  .setErrorMessage(result.errorMessage()));
+                        } else if (!Strings.isNullOrEmpty(result.output())) {
+                          context.output(
+                              successTag(),
+                              FailsafeElement.of(
+                                  pending.element.getOriginalPayload(), result.output()),
+                              pending);
+                          successCounter.inc();
+                        }
+                      }
+                    }
+
+                    private void outputFailure(
+                        BatchOutput<T> context,
+                        PendingElement<T> pending,
+                        FailsafeElement<T, String> failure) {
+                      if (loggingEnabled) {
+                        LOG.warn(
+                            "Exception occurred while applying UDF '{}' from file path '{}' due"
+                                + " to '{}'",
+                            functionName(),
+                            fileSystemPath(),
+                            failure.getErrorMessage());
+                      }
+                      context.output(failureTag(), failure, pending);
+                      failedCounter.inc();
+                    }
                   })
               .withOutputTags(successTag(), TupleTagList.of(failureTag())));
     }
+
+    /** Outputs the result of a batched UDF invocation for one of the elements of the batch. */
+    private interface BatchOutput<T> {
+      void output(
+          TupleTag<FailsafeElement<T, String>> tag,
+          FailsafeElement<T, String> output,
+          PendingElement<T> pending);
+    }
+
+    /** An element buffered for a batched UDF invocation, with its timestamp and window. */
+    private static class PendingElement<T> {
+      private final FailsafeElement<T, String> element;
+      private final org.joda.time.Instant timestamp;
+      private final BoundedWindow window;
+
+      private PendingElement(
+          FailsafeElement<T, String> element,
+          org.joda.time.Instant timestamp,
+          BoundedWindow window) {
+        this.element = element;
+        this.timestamp = timestamp;
+        this.window = window;
+      }
+    }
   }
 
   /**
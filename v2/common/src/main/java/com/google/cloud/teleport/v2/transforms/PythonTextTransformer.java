@@ -37,6 +37,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -58,6 +59,7 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.TupleTagList;
+import org.joda.time.Instant;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -113,6 +115,32 @@ public abstract class PythonTextTransformer implements Serializable {
     Integer getRuntimeRetries();
 
     void setRuntimeRetries(Integer runtimeRetries);
+
+    @TemplateParameter.Integer(
+        order = 5,
+        optional = true,
+        description = "Python UDF worker pool size",
+        helpText =
+            "The number of long-lived Python processes per worker that run the Python UDF. If set, "
+                + "each process imports the UDF once and then processes the elements that are "
+                + "streamed to it. If not set, a new Python process is started for the elements of "
+                + "each bundle.")
+    Integer getPythonTextTransformWorkerPoolSize();
+
+    void setPythonTextTransformWorkerPoolSize(Integer pythonTextTransformWorkerPoolSize);
+
+    @TemplateParameter.Integer(
+        order = 6,
+        optional = true,
+        description = "Python UDF worker timeout (seconds)",
+        helpText =
+            "The time in seconds a long-lived Python process has to process an element before it "
+                + "is restarted and the element is sent to the dead-letter output. Only used if "
+                + "`pythonTextTransformWorkerPoolSize` is set. The default value is 300.")
+    Integer getPythonTextTransformWorkerTimeoutSeconds();
+
+    void setPythonTextTransformWorkerTimeoutSeconds(
+        Integer pythonTextTransformWorkerTimeoutSeconds);
   }
 
   /** Grabs code from a FileSystem, loads into ProcessBuilder. */
@@ -323,7 +351,7 @@ public abstract class PythonTextTransformer implements Serializable {
      *
      * @return a collection of scripts loaded as UTF8 Strings
      */
-    private static Collection<String> getScripts(String path) throws IOException {
+    static Collection<String> getScripts(String path) throws IOException {
       MatchResult result = FileSystems.match(path);
       checkArgument(
           result.status() == Status.OK && !result.metadata().isEmpty(),
@@ -359,6 +387,12 @@ public abstract class PythonTextTransformer implements Serializable {
   public abstract static class FailsafePythonUdf<T>
       extends PTransform<PCollection<FailsafeElement<T, String>>, PCollectionTuple> {
 
+    /**
+     * Max number of elements of a window that are buffered and sent to a long-lived Python process
+     * at once, with their requests pipelined.
+     */
+    private static final int WORKER_BATCH_SIZE = 100;
+
     public abstract @Nullable String fileSystemPath();
 
     public abstract @Nullable String runtimeVersion();
@@ -367,6 +401,19 @@ public abstract class PythonTextTransformer implements Serializable {
 
     public abstract @Nullable Integer runtimeRetries();
 
+    /**
+     * The number of long-lived Python processes per worker that invoke the UDF, see {@link
+     * PythonUdfWorkerPool}. If not set, a new Python process is started for the elements of each
+     * bundle.
+     */
+    public abstract @Nullable Integer workerPoolSize();
+
+    /**
+     * The time in seconds a long-lived Python process has to process an element before it is killed
+     * and the element is output to the failure tag. Defaults to 5 minutes.
+     */
+    public abstract @Nullable Integer workerTimeoutSeconds();
+
     public abstract TupleTag<FailsafeElement<T, String>> successTag();
 
     public abstract TupleTag<FailsafeElement<T, String>> failureTag();
@@ -396,6 +443,10 @@ public abstract class PythonTextTransformer implements Serializable {
 
       public abstract Builder<T> setRuntimeRetries(@Nullable Integer runtimeRetries);
 
+      public abstract Builder<T> setWorkerPoolSize(@Nullable Integer workerPoolSize);
+
+      public abstract Builder<T> setWorkerTimeoutSeconds(@Nullable Integer workerTimeoutSeconds);
+
       public abstract Builder<T> setSuccessTag(TupleTag<FailsafeElement<T, String>> successTag);
 
       public abstract Builder<T> setFailureTag(TupleTag<FailsafeElement<T, String>> failureTag);
@@ -425,6 +476,8 @@ public abstract class PythonTextTransformer implements Serializable {
                     private File manifestFile;
                     private BufferedWriter dataWriter;
                     private BoundedWindow window;
+                    private transient PythonUdfWorkerPool workerPool;
+                    private transient Map<BoundedWindow, List<PendingElement<T>>> pendingElements;
 
                     @Setup
                     public void setup()
@@ -438,6 +491,18 @@ public abstract class PythonTextTransformer implements Serializable {
                         LOG.info("Build Python Env for version {}", runtimeVersion);
 
                         pythonRuntime.buildPythonExecutable(runtimeVersion);
+
+                        if (workerPoolSize() != null && workerPoolSize() > 0) {
+                          workerPool =
+                              PythonUdfWorkerPool.get(
+                                  fileSystemPath(),
+                                  functionName(),
+                                  runtimeVersion,
+                                  workerPoolSize(),
+                                  (workerTimeoutSeconds() != null)
+                                      ? TimeUnit.SECONDS.toMillis(workerTimeoutSeconds())
+                                      : PythonUdfWorkerPool.DEFAULT_CALL_TIMEOUT_MILLIS);
+                        }
                       } else {
                         LOG.warn(
                             "Not setting up a Python Mapper runtime, because "
@@ -450,6 +515,10 @@ public abstract class PythonTextTransformer implements Serializable {
 
                     @StartBundle
                     public void startBundle(StartBundleContext context) throws IOException {
+                      if (workerPool != null) {
+                        pendingElements = new HashMap<>();
+                        return;
+                      }
                       batchCounter = 0;
                       batchLimit = 1000;
                       processUUID = UUID.randomUUID().toString();
@@ -467,7 +536,11 @@ public abstract class PythonTextTransformer implements Serializable {
 
                     @ProcessElement
                     public void processElement(ProcessContext context, BoundedWindow window)
-                        throws IOException {
+                        throws IOException, InterruptedException {
+                      if (workerPool != null) {
+                        processWithWorkerPool(context, window);
+                        return;
+                      }
                       this.window = window;
                       FailsafeElement<T, String> element = context.element();
                       String payloadStr = element.getPayload();
@@ -488,11 +561,81 @@ public abstract class PythonTextTransformer implements Serializable {
                       batchCounter++;
                     }
 
+                    private void processWithWorkerPool(ProcessContext context, BoundedWindow window)
+                        throws IOException, InterruptedException {
+                      List<PendingElement<T>> batch =
+                          pendingElements.computeIfAbsent(window, w -> new ArrayList<>());
+                      batch.add(
+                          new PendingElement<>(context.element(), context.timestamp(), window));
+                      if (batch.size() >= WORKER_BATCH_SIZE) {
+                        pendingElements.remove(window);
+                        // Outputs keep the window of the batch, but cannot be timestamped before
+                        // the element being processed.
+                        processBatch(
+                            batch,
+                            (tag, output, pending) ->
+                                context.outputWithTimestamp(
+                                    tag,
+                                    output,
+                                    pending.timestamp.isAfter(context.timestamp())
+                                        ? pending.timestamp
+                                        : context.timestamp()));
+                      }
+                    }
+
+                    private void processBatch(List<PendingElement<T>> batch, BatchOutput<T> context)
+                        throws IOException, InterruptedException {
+                      List<PythonUdfWorkerPool.Result> results =
+                          workerPool.invokeAll(
+                              batch.stream()
+                                  .map(pending -> pending.element.getPayload())
+                                  .collect(Collectors.toList()));
+                      for (int i = 0; i < batch.size(); i++) {
+                        PendingElement<T> pending = batch.get(i);
+                        PythonUdfWorkerPool.Result result = results.get(i);
+                        if (result.isFailed()) {
+                          context.output(
+                              failureTag(),
+                              FailsafeElement.of(pending.element)
+                                  .setErrorMessage(result.errorMessage())
+                                  .setStacktrace(result.errorMessage()),
+                              pending);
+                          failedCounter.inc();
+                          continue;
+                        }
+                        for (String event : result.events()) {
+                          context.output(
+                              successTag(),
+                              FailsafeElement.of(pending.element.getOriginalPayload(), event),
+                              pending);
+                          successCounter.inc();
+                        }
+                      }
+                    }
+
+                    @Teardown
+                    public void teardown() {
+                      if (workerPool != null) {
+                        workerPool.release();
+                        workerPool = null;
+                      }
+                    }
+
                     // TODO: create an execute batch fn
 
                     @FinishBundle
                     public void finishBundle(FinishBundleContext context)
                         throws IOException, NoSuchMethodException, InterruptedException {
+                      if (workerPool != null) {
+                        for (List<PendingElement<T>> batch : pendingElements.values()) {
+                          processBatch(
+                              batch,
+                              (tag, output, pending) ->
+                                  context.output(tag, output, pending.timestamp, pending.window));
+                        }
+                        pendingElements.clear();
+                        return;
+                      }
                       LOG.info("closing batch at {} events", batchCounter);
                       Integer retries = runtimeRetries();
                       List<String> results = new ArrayList<>();
@@ -534,6 +677,28 @@ public abstract class PythonTextTransformer implements Serializable {
                   })
               .withOutputTags(successTag(), TupleTagList.of(failureTag())));
     }
+
+    /** Outputs the result of a long-lived Python process for one of the elements of a batch. */
+    private interface BatchOutput<T> {
+      void output(
+          TupleTag<FailsafeElement<T, String>> tag,
+          FailsafeElement<T, String> output,
+          PendingElement<T> pending);
+    }
+
+    /** An element buffered for a long-lived Python process, with its timestamp and window. */
+    private static class PendingElement<T> {
+      private final FailsafeElement<T, String> element;
+      private final Instant timestamp;
+      private final BoundedWindow window;
+
+      private PendingElement(
+          FailsafeElement<T, String> element, Instant timestamp, BoundedWindow window) {
+        this.element = element;
+        this.timestamp = timestamp;
+        this.window = window;
+      }
+    }
   }
 
   /**
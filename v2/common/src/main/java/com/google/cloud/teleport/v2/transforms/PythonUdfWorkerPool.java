@@ -0,0 +1,473 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import com.google.common.io.Resources;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of long-lived Python processes that run a Python UDF, as an alternative to starting a new
+ * Python process for every batch of elements.
+ *
+ * <p>Each process runs the {@code python-udf-worker/udf_worker.py} script, which imports the UDF
+ * once and then invokes the UDF function for each request. Requests and responses are exchanged
+ * over the stdin and stdout of the process as length-prefixed records: a 4 byte big-endian length
+ * followed by the UTF-8 encoded JSON.
+ *
+ * <p>A process handles one call at a time, and at most {@code maxWorkers} processes are started per
+ * pool, so callers block once all the processes are busy. The requests of a call with several
+ * elements are pipelined: they are written to the process while the responses of the previous ones
+ * are read, so the process does not wait for a round trip between elements. A process that crashes,
+ * does not respond within the call timeout or writes an invalid response is killed and replaced by
+ * a new process on the next invocation, and the elements that it had not responded to are reported
+ * as failed.
+ *
+ * <p>Pools are shared by all the DoFn instances of a JVM that use the same UDF. Each {@link #get}
+ * must be paired with a {@link #release}, and the processes are killed once the last user releases
+ * the pool.
+ */
+final class PythonUdfWorkerPool {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PythonUdfWorkerPool.class);
+
+  private static final String WORKER_SCRIPT_RESOURCE = "python-udf-worker/udf_worker.py";
+
+  /** Upper bound for the length of a response, to detect corrupted responses. */
+  private static final int MAX_RESPONSE_LENGTH = 256 * 1024 * 1024;
+
+  /** Default time a Python process has to respond to a request. */
+  static final long DEFAULT_CALL_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private static final Map<String, PythonUdfWorkerPool> POOLS = new ConcurrentHashMap<>();
+
+  /** Writes the requests of the calls, while the calling threads read the responses. */
+  private static final ExecutorService REQUEST_WRITERS =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "python-udf-worker-requests");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** Kills the processes that do not respond in time. */
+  private static final ScheduledExecutorService CALL_TIMEOUTS =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "python-udf-worker-timeouts");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private static final Counter WORKER_RESTARTS =
+      Metrics.counter(PythonUdfWorkerPool.class, "python-udf-worker-restarts");
+
+  private static final Distribution WORKER_WAIT_TIME_MS =
+      Metrics.distribution(PythonUdfWorkerPool.class, "python-udf-worker-wait-time-ms");
+
+  private final String pythonVersion;
+  private final String functionName;
+  private final File udfFile;
+  private final File workerScript;
+  private final int maxWorkers;
+  private final long callTimeoutMillis;
+  private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+  private final AtomicInteger workerCount = new AtomicInteger();
+  private @Nullable String key;
+  // Guarded by POOLS, as pools are only looked up and released through it.
+  private int references;
+  private volatile boolean closed;
+
+  private PythonUdfWorkerPool(
+      String pythonVersion,
+      String functionName,
+      File udfFile,
+      File workerScript,
+      int maxWorkers,
+      long callTimeoutMillis) {
+    this.pythonVersion = pythonVersion;
+    this.functionName = functionName;
+    this.udfFile = udfFile;
+    this.workerScript = workerScript;
+    this.maxWorkers = maxWorkers;
+    this.callTimeoutMillis = callTimeoutMillis;
+  }
+
+  /**
+   * Gets the pool of the JVM for a UDF, creating it if needed.
+   *
+   * @param fileSystemPath path of the Python UDF files, in any file system that {@link
+   *     org.apache.beam.sdk.io.FileSystems} supports.
+   * @param functionName name of the UDF function.
+   * @param pythonVersion the Python executable, like python3.
+   * @param maxWorkers max number of Python processes of the pool.
+   * @param callTimeoutMillis time a Python process has to respond to a request.
+   * @return the pool, to be released with {@link #release()} once no longer used.
+   */
+  static PythonUdfWorkerPool get(
+      String fileSystemPath,
+      String functionName,
+      String pythonVersion,
+      int maxWorkers,
+      long callTimeoutMillis)
+      throws IOException {
+    String key =
+        String.join(
+            "|",
+            fileSystemPath,
+            functionName,
+            pythonVersion,
+            "" + maxWorkers,
+            "" + callTimeoutMillis);
+    try {
+      return POOLS.compute(
+          key,
+          (k, existing) -> {
+            PythonUdfWorkerPool pool = existing;
+            if (pool == null) {
+              try {
+                pool =
+                    create(
+                        PythonTextTransformer.PythonRuntime.getScripts(fileSystemPath),
+                        functionName,
+                        pythonVersion,
+                        maxWorkers,
+                        callTimeoutMillis);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+              pool.key = k;
+            }
+            pool.references++;
+            return pool;
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Releases a pool returned by {@link #get}, which is closed once all of its users released it.
+   * Pools returned by {@link #create} are closed right away.
+   */
+  void release() {
+    if (key == null) {
+      close();
+      return;
+    }
+    POOLS.computeIfPresent(
+        key,
+        (k, pool) -> {
+          if (pool != this || --references > 0) {
+            return pool;
+          }
+          close();
+          return null;
+        });
+  }
+
+  /** Kills the idle Python processes, and the busy ones once their call completes. */
+  private void close() {
+    closed = true;
+    Worker worker;
+    while ((worker = idleWorkers.poll()) != null) {
+      worker.close();
+      workerCount.decrementAndGet();
+    }
+  }
+
+  /** Creates a pool for the given UDF scripts, which are written to a local file. */
+  static PythonUdfWorkerPool create(
+      Collection<String> scripts,
+      String functionName,
+      String pythonVersion,
+      int maxWorkers,
+      long callTimeoutMillis)
+      throws IOException {
+    if (scripts.isEmpty()) {
+      throw new IllegalArgumentException("Python UDF Transform: no script found.");
+    }
+    File udfFile = File.createTempFile("python_udf_", ".py");
+    udfFile.deleteOnExit();
+    Files.write(
+        udfFile.toPath(),
+        String.join(System.lineSeparator(), scripts).getBytes(StandardCharsets.UTF_8));
+
+    File workerScript = File.createTempFile("python_udf_worker_", ".py");
+    workerScript.deleteOnExit();
+    Files.write(
+        workerScript.toPath(),
+        Resources.toByteArray(Resources.getResource(WORKER_SCRIPT_RESOURCE)));
+
+    return new PythonUdfWorkerPool(
+        pythonVersion, functionName, udfFile, workerScript, maxWorkers, callTimeoutMillis);
+  }
+
+  /**
+   * Invokes the UDF for a JSON payload.
+   *
+   * @param payload the JSON payload.
+   * @return the events returned by the UDF, or the error of the UDF for the payload, or of the
+   *     process if it failed, timed out or wrote an invalid response.
+   * @throws IOException if a Python process cannot be started.
+   */
+  Result invoke(String payload) throws IOException, InterruptedException {
+    return invokeAll(Collections.singletonList(payload)).get(0);
+  }
+
+  /**
+   * Invokes the UDF for several JSON payloads, whose requests are pipelined to a single Python
+   * process.
+   *
+   * @param payloads the JSON payloads.
+   * @return the result of each payload, in the order of the payloads. If the process fails, times
+   *     out or writes an invalid response, the payloads that it had not responded to are failed.
+   * @throws IOException if a Python process cannot be started.
+   */
+  List<Result> invokeAll(List<String> payloads) throws IOException, InterruptedException {
+    if (closed) {
+      throw new IllegalStateException("Python UDF worker pool is closed");
+    }
+    long startMillis = System.currentTimeMillis();
+    Worker worker = borrow();
+    WORKER_WAIT_TIME_MS.update(System.currentTimeMillis() - startMillis);
+
+    List<Result> results = new ArrayList<>(payloads.size());
+    try {
+      worker.call(
+          payloads, callTimeoutMillis, response -> results.add(Result.fromResponse(response)));
+    } catch (IOException | JSONException e) {
+      // The process crashed, timed out or its output is corrupted, so it is replaced by a new one.
+      LOG.warn("Python UDF worker failed, restarting it", e);
+      discard(worker);
+      WORKER_RESTARTS.inc();
+      while (results.size() < payloads.size()) {
+        results.add(Result.failed("Python UDF worker failed: " + e.getMessage()));
+      }
+      return results;
+    }
+    if (closed) {
+      discard(worker);
+    } else {
+      idleWorkers.add(worker);
+    }
+    return results;
+  }
+
+  private Worker borrow() throws IOException, InterruptedException {
+    while (true) {
+      Worker worker = idleWorkers.poll();
+      if (worker != null) {
+        return worker;
+      }
+      int count = workerCount.get();
+      if (count < maxWorkers && workerCount.compareAndSet(count, count + 1)) {
+        try {
+          return startWorker();
+        } catch (IOException e) {
+          workerCount.decrementAndGet();
+          throw e;
+        }
+      }
+      // All the workers are busy. A worker can also be discarded while waiting, hence the timeout.
+      worker = idleWorkers.poll(100, TimeUnit.MILLISECONDS);
+      if (worker != null) {
+        return worker;
+      }
+    }
+  }
+
+  private void discard(Worker worker) {
+    worker.close();
+    workerCount.decrementAndGet();
+  }
+
+  private Worker startWorker() throws IOException {
+    LOG.info("Starting Python UDF worker for function {}", functionName);
+    Process process =
+        new ProcessBuilder()
+            .command(
+                pythonVersion,
+                "-u",
+                workerScript.getAbsolutePath(),
+                udfFile.getAbsolutePath(),
+                functionName)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    return new Worker(process);
+  }
+
+  /** A Python process running the UDF worker script. */
+  private static final class Worker {
+    private final Process process;
+    private final DataOutputStream requests;
+    private final DataInputStream responses;
+
+    private Worker(Process process) {
+      this.process = process;
+      this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+      this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+
+    /**
+     * Sends the requests and passes their responses to the consumer, in order. The requests are
+     * written by another thread, so that neither side blocks on a full pipe while the other one
+     * waits. The process is killed if it does not respond to a request within the timeout, which
+     * fails the call.
+     */
+    private void call(List<String> payloads, long timeoutMillis, Consumer<String> consumer)
+        throws IOException {
+      Future<?> writes = REQUEST_WRITERS.submit(() -> writeRequests(payloads));
+      try {
+        for (int i = 0; i < payloads.size(); i++) {
+          consumer.accept(readResponse(timeoutMillis));
+        }
+      } finally {
+        // All the requests were read by the process once it responded to the last one. Otherwise
+        // the process was killed, which fails the pending writes.
+        writes.cancel(false);
+      }
+    }
+
+    private Void writeRequests(List<String> payloads) throws IOException {
+      for (String payload : payloads) {
+        byte[] request = payload.getBytes(StandardCharsets.UTF_8);
+        requests.writeInt(request.length);
+        requests.write(request);
+      }
+      requests.flush();
+      return null;
+    }
+
+    /** Waits for the next response. The process is killed if it does not respond in time. */
+    private String readResponse(long timeoutMillis) throws IOException {
+      AtomicBoolean timedOut = new AtomicBoolean();
+      ScheduledFuture<?> timeout =
+          CALL_TIMEOUTS.schedule(
+              () -> {
+                timedOut.set(true);
+                close();
+              },
+              timeoutMillis,
+              TimeUnit.MILLISECONDS);
+      String response;
+      try {
+        response = read();
+      } catch (IOException e) {
+        if (timedOut.get()) {
+          throw new IOException("No response within " + timeoutMillis + " ms", e);
+        }
+        throw e;
+      } finally {
+        timeout.cancel(false);
+      }
+      if (timedOut.get()) {
+        // The process was killed right after responding.
+        throw new IOException("No response within " + timeoutMillis + " ms");
+      }
+      return response;
+    }
+
+    private String read() throws IOException {
+      int length = responses.readInt();
+      if (length < 0 || length > MAX_RESPONSE_LENGTH) {
+        throw new IOException("Invalid response length " + length);
+      }
+      byte[] response = new byte[length];
+      responses.readFully(response);
+      return new String(response, StandardCharsets.UTF_8);
+    }
+
+    private void close() {
+      process.destroyForcibly();
+    }
+  }
+
+  /** The result of the UDF for a payload, either its events or an error message. */
+  static final class Result {
+    private final List<String> events;
+    private final String errorMessage;
+
+    private Result(List<String> events, String errorMessage) {
+      this.events = events;
+      this.errorMessage = errorMessage;
+    }
+
+    static Result failed(String errorMessage) {
+      return new Result(Collections.emptyList(), errorMessage);
+    }
+
+    static Result fromResponse(String response) {
+      JSONObject json = new JSONObject(response);
+      if (!"SUCCESS".equals(json.getString("status"))) {
+        return failed(json.optString("error_message", "Python UDF failed"));
+      }
+      // The events are serialized by the worker, to keep them as returned by the UDF.
+      JSONArray events = json.getJSONArray("events");
+      List<String> results = new ArrayList<>(events.length());
+      for (int i = 0; i < events.length(); i++) {
+        results.add(events.getString(i));
+      }
+      return new Result(results, null);
+    }
+
+    boolean isFailed() {
+      return errorMessage != null;
+    }
+
+    /** The JSON events returned by the UDF, empty if the UDF returned None. */
+    List<String> events() {
+      return events;
+    }
+
+    String errorMessage() {
+      return errorMessage;
+    }
+  }
+}
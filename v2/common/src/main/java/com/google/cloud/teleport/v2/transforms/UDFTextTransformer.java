@@ -87,9 +87,12 @@ public class UDFTextTransformer {
     public String javascriptTransformPath;
     public String javascriptTransformFnName;
     public Integer javascriptTransformReloadInterval;
+    public Integer javascriptTransformBatchSize;
     public String pythonTransformPath;
     public String pythonTransformFnName;
     public Integer pythonTransformRetries;
+    public Integer pythonTransformWorkerPoolSize;
+    public Integer pythonTransformWorkerTimeoutSeconds;
 
     private FailsafeElementCoder<InputT, String> coder;
 
@@ -115,6 +118,27 @@ public class UDFTextTransformer {
       this.coder = coder;
     }
 
+    /**
+     * Sets the max number of elements passed to the JavaScript UDF in a single invocation. See
+     * {@link FailsafeJavascriptUdf#batchSize()}.
+     */
+    public InputUDFToTableRow<InputT> withJavascriptTransformBatchSize(
+        Integer javascriptTransformBatchSize) {
+      this.javascriptTransformBatchSize = javascriptTransformBatchSize;
+      return this;
+    }
+
+    /**
+     * Sets the number of long-lived Python processes that run the Python UDF, and the time they
+     * have to process an element. See {@link FailsafePythonUdf#workerPoolSize()}.
+     */
+    public InputUDFToTableRow<InputT> withPythonTransformWorkers(
+        Integer pythonTransformWorkerPoolSize, Integer pythonTransformWorkerTimeoutSeconds) {
+      this.pythonTransformWorkerPoolSize = pythonTransformWorkerPoolSize;
+      this.pythonTransformWorkerTimeoutSeconds = pythonTransformWorkerTimeoutSeconds;
+      return this;
+    }
+
     public PCollectionTuple expand(PCollection<FailsafeElement<InputT, String>> input) {
 
       PCollectionTuple udfOut;
@@ -128,6 +152,8 @@ public class UDFTextTransformer {
                     .setFunctionName(this.pythonTransformFnName)
                     .setRuntimeVersion("python3")
                     .setRuntimeRetries(this.pythonTransformRetries)
+                    .setWorkerPoolSize(this.pythonTransformWorkerPoolSize)
+                    .setWorkerTimeoutSeconds(this.pythonTransformWorkerTimeoutSeconds)
                     .setSuccessTag(udfTempOut)
                     .setFailureTag(udfDeadletterOut)
                     .build());
@@ -139,6 +165,7 @@ public class UDFTextTransformer {
                     .setFileSystemPath(this.javascriptTransformPath)
                     .setFunctionName(this.javascriptTransformFnName)
                     .setReloadIntervalMinutes(this.javascriptTransformReloadInterval)
+                    .setBatchSize(this.javascriptTransformBatchSize)
                     .setSuccessTag(udfTempOut)
                     .setFailureTag(udfDeadletterOut)
                     .build());
@@ -0,0 +1,82 @@
+"""
+Copyright (C) 2024 Google LLC
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not
+use this file except in compliance with the License. You may obtain a copy of
+the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+License for the specific language governing permissions and limitations under
+the License.
+"""
+
+"""
+Long-lived worker for Python UDFs, started by PythonUdfWorkerPool.
+
+Usage: udf_worker.py <udf file> <function name>
+
+Reads length-prefixed records (4 byte big-endian length followed by a UTF-8
+JSON event) from stdin, invokes the UDF function for each event, and writes a
+length-prefixed JSON response for each record to stdout, in order:
+  {"status": "SUCCESS", "events": [<JSON of each event returned>]} or
+  {"status": "FAILED", "error_message": "..."}
+"""
+import importlib.util
+import json
+import struct
+import sys
+import traceback
+
+
+def _read_frame(stream):
+  header = stream.read(4)
+  if len(header) < 4:
+    return None
+  (length,) = struct.unpack('>I', header)
+  return stream.read(length)
+
+
+def _write_frame(stream, data):
+  stream.write(struct.pack('>I', len(data)))
+  stream.write(data)
+  stream.flush()
+
+
+def _invoke(udf, frame):
+  try:
+    result = udf(json.loads(frame.decode('utf-8')))
+    if result is None:
+      events = []
+    elif isinstance(result, list):
+      events = result
+    else:
+      events = [result]
+    return {'status': 'SUCCESS', 'events': [json.dumps(event) for event in events]}
+  except Exception:
+    return {'status': 'FAILED', 'error_message': traceback.format_exc()}
+
+
+def main(udf_path, function_name):
+  spec = importlib.util.spec_from_file_location('udf', udf_path)
+  module = importlib.util.module_from_spec(spec)
+  spec.loader.exec_module(module)
+  udf = getattr(module, function_name)
+
+  requests = sys.stdin.buffer
+  responses = sys.stdout.buffer
+  # Anything printed by the UDF goes to stderr, so that it does not corrupt the responses.
+  sys.stdout = sys.stderr
+
+  while True:
+    frame = _read_frame(requests)
+    if frame is None:
+      return
+    _write_frame(responses, json.dumps(_invoke(udf, frame)).encode('utf-8'))
+
+
+if __name__ == '__main__':
+  main(sys.argv[1], sys.argv[2])
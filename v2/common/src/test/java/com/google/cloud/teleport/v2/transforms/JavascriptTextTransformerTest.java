@@ -22,25 +22,35 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import com.google.cloud.teleport.v2.coders.FailsafeElementCoder;
 import com.google.cloud.teleport.v2.transforms.JavascriptTextTransformer.FailsafeJavascriptUdf;
 import com.google.cloud.teleport.v2.transforms.JavascriptTextTransformer.JavascriptRuntime;
+import com.google.cloud.teleport.v2.transforms.JavascriptTextTransformer.JavascriptTextTransformerOptions;
 import com.google.cloud.teleport.v2.transforms.JavascriptTextTransformer.TransformTextViaJavascript;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.script.Invocable;
 import org.apache.beam.sdk.coders.CoderRegistry;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.io.gcp.pubsub.PubsubMessage;
 import org.apache.beam.sdk.io.gcp.pubsub.PubsubMessageWithAttributesCoder;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.testing.NeedsRunner;
 import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestPipeline;
@@ -77,9 +87,34 @@ public class JavascriptTextTransformerTest {
       Resources.getResource(RESOURCES_DIR + "transform.js").getPath();
   private static final String ES6_TRANSFORM_FILE_PATH =
       Resources.getResource(RESOURCES_DIR + "es6_transform.js").getPath();
+  private static final String BATCH_TRANSFORM_FILE_PATH =
+      Resources.getResource(RESOURCES_DIR + "batch_transform.js").getPath();
   private static final String SCRIPT_PARSE_EXCEPTION_FILE_PATH =
       Resources.getResource(RESOURCES_DIR + "scriptParseException.js").getPath();
 
+  /**
+   * Test {@link JavascriptRuntime#getInvocable} hands out a distinct engine to each borrower and
+   * reuses engines returned with {@link JavascriptRuntime#releaseInvocable}.
+   */
+  @Test
+  public void testGetInvocableBorrowsFromPool() throws Exception {
+    // A function name no other test uses keeps the engines of this runtime in their own pool.
+    JavascriptRuntime javascriptRuntime =
+        JavascriptRuntime.newBuilder()
+            .setFileSystemPath(TRANSFORM_FILE_PATH)
+            .setFunctionName("transformBorrowed")
+            .setReloadIntervalMinutes(0)
+            .build();
+
+    Invocable first = javascriptRuntime.getInvocable();
+    Invocable second = javascriptRuntime.getInvocable();
+    assertNotSame(first, second);
+
+    javascriptRuntime.releaseInvocable(first);
+    assertSame(first, javascriptRuntime.getInvocable());
+    javascriptRuntime.releaseInvocable(second);
+  }
+
   /**
    * Test {@link JavascriptRuntime#getInvocable} throws IllegalArgumentException if bad filepath.
    *
@@ -126,6 +161,58 @@ public class JavascriptTextTransformerTest {
     assertEquals("{\"answerToLife\":42,\"someProp\":\"someValue\"}", data);
   }
 
+  /**
+   * Test {@link JavascriptRuntime#invoke(String)} returns transformed data when invoked from
+   * multiple threads concurrently.
+   */
+  @Test
+  public void testInvokeConcurrently() throws Exception {
+    JavascriptRuntime javascriptRuntime =
+        JavascriptRuntime.newBuilder()
+            .setFileSystemPath(TRANSFORM_FILE_PATH)
+            .setFunctionName("transform")
+            .setReloadIntervalMinutes(0)
+            .build();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        int answer = i;
+        results.add(
+            executor.submit(() -> javascriptRuntime.invoke("{\"answerToLife\": " + answer + "}")));
+      }
+      for (int i = 0; i < 64; i++) {
+        assertEquals(
+            "{\"answerToLife\":" + i + ",\"someProp\":\"someValue\"}", results.get(i).get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Test {@link JavascriptRuntime#invokeBatch(List)} returns the output or error of each input of
+   * the batch.
+   */
+  @Test
+  public void testInvokeBatch() throws Exception {
+    JavascriptRuntime javascriptRuntime =
+        JavascriptRuntime.newBuilder()
+            .setFileSystemPath(BATCH_TRANSFORM_FILE_PATH)
+            .setFunctionName("transformBatch")
+            .setReloadIntervalMinutes(0)
+            .build();
+    List<JavascriptRuntime.BatchResult> results =
+        javascriptRuntime.invokeBatch(
+            Arrays.asList("{\"answerToLife\": 42}", "{\"question\": \"unknown\"}"));
+
+    assertEquals(2, results.size());
+    assertEquals("{\"answerToLife\":42,\"someProp\":\"someValue\"}", results.get(0).output());
+    assertNull(results.get(0).errorMessage());
+    assertNull(results.get(1).output());
+    assertEquals("No answer to life", results.get(1).errorMessage());
+  }
+
   /**
    * Test {@link JavascriptRuntime#invoke(String)} returns transformed data when an ES6 javascript
    * transform function is given.
@@ -394,4 +481,135 @@ public class JavascriptTextTransformerTest {
     // Execute the test
     pipeline.run();
   }
+
+  /**
+   * Tests the {@link FailsafeJavascriptUdf} with a batch size, where errors returned for an element
+   * and errors of the whole batch are output to the dead-letter for the elements that caused them.
+   */
+  @Test
+  @Category(NeedsRunner.class)
+  public void testFailsafeJavaScriptUdfBatch() {
+    final String validPayload = "{\"answerToLife\": 42}";
+    final String failedPayload = "{\"question\": \"unknown\"}";
+    final String invalidPayload = "\"answerToLife\": 42";
+
+    FailsafeElementCoder<PubsubMessage, String> coder =
+        FailsafeElementCoder.of(PubsubMessageWithAttributesCoder.of(), StringUtf8Coder.of());
+
+    CoderRegistry coderRegistry = pipeline.getCoderRegistry();
+    coderRegistry.registerCoderForType(coder.getEncodedTypeDescriptor(), coder);
+
+    List<FailsafeElement<PubsubMessage, String>> input = new ArrayList<>();
+    for (String payload : Arrays.asList(validPayload, failedPayload, invalidPayload)) {
+      input.add(
+          FailsafeElement.of(
+              new PubsubMessage(payload.getBytes(), ImmutableMap.of("id", "0xDb12")), payload));
+    }
+
+    PCollectionTuple output =
+        pipeline
+            .apply("CreateInput", Create.of(input).withCoder(coder))
+            .apply(
+                "InvokeUdf",
+                FailsafeJavascriptUdf.<PubsubMessage>newBuilder()
+                    .setFileSystemPath(BATCH_TRANSFORM_FILE_PATH)
+                    .setFunctionName("transformBatch")
+                    .setReloadIntervalMinutes(0)
+                    .setBatchSize(2)
+                    .setSuccessTag(SUCCESS_TAG)
+                    .setFailureTag(FAILURE_TAG)
+                    .build());
+
+    PAssert.that(output.get(SUCCESS_TAG))
+        .satisfies(
+            collection -> {
+              FailsafeElement<PubsubMessage, String> result = collection.iterator().next();
+              assertThat(
+                  result.getPayload(),
+                  is(equalTo("{\"answerToLife\":42,\"someProp\":\"someValue\"}")));
+              assertThat(
+                  new String(result.getOriginalPayload().getPayload()), is(equalTo(validPayload)));
+              return null;
+            });
+    PAssert.that(output.get(FAILURE_TAG))
+        .satisfies(
+            collection -> {
+              Map<String, String> errorMessages = new HashMap<>();
+              collection.forEach(
+                  result -> errorMessages.put(result.getPayload(), result.getErrorMessage()));
+              assertThat(errorMessages.size(), is(equalTo(2)));
+              assertThat(errorMessages.get(failedPayload), is(equalTo("No answer to life")));
+              assertThat(errorMessages.get(invalidPayload), is(notNullValue()));
+              return null;
+            });
+
+    pipeline.run();
+  }
+
+  /** Tests the batch size of the UDF defaults to invoking it once for every element. */
+  @Test
+  public void testJavascriptTextTransformBatchSizeOption() {
+    assertThat(
+        PipelineOptionsFactory.as(JavascriptTextTransformerOptions.class)
+            .getJavascriptTextTransformBatchSize(),
+        is(equalTo(1)));
+    assertThat(
+        PipelineOptionsFactory.fromArgs("--javascriptTextTransformBatchSize=100")
+            .as(JavascriptTextTransformerOptions.class)
+            .getJavascriptTextTransformBatchSize(),
+        is(equalTo(100)));
+  }
+
+  /**
+   * Tests the {@link FailsafeJavascriptUdf} outputs every element when a bundle holds full batches
+   * and a partial remainder.
+   */
+  @Test
+  @Category(NeedsRunner.class)
+  public void testFailsafeJavaScriptUdfBatchWithRemainder() {
+    FailsafeElementCoder<PubsubMessage, String> coder =
+        FailsafeElementCoder.of(PubsubMessageWithAttributesCoder.of(), StringUtf8Coder.of());
+
+    CoderRegistry coderRegistry = pipeline.getCoderRegistry();
+    coderRegistry.registerCoderForType(coder.getEncodedTypeDescriptor(), coder);
+
+    List<FailsafeElement<PubsubMessage, String>> input = new ArrayList<>();
+    Map<String, String> expected = new HashMap<>();
+    for (int i = 0; i < 5; i++) {
+      String payload = "{\"answerToLife\": " + i + "}";
+      PubsubMessage message = new PubsubMessage(payload.getBytes(), ImmutableMap.of("id", "" + i));
+      input.add(FailsafeElement.of(message, payload));
+      expected.put(payload, "{\"answerToLife\":" + i + ",\"someProp\":\"someValue\"}");
+    }
+
+    PCollectionTuple output =
+        pipeline
+            .apply("CreateInput", Create.of(input).withCoder(coder))
+            .apply(
+                "InvokeUdf",
+                FailsafeJavascriptUdf.<PubsubMessage>newBuilder()
+                    .setFileSystemPath(BATCH_TRANSFORM_FILE_PATH)
+                    .setFunctionName("transformBatch")
+                    .setReloadIntervalMinutes(0)
+                    .setBatchSize(2)
+                    .setSuccessTag(SUCCESS_TAG)
+                    .setFailureTag(FAILURE_TAG)
+                    .build());
+
+    PAssert.that(output.get(SUCCESS_TAG))
+        .satisfies(
+            collection -> {
+              Map<String, String> payloads = new HashMap<>();
+              collection.forEach(
+                  result ->
+                      payloads.put(
+                          new String(result.getOriginalPayload().getPayload()),
+                          result.getPayload()));
+              assertThat(payloads, is(equalTo(expected)));
+              return null;
+            });
+    PAssert.that(output.get(FAILURE_TAG)).empty();
+
+    pipeline.run();
+  }
 }
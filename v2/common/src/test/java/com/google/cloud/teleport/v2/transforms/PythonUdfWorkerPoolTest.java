@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.common.base.Strings;
+import com.google.common.io.Resources;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link PythonUdfWorkerPool}. Requires python3 on the local machine. */
+@RunWith(JUnit4.class)
+public class PythonUdfWorkerPoolTest {
+
+  private static final String PYTHON_VERSION = "python3";
+
+  private PythonUdfWorkerPool pool;
+
+  @Before
+  public void setUp() throws Exception {
+    assumeTrue(isPythonAvailable());
+    String script =
+        Resources.toString(
+            Resources.getResource("PythonTextTransformerTest/worker_transform.py"),
+            StandardCharsets.UTF_8);
+    pool =
+        PythonUdfWorkerPool.create(
+            Collections.singletonList(script), "transform", PYTHON_VERSION, 2, 2000);
+  }
+
+  @After
+  public void tearDown() {
+    if (pool != null) {
+      pool.release();
+    }
+  }
+
+  private static boolean isPythonAvailable() {
+    try {
+      Process process = new ProcessBuilder().command(PYTHON_VERSION, "--version").start();
+      return process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  @Test
+  public void testInvokeTransformsEvent() throws Exception {
+    PythonUdfWorkerPool.Result result = pool.invoke("{\"answerToLife\": 42}");
+
+    assertThat(result.isFailed()).isFalse();
+    assertThat(result.events())
+        .containsExactly("{\"answerToLife\": 42, \"new_key\": \"new_value\"}");
+  }
+
+  @Test
+  public void testInvokeReturnsListAndNone() throws Exception {
+    assertThat(pool.invoke("{\"split\": true}").events())
+        .containsExactly("{\"part\": 1}", "{\"part\": 2}")
+        .inOrder();
+    assertThat(pool.invoke("{\"discard\": true}").events()).isEmpty();
+  }
+
+  @Test
+  public void testInvokeReturnsErrorOfElement() throws Exception {
+    PythonUdfWorkerPool.Result result = pool.invoke("not json");
+
+    assertThat(result.isFailed()).isTrue();
+    assertThat(result.errorMessage()).contains("JSONDecodeError");
+    // The worker keeps processing the next elements.
+    assertThat(pool.invoke("{\"answerToLife\": 42}").isFailed()).isFalse();
+  }
+
+  @Test
+  public void testInvokeRestartsCrashedWorker() throws Exception {
+    PythonUdfWorkerPool.Result result = pool.invoke("{\"crash\": true}");
+
+    assertThat(result.isFailed()).isTrue();
+    assertThat(result.errorMessage()).contains("Python UDF worker failed");
+    assertThat(pool.invoke("{\"answerToLife\": 42}").events())
+        .containsExactly("{\"answerToLife\": 42, \"new_key\": \"new_value\"}");
+  }
+
+  @Test
+  public void testInvokeRestartsTimedOutWorker() throws Exception {
+    PythonUdfWorkerPool.Result result = pool.invoke("{\"sleep\": 60}");
+
+    assertThat(result.isFailed()).isTrue();
+    assertThat(result.errorMessage()).contains("No response within 2000 ms");
+    assertThat(pool.invoke("{\"answerToLife\": 42}").events())
+        .containsExactly("{\"answerToLife\": 42, \"new_key\": \"new_value\"}");
+  }
+
+  @Test
+  public void testInvokeRestartsWorkerWithInvalidResponse() throws Exception {
+    PythonUdfWorkerPool.Result result = pool.invoke("{\"corrupt\": true}");
+
+    assertThat(result.isFailed()).isTrue();
+    assertThat(result.errorMessage()).contains("Python UDF worker failed");
+    // The response of the worker that follows the invalid one must not be read for the next call.
+    assertThat(pool.invoke("{\"answerToLife\": 42}").events())
+        .containsExactly("{\"answerToLife\": 42, \"new_key\": \"new_value\"}");
+    assertThat(pool.invoke("{\"answerToLife\": 43}").events())
+        .containsExactly("{\"answerToLife\": 43, \"new_key\": \"new_value\"}");
+  }
+
+  @Test
+  public void testInvokeAllPipelinesRequests() throws Exception {
+    // Enough data in both directions to fill the pipes of the process while the requests are
+    // being written.
+    String padding = Strings.repeat("x", 1024);
+    List<String> payloads = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      payloads.add("{\"id\": " + i + ", \"padding\": \"" + padding + "\"}");
+    }
+
+    List<PythonUdfWorkerPool.Result> results = pool.invokeAll(payloads);
+
+    assertThat(results).hasSize(payloads.size());
+    for (int i = 0; i < payloads.size(); i++) {
+      assertThat(results.get(i).events())
+          .containsExactly(
+              "{\"id\": " + i + ", \"padding\": \"" + padding + "\", \"new_key\": \"new_value\"}");
+    }
+  }
+
+  @Test
+  public void testInvokeAllFailsRemainingElementsOfCrashedWorker() throws Exception {
+    List<PythonUdfWorkerPool.Result> results =
+        pool.invokeAll(
+            Arrays.asList(
+                "{\"answerToLife\": 42}",
+                "not json",
+                "{\"crash\": true}",
+                "{\"answerToLife\": 43}"));
+
+    assertThat(results.get(0).events())
+        .containsExactly("{\"answerToLife\": 42, \"new_key\": \"new_value\"}");
+    assertThat(results.get(1).errorMessage()).contains("JSONDecodeError");
+    assertThat(results.get(2).errorMessage()).contains("Python UDF worker failed");
+    assertThat(results.get(3).errorMessage()).contains("Python UDF worker failed");
+    assertThat(pool.invoke("{\"answerToLife\": 44}").events())
+        .containsExactly("{\"answerToLife\": 44, \"new_key\": \"new_value\"}");
+  }
+
+  @Test
+  public void testInvokeFailsOnceReleased() throws Exception {
+    pool.invoke("{\"answerToLife\": 42}");
+    pool.release();
+
+    assertThrows(IllegalStateException.class, () -> pool.invoke("{\"answerToLife\": 42}"));
+    pool = null;
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+/**
+ * A batch transform function, which fails the objects without an answer to life.
+ * @param {string[]} inJsons
+ * @return {string[]} outJsons
+ */
+function transformBatch(inJsons) {
+  return inJsons.map(function (inJson) {
+    var obj = JSON.parse(inJson);
+    if (!obj.hasOwnProperty('answerToLife')) {
+      return new Error("No answer to life");
+    }
+    obj.someProp = "someValue";
+    return JSON.stringify(obj);
+  });
+}
@@ -0,0 +1,43 @@
+"""
+Copyright (C) 2024 Google LLC
+
+Licensed under the Apache License, Version 2.0 (the "License"); you may not
+use this file except in compliance with the License. You may obtain a copy of
+the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+License for the specific language governing permissions and limitations under
+the License.
+"""
+
+"""
+A transform function for the persistent Python UDF workers.
+@param {dict} event
+@return {dict} event
+"""
+import os
+import struct
+import sys
+import time
+
+
+def transform(event):
+  """ Return a Dict or List of Dict Objects.  Return None to discard """
+  if event.get('crash'):
+    os._exit(1)
+  if event.get('sleep'):
+    time.sleep(event['sleep'])
+  if event.get('corrupt'):
+    # Writes a response that is not JSON ahead of the response of the worker.
+    sys.__stdout__.buffer.write(struct.pack('>I', 3) + b'foo')
+    sys.__stdout__.buffer.flush()
+  if event.get('split'):
+    return [{'part': 1}, {'part': 2}]
+  if event.get('discard'):
+    return None
+  event['new_key'] = 'new_value'
+  return event
@@ -16,19 +16,34 @@
 package com.google.cloud.teleport.v2.cdc.merge;
 
 import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.BigQueryError;
 import com.google.cloud.bigquery.BigQueryException;
 import com.google.cloud.bigquery.BigQueryOptions;
 import com.google.cloud.bigquery.Job;
 import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobInfo;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
 import com.google.cloud.bigquery.QueryJobConfiguration;
-import com.google.cloud.bigquery.TableResult;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.state.MapState;
+import org.apache.beam.sdk.state.StateSpec;
+import org.apache.beam.sdk.state.StateSpecs;
+import org.apache.beam.sdk.state.TimeDomain;
+import org.apache.beam.sdk.state.Timer;
+import org.apache.beam.sdk.state.TimerSpec;
+import org.apache.beam.sdk.state.TimerSpecs;
+import org.apache.beam.sdk.state.ValueState;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.GroupByKey;
 import org.apache.beam.sdk.transforms.MapElements;
@@ -37,6 +52,7 @@ import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.Reshuffle;
 import org.apache.beam.sdk.transforms.Values;
 import org.apache.beam.sdk.transforms.windowing.AfterProcessingTime;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.transforms.windowing.GlobalWindows;
 import org.apache.beam.sdk.transforms.windowing.Repeatedly;
 import org.apache.beam.sdk.transforms.windowing.Window;
@@ -45,10 +61,25 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.TypeDescriptor;
 import org.apache.beam.sdk.values.TypeDescriptors;
 import org.joda.time.Duration;
+import org.joda.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Class BigQueryMerger. */
+/**
+ * Class BigQueryMerger.
+ *
+ * <p>By default, a {@code MERGE} of the whole staging retention window is issued for every replica
+ * table that received data, once every {@link MergeConfiguration#mergeWindowDuration()}.
+ *
+ * <p>With {@link MergeConfiguration#incrementalMerge()}, the merges are scheduled by {@link
+ * IncrementalMergeFn} instead. It tracks, per replica table, the number of rows received since the
+ * last merge and a high-water mark of the staging ingestion time ({@link
+ * MergeStatementBuilder#INGESTION_TIMESTAMP_FIELD}) that was merged successfully. Tables without
+ * new rows are skipped, merges only read the staging rows ingested after the high-water mark, and
+ * the interval of each table adapts between {@link MergeConfiguration#minMergeWindowDuration()} and
+ * {@link MergeConfiguration#mergeWindowDuration()} to its backlog and to the duration of its
+ * merges.
+ */
 public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollection<Void>> {
 
   private static final Logger LOG = LoggerFactory.getLogger(BigQueryMerger.class);
@@ -67,6 +98,17 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
 
   @Override
   public PCollection<Void> expand(PCollection<MergeInfo> input) {
+    if (mergeConfiguration.incrementalMerge()) {
+      return input
+          .apply(Window.<MergeInfo>into(new GlobalWindows()))
+          .apply(
+              "Count Rows Per Table",
+              ParDo.of(new CountRowsPerTableFn(mergeConfiguration.mergeConcurrency())))
+          .apply(
+              "Incremental Merge",
+              ParDo.of(new IncrementalMergeFn(bigQueryClient, mergeConfiguration)))
+          .apply(MapElements.into(TypeDescriptors.voids()).via(whatever -> null));
+    }
     return input
         .apply(
             MapElements.into(
@@ -95,7 +137,11 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
    * @return a number between [0, mergeConcurrency-1] that is used as key for assignment
    */
   int createJobKey(String tableReference) {
-    return Math.abs(tableReference.hashCode()) % mergeConfiguration.mergeConcurrency();
+    return createJobKey(tableReference, mergeConfiguration.mergeConcurrency());
+  }
+
+  static int createJobKey(String tableReference, int mergeConcurrency) {
+    return Math.abs(tableReference.hashCode()) % mergeConcurrency;
   }
 
   /**
@@ -170,29 +216,18 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
   /** Class {@link BigQueryStatementIssuingFn}. */
   public static class BigQueryStatementIssuingFn extends DoFn<MergeInfo, Void> {
 
-    private static final int BIGQUERY_DUPLICATE_JOB_ERROR_CODE = 409;
     private final Counter mergesIssued = Metrics.counter(BigQueryMerger.class, "mergesIssued");
 
-    private BigQuery bigQueryClient;
-    private final MergeConfiguration mergeConfiguration;
-    private final Map<String, String> datasetsToLocations;
+    private final MergeJobRunner mergeJobRunner;
 
     public BigQueryStatementIssuingFn(
         BigQuery bigQueryClient, MergeConfiguration mergeConfiguration) {
-      this.bigQueryClient = bigQueryClient;
-      this.mergeConfiguration = mergeConfiguration;
-      this.datasetsToLocations = new HashMap<>();
+      this.mergeJobRunner = new MergeJobRunner(bigQueryClient, mergeConfiguration);
     }
 
     @Setup
     public void setUp() {
-      if (bigQueryClient == null) {
-        BigQueryOptions.Builder optionsBuilder = BigQueryOptions.newBuilder();
-        if (mergeConfiguration.projectId() != null && !mergeConfiguration.projectId().isEmpty()) {
-          optionsBuilder = optionsBuilder.setProjectId(mergeConfiguration.projectId());
-        }
-        bigQueryClient = optionsBuilder.build().getService();
-      }
+      mergeJobRunner.setUp();
     }
 
     @Override
@@ -203,9 +238,9 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
     @ProcessElement
     public void process(ProcessContext c) throws InterruptedException {
       MergeInfo mergeInfo = c.element();
-      String statement = mergeInfo.buildMergeStatement(mergeConfiguration);
+      String statement = mergeInfo.buildMergeStatement(mergeJobRunner.mergeConfiguration);
       try {
-        TableResult queryResult = issueQueryToBQ(mergeInfo, statement);
+        mergeJobRunner.run(mergeInfo, mergeInfo.getJobId(), statement);
         mergesIssued.inc();
         LOG.info("Merge job executed: {}", statement);
       } catch (BigQueryException e) {
@@ -220,9 +255,342 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
         throw e;
       }
     }
+  }
+
+  /**
+   * Pre-aggregates the {@link MergeInfo} of a bundle per replica table, and outputs the latest
+   * {@link MergeInfo} with the number of rows it stands for, keyed by the merge job key of the
+   * table.
+   */
+  static class CountRowsPerTableFn extends DoFn<MergeInfo, KV<Integer, KV<MergeInfo, Long>>> {
+
+    private final int mergeConcurrency;
+    private transient Map<String, KV<MergeInfo, Long>> rowsPerTable;
+    private transient Instant maxTimestamp;
+
+    CountRowsPerTableFn(int mergeConcurrency) {
+      this.mergeConcurrency = mergeConcurrency;
+    }
+
+    @StartBundle
+    public void startBundle() {
+      rowsPerTable = new HashMap<>();
+      maxTimestamp = null;
+    }
+
+    @ProcessElement
+    public void process(ProcessContext c) {
+      MergeInfo mergeInfo = c.element();
+      KV<MergeInfo, Long> current = rowsPerTable.get(mergeInfo.getReplicaTableReference());
+      long rows = (current == null) ? 1L : current.getValue() + 1L;
+      rowsPerTable.put(mergeInfo.getReplicaTableReference(), KV.of(mergeInfo, rows));
+      if (maxTimestamp == null || c.timestamp().isAfter(maxTimestamp)) {
+        maxTimestamp = c.timestamp();
+      }
+    }
+
+    @FinishBundle
+    public void finishBundle(FinishBundleContext c) {
+      for (Map.Entry<String, KV<MergeInfo, Long>> entry : rowsPerTable.entrySet()) {
+        c.output(
+            KV.of(createJobKey(entry.getKey(), mergeConcurrency), entry.getValue()),
+            maxTimestamp,
+            GlobalWindow.INSTANCE);
+      }
+      rowsPerTable.clear();
+    }
+  }
+
+  /**
+   * Schedules and issues incremental merges for the replica tables of a merge job key. All the
+   * tables of a key are merged sequentially, which bounds the number of concurrent merges to {@link
+   * MergeConfiguration#mergeConcurrency()}.
+   */
+  static class IncrementalMergeFn extends DoFn<KV<Integer, KV<MergeInfo, Long>>, Void> {
+
+    /** Delay before merging rows, to give them time to be written to the staging table. */
+    static final Duration STAGING_WRITE_DELAY = Duration.standardMinutes(5);
+
+    /** Backlog above which the merge interval of a table is shortened. */
+    static final long LARGE_BACKLOG_ROWS = 100_000L;
+
+    /** Backlog below which the merge interval of a table is lengthened. */
+    static final long SMALL_BACKLOG_ROWS = 1_000L;
+
+    /** A merge should not take longer than this fraction of the merge interval of its table. */
+    static final long MERGE_INTERVAL_TO_DURATION_RATIO = 4L;
+
+    private final Counter mergesIssued = Metrics.counter(BigQueryMerger.class, "mergesIssued");
+    private final Counter mergesSkipped = Metrics.counter(BigQueryMerger.class, "mergesSkipped");
+    private final Counter mergesFailed = Metrics.counter(BigQueryMerger.class, "mergesFailed");
+    private final Distribution mergeDurationMs =
+        Metrics.distribution(BigQueryMerger.class, "mergeDurationMs");
+    private final Distribution mergeBacklogRows =
+        Metrics.distribution(BigQueryMerger.class, "mergeBacklogRows");
+
+    @StateId("tables")
+    private final StateSpec<MapState<String, TableMergeState>> tablesSpec =
+        StateSpecs.map(StringUtf8Coder.of(), SerializableCoder.of(TableMergeState.class));
+
+    @StateId("tickScheduled")
+    private final StateSpec<ValueState<Boolean>> tickScheduledSpec = StateSpecs.value();
+
+    @TimerId("tick")
+    private final TimerSpec tickSpec = TimerSpecs.timer(TimeDomain.PROCESSING_TIME);
+
+    private final MergeJobRunner mergeJobRunner;
+
+    IncrementalMergeFn(BigQuery bigQueryClient, MergeConfiguration mergeConfiguration) {
+      this.mergeJobRunner = new MergeJobRunner(bigQueryClient, mergeConfiguration);
+    }
+
+    @Setup
+    public void setUp() {
+      mergeJobRunner.setUp();
+    }
+
+    @ProcessElement
+    public void process(
+        ProcessContext c,
+        @StateId("tables") MapState<String, TableMergeState> tables,
+        @StateId("tickScheduled") ValueState<Boolean> tickScheduled,
+        @TimerId("tick") Timer tick) {
+      MergeInfo mergeInfo = c.element().getValue().getKey();
+      long rows = c.element().getValue().getValue();
+      String table = mergeInfo.getReplicaTableReference();
+
+      TableMergeState state = tables.get(table).read();
+      if (state == null) {
+        state =
+            TableMergeState.initial(
+                mergeInfo.getJobId(),
+                mergeJobRunner.mergeConfiguration.mergeWindowDuration().getMillis());
+      }
+      tables.put(table, state.withPendingRows(mergeInfo, rows, System.currentTimeMillis()));
+
+      if (!Boolean.TRUE.equals(tickScheduled.read())) {
+        tick.offset(mergeJobRunner.mergeConfiguration.minMergeWindowDuration()).setRelative();
+        tickScheduled.write(true);
+      }
+    }
 
-    private TableResult issueQueryToBQ(MergeInfo mergeInfo, String statement)
+    @OnTimer("tick")
+    public void onTick(
+        OnTimerContext c,
+        @StateId("tables") MapState<String, TableMergeState> tables,
+        @StateId("tickScheduled") ValueState<Boolean> tickScheduled,
+        @TimerId("tick") Timer tick)
         throws InterruptedException {
+      boolean hasPendingRows = false;
+      for (Map.Entry<String, TableMergeState> entry : tables.entries().read()) {
+        TableMergeState state = entry.getValue();
+        long now = System.currentTimeMillis();
+        if (now < state.lastMergeMillis + state.mergeIntervalMillis) {
+          hasPendingRows |= state.pendingRows > 0;
+          continue;
+        }
+        if (state.pendingRows == 0) {
+          // Nothing was received for the table since its last merge.
+          mergesSkipped.inc();
+          tables.put(entry.getKey(), state.withSkippedMerge(now));
+          continue;
+        }
+        if (now < state.firstPendingMillis + STAGING_WRITE_DELAY.getMillis()) {
+          hasPendingRows = true;
+          continue;
+        }
+        TableMergeState newState = merge(state, now);
+        tables.put(entry.getKey(), newState);
+        hasPendingRows |= newState.pendingRows > 0;
+      }
+
+      if (hasPendingRows) {
+        tick.offset(mergeJobRunner.mergeConfiguration.minMergeWindowDuration()).setRelative();
+      } else {
+        tickScheduled.clear();
+      }
+    }
+
+    private TableMergeState merge(TableMergeState state, long startMillis)
+        throws InterruptedException {
+      MergeConfiguration mergeConfiguration = mergeJobRunner.mergeConfiguration;
+      String statement =
+          state.mergeInfo.buildMergeStatement(mergeConfiguration, state.highWaterMarkSeconds);
+      // The job id only depends on the state, so that a retried timer waits for the job that was
+      // already issued instead of merging again.
+      String jobId = String.format("%s_%d", state.jobIdPrefix, state.mergeSequence);
+      try {
+        mergeJobRunner.run(state.mergeInfo, jobId, statement);
+      } catch (BigQueryException e) {
+        LOG.warn(
+            "Merge Job Failed With BigQuery Exception: {} Statement: {}", e.toString(), statement);
+        mergesFailed.inc();
+        return state.withFailedMerge(System.currentTimeMillis());
+      }
+      long endMillis = System.currentTimeMillis();
+      long durationMillis = endMillis - startMillis;
+      mergesIssued.inc();
+      mergeDurationMs.update(durationMillis);
+      mergeBacklogRows.update(state.pendingRows);
+      LOG.info("Merge job executed in {} ms: {}", durationMillis, statement);
+
+      long highWaterMarkSeconds =
+          (startMillis - mergeConfiguration.incrementalMergeLookback().getMillis()) / 1000L;
+      long mergeIntervalMillis =
+          nextMergeIntervalMillis(
+              state.mergeIntervalMillis,
+              state.pendingRows,
+              durationMillis,
+              mergeConfiguration.minMergeWindowDuration().getMillis(),
+              mergeConfiguration.mergeWindowDuration().getMillis());
+      return state.withSuccessfulMerge(highWaterMarkSeconds, mergeIntervalMillis, endMillis);
+    }
+
+    /**
+     * Returns the next merge interval of a table. Tables whose merges take a large share of their
+     * interval are merged less often, tables with a large backlog are merged more often and tables
+     * with a small backlog less often, within {@code [minIntervalMillis, maxIntervalMillis]}.
+     */
+    @VisibleForTesting
+    static long nextMergeIntervalMillis(
+        long intervalMillis,
+        long backlogRows,
+        long mergeDurationMillis,
+        long minIntervalMillis,
+        long maxIntervalMillis) {
+      long nextIntervalMillis;
+      if (mergeDurationMillis * MERGE_INTERVAL_TO_DURATION_RATIO > intervalMillis) {
+        nextIntervalMillis = mergeDurationMillis * MERGE_INTERVAL_TO_DURATION_RATIO;
+      } else if (backlogRows >= LARGE_BACKLOG_ROWS) {
+        nextIntervalMillis = intervalMillis / 2;
+      } else if (backlogRows < SMALL_BACKLOG_ROWS) {
+        nextIntervalMillis = intervalMillis * 2;
+      } else {
+        nextIntervalMillis = intervalMillis;
+      }
+      return Math.max(minIntervalMillis, Math.min(maxIntervalMillis, nextIntervalMillis));
+    }
+  }
+
+  /** Incremental merge state of a replica table. */
+  static final class TableMergeState implements Serializable {
+    final MergeInfo mergeInfo;
+    final String jobIdPrefix;
+    final long mergeSequence;
+    final long pendingRows;
+    final long firstPendingMillis;
+
+    /** {@code null} until the first successful merge, which merges the whole retention window. */
+    final Long highWaterMarkSeconds;
+
+    final long mergeIntervalMillis;
+    final long lastMergeMillis;
+
+    private TableMergeState(
+        MergeInfo mergeInfo,
+        String jobIdPrefix,
+        long mergeSequence,
+        long pendingRows,
+        long firstPendingMillis,
+        Long highWaterMarkSeconds,
+        long mergeIntervalMillis,
+        long lastMergeMillis) {
+      this.mergeInfo = mergeInfo;
+      this.jobIdPrefix = jobIdPrefix;
+      this.mergeSequence = mergeSequence;
+      this.pendingRows = pendingRows;
+      this.firstPendingMillis = firstPendingMillis;
+      this.highWaterMarkSeconds = highWaterMarkSeconds;
+      this.mergeIntervalMillis = mergeIntervalMillis;
+      this.lastMergeMillis = lastMergeMillis;
+    }
+
+    static TableMergeState initial(String jobIdPrefix, long mergeIntervalMillis) {
+      return new TableMergeState(null, jobIdPrefix, 0L, 0L, 0L, null, mergeIntervalMillis, 0L);
+    }
+
+    TableMergeState withPendingRows(MergeInfo mergeInfo, long rows, long nowMillis) {
+      return new TableMergeState(
+          mergeInfo,
+          jobIdPrefix,
+          mergeSequence,
+          pendingRows + rows,
+          (pendingRows == 0) ? nowMillis : firstPendingMillis,
+          highWaterMarkSeconds,
+          mergeIntervalMillis,
+          lastMergeMillis);
+    }
+
+    TableMergeState withSkippedMerge(long nowMillis) {
+      return new TableMergeState(
+          mergeInfo,
+          jobIdPrefix,
+          mergeSequence,
+          pendingRows,
+          firstPendingMillis,
+          highWaterMarkSeconds,
+          mergeIntervalMillis,
+          nowMillis);
+    }
+
+    TableMergeState withFailedMerge(long nowMillis) {
+      return new TableMergeState(
+          mergeInfo,
+          jobIdPrefix,
+          mergeSequence + 1,
+          pendingRows,
+          firstPendingMillis,
+          highWaterMarkSeconds,
+          mergeIntervalMillis,
+          nowMillis);
+    }
+
+    TableMergeState withSuccessfulMerge(
+        long highWaterMarkSeconds, long mergeIntervalMillis, long nowMillis) {
+      return new TableMergeState(
+          mergeInfo,
+          jobIdPrefix,
+          mergeSequence + 1,
+          0L,
+          0L,
+          highWaterMarkSeconds,
+          mergeIntervalMillis,
+          nowMillis);
+    }
+  }
+
+  /** Issues merge jobs to BigQuery and records their statistics. */
+  static class MergeJobRunner implements Serializable {
+
+    private static final int BIGQUERY_DUPLICATE_JOB_ERROR_CODE = 409;
+
+    private final Distribution mergeBytesProcessed =
+        Metrics.distribution(BigQueryMerger.class, "mergeBytesProcessed");
+    private final Distribution mergeBytesBilled =
+        Metrics.distribution(BigQueryMerger.class, "mergeBytesBilled");
+
+    private BigQuery bigQueryClient;
+    final MergeConfiguration mergeConfiguration;
+    private final Map<String, String> datasetsToLocations;
+
+    MergeJobRunner(BigQuery bigQueryClient, MergeConfiguration mergeConfiguration) {
+      this.bigQueryClient = bigQueryClient;
+      this.mergeConfiguration = mergeConfiguration;
+      this.datasetsToLocations = new HashMap<>();
+    }
+
+    void setUp() {
+      if (bigQueryClient == null) {
+        BigQueryOptions.Builder optionsBuilder = BigQueryOptions.newBuilder();
+        if (mergeConfiguration.projectId() != null && !mergeConfiguration.projectId().isEmpty()) {
+          optionsBuilder = optionsBuilder.setProjectId(mergeConfiguration.projectId());
+        }
+        bigQueryClient = optionsBuilder.build().getService();
+      }
+    }
+
+    /** Runs the statement as a job with the given id and waits for it to finish. */
+    Job run(MergeInfo mergeInfo, String jobIdValue, String statement) throws InterruptedException {
       QueryJobConfiguration jobConfiguration = QueryJobConfiguration.newBuilder(statement).build();
 
       String datasetName = mergeInfo.getReplicaTable().getDataset();
@@ -234,24 +602,47 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
             bigQueryClient.getDataset(mergeInfo.getReplicaTable().getDataset()).getLocation());
       }
       String location = datasetsToLocations.get(datasetName);
-      JobId jobId = JobId.newBuilder().setJob(mergeInfo.getJobId()).setLocation(location).build();
+      JobId jobId = JobId.newBuilder().setJob(jobIdValue).setLocation(location).build();
       LOG.info("Triggering job {} for statement |{}|", jobId.toString(), statement);
 
+      Job job;
       try {
-        return bigQueryClient.query(jobConfiguration, jobId);
+        job = bigQueryClient.create(JobInfo.of(jobId, jobConfiguration));
       } catch (BigQueryException e) {
         // If we get a duplicate job error, it means that the worker is trying to issue an already
         // existing job in BigQuery. We wait for the original job's execution to finish and return
         // its results to avoid duplicates.
         if (BIGQUERY_DUPLICATE_JOB_ERROR_CODE == e.getCode()) {
           LOG.warn("BigQuery Duplicate Job: {}", e.toString());
-          Job job = bigQueryClient.getJob(jobId);
-          job.waitFor();
-          return job.getQueryResults();
+          job = bigQueryClient.getJob(jobId);
         } else {
           throw e;
         }
       }
+      job = job.waitFor();
+      if (job == null) {
+        throw new BigQueryException(
+            BigQueryException.UNKNOWN_CODE, "Merge job " + jobId + " no longer exists");
+      }
+      BigQueryError error = job.getStatus().getError();
+      if (error != null) {
+        throw new BigQueryException(BigQueryException.UNKNOWN_CODE, error.getMessage(), error);
+      }
+      recordStatistics(job);
+      return job;
+    }
+
+    private void recordStatistics(Job job) {
+      if (!(job.getStatistics() instanceof QueryStatistics)) {
+        return;
+      }
+      QueryStatistics statistics = job.getStatistics();
+      if (statistics.getTotalBytesProcessed() != null) {
+        mergeBytesProcessed.update(statistics.getTotalBytesProcessed());
+      }
+      if (statistics.getTotalBytesBilled() != null) {
+        mergeBytesBilled.update(statistics.getTotalBytesBilled());
+      }
     }
   }
 }
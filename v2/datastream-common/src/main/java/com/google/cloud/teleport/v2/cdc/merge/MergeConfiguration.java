@@ -60,6 +60,9 @@ public abstract class MergeConfiguration implements Serializable {
   public static final int DEFAULT_PARTITION_RETENTION_DAYS = 1;
   public static final Duration DEFAULT_MERGE_WINDOW_DURATION = Duration.standardMinutes(30);
   public static final int DEFAULT_MERGE_CONCURRENCY = 30;
+  public static final Boolean DEFAULT_INCREMENTAL_MERGE = false;
+  public static final Duration DEFAULT_MIN_MERGE_WINDOW_DURATION = Duration.standardMinutes(1);
+  public static final Duration DEFAULT_INCREMENTAL_MERGE_LOOKBACK = Duration.standardMinutes(10);
 
   // BigQuery-specific properties
   public static final String BIGQUERY_QUOTE_CHARACTER = "`";
@@ -79,6 +82,24 @@ public abstract class MergeConfiguration implements Serializable {
 
   public abstract int mergeConcurrency();
 
+  /**
+   * Whether merges only consider the staging rows ingested since the last successful merge of the
+   * replica table, see {@link BigQueryMerger}.
+   */
+  public abstract Boolean incrementalMerge();
+
+  /**
+   * The shortest interval between incremental merges of a table. The interval of a table adapts
+   * between this value and {@link #mergeWindowDuration()}.
+   */
+  public abstract Duration minMergeWindowDuration();
+
+  /**
+   * How far before the start of the last successful merge the next incremental merge of a table
+   * starts reading staging rows, to account for rows that are still being written.
+   */
+  public abstract Duration incrementalMergeLookback();
+
   public static MergeConfiguration bigQueryConfiguration() {
     return MergeConfiguration.builder().setQuoteCharacter(BIGQUERY_QUOTE_CHARACTER).build();
   }
@@ -101,6 +122,18 @@ public abstract class MergeConfiguration implements Serializable {
     return this.toBuilder().setMergeConcurrency(mergeConcurrency).build();
   }
 
+  public MergeConfiguration withIncrementalMerge(Boolean incrementalMerge) {
+    return this.toBuilder().setIncrementalMerge(incrementalMerge).build();
+  }
+
+  public MergeConfiguration withMinMergeWindowDuration(Duration duration) {
+    return this.toBuilder().setMinMergeWindowDuration(duration).build();
+  }
+
+  public MergeConfiguration withIncrementalMergeLookback(Duration duration) {
+    return this.toBuilder().setIncrementalMergeLookback(duration).build();
+  }
+
   public abstract Builder toBuilder();
 
   static Builder builder() {
@@ -110,7 +143,10 @@ public abstract class MergeConfiguration implements Serializable {
         .setPartitionRetention(DEFAULT_PARTITION_RETENTION_DAYS)
         .setSupportPartitionedTables(true)
         .setMergeWindowDuration(DEFAULT_MERGE_WINDOW_DURATION)
-        .setMergeConcurrency(DEFAULT_MERGE_CONCURRENCY);
+        .setMergeConcurrency(DEFAULT_MERGE_CONCURRENCY)
+        .setIncrementalMerge(DEFAULT_INCREMENTAL_MERGE)
+        .setMinMergeWindowDuration(DEFAULT_MIN_MERGE_WINDOW_DURATION)
+        .setIncrementalMergeLookback(DEFAULT_INCREMENTAL_MERGE_LOOKBACK);
   }
 
   @AutoValue.Builder
@@ -129,6 +165,12 @@ public abstract class MergeConfiguration implements Serializable {
 
     abstract Builder setMergeConcurrency(int mergeConcurrency);
 
+    abstract Builder setIncrementalMerge(Boolean incrementalMerge);
+
+    abstract Builder setMinMergeWindowDuration(Duration minMergeWindowDuration);
+
+    abstract Builder setIncrementalMergeLookback(Duration incrementalMergeLookback);
+
     abstract MergeConfiguration build();
   }
 }
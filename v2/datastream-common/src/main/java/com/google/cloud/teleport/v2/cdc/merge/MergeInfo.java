@@ -27,6 +27,7 @@ import com.google.common.annotations.VisibleForTesting;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.beam.sdk.schemas.AutoValueSchema;
 import org.apache.beam.sdk.schemas.annotations.DefaultSchema;
 import org.apache.beam.sdk.schemas.annotations.SchemaCreate;
@@ -110,6 +111,18 @@ public abstract class MergeInfo implements Serializable {
    * @param mergeConfiguration contains all the Merge query settings required to build a Merge SQL
    */
   public String buildMergeStatement(MergeConfiguration mergeConfiguration) {
+    return buildMergeStatement(mergeConfiguration, null);
+  }
+
+  /**
+   * Returns a Merge SQL string that only merges the staging rows ingested since the given time.
+   *
+   * @param mergeConfiguration contains all the Merge query settings required to build a Merge SQL
+   * @param ingestedSinceSeconds epoch seconds of the oldest ingestion time to merge, or {@code
+   *     null} to merge the whole retention window
+   */
+  public String buildMergeStatement(
+      MergeConfiguration mergeConfiguration, @Nullable Long ingestedSinceSeconds) {
     MergeStatementBuilder mergeBuilder = new MergeStatementBuilder(mergeConfiguration);
     return mergeBuilder.buildMergeStatement(
         getReplicaTableReference(),
@@ -117,7 +130,8 @@ public abstract class MergeInfo implements Serializable {
         this.getAllPkFields(),
         this.getOrderByFields(),
         this.getDeleteField(),
-        this.getColumns());
+        this.getColumns(),
+        ingestedSinceSeconds);
   }
 
   @Override
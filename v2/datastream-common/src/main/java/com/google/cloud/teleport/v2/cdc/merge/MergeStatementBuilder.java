@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.text.StringSubstitutor;
 
 /** Class {@link MergeStatementBuilder}. */
@@ -29,6 +30,12 @@ public class MergeStatementBuilder implements Serializable {
   public static final String STAGING_TABLE_NAME = "staging";
   public static final String REPLICA_TABLE_NAME = "replica";
 
+  /**
+   * Staging column holding the epoch seconds at which a row was written to the staging table. Used
+   * to scope incremental merges.
+   */
+  public static final String INGESTION_TIMESTAMP_FIELD = "_metadata_ingestion_timestamp";
+
   private final MergeConfiguration configuration;
 
   public MergeStatementBuilder(MergeConfiguration configuration) {
@@ -42,6 +49,31 @@ public class MergeStatementBuilder implements Serializable {
       List<String> orderByFields,
       String deletedFieldName,
       List<String> allFields) {
+    return buildMergeStatement(
+        replicaTable,
+        stagingTable,
+        primaryKeyFields,
+        orderByFields,
+        deletedFieldName,
+        allFields,
+        null);
+  }
+
+  /**
+   * Builds the merge statement of a replica table.
+   *
+   * <p>If {@code ingestedSinceSeconds} is set, only the staging rows ingested at or after that
+   * time, and the deletes within the retention window, are merged. Older deletes are kept so that
+   * out of order changes for an already deleted key do not re-insert it.
+   */
+  public String buildMergeStatement(
+      String replicaTable,
+      String stagingTable,
+      List<String> primaryKeyFields,
+      List<String> orderByFields,
+      String deletedFieldName,
+      List<String> allFields,
+      @Nullable Long ingestedSinceSeconds) {
     // Key/Value Map used to replace values in template
     Map<String, String> mergeQueryValues = new HashMap<>();
 
@@ -58,7 +90,7 @@ public class MergeStatementBuilder implements Serializable {
             primaryKeyFields,
             orderByFields,
             deletedFieldName,
-            configuration.partitionRetention()));
+            ingestedSinceSeconds));
 
     mergeQueryValues.put(
         "joinCondition",
@@ -115,14 +147,19 @@ public class MergeStatementBuilder implements Serializable {
       List<String> primaryKeyFields,
       List<String> orderByFields,
       String deletedFieldName,
-      Integer daysOfRetention) {
+      Long ingestedSinceSeconds) {
     String commaSeparatedFields = joinStringFields(",", allFields, "`");
 
     return String.format(
         LATEST_FROM_STAGING_TEMPLATE,
         commaSeparatedFields,
         buildPartitionedByPKAndSorted(
-            stagingTable, allFields, primaryKeyFields, orderByFields, deletedFieldName));
+            stagingTable,
+            allFields,
+            primaryKeyFields,
+            orderByFields,
+            deletedFieldName,
+            ingestedSinceSeconds));
   }
 
   private static String joinStringFields(String delimiter, List<String> fields, String quoteChar) {
@@ -147,7 +184,8 @@ public class MergeStatementBuilder implements Serializable {
       List<String> allFields,
       List<String> primaryKeyFields,
       List<String> orderByFields,
-      String deletedFieldName) {
+      String deletedFieldName,
+      Long ingestedSinceSeconds) {
     String commaSeparatedFields = joinStringFields(",", allFields, configuration.quoteCharacter());
     String commaSeparatedPKFields =
         joinStringFields(", ", primaryKeyFields, configuration.quoteCharacter());
@@ -158,7 +196,23 @@ public class MergeStatementBuilder implements Serializable {
         buildOrderByFieldsSql(orderByFields),
         buildDeletedFieldSql(deletedFieldName),
         stagingTable,
-        buildRetentionWhereClause(deletedFieldName));
+        buildWhereClause(deletedFieldName, ingestedSinceSeconds));
+  }
+
+  String buildWhereClause(String deletedFieldName, Long ingestedSinceSeconds) {
+    String retentionWhereClause = buildRetentionWhereClause(deletedFieldName);
+    if (ingestedSinceSeconds == null) {
+      return retentionWhereClause;
+    }
+    String incrementalCondition =
+        String.format(
+            INCREMENTAL_CONDITION_TEMPLATE,
+            INGESTION_TIMESTAMP_FIELD,
+            ingestedSinceSeconds,
+            deletedFieldName);
+    return retentionWhereClause.isEmpty()
+        ? "WHERE " + incrementalCondition
+        : retentionWhereClause + " AND " + incrementalCondition;
   }
 
   private String buildOrderByFieldsSql(List<String> orderByFields) {
@@ -198,6 +252,8 @@ public class MergeStatementBuilder implements Serializable {
           "    OR (_PARTITIONTIME >= TIMESTAMP(DATE_ADD(CURRENT_DATE(), INTERVAL -%s DAY))",
           "        AND %s))");
 
+  public static final String INCREMENTAL_CONDITION_TEMPLATE = "(%s >= %d OR %s)";
+
   String buildRetentionWhereClause(String deletedFieldName) {
     if (configuration.supportPartitionedTables()) {
       return String.format(
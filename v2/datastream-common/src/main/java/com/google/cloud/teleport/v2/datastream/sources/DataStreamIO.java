@@ -97,6 +97,11 @@ import org.slf4j.LoggerFactory;
  *       final output of this transform.
  *   <li>`gs://BUCKET/root/prefix/HR_SALARIES/` - This directory represents an "object"
  * </ul>
+ *
+ * <p>The records are emitted as {@link FailsafeElement FailsafeElements} of the JSON text of each
+ * change event, rather than as typed events, because every consumer of this transform (the UDFs,
+ * the row transformers, the BigQuery and Spanner writers and the dead-letter queue) works on the
+ * JSON, which the formatters serialize once per record.
  */
 public class DataStreamIO extends PTransform<PBegin, PCollection<FailsafeElement<String, String>>> {
 
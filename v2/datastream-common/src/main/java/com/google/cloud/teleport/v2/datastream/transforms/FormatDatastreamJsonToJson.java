@@ -121,7 +121,8 @@ public final class FormatDatastreamJsonToJson
     // All Raw Metadata
     outputObject.put("_metadata_source", getSourceMetadata(record));
 
-    c.output(FailsafeElement.of(outputObject.toString(), outputObject.toString()));
+    String json = outputObject.toString();
+    c.output(FailsafeElement.of(json, json));
   }
 
   private String getStreamName(JsonNode record) {
@@ -159,7 +159,8 @@ public class FormatDatastreamRecordToJson
     // All Raw Metadata
     outputObject.put("_metadata_source", getSourceMetadataJson(record));
 
-    return FailsafeElement.of(outputObject.toString(), outputObject.toString());
+    String json = outputObject.toString();
+    return FailsafeElement.of(json, json);
   }
 
   private GenericRecord getPayload(GenericRecord record) {
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.cdc.merge;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.teleport.v2.cdc.merge.BigQueryMerger.IncrementalMergeFn;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link BigQueryMerger}. */
+@RunWith(JUnit4.class)
+public final class BigQueryMergerTest {
+
+  private static final long MIN_INTERVAL_MILLIS = 60_000L;
+  private static final long MAX_INTERVAL_MILLIS = 1_800_000L;
+
+  @Test
+  public void nextMergeIntervalMillis_largeBacklogShortensInterval() {
+    assertThat(
+            IncrementalMergeFn.nextMergeIntervalMillis(
+                600_000L, 200_000L, 10_000L, MIN_INTERVAL_MILLIS, MAX_INTERVAL_MILLIS))
+        .isEqualTo(300_000L);
+    assertThat(
+            IncrementalMergeFn.nextMergeIntervalMillis(
+                100_000L, 200_000L, 1_000L, MIN_INTERVAL_MILLIS, MAX_INTERVAL_MILLIS))
+        .isEqualTo(MIN_INTERVAL_MILLIS);
+  }
+
+  @Test
+  public void nextMergeIntervalMillis_smallBacklogLengthensInterval() {
+    assertThat(
+            IncrementalMergeFn.nextMergeIntervalMillis(
+                600_000L, 10L, 10_000L, MIN_INTERVAL_MILLIS, MAX_INTERVAL_MILLIS))
+        .isEqualTo(1_200_000L);
+    assertThat(
+            IncrementalMergeFn.nextMergeIntervalMillis(
+                1_200_000L, 10L, 10_000L, MIN_INTERVAL_MILLIS, MAX_INTERVAL_MILLIS))
+        .isEqualTo(MAX_INTERVAL_MILLIS);
+  }
+
+  @Test
+  public void nextMergeIntervalMillis_slowMergesLengthenInterval() {
+    assertThat(
+            IncrementalMergeFn.nextMergeIntervalMillis(
+                300_000L, 200_000L, 120_000L, MIN_INTERVAL_MILLIS, MAX_INTERVAL_MILLIS))
+        .isEqualTo(480_000L);
+  }
+
+  @Test
+  public void nextMergeIntervalMillis_moderateBacklogKeepsInterval() {
+    assertThat(
+            IncrementalMergeFn.nextMergeIntervalMillis(
+                600_000L, 5_000L, 10_000L, MIN_INTERVAL_MILLIS, MAX_INTERVAL_MILLIS))
+        .isEqualTo(600_000L);
+  }
+}
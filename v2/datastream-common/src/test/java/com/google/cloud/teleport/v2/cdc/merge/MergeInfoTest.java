@@ -155,6 +155,40 @@ public final class MergeInfoTest {
     assertThat(mergeInfo.buildMergeStatement(cfg)).isEqualTo(MERGE_SQL);
   }
 
+  @Test
+  public void buildMergeStatement_incremental() {
+    List<String> allPkFields = ImmutableList.of("id");
+    List<String> orderByFields = ImmutableList.of("timestamp", "other");
+    List<String> mergeFields = ImmutableList.of("id, cola", "colb", "timestamp", "other");
+    TableId stagingTable = TableId.of("projectId", "dataset", "staging_table");
+    TableId replicaTable = TableId.of("projectId", "dataset", "table");
+    MergeConfiguration cfg = MergeConfiguration.bigQueryConfiguration();
+    MergeInfo mergeInfo =
+        MergeInfo.create(
+            "projectId",
+            allPkFields,
+            orderByFields,
+            "metadata_deleteField",
+            stagingTable,
+            replicaTable,
+            mergeFields,
+            "job-id-dataset-table");
+
+    assertThat(mergeInfo.buildMergeStatement(cfg, null)).isEqualTo(MERGE_SQL);
+    assertThat(mergeInfo.buildMergeStatement(cfg, 1700000000L))
+        .isEqualTo(
+            MERGE_SQL.replace(
+                "AND metadata_deleteField))) WHERE row_num=1",
+                "AND metadata_deleteField)) AND (_metadata_ingestion_timestamp >= 1700000000"
+                    + " OR metadata_deleteField)) WHERE row_num=1"));
+    assertThat(
+            mergeInfo.buildMergeStatement(
+                cfg.toBuilder().setSupportPartitionedTables(false).build(), 1700000000L))
+        .contains(
+            "FROM `projectId.dataset.staging_table` WHERE (_metadata_ingestion_timestamp >="
+                + " 1700000000 OR metadata_deleteField)) WHERE row_num=1");
+  }
+
   @Test
   public void getMergeFields_expectedResult() {
     MergeInfo mergeInfo = buildSampleMergeInfo();
@@ -18,6 +18,7 @@ package com.google.cloud.teleport.v2.templates;
 import static com.google.cloud.teleport.v2.transforms.StatefulRowCleaner.RowCleanerDeadLetterQueueSanitizer;
 
 import com.google.api.services.bigquery.model.TableRow;
+import com.google.cloud.bigquery.StandardSQLTypeName;
 import com.google.cloud.bigquery.TableId;
 import com.google.cloud.teleport.metadata.Template;
 import com.google.cloud.teleport.metadata.TemplateCategory;
@@ -28,6 +29,7 @@ import com.google.cloud.teleport.v2.cdc.dlq.StringDeadLetterQueueSanitizer;
 import com.google.cloud.teleport.v2.cdc.mappers.BigQueryDefaultSchemas;
 import com.google.cloud.teleport.v2.cdc.merge.BigQueryMerger;
 import com.google.cloud.teleport.v2.cdc.merge.MergeConfiguration;
+import com.google.cloud.teleport.v2.cdc.merge.MergeStatementBuilder;
 import com.google.cloud.teleport.v2.coders.FailsafeElementCoder;
 import com.google.cloud.teleport.v2.common.UncaughtExceptionLogger;
 import com.google.cloud.teleport.v2.datastream.mappers.DataStreamMapper;
@@ -43,7 +45,9 @@ import com.google.cloud.teleport.v2.transforms.UDFTextTransformer.InputUDFToTabl
 import com.google.cloud.teleport.v2.utils.BigQueryIOUtils;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.base.Splitter;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import org.apache.beam.runners.dataflow.options.DataflowPipelineOptions;
@@ -70,6 +74,7 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.TypeDescriptor;
 import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -367,6 +372,32 @@ public class DataStreamToBigQuery {
     Boolean getUseStorageWriteApiAtLeastOnce();
 
     void setUseStorageWriteApiAtLeastOnce(Boolean value);
+
+    @TemplateParameter.Boolean(
+        order = 21,
+        optional = true,
+        parentName = "applyMerge",
+        parentTriggerValues = {"true"},
+        description = "Merge only newly ingested staging rows.",
+        helpText =
+            "Whether each MERGE only reads the staging rows ingested since the last successful merge of the table. Tables without new rows are not merged, and the interval between merges of a table adapts to its backlog and merge duration, between minMergeFrequencyMinutes and mergeFrequencyMinutes. Defaults to: false.")
+    @Default.Boolean(false)
+    Boolean getIncrementalMerge();
+
+    void setIncrementalMerge(Boolean value);
+
+    @TemplateParameter.Integer(
+        order = 22,
+        optional = true,
+        parentName = "incrementalMerge",
+        parentTriggerValues = {"true"},
+        description = "The minimum number of minutes between incremental merges for a given table",
+        helpText =
+            "The minimum number of minutes between merges for a given table when incrementalMerge is enabled. Defaults to: 1.")
+    @Default.Integer(1)
+    Integer getMinMergeFrequencyMinutes();
+
+    void setMinMergeFrequencyMinutes(Integer value);
   }
 
   /**
@@ -436,13 +467,17 @@ public class DataStreamToBigQuery {
 
     InputUDFToTableRow<String> failsafeTableRowTransformer =
         new InputUDFToTableRow<String>(
-            options.getJavascriptTextTransformGcsPath(),
-            options.getJavascriptTextTransformFunctionName(),
-            options.getJavascriptTextTransformReloadIntervalMinutes(),
-            options.getPythonTextTransformGcsPath(),
-            options.getPythonTextTransformFunctionName(),
-            options.getRuntimeRetries(),
-            FAILSAFE_ELEMENT_CODER);
+                options.getJavascriptTextTransformGcsPath(),
+                options.getJavascriptTextTransformFunctionName(),
+                options.getJavascriptTextTransformReloadIntervalMinutes(),
+                options.getPythonTextTransformGcsPath(),
+                options.getPythonTextTransformFunctionName(),
+                options.getRuntimeRetries(),
+                FAILSAFE_ELEMENT_CODER)
+            .withJavascriptTransformBatchSize(options.getJavascriptTextTransformBatchSize())
+            .withPythonTransformWorkers(
+                options.getPythonTextTransformWorkerPoolSize(),
+                options.getPythonTextTransformWorkerTimeoutSeconds());
 
     StatefulRowCleaner statefulCleaner = StatefulRowCleaner.of();
 
@@ -517,8 +552,23 @@ public class DataStreamToBigQuery {
     // TODO(beam 2.23): InsertRetryPolicy should be CDC compliant
     Set<String> fieldsToIgnore = getFieldsToIgnore(options.getIgnoreFields());
 
+    // Incremental merges select the staging rows to merge by the time they were ingested.
+    boolean incrementalMerge = options.getApplyMerge() && options.getIncrementalMerge();
+    PCollection<TableRow> stagingTableRows = shuffledTableRows;
+    Map<String, StandardSQLTypeName> stagingSchema =
+        BigQueryDefaultSchemas.DATASTREAM_METADATA_SCHEMA;
+    if (incrementalMerge) {
+      stagingTableRows =
+          shuffledTableRows.apply(
+              "Add Ingestion Timestamp",
+              MapElements.into(TypeDescriptor.of(TableRow.class))
+                  .via(DataStreamToBigQuery::addIngestionTimestamp));
+      stagingSchema = new HashMap<>(BigQueryDefaultSchemas.DATASTREAM_METADATA_SCHEMA);
+      stagingSchema.put(MergeStatementBuilder.INGESTION_TIMESTAMP_FIELD, StandardSQLTypeName.INT64);
+    }
+
     WriteResult writeResult =
-        shuffledTableRows
+        stagingTableRows
             .apply(
                 "Map to Staging Tables",
                 new DataStreamMapper(
@@ -527,7 +577,7 @@ public class DataStreamToBigQuery {
                         options.getOutputStagingDatasetTemplate(),
                         options.getOutputStagingTableNameTemplate())
                     .withDataStreamRootUrl(options.getDataStreamRootUrl())
-                    .withDefaultSchema(BigQueryDefaultSchemas.DATASTREAM_METADATA_SCHEMA)
+                    .withDefaultSchema(stagingSchema)
                     .withDayPartitioning(true)
                     .withIgnoreFields(fieldsToIgnore))
             .apply(
@@ -572,7 +622,10 @@ public class DataStreamToBigQuery {
                       .withMergeWindowDuration(
                           Duration.standardMinutes(options.getMergeFrequencyMinutes()))
                       .withMergeConcurrency(options.getMergeConcurrency())
-                      .withPartitionRetention(options.getPartitionRetentionDays())));
+                      .withPartitionRetention(options.getPartitionRetentionDays())
+                      .withIncrementalMerge(incrementalMerge)
+                      .withMinMergeWindowDuration(
+                          Duration.standardMinutes(options.getMinMergeFrequencyMinutes()))));
     }
 
     /*
@@ -617,6 +670,14 @@ public class DataStreamToBigQuery {
     return new HashSet<>(Splitter.on(Pattern.compile("\\s*,\\s*")).splitToList(fields));
   }
 
+  /** Returns a copy of the row with the current time as its staging ingestion timestamp. */
+  private static TableRow addIngestionTimestamp(TableRow tableRow) {
+    TableRow stampedTableRow = tableRow.clone();
+    stampedTableRow.set(
+        MergeStatementBuilder.INGESTION_TIMESTAMP_FIELD, System.currentTimeMillis() / 1000L);
+    return stampedTableRow;
+  }
+
   private static TableRow removeTableRowFields(TableRow tableRow, Set<String> ignoreFields) {
     LOG.debug("BigQuery Writes: {}", tableRow);
     TableRow cleanTableRow = tableRow.clone();
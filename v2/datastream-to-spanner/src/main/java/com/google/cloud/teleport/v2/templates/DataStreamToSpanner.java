@@ -536,6 +536,33 @@ public class DataStreamToSpanner {
     String getSchemaOverridesFilePath();
 
     void setSchemaOverridesFilePath(String value);
+
+    @TemplateParameter.Integer(
+        order = 33,
+        optional = true,
+        description = "Transaction batch size",
+        helpText =
+            "The max number of change events written to Cloud Spanner in a single transaction."
+                + " Change events with distinct primary keys are batched together, while the"
+                + " events of a primary key are written in the order of their sequence. Defaults"
+                + " to 1, which writes each change event in its own transaction.")
+    @Default.Integer(1)
+    Integer getTransactionBatchSize();
+
+    void setTransactionBatchSize(Integer value);
+
+    @TemplateParameter.Integer(
+        order = 34,
+        optional = true,
+        description = "Transaction batch max latency in milliseconds",
+        helpText =
+            "The max time in milliseconds a change event is buffered for before the batch is"
+                + " written, when transactionBatchSize is greater than 1. Batches are also"
+                + " written at the end of each bundle. Defaults to 1000.")
+    @Default.Integer(1000)
+    Integer getTransactionBatchMaxLatencyMs();
+
+    void setTransactionBatchMaxLatencyMs(Integer value);
   }
 
   private static void validateSourceType(Options options) {
@@ -793,7 +820,9 @@ public class DataStreamToSpanner {
                     ddlView,
                     options.getShadowTablePrefix(),
                     options.getDatastreamSourceType(),
-                    isRegularMode));
+                    isRegularMode,
+                    options.getTransactionBatchSize(),
+                    options.getTransactionBatchMaxLatencyMs()));
     /*
      * Stage 5: Write failures to GCS Dead Letter Queue
      * a) Retryable errors are written to retry GCS Dead letter queue
@@ -41,7 +41,9 @@ import org.apache.beam.sdk.values.TupleTagList;
  * Takes an input of DataStream events as {@link FailsafeElement} objects and writes them to the
  * given Cloud Spanner database.
  *
- * <p>Each event will be written using a single Cloud Spanner Transaction.
+ * <p>Each event will be written using a single Cloud Spanner Transaction, unless a transaction
+ * batch size greater than 1 is set, in which case events with distinct primary keys are written
+ * together in a single transaction.
  *
  * <p>The {@link Result} object contains two streams: the successfully written Mutation Group
  * objects with their commit timestamps, and the Mutation Group objects that failed to be written
@@ -66,18 +68,37 @@ public class SpannerTransactionWriter
   /* The run mode, whether it is regular or retry. */
   private final Boolean isRegularRunMode;
 
+  /* The max number of change events written in a single transaction. */
+  private final int transactionBatchSize;
+
+  /* The max time a change event is buffered for before it is written. */
+  private final long transactionBatchMaxLatencyMs;
+
   public SpannerTransactionWriter(
       SpannerConfig spannerConfig,
       PCollectionView<Ddl> ddlView,
       String shadowTablePrefix,
       String sourceType,
       Boolean isRegularRunMode) {
+    this(spannerConfig, ddlView, shadowTablePrefix, sourceType, isRegularRunMode, 1, 0L);
+  }
+
+  public SpannerTransactionWriter(
+      SpannerConfig spannerConfig,
+      PCollectionView<Ddl> ddlView,
+      String shadowTablePrefix,
+      String sourceType,
+      Boolean isRegularRunMode,
+      int transactionBatchSize,
+      long transactionBatchMaxLatencyMs) {
     Preconditions.checkNotNull(spannerConfig);
     this.spannerConfig = spannerConfig;
     this.ddlView = ddlView;
     this.shadowTablePrefix = shadowTablePrefix;
     this.sourceType = sourceType;
     this.isRegularRunMode = isRegularRunMode;
+    this.transactionBatchSize = transactionBatchSize;
+    this.transactionBatchMaxLatencyMs = transactionBatchMaxLatencyMs;
   }
 
   @Override
@@ -88,7 +109,13 @@ public class SpannerTransactionWriter
             "Write Mutations",
             ParDo.of(
                     new SpannerTransactionWriterDoFn(
-                        spannerConfig, ddlView, shadowTablePrefix, sourceType, isRegularRunMode))
+                        spannerConfig,
+                        ddlView,
+                        shadowTablePrefix,
+                        sourceType,
+                        isRegularRunMode,
+                        transactionBatchSize,
+                        transactionBatchMaxLatencyMs))
                 .withSideInputs(ddlView)
                 .withOutputTags(
                     DatastreamToSpannerConstants.SUCCESSFUL_EVENT_TAG,
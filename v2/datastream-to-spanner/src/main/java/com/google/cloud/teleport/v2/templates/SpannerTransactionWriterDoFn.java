@@ -40,9 +40,17 @@ import com.google.cloud.teleport.v2.templates.datastream.ChangeEventSequence;
 import com.google.cloud.teleport.v2.templates.datastream.ChangeEventSequenceFactory;
 import com.google.cloud.teleport.v2.templates.utils.WatchdogRunnable;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.beam.runners.dataflow.options.DataflowWorkerHarnessOptions;
@@ -53,6 +61,7 @@ import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TupleTag;
 import org.joda.time.Duration;
@@ -67,6 +76,11 @@ import org.slf4j.LoggerFactory;
  * specifies the commit order) for each primary key. Shadow tables are consulted before actual
  * writes to Cloud Spanner to preserve the correctness and consistency of data.
  *
+ * <p>If the transaction batch size is greater than 1, change events are buffered and events with
+ * distinct primary keys are written in a single transaction, with one shadow table read per shadow
+ * table. The buffered events are written once the batch size or the max batch latency is reached,
+ * and at the end of the bundle.
+ *
  * <p>Change events written successfully will be pushed onto the primary output with their commit
  * timestamps.
  *
@@ -172,12 +186,34 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
   private transient AtomicBoolean keepWatchdogRunning;
   private transient Thread watchdogThread;
 
+  /* The max number of change events written in a single transaction. */
+  private final int transactionBatchSize;
+
+  /* The max time a change event is buffered for before the buffered events are written. */
+  private final long transactionBatchMaxLatencyMs;
+
+  // Change events buffered to be written in transactions of multiple events.
+  private transient List<BufferedEvent> bufferedEvents;
+  private transient Ddl bufferedEventsDdl;
+  private transient long firstBufferedEventMillis;
+
   SpannerTransactionWriterDoFn(
       SpannerConfig spannerConfig,
       PCollectionView<Ddl> ddlView,
       String shadowTablePrefix,
       String sourceType,
       Boolean isRegularRunMode) {
+    this(spannerConfig, ddlView, shadowTablePrefix, sourceType, isRegularRunMode, 1, 0L);
+  }
+
+  SpannerTransactionWriterDoFn(
+      SpannerConfig spannerConfig,
+      PCollectionView<Ddl> ddlView,
+      String shadowTablePrefix,
+      String sourceType,
+      Boolean isRegularRunMode,
+      int transactionBatchSize,
+      long transactionBatchMaxLatencyMs) {
     Preconditions.checkNotNull(spannerConfig);
     this.spannerConfig = spannerConfig;
     this.ddlView = ddlView;
@@ -185,6 +221,8 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
         (shadowTablePrefix.endsWith("_")) ? shadowTablePrefix : shadowTablePrefix + "_";
     this.sourceType = sourceType;
     this.isRegularRunMode = isRegularRunMode;
+    this.transactionBatchSize = transactionBatchSize;
+    this.transactionBatchMaxLatencyMs = transactionBatchMaxLatencyMs;
   }
 
   /** Setup function connects to Cloud Spanner. */
@@ -213,45 +251,121 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
     keepWatchdogRunning.set(false);
   }
 
+  @StartBundle
+  public void startBundle() {
+    bufferedEvents = new ArrayList<>();
+  }
+
   @ProcessElement
-  public void processElement(ProcessContext c) {
-    FailsafeElement<String, String> msg = c.element();
+  public void processElement(ProcessContext c, BoundedWindow window) {
     Ddl ddl = c.sideInput(ddlView);
-    Instant startTimestamp = Instant.now();
-    String migrationShardId = null;
-    boolean isRetryRecord = false;
-    /*
-     * Try Catch block to capture any exceptions that might occur while processing
-     * DataStream events while writing to Cloud Spanner. All Exceptions that are caught
-     * can be retried based on the exception type.
-     */
-    try {
+    BufferedEvent event = new BufferedEvent(c.element(), c.timestamp(), window);
+    EventOutput output =
+        new EventOutput() {
+          @Override
+          public void outputSuccess(com.google.cloud.Timestamp timestamp, BufferedEvent event) {
+            c.output(timestamp);
+          }
+
+          @Override
+          public void outputError(
+              TupleTag<FailsafeElement<String, String>> errorTag,
+              FailsafeElement<String, String> value,
+              BufferedEvent event) {
+            c.output(errorTag, value);
+          }
+        };
+    if (transactionBatchSize <= 1) {
+      writeEvent(event, ddl, c.getPipelineOptions(), output);
+      return;
+    }
+    if (bufferedEvents == null) {
+      bufferedEvents = new ArrayList<>();
+    }
+    if (bufferedEvents.isEmpty()) {
+      firstBufferedEventMillis = System.currentTimeMillis();
+    }
+    bufferedEvents.add(event);
+    bufferedEventsDdl = ddl;
+    if (bufferedEvents.size() >= transactionBatchSize
+        || System.currentTimeMillis() - firstBufferedEventMillis >= transactionBatchMaxLatencyMs) {
+      writeBufferedEvents(c.getPipelineOptions(), output);
+    }
+  }
 
-      JsonNode changeEvent = mapper.readTree(msg.getPayload());
-      migrationShardId =
-          Optional.ofNullable(changeEvent.get(SHARD_ID_COLUMN_NAME))
-              .map(shardIdNode -> changeEvent.get(shardIdNode.asText()).asText())
-              .orElse(null);
-      JsonNode retryCount = changeEvent.get("_metadata_retry_count");
+  @FinishBundle
+  public void finishBundle(FinishBundleContext c) {
+    if (bufferedEvents == null || bufferedEvents.isEmpty()) {
+      return;
+    }
+    writeBufferedEvents(
+        c.getPipelineOptions(),
+        new EventOutput() {
+          @Override
+          public void outputSuccess(com.google.cloud.Timestamp timestamp, BufferedEvent event) {
+            c.output(timestamp, event.timestamp, event.window);
+          }
+
+          @Override
+          public void outputError(
+              TupleTag<FailsafeElement<String, String>> errorTag,
+              FailsafeElement<String, String> value,
+              BufferedEvent event) {
+            c.output(errorTag, value, event.timestamp, event.window);
+          }
+        });
+  }
 
-      if (retryCount != null) {
-        eventRetries.update(retryCount.asLong());
-        isRetryRecord = true;
-      }
-      ChangeEventContext changeEventContext =
-          ChangeEventContextFactory.createChangeEventContext(
-              changeEvent, ddl, shadowTablePrefix, sourceType);
+  /** Writes a change event in its own transaction. */
+  private void writeEvent(
+      BufferedEvent event, Ddl ddl, PipelineOptions options, EventOutput output) {
+    try {
+      prepareEvent(event, ddl);
+    } catch (Exception e) {
+      handleError(e, event, output);
+      return;
+    }
+    writePreparedEvent(event, options, output);
+  }
 
-      // Sequence information for the current change event.
-      ChangeEventSequence currentChangeEventSequence =
-          ChangeEventSequenceFactory.createChangeEventSequenceFromChangeEventContext(
-              changeEventContext);
+  /**
+   * Converts the change event to its mutations and sequence information. Any exception thrown is
+   * classified by {@link #handleError}.
+   */
+  private void prepareEvent(BufferedEvent event, Ddl ddl) throws Exception {
+    JsonNode changeEvent = mapper.readTree(event.msg.getPayload());
+    event.changeEvent = changeEvent;
+    event.migrationShardId =
+        Optional.ofNullable(changeEvent.get(SHARD_ID_COLUMN_NAME))
+            .map(shardIdNode -> changeEvent.get(shardIdNode.asText()).asText())
+            .orElse(null);
+    JsonNode retryCount = changeEvent.get("_metadata_retry_count");
+
+    if (retryCount != null) {
+      eventRetries.update(retryCount.asLong());
+      event.isRetryRecord = true;
+    }
+    event.changeEventContext =
+        ChangeEventContextFactory.createChangeEventContext(
+            changeEvent, ddl, shadowTablePrefix, sourceType);
+
+    // Sequence information for the current change event.
+    event.changeEventSequence =
+        ChangeEventSequenceFactory.createChangeEventSequenceFromChangeEventContext(
+            event.changeEventContext);
+  }
 
+  /** Writes a prepared change event in its own transaction. */
+  private void writePreparedEvent(
+      BufferedEvent event, PipelineOptions options, EventOutput output) {
+    ChangeEventContext changeEventContext = event.changeEventContext;
+    ChangeEventSequence currentChangeEventSequence = event.changeEventSequence;
+    try {
       // Start transaction
       spannerAccessor
           .getDatabaseClient()
           .readWriteTransaction(
-              Options.tag(getTxnTag(c.getPipelineOptions())),
+              Options.tag(getTxnTag(options)),
               Options.priority(spannerConfig.getRpcPriority().get()))
           .run(
               (TransactionCallable<Void>)
@@ -277,38 +391,178 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
                     isInTransaction.set(false);
                     return null;
                   });
-      com.google.cloud.Timestamp timestamp = com.google.cloud.Timestamp.now();
-      c.output(timestamp);
-      if (migrationShardId != null) {
-        Metrics.counter(
-                SpannerTransactionWriterDoFn.class,
-                migrationShardId + " : " + SUCCESSFUL_EVENTS_COUNTER_NAME)
-            .inc();
+      outputWrittenEvent(event, output);
+    } catch (Exception e) {
+      handleError(e, event, output);
+    }
+  }
+
+  /**
+   * Writes the buffered change events. The events are grouped into transactions of events with
+   * disjoint primary keys, with events of the same primary key in successive transactions in the
+   * order they were received.
+   */
+  private void writeBufferedEvents(PipelineOptions options, EventOutput output) {
+    List<BufferedEvent> events = bufferedEvents;
+    bufferedEvents = new ArrayList<>();
+    List<BufferedEvent> preparedEvents = new ArrayList<>(events.size());
+    for (BufferedEvent event : events) {
+      try {
+        prepareEvent(event, bufferedEventsDdl);
+        preparedEvents.add(event);
+      } catch (Exception e) {
+        handleError(e, event, output);
+      }
+    }
+    for (List<BufferedEvent> transactionEvents : groupEventsWithDisjointKeys(preparedEvents)) {
+      writeEventsTransaction(transactionEvents, bufferedEventsDdl, options, output);
+    }
+  }
+
+  /**
+   * Splits events into groups with distinct primary keys. The n-th event of a primary key goes to
+   * the n-th group, so writing the groups in order preserves the order of the events of a key.
+   */
+  @VisibleForTesting
+  static List<List<BufferedEvent>> groupEventsWithDisjointKeys(List<BufferedEvent> events) {
+    List<List<BufferedEvent>> groups = new ArrayList<>();
+    Map<String, Integer> nextGroupOfKey = new HashMap<>();
+    for (BufferedEvent event : events) {
+      String key =
+          event.changeEventContext.getShadowTable()
+              + "/"
+              + event.changeEventContext.getPrimaryKey();
+      int group = nextGroupOfKey.getOrDefault(key, 0);
+      nextGroupOfKey.put(key, group + 1);
+      if (group == groups.size()) {
+        groups.add(new ArrayList<>());
       }
-      successfulEvents.inc();
-      updateLatencyMetrics(changeEvent, startTimestamp);
+      groups.get(group).add(event);
+    }
+    return groups;
+  }
 
-      // increment the successful retry count if this was retry attempt
-      if (isRegularRunMode && isRetryRecord) {
-        successfulEventRetries.inc();
+  /**
+   * Writes change events with distinct primary keys in a single transaction, with one read per
+   * shadow table for the sequence information of the earlier events. If the transaction fails, the
+   * events are written in individual transactions, so that errors are reported for the events that
+   * caused them.
+   */
+  private void writeEventsTransaction(
+      List<BufferedEvent> events, Ddl ddl, PipelineOptions options, EventOutput output) {
+    if (events.size() == 1) {
+      writePreparedEvent(events.get(0), options, output);
+      return;
+    }
+    Set<BufferedEvent> skipped = new HashSet<>();
+    try {
+      spannerAccessor
+          .getDatabaseClient()
+          .readWriteTransaction(
+              Options.tag(getTxnTag(options)),
+              Options.priority(spannerConfig.getRpcPriority().get()))
+          .run(
+              (TransactionCallable<Void>)
+                  transaction -> {
+                    isInTransaction.set(true);
+                    transactionAttemptCount.incrementAndGet();
+                    skipped.clear();
+                    Map<String, List<ChangeEventContext>> contextsByShadowTable =
+                        new LinkedHashMap<>();
+                    for (BufferedEvent event : events) {
+                      contextsByShadowTable
+                          .computeIfAbsent(
+                              event.changeEventContext.getShadowTable(), t -> new ArrayList<>())
+                          .add(event.changeEventContext);
+                    }
+                    // Sequence information for the last change events, per shadow table.
+                    Map<String, Map<com.google.cloud.spanner.Key, ChangeEventSequence>>
+                        previousChangeEventSequences = new HashMap<>();
+                    for (Map.Entry<String, List<ChangeEventContext>> entry :
+                        contextsByShadowTable.entrySet()) {
+                      previousChangeEventSequences.put(
+                          entry.getKey(),
+                          ChangeEventSequenceFactory.createChangeEventSequencesFromShadowTable(
+                              transaction, ddl, entry.getValue()));
+                    }
+                    for (BufferedEvent event : events) {
+                      ChangeEventSequence previousChangeEventSequence =
+                          previousChangeEventSequences
+                              .get(event.changeEventContext.getShadowTable())
+                              .get(event.changeEventContext.getPrimaryKey());
+                      if (previousChangeEventSequence != null
+                          && previousChangeEventSequence.compareTo(event.changeEventSequence)
+                              >= 0) {
+                        skipped.add(event);
+                        continue;
+                      }
+                      transaction.buffer(event.changeEventContext.getMutations());
+                    }
+                    isInTransaction.set(false);
+                    return null;
+                  });
+    } catch (Exception e) {
+      LOG.warn(
+          "Failed to write {} events in a single transaction, writing them individually",
+          events.size(),
+          e);
+      for (BufferedEvent event : events) {
+        writePreparedEvent(event, options, output);
+      }
+      return;
+    }
+    for (BufferedEvent event : events) {
+      if (skipped.contains(event)) {
+        skippedEvents.inc();
+      }
+      try {
+        outputWrittenEvent(event, output);
+      } catch (Exception e) {
+        handleError(e, event, output);
       }
+    }
+  }
 
-    } catch (DroppedTableException e) {
+  /** Outputs a change event that was written to (or skipped for) Cloud Spanner and its metrics. */
+  private void outputWrittenEvent(BufferedEvent event, EventOutput output) {
+    com.google.cloud.Timestamp timestamp = com.google.cloud.Timestamp.now();
+    output.outputSuccess(timestamp, event);
+    if (event.migrationShardId != null) {
+      Metrics.counter(
+              SpannerTransactionWriterDoFn.class,
+              event.migrationShardId + " : " + SUCCESSFUL_EVENTS_COUNTER_NAME)
+          .inc();
+    }
+    successfulEvents.inc();
+    updateLatencyMetrics(event.changeEvent, event.startTimestamp);
+
+    // increment the successful retry count if this was retry attempt
+    if (isRegularRunMode && event.isRetryRecord) {
+      successfulEventRetries.inc();
+    }
+  }
+
+  /** Outputs a change event that could not be written to the error output for the exception. */
+  private void handleError(Exception exception, BufferedEvent event, EventOutput output) {
+    String migrationShardId = event.migrationShardId;
+    if (exception instanceof DroppedTableException) {
       // Errors when table exists in source but was dropped during conversion. We do not output any
       // errors to dlq for this.
-      LOG.warn(e.getMessage());
+      LOG.warn(exception.getMessage());
       droppedTableExceptions.inc();
-    } catch (InvalidChangeEventException e) {
+    } else if (exception instanceof InvalidChangeEventException) {
       // Errors that result from invalid change events.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(
+          output, event, exception, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       invalidEvents.inc();
       if (migrationShardId != null) {
         Metrics.counter(SpannerTransactionWriterDoFn.class, migrationShardId + " : Invalid events")
             .inc();
       }
-    } catch (ChangeEventConvertorException e) {
+    } else if (exception instanceof ChangeEventConvertorException) {
       // Errors that result during Event conversions are not retryable.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(
+          output, event, exception, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       if (migrationShardId != null) {
         Metrics.counter(
                 SpannerTransactionWriterDoFn.class,
@@ -316,7 +570,8 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
             .inc();
       }
       conversionErrors.inc();
-    } catch (SpannerException | IllegalStateException ex) {
+    } else if (exception instanceof SpannerException
+        || exception instanceof IllegalStateException) {
       /* Errors that happen when writing to Cloud Spanner are considered retryable.
        * Since all event conversion errors are caught beforehand as permanent errors,
        * any other errors encountered while writing to Cloud Spanner can be retried.
@@ -328,14 +583,16 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
        * in which case if this event is requed to same or different node at a later point in time,
        * a retry might work.
        */
-      outputWithErrorTag(c, msg, ex, DatastreamToSpannerConstants.RETRYABLE_ERROR_TAG);
+      outputWithErrorTag(
+          output, event, exception, DatastreamToSpannerConstants.RETRYABLE_ERROR_TAG);
       // do not increment the retry error count if this was retry attempt
-      if (!isRetryRecord) {
+      if (!event.isRetryRecord) {
         retryableErrors.inc();
       }
-    } catch (Exception e) {
+    } else {
       // Any other errors are considered severe and not retryable.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(
+          output, event, exception, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       failedEvents.inc();
       if (migrationShardId != null) {
         Metrics.counter(
@@ -358,14 +615,14 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
   }
 
   void outputWithErrorTag(
-      ProcessContext c,
-      FailsafeElement<String, String> changeEvent,
+      EventOutput output,
+      BufferedEvent event,
       Exception e,
       TupleTag<FailsafeElement<String, String>> errorTag) {
     // Making a copy, as the input must not be mutated.
-    FailsafeElement<String, String> output = FailsafeElement.of(changeEvent);
-    output.setErrorMessage(e.getMessage());
-    c.output(errorTag, output);
+    FailsafeElement<String, String> errorElement = FailsafeElement.of(event.msg);
+    errorElement.setErrorMessage(e.getMessage());
+    output.outputError(errorTag, errorElement, event);
   }
 
   String getTxnTag(PipelineOptions options) {
@@ -403,4 +660,38 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
   public void setIsInTransaction(AtomicBoolean isInTransaction) {
     this.isInTransaction = isInTransaction;
   }
+
+  /** Outputs of the change events, either while processing an element or finishing a bundle. */
+  private interface EventOutput {
+    void outputSuccess(com.google.cloud.Timestamp timestamp, BufferedEvent event);
+
+    void outputError(
+        TupleTag<FailsafeElement<String, String>> errorTag,
+        FailsafeElement<String, String> value,
+        BufferedEvent event);
+  }
+
+  /**
+   * A change event along with the timestamp and window it was received in, and its conversion once
+   * prepared.
+   */
+  @VisibleForTesting
+  static class BufferedEvent {
+    final FailsafeElement<String, String> msg;
+    final Instant timestamp;
+    final BoundedWindow window;
+    final Instant startTimestamp = Instant.now();
+
+    JsonNode changeEvent;
+    String migrationShardId;
+    boolean isRetryRecord;
+    ChangeEventContext changeEventContext;
+    ChangeEventSequence changeEventSequence;
+
+    BufferedEvent(FailsafeElement<String, String> msg, Instant timestamp, BoundedWindow window) {
+      this.msg = msg;
+      this.timestamp = timestamp;
+      this.window = window;
+    }
+  }
 }
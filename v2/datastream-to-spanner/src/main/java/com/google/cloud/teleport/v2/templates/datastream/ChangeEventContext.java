@@ -97,4 +97,9 @@ public abstract class ChangeEventContext {
   public String getShadowTable() {
     return shadowTable;
   }
+
+  // Getter method for the data table.
+  public String getDataTable() {
+    return dataTable;
+  }
 }
@@ -16,9 +16,22 @@
 package com.google.cloud.teleport.v2.templates.datastream;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeySet;
+import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TransactionContext;
+import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
+import com.google.cloud.teleport.v2.spanner.ddl.IndexColumn;
 import com.google.cloud.teleport.v2.spanner.migrations.exceptions.ChangeEventConvertorException;
 import com.google.cloud.teleport.v2.spanner.migrations.exceptions.InvalidChangeEventException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Factory classes for ChangeEventSequence classes which provides methods for 1) creating
@@ -85,4 +98,141 @@ public class ChangeEventSequenceFactory {
     }
     throw new InvalidChangeEventException("Unsupported source database: " + sourceType);
   }
+
+  /*
+   * Creates the ChangeEventSequence objects for the earlier events of a set of
+   * change events with a single read of their shadow table. All the change events
+   * must be of the same source database and shadow table.
+   *
+   * Returns a map of the primary key of the change event to the sequence of the
+   * earlier event. Primary keys without an earlier event are not present in the map.
+   */
+  public static Map<Key, ChangeEventSequence> createChangeEventSequencesFromShadowTable(
+      final ReadContext readContext,
+      final Ddl ddl,
+      final List<ChangeEventContext> changeEventContexts)
+      throws ChangeEventSequenceCreationException, InvalidChangeEventException {
+
+    Map<Key, ChangeEventSequence> changeEventSequences = new HashMap<>();
+    if (changeEventContexts.isEmpty()) {
+      return changeEventSequences;
+    }
+    ChangeEventContext firstChangeEventContext = changeEventContexts.get(0);
+    String sourceType = getSourceType(firstChangeEventContext.getChangeEvent());
+    List<String> sequenceColumns;
+    if (DatastreamConstants.MYSQL_SOURCE_TYPE.equals(sourceType)) {
+      sequenceColumns = MySqlChangeEventSequence.SHADOW_TABLE_READ_COLUMNS;
+    } else if (DatastreamConstants.ORACLE_SOURCE_TYPE.equals(sourceType)) {
+      sequenceColumns = OracleChangeEventSequence.SHADOW_TABLE_READ_COLUMNS;
+    } else if (DatastreamConstants.POSTGRES_SOURCE_TYPE.equals(sourceType)) {
+      sequenceColumns = PostgresChangeEventSequence.SHADOW_TABLE_READ_COLUMNS;
+    } else {
+      throw new InvalidChangeEventException("Unsupported source database: " + sourceType);
+    }
+
+    try {
+      // The shadow table has the same primary key columns as the data table.
+      List<String> keyColumns =
+          ddl.table(firstChangeEventContext.getDataTable()).primaryKeys().stream()
+              .map(IndexColumn::name)
+              .collect(Collectors.toList());
+      List<String> readColumnList = new ArrayList<>(keyColumns);
+      readColumnList.addAll(sequenceColumns);
+
+      Map<Key, Key> normalizedToRequestedKeys = new HashMap<>();
+      KeySet.Builder keySet = KeySet.newBuilder();
+      for (ChangeEventContext changeEventContext : changeEventContexts) {
+        Key primaryKey = changeEventContext.getPrimaryKey();
+        normalizedToRequestedKeys.put(normalizeKey(primaryKey), primaryKey);
+        keySet.addKey(primaryKey);
+      }
+
+      try (ResultSet resultSet =
+          readContext.read(
+              firstChangeEventContext.getShadowTable(), keySet.build(), readColumnList)) {
+        while (resultSet.next()) {
+          Struct row = resultSet.getCurrentRowAsStruct();
+          Key requestedKey = normalizedToRequestedKeys.get(normalizeKey(keyOf(row, keyColumns)));
+          if (requestedKey == null) {
+            continue;
+          }
+          if (DatastreamConstants.MYSQL_SOURCE_TYPE.equals(sourceType)) {
+            changeEventSequences.put(
+                requestedKey, MySqlChangeEventSequence.createFromShadowTableRow(row));
+          } else if (DatastreamConstants.ORACLE_SOURCE_TYPE.equals(sourceType)) {
+            changeEventSequences.put(
+                requestedKey, OracleChangeEventSequence.createFromShadowTableRow(row));
+          } else {
+            changeEventSequences.put(
+                requestedKey, PostgresChangeEventSequence.createFromShadowTableRow(row));
+          }
+        }
+      }
+    } catch (Exception e) {
+      throw new ChangeEventSequenceCreationException(e);
+    }
+    return changeEventSequences;
+  }
+
+  /*
+   * Builds the primary key from the key columns of a shadow table row, with the
+   * same Java types as the keys built from the change events.
+   */
+  private static Key keyOf(Struct row, List<String> keyColumns) {
+    Key.Builder key = Key.newBuilder();
+    for (String keyColumn : keyColumns) {
+      if (row.isNull(keyColumn)) {
+        key.appendObject(null);
+        continue;
+      }
+      switch (row.getColumnType(keyColumn).getCode()) {
+        case BOOL:
+          key.append(row.getBoolean(keyColumn));
+          break;
+        case INT64:
+          key.append(row.getLong(keyColumn));
+          break;
+        case FLOAT64:
+          key.append(row.getDouble(keyColumn));
+          break;
+        case NUMERIC:
+          key.append(row.getBigDecimal(keyColumn));
+          break;
+        case PG_NUMERIC:
+          key.append(new BigDecimal(row.getString(keyColumn)));
+          break;
+        case BYTES:
+          key.append(row.getBytes(keyColumn));
+          break;
+        case TIMESTAMP:
+          key.append(row.getTimestamp(keyColumn));
+          break;
+        case DATE:
+          key.append(row.getDate(keyColumn));
+          break;
+        case JSON:
+          key.append(row.getJson(keyColumn));
+          break;
+        case PG_JSONB:
+          key.append(row.getPgJsonb(keyColumn));
+          break;
+        default:
+          key.append(row.getString(keyColumn));
+      }
+    }
+    return key.build();
+  }
+
+  /*
+   * Numeric key parts read from Spanner can differ in scale from the ones in the
+   * change event, hence they are compared without trailing zeros.
+   */
+  private static Key normalizeKey(Key key) {
+    Key.Builder normalized = Key.newBuilder();
+    for (Object part : key.getParts()) {
+      normalized.appendObject(
+          (part instanceof BigDecimal) ? ((BigDecimal) part).stripTrailingZeros() : part);
+    }
+    return normalized.build();
+  }
 }
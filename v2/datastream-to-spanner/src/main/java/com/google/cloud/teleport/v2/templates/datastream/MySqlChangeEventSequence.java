@@ -30,6 +30,12 @@ import java.util.stream.Collectors;
  */
 class MySqlChangeEventSequence extends ChangeEventSequence {
 
+  // Columns of the shadow table that store the sequence information.
+  static final List<String> SHADOW_TABLE_READ_COLUMNS =
+      DatastreamConstants.MYSQL_SORT_ORDER.values().stream()
+          .map(p -> p.getLeft())
+          .collect(Collectors.toList());
+
   // Timestamp for change event
   private final Long timestamp;
 
@@ -96,27 +102,30 @@ class MySqlChangeEventSequence extends ChangeEventSequence {
       throws ChangeEventSequenceCreationException {
 
     try {
-      // Read columns from shadow table
-      List<String> readColumnList =
-          DatastreamConstants.MYSQL_SORT_ORDER.values().stream()
-              .map(p -> p.getLeft())
-              .collect(Collectors.toList());
-      Struct row = transactionContext.readRow(shadowTable, primaryKey, readColumnList);
+      Struct row = transactionContext.readRow(shadowTable, primaryKey, SHADOW_TABLE_READ_COLUMNS);
 
       // This is the first event for the primary key and hence the latest event.
       if (row == null) {
         return null;
       }
 
-      return new MySqlChangeEventSequence(
-          row.getLong(readColumnList.get(0)),
-          row.getString(readColumnList.get(1)),
-          row.getLong(readColumnList.get(2)));
+      return createFromShadowTableRow(row);
     } catch (Exception e) {
       throw new ChangeEventSequenceCreationException(e);
     }
   }
 
+  /*
+   * Creates a MySqlChangeEventSequence from a shadow table row that contains the
+   * SHADOW_TABLE_READ_COLUMNS.
+   */
+  static MySqlChangeEventSequence createFromShadowTableRow(Struct row) {
+    return new MySqlChangeEventSequence(
+        row.getLong(SHADOW_TABLE_READ_COLUMNS.get(0)),
+        row.getString(SHADOW_TABLE_READ_COLUMNS.get(1)),
+        row.getLong(SHADOW_TABLE_READ_COLUMNS.get(2)));
+  }
+
   Long getTimestamp() {
     return timestamp;
   }
@@ -17,6 +17,7 @@ package com.google.cloud.teleport.v2.templates;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -27,16 +28,21 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.Options;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TransactionContext;
 import com.google.cloud.spanner.TransactionRunner;
+import com.google.cloud.spanner.Type;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.migrations.constants.Constants;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.Schema;
 import com.google.cloud.teleport.v2.templates.constants.DatastreamToSpannerConstants;
 import com.google.cloud.teleport.v2.templates.datastream.DatastreamConstants;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -46,6 +52,7 @@ import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.options.ValueProvider;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -155,7 +162,7 @@ public class SpannerTransactionWriterDoFnTest {
     spannerTransactionWriterDoFn.setSpannerAccessor(spannerAccessor);
     spannerTransactionWriterDoFn.setIsInTransaction(new AtomicBoolean(false));
     spannerTransactionWriterDoFn.setTransactionAttemptCount(new AtomicLong(0));
-    spannerTransactionWriterDoFn.processElement(processContextMock);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
     ArgumentCaptor<Iterable<Mutation>> argument = ArgumentCaptor.forClass(Iterable.class);
     verify(transactionContext, times(1)).buffer(argument.capture());
     Iterable<Mutation> capturedMutations = argument.getValue();
@@ -221,7 +228,7 @@ public class SpannerTransactionWriterDoFnTest {
         new SpannerTransactionWriterDoFn(spannerConfig, ddlView, "shadow", "mysql", true);
     spannerTransactionWriterDoFn.setMapper(mapper);
     spannerTransactionWriterDoFn.setSpannerAccessor(spannerAccessor);
-    spannerTransactionWriterDoFn.processElement(processContextMock);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
 
     ArgumentCaptor<FailsafeElement> argument = ArgumentCaptor.forClass(FailsafeElement.class);
     verify(processContextMock, times(1))
@@ -230,4 +237,106 @@ public class SpannerTransactionWriterDoFnTest {
         "Change event with invalid source. Actual(random), Expected(mysql)",
         argument.getValue().getErrorMessage());
   }
+
+  private static FailsafeElement<String, String> getMySqlChangeEvent(
+      ObjectMapper mapper, String firstName, String lastName, int age, long timestamp) {
+    ObjectNode outputObject = mapper.createObjectNode();
+    outputObject.put(DatastreamConstants.EVENT_SOURCE_TYPE_KEY, Constants.MYSQL_SOURCE_TYPE);
+    outputObject.put(DatastreamConstants.EVENT_TABLE_NAME_KEY, "Users");
+    outputObject.put("first_name", firstName);
+    outputObject.put("last_name", lastName);
+    outputObject.put("age", age);
+    outputObject.put(DatastreamConstants.MYSQL_TIMESTAMP_KEY, timestamp);
+    outputObject.put("_metadata_timestamp", timestamp);
+    outputObject.put("_metadata_read_timestamp", timestamp);
+    outputObject.put("_metadata_dataflow_timestamp", timestamp);
+    return FailsafeElement.of(outputObject.toString(), outputObject.toString());
+  }
+
+  @Test
+  public void testProcessElementWithTransactionBatch() {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    SpannerConfig spannerConfig = mock(SpannerConfig.class);
+    SpannerAccessor spannerAccessor = mock(SpannerAccessor.class);
+    PCollectionView<Ddl> ddlView = mock(PCollectionView.class);
+    DoFn.ProcessContext processContextMock = mock(DoFn.ProcessContext.class);
+    DatabaseClient databaseClientMock = mock(DatabaseClient.class);
+    TransactionRunner transactionCallableMock = mock(TransactionRunner.class);
+    TransactionContext transactionContext = mock(TransactionContext.class);
+    ValueProvider<Options.RpcPriority> rpcPriorityValueProviderMock = mock(ValueProvider.class);
+
+    String[] args = new String[] {"--jobId=123"};
+    DataflowWorkerHarnessOptions options =
+        PipelineOptionsFactory.fromArgs(args).as(DataflowWorkerHarnessOptions.class);
+
+    // Two events for the same primary key and an event for a different key, which is older than
+    // the event recorded in the shadow table.
+    when(processContextMock.element())
+        .thenReturn(
+            getMySqlChangeEvent(mapper, "Johnny", "Depp", 13, 12345),
+            getMySqlChangeEvent(mapper, "Brad", "Pitt", 20, 100),
+            getMySqlChangeEvent(mapper, "Johnny", "Depp", 14, 12346));
+    when(processContextMock.sideInput(any())).thenReturn(getTestDdl());
+    when(processContextMock.getPipelineOptions()).thenReturn(options);
+    when(rpcPriorityValueProviderMock.get()).thenReturn(Options.RpcPriority.LOW);
+    when(spannerConfig.getRpcPriority()).thenReturn(rpcPriorityValueProviderMock);
+    when(spannerAccessor.getDatabaseClient()).thenReturn(databaseClientMock);
+    when(transactionCallableMock.run(any()))
+        .thenAnswer(
+            invocation -> {
+              TransactionRunner.TransactionCallable<Void> callable = invocation.getArgument(0);
+              return callable.run(transactionContext);
+            });
+    when(databaseClientMock.readWriteTransaction(any(), any())).thenReturn(transactionCallableMock);
+    Type shadowRowType =
+        Type.struct(
+            Type.StructField.of("first_name", Type.string()),
+            Type.StructField.of("last_name", Type.string()),
+            Type.StructField.of("timestamp", Type.int64()),
+            Type.StructField.of("log_file", Type.string()),
+            Type.StructField.of("log_position", Type.int64()));
+    when(transactionContext.read(eq("shadow_Users"), any(KeySet.class), anyList()))
+        .thenReturn(
+            ResultSets.forRows(
+                shadowRowType,
+                Arrays.asList(
+                    Struct.newBuilder()
+                        .set("first_name")
+                        .to("Brad")
+                        .set("last_name")
+                        .to("Pitt")
+                        .set("timestamp")
+                        .to(200L)
+                        .set("log_file")
+                        .to("")
+                        .set("log_position")
+                        .to(-1L)
+                        .build())));
+
+    SpannerTransactionWriterDoFn spannerTransactionWriterDoFn =
+        new SpannerTransactionWriterDoFn(
+            spannerConfig, ddlView, "shadow", "mysql", true, 3, Long.MAX_VALUE);
+    spannerTransactionWriterDoFn.setMapper(mapper);
+    spannerTransactionWriterDoFn.setSpannerAccessor(spannerAccessor);
+    spannerTransactionWriterDoFn.setIsInTransaction(new AtomicBoolean(false));
+    spannerTransactionWriterDoFn.setTransactionAttemptCount(new AtomicLong(0));
+    spannerTransactionWriterDoFn.startBundle();
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+    verify(databaseClientMock, times(0)).readWriteTransaction(any(), any());
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+
+    // The first two events are written in one transaction with a single shadow table read, the
+    // second event of the same primary key in another transaction.
+    verify(databaseClientMock, times(2)).readWriteTransaction(any(), any());
+    verify(transactionContext, times(1)).read(eq("shadow_Users"), any(KeySet.class), anyList());
+    ArgumentCaptor<Iterable<Mutation>> argument = ArgumentCaptor.forClass(Iterable.class);
+    verify(transactionContext, times(2)).buffer(argument.capture());
+    Mutation firstDataMutation = argument.getAllValues().get(0).iterator().next();
+    Mutation secondDataMutation = argument.getAllValues().get(1).iterator().next();
+    assertEquals(13, firstDataMutation.asMap().get("age").getInt64());
+    assertEquals(14, secondDataMutation.asMap().get("age").getInt64());
+    verify(processContextMock, times(3)).output(any(com.google.cloud.Timestamp.class));
+  }
 }
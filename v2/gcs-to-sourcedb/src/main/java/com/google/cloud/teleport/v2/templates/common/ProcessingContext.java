@@ -33,6 +33,9 @@ public class ProcessingContext implements Serializable {
   private String gcsPath;
   private String runId;
 
+  /* Records up to this checkpoint were already written to source, see GCSReader#checkpointOf. */
+  private String fileCheckpoint;
+
   public ProcessingContext(
       Shard shard,
       Schema schema,
@@ -82,6 +85,14 @@ public class ProcessingContext implements Serializable {
     return runId;
   }
 
+  public String getFileCheckpoint() {
+    return fileCheckpoint;
+  }
+
+  public void setFileCheckpoint(String fileCheckpoint) {
+    this.fileCheckpoint = fileCheckpoint;
+  }
+
   @Override
   public String toString() {
 
@@ -97,6 +108,8 @@ public class ProcessingContext implements Serializable {
         + gcsPath
         + " runId: "
         + runId
+        + " fileCheckpoint: "
+        + fileCheckpoint
         + "}";
   }
 
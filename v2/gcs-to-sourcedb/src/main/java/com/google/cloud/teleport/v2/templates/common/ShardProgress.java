@@ -24,10 +24,22 @@ public class ShardProgress {
   private Timestamp fileStartInterval;
   private String status;
 
+  /*
+  The last record of the file at fileStartInterval that was written to the source, see
+  GCSReader#checkpointOf. Null if the file was not partially processed.
+  */
+  private String fileCheckpoint;
+
   public ShardProgress(String shard, Timestamp fileStartInterval, String status) {
+    this(shard, fileStartInterval, status, null);
+  }
+
+  public ShardProgress(
+      String shard, Timestamp fileStartInterval, String status, String fileCheckpoint) {
     this.shard = shard;
     this.fileStartInterval = fileStartInterval;
     this.status = status;
+    this.fileCheckpoint = fileCheckpoint;
   }
 
   public String getShard() {
@@ -41,4 +53,8 @@ public class ShardProgress {
   public String getStatus() {
     return status;
   }
+
+  public String getFileCheckpoint() {
+    return fileCheckpoint;
+  }
 }
@@ -41,4 +41,10 @@ public class Constants {
 
   /** Shard progress status - reprocess. */
   public static final String SHARD_PROGRESS_STATUS_REPROCESS = "REPROCESS";
+
+  /** Shard progress status - file partially processed, see ShardProgress#getFileCheckpoint. */
+  public static final String SHARD_PROGRESS_STATUS_IN_PROGRESS = "IN_PROGRESS";
+
+  /** Maximum number of change records read into memory and written to source at once. */
+  public static final int GCS_READ_CHUNK_SIZE = 10000;
 }
@@ -15,11 +15,12 @@
  */
 package com.google.cloud.teleport.v2.templates.dao;
 
+import com.google.cloud.teleport.v2.templates.processing.dml.DMLStatement;
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.List;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.commons.dbcp2.ConnectionFactory;
@@ -42,7 +43,12 @@ public class MySqlDao implements Serializable {
   private String shardId = "";
 
   public MySqlDao(String sqlUrl, String sqlUser, String sqlPasswd, String shardId) {
-    sqlUrl = sqlUrl + "?rewriteBatchedStatements=true";
+    // The DML statements are parameterized per table and operation, so the server side prepared
+    // statements are cached per connection of the pool.
+    sqlUrl =
+        sqlUrl
+            + "?rewriteBatchedStatements=true&useServerPrepStmts=true&cachePrepStmts=true"
+            + "&prepStmtCacheSize=250&prepStmtCacheSqlLimit=4096";
     try {
       Class dirverClass = Class.forName(JDBC_DRIVER);
     } catch (ClassNotFoundException e) {
@@ -73,18 +79,32 @@ public class MySqlDao implements Serializable {
     driver.registerPool(this.poolName, connectionPool);
   }
 
-  // writes to database in a batch
-  public void batchWrite(List<String> batchStatements) throws SQLException {
+  // writes to database in a batch, consecutive statements with the same SQL share a prepared
+  // statement
+  public void batchWrite(List<DMLStatement> batchStatements) throws SQLException {
+    if (batchStatements.isEmpty()) {
+      return;
+    }
     Connection connObj = null;
-    Statement statement = null;
+    PreparedStatement statement = null;
     boolean status = false;
     while (!status) {
       try {
         connObj = DriverManager.getConnection(this.fullPoolName);
 
-        statement = connObj.createStatement();
-        for (String stmt : batchStatements) {
-          statement.addBatch(stmt);
+        statement = null;
+        String currentSql = null;
+        for (DMLStatement stmt : batchStatements) {
+          if (!stmt.getStatement().equals(currentSql)) {
+            if (statement != null) {
+              statement.executeBatch();
+              statement.close();
+            }
+            currentSql = stmt.getStatement();
+            statement = connObj.prepareStatement(currentSql);
+          }
+          stmt.bind(statement);
+          statement.addBatch();
         }
         statement.executeBatch();
         status = true;
@@ -103,7 +103,7 @@ public class SpannerDao {
     Statement statement;
     if (isPostgres) {
       String statementStr =
-          "SELECT shard, file_start_interval , status from "
+          "SELECT shard, file_start_interval , status, file_checkpoint from "
               + shardFileProcessProgressTableName
               + " where run_id=$1 and status=$2";
       statement =
@@ -115,7 +115,7 @@ public class SpannerDao {
               .build();
     } else {
       String statementStr =
-          "SELECT shard, file_start_interval, status from "
+          "SELECT shard, file_start_interval, status, file_checkpoint from "
               + shardFileProcessProgressTableName
               + " where run_id=@runId and status=@status";
       statement =
@@ -134,7 +134,8 @@ public class SpannerDao {
         String shard = resultSet.getString(0);
         Timestamp start = resultSet.getTimestamp(1);
         String status = resultSet.getString(2);
-        ShardProgress rec = new ShardProgress(shard, start, status);
+        String fileCheckpoint = resultSet.isNull(3) ? null : resultSet.getString(3);
+        ShardProgress rec = new ShardProgress(shard, start, status, fileCheckpoint);
         shardProgress.put(shard, rec);
       }
     } catch (Exception e) {
@@ -158,13 +159,13 @@ public class SpannerDao {
     Statement statement;
     if (isPostgres) {
       String statementStr =
-          "SELECT shard, file_start_interval , status from "
+          "SELECT shard, file_start_interval , status, file_checkpoint from "
               + shardFileProcessProgressTableName
               + " where run_id=$1";
       statement = Statement.newBuilder(statementStr).bind("p1").to(runId).build();
     } else {
       String statementStr =
-          "SELECT shard, file_start_interval, status from "
+          "SELECT shard, file_start_interval, status, file_checkpoint from "
               + shardFileProcessProgressTableName
               + " where run_id=@runId ";
       statement = Statement.newBuilder(statementStr).bind("runId").to(runId).build();
@@ -177,7 +178,8 @@ public class SpannerDao {
         String shard = resultSet.getString(0);
         Timestamp start = resultSet.getTimestamp(1);
         String status = resultSet.getString(2);
-        ShardProgress rec = new ShardProgress(shard, start, status);
+        String fileCheckpoint = resultSet.isNull(3) ? null : resultSet.getString(3);
+        ShardProgress rec = new ShardProgress(shard, start, status, fileCheckpoint);
         shardProgress.put(shard, rec);
       }
     } catch (Exception e) {
@@ -207,6 +209,8 @@ public class SpannerDao {
             .to(shardProgress.getFileStartInterval())
             .set("status")
             .to(shardProgress.getStatus())
+            .set("file_checkpoint")
+            .to(shardProgress.getFileCheckpoint())
             .build());
     spannerAccessor.getDatabaseClient().write(mutations);
   }
@@ -236,13 +240,15 @@ public class SpannerDao {
                   + shardFileProcessProgressTableName
                   + " (run_id character varying NOT NULL, shard character varying NOT"
                   + " NULL, file_start_interval timestamp with time zone NOT NULL, status character"
-                  + " varying NOT NULL, PRIMARY KEY(run_id, shard))";
+                  + " varying NOT NULL, file_checkpoint character varying, PRIMARY KEY(run_id,"
+                  + " shard))";
         } else {
           createTable =
               "create table "
                   + shardFileProcessProgressTableName
                   + " (run_id STRING(MAX) NOT NULL, shard STRING(MAX) NOT NULL, file_start_interval"
-                  + " TIMESTAMP NOT NULL, status STRING(MAX) NOT NULL,) PRIMARY KEY(run_id, shard)";
+                  + " TIMESTAMP NOT NULL, status STRING(MAX) NOT NULL, file_checkpoint STRING(MAX),)"
+                  + " PRIMARY KEY(run_id, shard)";
         }
         OperationFuture<Void, UpdateDatabaseDdlMetadata> op =
             databaseAdminClient.updateDatabaseDdl(
@@ -256,6 +262,8 @@ public class SpannerDao {
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
           throw new RuntimeException(e);
         }
+      } else {
+        checkAndAddFileCheckpointColumn();
       }
     } catch (Exception e) {
 
@@ -267,6 +275,42 @@ public class SpannerDao {
     }
   }
 
+  /*
+  The file_checkpoint column was added to the shard progress table later on, add it to tables
+  created before.
+  */
+  private void checkAndAddFileCheckpointColumn() {
+    DatabaseClient databaseClient = spannerAccessor.getDatabaseClient();
+    String statement =
+        "select * from information_schema.columns where table_name='"
+            + shardFileProcessProgressTableName
+            + "' and column_name='file_checkpoint'";
+    try (ReadOnlyTransaction tx = databaseClient.singleUseReadOnlyTransaction();
+        ResultSet resultSet = tx.executeQuery(Statement.of(statement))) {
+      if (resultSet.next()) {
+        return;
+      }
+    }
+    String addColumn =
+        "ALTER TABLE "
+            + shardFileProcessProgressTableName
+            + " ADD COLUMN file_checkpoint "
+            + (isPostgres ? "character varying" : "STRING(MAX)");
+    OperationFuture<Void, UpdateDatabaseDdlMetadata> op =
+        spannerAccessor
+            .getDatabaseAdminClient()
+            .updateDatabaseDdl(
+                spannerConfig.getInstanceId().get(),
+                spannerConfig.getDatabaseId().get(),
+                Arrays.asList(addColumn),
+                null);
+    try {
+      op.get(SCHEMA_UPDATE_WAIT_MIN, TimeUnit.MINUTES);
+    } catch (InterruptedException | ExecutionException | TimeoutException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   public SpannerToGcsJobMetadata getSpannerToGcsJobMetadata(String runId) {
     DatabaseClient databaseClient = spannerAccessor.getDatabaseClient();
     Statement statement;
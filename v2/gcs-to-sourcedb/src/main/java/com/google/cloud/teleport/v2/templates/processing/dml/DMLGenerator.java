@@ -21,7 +21,11 @@ import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceColumnDefini
 import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceTable;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerColumnDefinition;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerTable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -34,6 +38,10 @@ import org.slf4j.LoggerFactory;
 public class DMLGenerator {
   private static final Logger LOG = LoggerFactory.getLogger(DMLGenerator.class);
 
+  /**
+   * Returns the DML statement for a change record with the column values inlined as SQL literals.
+   * Returns an empty string if there is nothing to apply for the record.
+   */
   public static String getDMLStatement(
       String modType,
       String spannerTableName,
@@ -42,12 +50,58 @@ public class DMLGenerator {
       JSONObject keyValuesJson,
       String sourceDbTimezoneOffset,
       Map<String, Object> customTransformationResponse) {
+    return generateDMLStatement(
+            modType,
+            spannerTableName,
+            schema,
+            newValuesJson,
+            keyValuesJson,
+            sourceDbTimezoneOffset,
+            customTransformationResponse,
+            false)
+        .getStatement();
+  }
+
+  /**
+   * Returns the parameterized DML statement for a change record. The statement only depends on the
+   * table, the modification type and the columns present in the record, and the column values are
+   * returned as typed parameters. Returns {@link DMLStatement#empty()} if there is nothing to apply
+   * for the record.
+   */
+  public static DMLStatement getPreparedDMLStatement(
+      String modType,
+      String spannerTableName,
+      Schema schema,
+      JSONObject newValuesJson,
+      JSONObject keyValuesJson,
+      String sourceDbTimezoneOffset,
+      Map<String, Object> customTransformationResponse) {
+    return generateDMLStatement(
+        modType,
+        spannerTableName,
+        schema,
+        newValuesJson,
+        keyValuesJson,
+        sourceDbTimezoneOffset,
+        customTransformationResponse,
+        true);
+  }
+
+  private static DMLStatement generateDMLStatement(
+      String modType,
+      String spannerTableName,
+      Schema schema,
+      JSONObject newValuesJson,
+      JSONObject keyValuesJson,
+      String sourceDbTimezoneOffset,
+      Map<String, Object> customTransformationResponse,
+      boolean parameterized) {
 
     if (schema.getSpannerToID().get(spannerTableName) == null) {
       LOG.warn(
           "The spanner table {} was not found in session file, dropping the record",
           spannerTableName);
-      return "";
+      return DMLStatement.empty();
     }
 
     String spannerTableId = schema.getSpannerToID().get(spannerTableName).getName();
@@ -57,24 +111,24 @@ public class DMLGenerator {
       LOG.warn(
           "The spanner table {} was not found in session file, dropping the record",
           spannerTableName);
-      return "";
+      return DMLStatement.empty();
     }
 
     SourceTable sourceTable = schema.getSrcSchema().get(spannerTableId);
     if (sourceTable == null) {
       LOG.warn("The table {} was not found in source", spannerTableName);
-      return "";
+      return DMLStatement.empty();
     }
 
     if (sourceTable.getPrimaryKeys() == null || sourceTable.getPrimaryKeys().length == 0) {
       LOG.warn(
           "Cannot reverse replicate for table {} without primary key, skipping the record",
           sourceTable.getName());
-      return "";
+      return DMLStatement.empty();
     }
 
     if ("INSERT".equals(modType) || "UPDATE".equals(modType)) {
-      Map<String, String> pkcolumnNameValues =
+      Map<String, ColumnValue> pkcolumnNameValues =
           getPkColumnValues(
               spannerTable,
               sourceTable,
@@ -86,9 +140,9 @@ public class DMLGenerator {
         LOG.warn(
             "Cannot reverse replicate for table {} without primary key, skipping the record",
             sourceTable.getName());
-        return "";
+        return DMLStatement.empty();
       }
-      Map<String, String> columnNameValues =
+      Map<String, ColumnValue> columnNameValues =
           getColumnValues(
               spannerTable,
               sourceTable,
@@ -100,10 +154,11 @@ public class DMLGenerator {
           sourceTable.getName(),
           sourceTable.getPrimaryKeySet(),
           columnNameValues,
-          pkcolumnNameValues);
+          pkcolumnNameValues,
+          parameterized);
     } else if ("DELETE".equals(modType)) {
 
-      Map<String, String> pkcolumnNameValues =
+      Map<String, ColumnValue> pkcolumnNameValues =
           getPkColumnValues(
               spannerTable,
               sourceTable,
@@ -115,57 +170,64 @@ public class DMLGenerator {
         LOG.warn(
             "Cannot reverse replicate for table {} without primary key, skipping the record",
             sourceTable.getName());
-        return "";
+        return DMLStatement.empty();
       }
-      return getDeleteStatement(sourceTable.getName(), pkcolumnNameValues);
+      return getDeleteStatement(sourceTable.getName(), pkcolumnNameValues, parameterized);
     } else {
       LOG.warn("Unsupported modType: " + modType);
-      return "";
+      return DMLStatement.empty();
     }
   }
 
-  private static String getUpsertStatement(
+  private static DMLStatement getUpsertStatement(
       String tableName,
       Set<String> primaryKeys,
-      Map<String, String> columnNameValues,
-      Map<String, String> pkcolumnNameValues) {
+      Map<String, ColumnValue> columnNameValues,
+      Map<String, ColumnValue> pkcolumnNameValues,
+      boolean parameterized) {
 
-    String allColumns = "";
-    String allValues = "";
-    String updateValues = "";
+    StringBuilder allColumns = new StringBuilder();
+    StringBuilder allValues = new StringBuilder();
+    StringBuilder updateValues = new StringBuilder();
+    List<Object> parameters = new ArrayList<>();
+    List<Object> updateParameters = new ArrayList<>();
 
-    for (Map.Entry<String, String> entry : pkcolumnNameValues.entrySet()) {
+    for (Map.Entry<String, ColumnValue> entry : pkcolumnNameValues.entrySet()) {
       String colName = entry.getKey();
-      String colValue = entry.getValue();
+      ColumnValue colValue = entry.getValue();
 
-      allColumns += colName + ",";
-      allValues += colValue + ",";
+      allColumns.append(colName).append(",");
+      allValues.append(colValue.get(parameterized, parameters)).append(",");
     }
 
     if (columnNameValues.size() == 0) { // if there are only PKs
       // trim the last ','
-      allColumns = allColumns.substring(0, allColumns.length() - 1);
-      allValues = allValues.substring(0, allValues.length() - 1);
+      allColumns.setLength(allColumns.length() - 1);
+      allValues.setLength(allValues.length() - 1);
 
       String returnVal =
           "INSERT INTO " + tableName + "(" + allColumns + ")" + " VALUES (" + allValues + ") ";
-      return returnVal;
+      return new DMLStatement(returnVal, parameters);
     }
     int index = 0;
 
-    for (Map.Entry<String, String> entry : columnNameValues.entrySet()) {
+    for (Map.Entry<String, ColumnValue> entry : columnNameValues.entrySet()) {
       String colName = entry.getKey();
-      String colValue = entry.getValue();
-      allColumns += colName;
-      allValues += colValue;
+      ColumnValue colValue = entry.getValue();
+      allColumns.append(colName);
+      allValues.append(colValue.get(parameterized, parameters));
       if (!primaryKeys.contains(colName)) {
-        updateValues += " " + colName + " = " + colValue;
+        updateValues
+            .append(" ")
+            .append(colName)
+            .append(" = ")
+            .append(colValue.get(parameterized, updateParameters));
       }
 
       if (index + 1 < columnNameValues.size()) {
-        allColumns += ",";
-        allValues += ",";
-        updateValues += ",";
+        allColumns.append(",");
+        allValues.append(",");
+        updateValues.append(",");
       }
       index++;
     }
@@ -180,38 +242,44 @@ public class DMLGenerator {
             + ") "
             + "ON DUPLICATE KEY UPDATE "
             + updateValues;
+    parameters.addAll(updateParameters);
 
-    return returnVal;
+    return new DMLStatement(returnVal, parameters);
   }
 
-  private static String getDeleteStatement(
-      String tableName, Map<String, String> pkcolumnNameValues) {
-    String deleteValues = "";
+  private static DMLStatement getDeleteStatement(
+      String tableName, Map<String, ColumnValue> pkcolumnNameValues, boolean parameterized) {
+    StringBuilder deleteValues = new StringBuilder();
+    List<Object> parameters = new ArrayList<>();
 
     int index = 0;
-    for (Map.Entry<String, String> entry : pkcolumnNameValues.entrySet()) {
+    for (Map.Entry<String, ColumnValue> entry : pkcolumnNameValues.entrySet()) {
       String colName = entry.getKey();
-      String colValue = entry.getValue();
+      ColumnValue colValue = entry.getValue();
 
-      deleteValues += " " + colName + " = " + colValue;
+      deleteValues
+          .append(" ")
+          .append(colName)
+          .append(" = ")
+          .append(colValue.get(parameterized, parameters));
       if (index + 1 < pkcolumnNameValues.size()) {
-        deleteValues += " AND ";
+        deleteValues.append(" AND ");
       }
       index++;
     }
     String returnVal = "DELETE FROM " + tableName + " WHERE " + deleteValues;
 
-    return returnVal;
+    return new DMLStatement(returnVal, parameters);
   }
 
-  private static Map<String, String> getColumnValues(
+  private static Map<String, ColumnValue> getColumnValues(
       SpannerTable spannerTable,
       SourceTable sourceTable,
       JSONObject newValuesJson,
       JSONObject keyValuesJson,
       String sourceDbTimezoneOffset,
       Map<String, Object> customTransformationResponse) {
-    Map<String, String> response = new HashMap<>();
+    Map<String, ColumnValue> response = new HashMap<>();
 
     /*
     Get all non-primary key col ids from source table
@@ -239,7 +307,7 @@ public class DMLGenerator {
         continue; // we only need non-primary keys
       }
       if (customTransformColumns != null && customTransformColumns.contains(colName)) {
-        response.put(colName, (String) customTransformationResponse.get(colName));
+        response.put(colName, ColumnValue.of((String) customTransformationResponse.get(colName)));
         continue;
       }
 
@@ -249,11 +317,11 @@ public class DMLGenerator {
         continue;
       }
       String spannerColumnName = spannerColDef.getName();
-      String columnValue = "";
+      ColumnValue columnValue = null;
       if (keyValuesJson.has(spannerColumnName)) {
         // get the value based on Spanner and Source type
         if (keyValuesJson.isNull(spannerColumnName)) {
-          response.put(sourceColDef.getName(), "NULL");
+          response.put(sourceColDef.getName(), ColumnValue.NULL);
           continue;
         }
         columnValue =
@@ -262,7 +330,7 @@ public class DMLGenerator {
       } else if (newValuesJson.has(spannerColumnName)) {
         // get the value based on Spanner and Source type
         if (newValuesJson.isNull(spannerColumnName)) {
-          response.put(sourceColDef.getName(), "NULL");
+          response.put(sourceColDef.getName(), ColumnValue.NULL);
           continue;
         }
         columnValue =
@@ -278,14 +346,14 @@ public class DMLGenerator {
     return response;
   }
 
-  private static Map<String, String> getPkColumnValues(
+  private static Map<String, ColumnValue> getPkColumnValues(
       SpannerTable spannerTable,
       SourceTable sourceTable,
       JSONObject newValuesJson,
       JSONObject keyValuesJson,
       String sourceDbTimezoneOffset,
       Map<String, Object> customTransformationResponse) {
-    Map<String, String> response = new HashMap<>();
+    Map<String, ColumnValue> response = new HashMap<>();
     /*
     Get all primary key col ids from source table
     For each - get the corresponding column name from spanner Schema
@@ -311,7 +379,7 @@ public class DMLGenerator {
           && customTransformColumns.contains(sourceColDef.getName())) {
         response.put(
             sourceColDef.getName(),
-            (String) customTransformationResponse.get(sourceColDef.getName()));
+            ColumnValue.of((String) customTransformationResponse.get(sourceColDef.getName())));
         continue;
       }
       SpannerColumnDefinition spannerColDef = spannerTable.getColDefs().get(colId);
@@ -322,11 +390,11 @@ public class DMLGenerator {
         return null;
       }
       String spannerColumnName = spannerColDef.getName();
-      String columnValue = "";
+      ColumnValue columnValue = null;
       if (keyValuesJson.has(spannerColumnName)) {
         // get the value based on Spanner and Source type
         if (keyValuesJson.isNull(spannerColumnName)) {
-          response.put(sourceColDef.getName(), "NULL");
+          response.put(sourceColDef.getName(), ColumnValue.NULL);
           continue;
         }
         columnValue =
@@ -335,7 +403,7 @@ public class DMLGenerator {
       } else if (newValuesJson.has(spannerColumnName)) {
         // get the value based on Spanner and Source type
         if (newValuesJson.isNull(spannerColumnName)) {
-          response.put(sourceColDef.getName(), "NULL");
+          response.put(sourceColDef.getName(), ColumnValue.NULL);
           continue;
         }
         columnValue =
@@ -352,40 +420,67 @@ public class DMLGenerator {
     return response;
   }
 
-  private static String getMappedColumnValue(
+  private static ColumnValue getMappedColumnValue(
       SpannerColumnDefinition spannerColDef,
       SourceColumnDefinition sourceColDef,
       JSONObject valuesJson,
       String sourceDbTimezoneOffset) {
 
     String colInputValue = "";
+    Object colTypedValue = null;
     String colType = spannerColDef.getType().getName();
     String colName = spannerColDef.getName();
     if ("FLOAT64".equals(colType)) {
-      colInputValue = valuesJson.getBigDecimal(colName).toString();
+      BigDecimal value = valuesJson.getBigDecimal(colName);
+      colInputValue = value.toString();
+      colTypedValue = value;
     } else if ("BOOL".equals(colType)) {
-      colInputValue = (new Boolean(valuesJson.getBoolean(colName))).toString();
+      boolean value = valuesJson.getBoolean(colName);
+      colInputValue = Boolean.toString(value);
+      colTypedValue = value;
     } else if ("STRING".equals(colType) && spannerColDef.getType().getIsArray()) {
       colInputValue =
           valuesJson.getJSONArray(colName).toList().stream()
               .map(String::valueOf)
               .collect(Collectors.joining(","));
-    } else if ("BYTES".equals(colType)) {
-      colInputValue = "FROM_BASE64('" + valuesJson.getString(colName) + "')";
+      colTypedValue = colInputValue;
     } else {
+      // BYTES are base64 encoded and decoded by the source with FROM_BASE64.
       colInputValue = valuesJson.getString(colName);
+      colTypedValue = getTypedValue(colType, spannerColDef.getType().getIsArray(), colInputValue);
     }
-    String response =
+    ColumnValue response =
         getColumnValueByType(
-            sourceColDef.getType().getName(), colInputValue, sourceDbTimezoneOffset, colType);
+            sourceColDef.getType().getName(),
+            colInputValue,
+            colTypedValue,
+            sourceDbTimezoneOffset,
+            colType);
     return response;
   }
 
-  private static String getColumnValueByType(
-      String columnType, String colValue, String sourceDbTimezoneOffset, String spannerColType) {
-    String response = "";
-    String cleanedNullBytes = "";
-    String decodedString = "";
+  /** Returns the value to bind for a column whose source type has no specific handling. */
+  private static Object getTypedValue(String spannerColType, boolean isArray, String colValue) {
+    if (isArray) {
+      return colValue;
+    }
+    switch (spannerColType) {
+      case "INT64":
+        return Long.valueOf(colValue);
+      case "NUMERIC":
+        return new BigDecimal(colValue);
+      default:
+        return colValue;
+    }
+  }
+
+  private static ColumnValue getColumnValueByType(
+      String columnType,
+      String colValue,
+      Object colTypedValue,
+      String sourceDbTimezoneOffset,
+      String spannerColType) {
+    ColumnValue response;
     switch (columnType) {
       case "varchar":
       case "char":
@@ -415,13 +510,21 @@ public class DMLGenerator {
         break;
       case "timestamp":
       case "datetime":
-        colValue = colValue.substring(0, colValue.length() - 1); // trim the Z for mysql
+        if (!"BYTES".equals(spannerColType)) {
+          colValue = colValue.substring(0, colValue.length() - 1); // trim the Z for mysql
+        }
+        ColumnValue timestampValue = getQuotedEscapedString(colValue, spannerColType);
+        List<Object> parameters = new ArrayList<>(timestampValue.parameters);
+        parameters.add(sourceDbTimezoneOffset);
         response =
-            " CONVERT_TZ("
-                + getQuotedEscapedString(colValue, spannerColType)
-                + ",'+00:00','"
-                + sourceDbTimezoneOffset
-                + "')";
+            new ColumnValue(
+                " CONVERT_TZ("
+                    + timestampValue.literal
+                    + ",'+00:00','"
+                    + sourceDbTimezoneOffset
+                    + "')",
+                "CONVERT_TZ(" + timestampValue.expression + ",'+00:00',?)",
+                parameters);
 
         break;
       case "binary":
@@ -430,7 +533,11 @@ public class DMLGenerator {
         response = getBinaryString(colValue, spannerColType);
         break;
       default:
-        response = colValue;
+        if ("BYTES".equals(spannerColType)) {
+          response = getBase64DecodedString(colValue);
+        } else {
+          response = new ColumnValue(colValue, "?", Collections.singletonList(colTypedValue));
+        }
     }
     return response;
   }
@@ -442,17 +549,63 @@ public class DMLGenerator {
     return cleanedNullBytes;
   }
 
-  private static String getQuotedEscapedString(String input, String spannerColType) {
+  private static ColumnValue getQuotedEscapedString(String input, String spannerColType) {
     if ("BYTES".equals(spannerColType)) {
-      return input;
+      return getBase64DecodedString(input);
     }
     String cleanedString = escapeString(input);
     String response = "\'" + cleanedString + "\'";
-    return response;
+    // Bound values need no escaping, only the null bytes are dropped as for the literals.
+    return new ColumnValue(
+        response, "?", Collections.singletonList(StringUtils.replace(input, "\u0000", "")));
   }
 
-  private static String getBinaryString(String input, String spannerColType) {
-    String response = "BINARY(" + getQuotedEscapedString(input, spannerColType) + ")";
-    return response;
+  private static ColumnValue getBase64DecodedString(String input) {
+    return new ColumnValue(
+        "FROM_BASE64('" + input + "')", "FROM_BASE64(?)", Collections.singletonList(input));
+  }
+
+  private static ColumnValue getBinaryString(String input, String spannerColType) {
+    ColumnValue value = getQuotedEscapedString(input, spannerColType);
+    return new ColumnValue(
+        "BINARY(" + value.literal + ")", "BINARY(" + value.expression + ")", value.parameters);
+  }
+
+  /**
+   * Value of a column, both as a SQL literal and as a SQL expression with {@code ?} placeholders
+   * along with the parameters to bind to them.
+   */
+  private static final class ColumnValue {
+    static final ColumnValue NULL = new ColumnValue("NULL", "?", Collections.singletonList(null));
+
+    final String literal;
+    final String expression;
+    final List<Object> parameters;
+
+    ColumnValue(String literal, String expression, List<Object> parameters) {
+      this.literal = literal;
+      this.expression = expression;
+      this.parameters = parameters;
+    }
+
+    /**
+     * Returns a value that is an SQL expression in both forms, like the column values returned by
+     * the custom transformation.
+     */
+    static ColumnValue of(String sqlExpression) {
+      return new ColumnValue(sqlExpression, sqlExpression, Collections.emptyList());
+    }
+
+    /**
+     * Returns the expression and adds its parameters to {@code statementParameters} if the
+     * statement is parameterized, the literal otherwise.
+     */
+    String get(boolean parameterized, List<Object> statementParameters) {
+      if (!parameterized) {
+        return literal;
+      }
+      statementParameters.addAll(parameters);
+      return expression;
+    }
   }
 }
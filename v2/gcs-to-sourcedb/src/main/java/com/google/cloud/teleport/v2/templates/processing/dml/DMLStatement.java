@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.processing.dml;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A DML statement with {@code ?} placeholders and the values to bind to them.
+ *
+ * <p>Statements generated for the same table, operation and set of columns share the same SQL, so
+ * the JDBC driver can reuse the prepared statement across change records.
+ */
+public class DMLStatement {
+
+  private static final DMLStatement EMPTY = new DMLStatement("", Collections.emptyList());
+
+  private final String statement;
+  private final List<Object> parameters;
+
+  public DMLStatement(String statement, List<Object> parameters) {
+    this.statement = statement;
+    // Parameters can be null, hence List.copyOf can not be used.
+    this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+  }
+
+  /** Returns the statement for a change record that has nothing to apply to the source. */
+  public static DMLStatement empty() {
+    return EMPTY;
+  }
+
+  public String getStatement() {
+    return statement;
+  }
+
+  public List<Object> getParameters() {
+    return parameters;
+  }
+
+  public boolean isEmpty() {
+    return statement.isEmpty();
+  }
+
+  /** Binds the parameters to a statement prepared for {@link #getStatement()}. */
+  public void bind(PreparedStatement preparedStatement) throws SQLException {
+    for (int i = 0; i < parameters.size(); i++) {
+      int index = i + 1;
+      Object parameter = parameters.get(i);
+      if (parameter == null) {
+        preparedStatement.setNull(index, Types.NULL);
+      } else if (parameter instanceof String) {
+        preparedStatement.setString(index, (String) parameter);
+      } else if (parameter instanceof Boolean) {
+        preparedStatement.setBoolean(index, (Boolean) parameter);
+      } else if (parameter instanceof Long) {
+        preparedStatement.setLong(index, (Long) parameter);
+      } else if (parameter instanceof BigDecimal) {
+        preparedStatement.setBigDecimal(index, (BigDecimal) parameter);
+      } else {
+        preparedStatement.setObject(index, parameter);
+      }
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DMLStatement)) {
+      return false;
+    }
+    DMLStatement that = (DMLStatement) o;
+    return statement.equals(that.statement) && parameters.equals(that.parameters);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(statement, parameters);
+  }
+
+  @Override
+  public String toString() {
+    return statement + " " + parameters;
+  }
+}
@@ -30,7 +30,9 @@ import com.google.cloud.teleport.v2.templates.utils.ShardProgressTracker;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,39 +54,97 @@ public class GCSToSourceStreamingHandler {
     String shardId = taskContext.getShard().getLogicalShardId();
     GCSReader inputFileReader = new GCSReader(taskContext, spannerDao);
     String fileProcessedStartInterval = taskContext.getStartTimestamp();
+    ChunkWriter chunkWriter =
+        new ChunkWriter(taskContext, spannerDao, spannerToSourceTransformer, inputFileReader);
     try {
       Instant readStartTime = Instant.now();
-      List<TrimmedShardedDataChangeRecord> records = inputFileReader.getRecords();
+      long numRecords =
+          inputFileReader.readRecordsInChunks(
+              Constants.GCS_READ_CHUNK_SIZE, taskContext.getFileCheckpoint(), chunkWriter);
       Instant readEndTime = Instant.now();
       LOG.info(
           "Shard "
               + shardId
-              + ": read "
-              + records.size()
+              + ": read and processed "
+              + numRecords
               + " records from the buffer in "
               + ChronoUnit.MILLIS.between(readStartTime, readEndTime)
               + " milliseconds");
       // This may have changed in case the interval did not have data
       fileProcessedStartInterval = inputFileReader.getCurrentIntervalStart();
-      if (records.isEmpty()) {
-        markShardSuccess(taskContext, spannerDao, fileProcessedStartInterval);
-        return fileProcessedStartInterval;
+      if (writeFilteredEventsToGcs && !chunkWriter.filteredEvents.isEmpty()) {
+        writeFilteredEventsToGcs(taskContext, storage, chunkWriter.filteredEvents);
       }
+      markShardSuccess(taskContext, spannerDao, fileProcessedStartInterval);
+      chunkWriter.cleanup();
+      // The checkpoint only applies to the file it was taken in.
+      taskContext.setFileCheckpoint(null);
+      LOG.info(
+          "Shard " + shardId + ": Successfully processed batch of " + numRecords + " records.");
+    } catch (Exception e) {
+      Metrics.counter(GCSToSourceStreamingHandler.class, "shard_failed_" + shardId).inc();
+      markShardFailure(
+          taskContext,
+          spannerDao,
+          inputFileReader.getCurrentIntervalStart(),
+          chunkWriter.lastCheckpoint);
+      throw new RuntimeException("Failure when processing records", e);
+    }
+    return fileProcessedStartInterval;
+  }
 
-      String connectString =
-          "jdbc:mysql://"
-              + taskContext.getShard().getHost()
-              + ":"
-              + taskContext.getShard().getPort()
-              + "/"
-              + taskContext.getShard().getDbName();
+  /**
+   * Writes the chunks of records of a file to the source. Before writing the next chunk, the last
+   * record of the previous one is saved as the file checkpoint in the shard progress, so that a
+   * restart resumes the file after it.
+   */
+  private static class ChunkWriter implements Consumer<List<TrimmedShardedDataChangeRecord>> {
+    private final ProcessingContext taskContext;
+    private final SpannerDao spannerDao;
+    private final ISpannerMigrationTransformer spannerToSourceTransformer;
+    private final GCSReader inputFileReader;
+    private final List<TrimmedShardedDataChangeRecord> filteredEvents = new ArrayList<>();
+    private MySqlDao dao;
+    private String lastCheckpoint;
+
+    ChunkWriter(
+        ProcessingContext taskContext,
+        SpannerDao spannerDao,
+        ISpannerMigrationTransformer spannerToSourceTransformer,
+        GCSReader inputFileReader) {
+      this.taskContext = taskContext;
+      this.spannerDao = spannerDao;
+      this.spannerToSourceTransformer = spannerToSourceTransformer;
+      this.inputFileReader = inputFileReader;
+      this.lastCheckpoint = taskContext.getFileCheckpoint();
+    }
+
+    @Override
+    public void accept(List<TrimmedShardedDataChangeRecord> records) {
+      String shardId = taskContext.getShard().getLogicalShardId();
+      if (dao == null) {
+        String connectString =
+            "jdbc:mysql://"
+                + taskContext.getShard().getHost()
+                + ":"
+                + taskContext.getShard().getPort()
+                + "/"
+                + taskContext.getShard().getDbName();
 
-      MySqlDao dao =
-          new DaoFactory(
-                  connectString,
-                  taskContext.getShard().getUserName(),
-                  taskContext.getShard().getPassword())
-              .getMySqlDao(shardId);
+        dao =
+            new DaoFactory(
+                    connectString,
+                    taskContext.getShard().getUserName(),
+                    taskContext.getShard().getPassword())
+                .getMySqlDao(shardId);
+      } else {
+        markShardProgress(
+            taskContext,
+            Constants.SHARD_PROGRESS_STATUS_IN_PROGRESS,
+            spannerDao,
+            inputFileReader.getCurrentIntervalStart(),
+            lastCheckpoint);
+      }
 
       InputRecordProcessor.processRecords(
           records,
@@ -93,21 +153,15 @@ public class GCSToSourceStreamingHandler {
           shardId,
           taskContext.getSourceDbTimezoneOffset(),
           spannerToSourceTransformer);
-      List<TrimmedShardedDataChangeRecord> filteredEvents =
-          InputRecordProcessor.getFilteredEvents();
-      if (writeFilteredEventsToGcs && !filteredEvents.isEmpty()) {
-        writeFilteredEventsToGcs(taskContext, storage, filteredEvents);
+      filteredEvents.addAll(InputRecordProcessor.getFilteredEvents());
+      lastCheckpoint = GCSReader.checkpointOf(records.get(records.size() - 1));
+    }
+
+    void cleanup() throws Exception {
+      if (dao != null) {
+        dao.cleanup();
       }
-      markShardSuccess(taskContext, spannerDao, fileProcessedStartInterval);
-      dao.cleanup();
-      LOG.info(
-          "Shard " + shardId + ": Successfully processed batch of " + records.size() + " records.");
-    } catch (Exception e) {
-      Metrics.counter(GCSToSourceStreamingHandler.class, "shard_failed_" + shardId).inc();
-      markShardFailure(taskContext, spannerDao, fileProcessedStartInterval);
-      throw new RuntimeException("Failure when processing records", e);
     }
-    return fileProcessedStartInterval;
   }
 
   public static void writeFilteredEventsToGcs(
@@ -158,28 +212,38 @@ public class GCSToSourceStreamingHandler {
         taskContext,
         Constants.SHARD_PROGRESS_STATUS_SUCCESS,
         spannerDao,
-        fileProcessedStartInterval);
+        fileProcessedStartInterval,
+        null);
   }
 
   private static void markShardProgress(
       ProcessingContext taskContext,
       String status,
       SpannerDao spannerDao,
-      String fileProcessedStartInterval) {
+      String fileProcessedStartInterval,
+      String fileCheckpoint) {
     ShardProgressTracker shardProgressTracker =
         new ShardProgressTracker(spannerDao, taskContext.getRunId());
     com.google.cloud.Timestamp startTs = null;
     startTs = com.google.cloud.Timestamp.parseTimestamp(fileProcessedStartInterval);
 
     ShardProgress shardProgress =
-        new ShardProgress(taskContext.getShard().getLogicalShardId(), startTs, status);
+        new ShardProgress(
+            taskContext.getShard().getLogicalShardId(), startTs, status, fileCheckpoint);
 
     shardProgressTracker.writeShardProgress(shardProgress);
   }
 
   private static void markShardFailure(
-      ProcessingContext taskContext, SpannerDao spannerDao, String fileProcessedStartInterval) {
+      ProcessingContext taskContext,
+      SpannerDao spannerDao,
+      String fileProcessedStartInterval,
+      String fileCheckpoint) {
     markShardProgress(
-        taskContext, Constants.SHARD_PROGRESS_STATUS_ERROR, spannerDao, fileProcessedStartInterval);
+        taskContext,
+        Constants.SHARD_PROGRESS_STATUS_ERROR,
+        spannerDao,
+        fileProcessedStartInterval,
+        fileCheckpoint);
   }
 }
@@ -24,6 +24,7 @@ import com.google.cloud.teleport.v2.spanner.utils.MigrationTransformationRespons
 import com.google.cloud.teleport.v2.templates.common.TrimmedShardedDataChangeRecord;
 import com.google.cloud.teleport.v2.templates.dao.MySqlDao;
 import com.google.cloud.teleport.v2.templates.processing.dml.DMLGenerator;
+import com.google.cloud.teleport.v2.templates.processing.dml.DMLStatement;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -75,7 +76,7 @@ public class InputRecordProcessor {
       Distribution lagMetric =
           Metrics.distribution(shardId, "replication_lag_in_seconds_" + shardId);
       filteredEvents = new ArrayList<>();
-      List<String> dmlBatch = new ArrayList<>();
+      List<DMLStatement> dmlBatch = new ArrayList<>();
       for (TrimmedShardedDataChangeRecord chrec : recordList) {
         String tableName = chrec.getTableName();
         String modType = chrec.getModType().name();
@@ -109,8 +110,8 @@ public class InputRecordProcessor {
             customTransformationResponse = migrationTransformationResponse.getResponseRow();
           }
         }
-        String dmlStatement =
-            DMLGenerator.getDMLStatement(
+        DMLStatement dmlStatement =
+            DMLGenerator.getPreparedDMLStatement(
                 modType,
                 tableName,
                 schema,
@@ -20,17 +20,24 @@ import com.google.cloud.teleport.v2.templates.common.ProcessingContext;
 import com.google.cloud.teleport.v2.templates.common.TrimmedShardedDataChangeRecord;
 import com.google.cloud.teleport.v2.templates.dao.SpannerDao;
 import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
 import org.apache.beam.sdk.io.FileSystems;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.joda.time.Duration;
@@ -51,6 +58,15 @@ public class GCSReader {
 
   private static final Logger LOG = LoggerFactory.getLogger(GCSReader.class);
 
+  // Gson is thread-safe, so a single instance parses all the records.
+  private static final Gson GSON =
+      new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.IDENTITY).create();
+
+  private static final Comparator<TrimmedShardedDataChangeRecord> RECORD_ORDER =
+      Comparator.comparing(TrimmedShardedDataChangeRecord::getCommitTimestamp)
+          .thenComparing(TrimmedShardedDataChangeRecord::getServerTransactionId)
+          .thenComparing(TrimmedShardedDataChangeRecord::getRecordSequence);
+
   public GCSReader(ProcessingContext taskContext, SpannerDao spannerDao) {
 
     String fileStartTime = taskContext.getStartTimestamp();
@@ -77,47 +93,157 @@ public class GCSReader {
   }
 
   public List<TrimmedShardedDataChangeRecord> getRecords() {
+    List<TrimmedShardedDataChangeRecord> changeStreamList = new ArrayList<>();
+    readRecordsInChunks(Integer.MAX_VALUE, null, changeStreamList::addAll);
+    return changeStreamList;
+  }
+
+  /**
+   * Reads the records of the file sorted on commitTs, serverTrxId and record sequence, and hands
+   * them to the consumer in chunks of at most {@code chunkSize} records. The file is parsed line by
+   * line, so at most one chunk of records is held in memory.
+   *
+   * <p>The file is read once. A file with up to {@code chunkSize} records is sorted in memory. A
+   * larger file is sorted in runs of {@code chunkSize} records, which are spilled to local files
+   * and then merged.
+   *
+   * @param chunkSize maximum number of records per chunk.
+   * @param fileCheckpoint records up to this checkpoint, as per {@link #checkpointOf}, are skipped.
+   *     Null to read all the records.
+   * @param chunkConsumer consumer of the chunks, in order.
+   * @return the number of records handed to the consumer.
+   */
+  public long readRecordsInChunks(
+      int chunkSize,
+      String fileCheckpoint,
+      Consumer<List<TrimmedShardedDataChangeRecord>> chunkConsumer) {
     /*
-    Call TextIO - read the file into PCollection
-    Get a JSON transform of the PCollection
-    Sort the Collection on commitTs,serverTrxId and record sequence
+    Read the file line by line with a shared parser
+    Sort the records in runs of one chunk, spilled to local files if there is more than one run
+    Merge the runs on commitTs,serverTrxId and record sequence and hand over the chunks
      */
-    List<TrimmedShardedDataChangeRecord> changeStreamList = new ArrayList<>();
     LOG.info("Reading from file, {}", fileName);
-    try (InputStream stream =
-        Channels.newInputStream(FileSystems.open(FileSystems.matchNewResource(fileName, false)))) {
-
-      BufferedReader reader =
-          new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
-      while (reader.ready()) {
-        String line = reader.readLine();
-        TrimmedShardedDataChangeRecord chrec =
-            new GsonBuilder()
-                .setFieldNamingPolicy(FieldNamingPolicy.IDENTITY)
-                .create()
-                .fromJson(line, TrimmedShardedDataChangeRecord.class);
-
-        changeStreamList.add(chrec);
+    RecordKey checkpoint = (fileCheckpoint == null) ? null : RecordKey.parse(fileCheckpoint);
+    List<TrimmedShardedDataChangeRecord> records = new ArrayList<>();
+    List<File> runs = new ArrayList<>();
+    long count = 0;
+    InputStream stream;
+    try {
+      stream = openFile();
+    } catch (IOException e) {
+      LOG.warn("File not found : " + fileName);
+      stream = checkAndOpenIfFileExists();
+    }
+    try {
+      try (BufferedReader reader =
+          new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.isEmpty()) {
+            continue;
+          }
+          TrimmedShardedDataChangeRecord chrec =
+              GSON.fromJson(line, TrimmedShardedDataChangeRecord.class);
+          if (checkpoint != null && RecordKey.of(chrec).compareTo(checkpoint) <= 0) {
+            continue;
+          }
+          if (records.size() == chunkSize) {
+            spillRun(records, runs);
+            records.clear();
+          }
+          records.add(chrec);
+          count++;
+        }
+      } catch (Exception e) {
+        throw new RuntimeException("Failed in GcsReader ", e);
       }
-
-      Collections.sort(
-          changeStreamList,
-          Comparator.comparing(TrimmedShardedDataChangeRecord::getCommitTimestamp)
-              .thenComparing(TrimmedShardedDataChangeRecord::getServerTransactionId)
-              .thenComparing(TrimmedShardedDataChangeRecord::getRecordSequence));
-
       Metrics.counter(shardId, "file_read_" + shardId).inc();
 
-    } catch (com.fasterxml.jackson.core.JsonProcessingException ex) {
-      throw new RuntimeException("Failed in processing the record ", ex);
+      if (runs.isEmpty()) {
+        if (!records.isEmpty()) {
+          Collections.sort(records, RECORD_ORDER);
+          chunkConsumer.accept(records);
+        }
+        return count;
+      }
+
+      spillRun(records, runs);
+      records.clear();
+      LOG.info(
+          "File {} has {} records, merging {} sorted runs in chunks of {} records",
+          fileName,
+          count,
+          runs.size(),
+          chunkSize);
+      mergeRuns(runs, chunkSize, chunkConsumer);
+      return count;
     } catch (IOException e) {
-      LOG.warn("File not found : " + fileName);
-      return checkAndReturnIfFileExists();
-    } catch (Exception e) {
       throw new RuntimeException("Failed in GcsReader ", e);
+    } finally {
+      for (File run : runs) {
+        run.delete();
+      }
     }
+  }
 
-    return changeStreamList;
+  /** Returns the checkpoint to resume reading the file after the given record. */
+  public static String checkpointOf(TrimmedShardedDataChangeRecord record) {
+    return RecordKey.of(record).toString();
+  }
+
+  /** Sorts the records and writes them to a new local file, added to the runs. */
+  private static void spillRun(List<TrimmedShardedDataChangeRecord> records, List<File> runs)
+      throws IOException {
+    Collections.sort(records, RECORD_ORDER);
+    File run = File.createTempFile("gcs_reader_run_", ".json");
+    runs.add(run);
+    try (BufferedWriter writer = Files.newBufferedWriter(run.toPath(), StandardCharsets.UTF_8)) {
+      for (TrimmedShardedDataChangeRecord record : records) {
+        writer.write(GSON.toJson(record));
+        writer.newLine();
+      }
+    }
+  }
+
+  /** Merges the sorted runs, holding a single record of each run in memory. */
+  private static void mergeRuns(
+      List<File> runs, int chunkSize, Consumer<List<TrimmedShardedDataChangeRecord>> chunkConsumer)
+      throws IOException {
+    List<RunReader> readers = new ArrayList<>(runs.size());
+    try {
+      PriorityQueue<RunReader> heads =
+          new PriorityQueue<>(runs.size(), Comparator.comparing(RunReader::head, RECORD_ORDER));
+      for (File run : runs) {
+        RunReader reader = new RunReader(run);
+        readers.add(reader);
+        if (reader.advance()) {
+          heads.add(reader);
+        }
+      }
+      List<TrimmedShardedDataChangeRecord> chunk = new ArrayList<>();
+      while (!heads.isEmpty()) {
+        RunReader reader = heads.poll();
+        chunk.add(reader.head());
+        if (reader.advance()) {
+          heads.add(reader);
+        }
+        if (chunk.size() == chunkSize) {
+          chunkConsumer.accept(chunk);
+          chunk = new ArrayList<>();
+        }
+      }
+      if (!chunk.isEmpty()) {
+        chunkConsumer.accept(chunk);
+      }
+    } finally {
+      for (RunReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  private InputStream openFile() throws IOException {
+    return Channels.newInputStream(FileSystems.open(FileSystems.matchNewResource(fileName, false)));
   }
 
   /**
@@ -134,10 +260,10 @@ public class GCSReader {
    * If data was seen for the current window, then file should exist in GCS and we lookup the file
    * indefinitely until is it found. If, however, there was no data for the current window in
    * data_seen, then it means file for the current interval is not there in GCS. We then keep
-   * incrementally looking in data_seen for the next window unitl we find data and then return the
-   * file contents
+   * incrementally looking in data_seen for the next window unitl we find data and then open the
+   * file
    */
-  private List<TrimmedShardedDataChangeRecord> checkAndReturnIfFileExists() {
+  private InputStream checkAndOpenIfFileExists() {
     try {
       Timestamp firstPipelineProgress =
           shardFileCreationTracker.getShardFileCreationProgressTimestamp();
@@ -208,45 +334,18 @@ public class GCSReader {
           }
         }
       }
-      // File should exist now, so wait until found the file and return records
-      return waitTillFileCreatedAndReturn();
+      // File should exist now, so wait until found the file and open it
+      return waitTillFileCreatedAndOpen();
     } catch (Exception e) {
       throw new RuntimeException(
           " Cannot determine file creation progress for shard : " + shardId, e);
     }
   }
 
-  private List<TrimmedShardedDataChangeRecord> waitTillFileCreatedAndReturn() {
-    boolean found = false;
-    List<TrimmedShardedDataChangeRecord> changeStreamList = new ArrayList<>();
-    while (!found) {
-      try (InputStream stream =
-          Channels.newInputStream(
-              FileSystems.open(FileSystems.matchNewResource(fileName, false)))) {
-
-        BufferedReader reader =
-            new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
-        while (reader.ready()) {
-          String line = reader.readLine();
-          TrimmedShardedDataChangeRecord chrec =
-              new GsonBuilder()
-                  .setFieldNamingPolicy(FieldNamingPolicy.IDENTITY)
-                  .create()
-                  .fromJson(line, TrimmedShardedDataChangeRecord.class);
-
-          changeStreamList.add(chrec);
-        }
-
-        Collections.sort(
-            changeStreamList,
-            Comparator.comparing(TrimmedShardedDataChangeRecord::getCommitTimestamp)
-                .thenComparing(TrimmedShardedDataChangeRecord::getServerTransactionId)
-                .thenComparing(TrimmedShardedDataChangeRecord::getRecordSequence));
-
-        Metrics.counter(shardId, "file_read_" + shardId).inc();
-        found = true;
-      } catch (com.fasterxml.jackson.core.JsonProcessingException ex) {
-        throw new RuntimeException("Failed in processing the record ", ex);
+  private InputStream waitTillFileCreatedAndOpen() {
+    while (true) {
+      try {
+        return openFile();
       } catch (IOException e) {
         LOG.warn("Waiting for file : " + fileName);
         try {
@@ -258,10 +357,84 @@ public class GCSReader {
         throw new RuntimeException("Failed in GcsReader ", e);
       }
     }
-    return changeStreamList;
   }
 
   public String getCurrentIntervalStart() {
     return currentIntervalStart.toString();
   }
+
+  /** Reads the records of a sorted run one at a time. */
+  private static final class RunReader implements Closeable {
+    private final BufferedReader reader;
+    private TrimmedShardedDataChangeRecord head;
+
+    private RunReader(File run) throws IOException {
+      this.reader = Files.newBufferedReader(run.toPath(), StandardCharsets.UTF_8);
+    }
+
+    /** Reads the next record of the run, returns false if there is none. */
+    private boolean advance() throws IOException {
+      String line = reader.readLine();
+      head = (line == null) ? null : GSON.fromJson(line, TrimmedShardedDataChangeRecord.class);
+      return head != null;
+    }
+
+    private TrimmedShardedDataChangeRecord head() {
+      return head;
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  /** Sort key of a record, comparable in the same order as {@link #RECORD_ORDER}. */
+  private static final class RecordKey implements Comparable<RecordKey> {
+    private final Timestamp commitTimestamp;
+    private final String serverTransactionId;
+    private final String recordSequence;
+
+    private RecordKey(
+        Timestamp commitTimestamp, String serverTransactionId, String recordSequence) {
+      this.commitTimestamp = commitTimestamp;
+      this.serverTransactionId = serverTransactionId;
+      this.recordSequence = recordSequence;
+    }
+
+    static RecordKey of(TrimmedShardedDataChangeRecord record) {
+      return new RecordKey(
+          record.getCommitTimestamp(), record.getServerTransactionId(), record.getRecordSequence());
+    }
+
+    /* The commit timestamp and record sequence do not contain '/'. */
+    static RecordKey parse(String checkpoint) {
+      int first = checkpoint.indexOf('/');
+      int last = checkpoint.lastIndexOf('/');
+      if (first < 0 || first == last) {
+        throw new IllegalArgumentException("Invalid file checkpoint: " + checkpoint);
+      }
+      return new RecordKey(
+          Timestamp.parseTimestamp(checkpoint.substring(0, first)),
+          checkpoint.substring(first + 1, last),
+          checkpoint.substring(last + 1));
+    }
+
+    @Override
+    public int compareTo(RecordKey other) {
+      int result = commitTimestamp.compareTo(other.commitTimestamp);
+      if (result == 0) {
+        result = serverTransactionId.compareTo(other.serverTransactionId);
+      }
+      if (result == 0) {
+        result = recordSequence.compareTo(other.recordSequence);
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return commitTimestamp + "/" + serverTransactionId + "/" + recordSequence;
+    }
+  }
 }
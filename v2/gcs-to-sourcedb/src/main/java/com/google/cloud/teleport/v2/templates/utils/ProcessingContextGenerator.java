@@ -206,6 +206,12 @@ public class ProcessingContextGenerator {
       shardProgressList = shardProgressTracker.getAllShardProgress();
     } else {
       shardProgressList = shardProgressTracker.getShardProgressByStatus(status);
+      if (runMode.equals(Constants.RUN_MODE_RESUME_FAILED)) {
+        // Shards that stopped while processing a file are resumed like the failed ones.
+        shardProgressList.putAll(
+            shardProgressTracker.getShardProgressByStatus(
+                Constants.SHARD_PROGRESS_STATUS_IN_PROGRESS));
+      }
     }
 
     Map<String, ProcessingContext> response = new HashMap<>();
@@ -259,6 +265,11 @@ public class ProcessingContextGenerator {
               duration,
               gcsInputDirectoryPath,
               runId);
+      if (shardProgress.getStatus().equals(Constants.SHARD_PROGRESS_STATUS_ERROR)
+          || shardProgress.getStatus().equals(Constants.SHARD_PROGRESS_STATUS_IN_PROGRESS)) {
+        // Resume the file from the last record written to source, if any.
+        taskContext.setFileCheckpoint(shardProgress.getFileCheckpoint());
+      }
       response.put(shard.getLogicalShardId(), taskContext);
     }
     return response;
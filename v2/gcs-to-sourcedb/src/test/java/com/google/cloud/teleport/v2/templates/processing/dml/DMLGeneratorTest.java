@@ -15,6 +15,8 @@
  */
 package com.google.cloud.teleport.v2.templates.processing.dml;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -707,4 +709,54 @@ public final class DMLGeneratorTest {
     assertTrue(sql.contains("FullName = 'kk ll'"));
     assertTrue(sql.contains("VALUES (1,'kk ll')"));
   }
+
+  @Test
+  public void preparedUpsertBindsValues() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+    String tableName = "Singers";
+    JSONObject newValuesJson = new JSONObject("{\"FirstName\":\"k'k\",\"LastName\":null}");
+    JSONObject keyValuesJson = new JSONObject("{\"SingerId\":\"999\"}");
+
+    DMLStatement dml =
+        DMLGenerator.getPreparedDMLStatement(
+            "INSERT", tableName, schema, newValuesJson, keyValuesJson, "+00:00", null);
+
+    String sql = dml.getStatement();
+    assertTrue(sql.startsWith("INSERT INTO Singers(SingerId,"));
+    assertTrue(sql.contains("VALUES (?,?,?) ON DUPLICATE KEY UPDATE"));
+    assertTrue(sql.contains("FirstName = ?"));
+    assertTrue(sql.contains("LastName = ?"));
+    assertFalse(sql.contains("k'k"));
+    // The values of the insert followed by the values of the update.
+    assertEquals(5, dml.getParameters().size());
+    assertEquals(999L, dml.getParameters().get(0));
+    assertTrue(dml.getParameters().contains("k'k"));
+    assertTrue(dml.getParameters().contains(null));
+  }
+
+  @Test
+  public void preparedCustomTransformationIsInlined() {
+    Schema schema = SessionFileReader.read("src/test/resources/customTransformation.json");
+    String tableName = "Singers";
+    JSONObject newValuesJson = new JSONObject("{\"FirstName\":\"kk\",\"LastName\":\"ll\"}");
+    JSONObject keyValuesJson = new JSONObject("{\"SingerId\":\"999\"}");
+    Map<String, Object> customTransformation = new HashMap<>();
+    customTransformation.put("FullName", "\'kk ll\'");
+    customTransformation.put("SingerId", "1");
+
+    DMLStatement dml =
+        DMLGenerator.getPreparedDMLStatement(
+            "INSERT",
+            tableName,
+            schema,
+            newValuesJson,
+            keyValuesJson,
+            "+00:00",
+            customTransformation);
+
+    // The custom transformation returns SQL expressions, which are kept as is.
+    assertTrue(dml.getStatement().contains("FullName = 'kk ll'"));
+    assertTrue(dml.getStatement().contains("VALUES (1,'kk ll')"));
+    assertTrue(dml.getParameters().isEmpty());
+  }
 }
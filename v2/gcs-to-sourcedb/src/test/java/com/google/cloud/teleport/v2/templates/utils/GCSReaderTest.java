@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
+import com.google.cloud.teleport.v2.templates.common.ProcessingContext;
+import com.google.cloud.teleport.v2.templates.common.TrimmedShardedDataChangeRecord;
+import com.google.cloud.teleport.v2.templates.dao.SpannerDao;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class GCSReaderTest {
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final Gson GSON =
+      new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.IDENTITY).create();
+
+  private ProcessingContext taskContext;
+
+  @Before
+  public void setUp() throws Exception {
+    File shardDir = tempFolder.newFolder("shard1");
+    List<String> lines = new ArrayList<>();
+    // Written out of order, like the files of the Spanner to GCS job.
+    for (String seq : new String[] {"3", "1", "4", "0", "2"}) {
+      lines.add(GSON.toJson(record("2023-06-23T10:15:3" + seq + "Z", seq)));
+    }
+    Files.write(
+        new File(
+                shardDir,
+                "2023-06-23T10:15:00.000Z-2023-06-23T10:25:00.000Z-pane-0-last-0-of-1.txt")
+            .toPath(),
+        lines,
+        StandardCharsets.UTF_8);
+
+    Shard shard = mock(Shard.class);
+    when(shard.getLogicalShardId()).thenReturn("shard1");
+    taskContext = mock(ProcessingContext.class);
+    when(taskContext.getShard()).thenReturn(shard);
+    when(taskContext.getGCSPath()).thenReturn(tempFolder.getRoot().getAbsolutePath());
+    when(taskContext.getStartTimestamp()).thenReturn("2023-06-23T10:15:00Z");
+    when(taskContext.getWindowDuration()).thenReturn(Duration.standardMinutes(10));
+    when(taskContext.getRunId()).thenReturn("run1");
+  }
+
+  @Test
+  public void readRecordsInChunksSortsSmallFileInOneChunk() {
+    GCSReader reader = new GCSReader(taskContext, mock(SpannerDao.class));
+    List<List<String>> chunks = new ArrayList<>();
+
+    long count = reader.readRecordsInChunks(10, null, chunk -> chunks.add(sequencesOf(chunk)));
+
+    assertEquals(5, count);
+    assertEquals(List.of(List.of("0", "1", "2", "3", "4")), chunks);
+  }
+
+  @Test
+  public void readRecordsInChunksSplitsLargeFileInSortedChunks() {
+    GCSReader reader = new GCSReader(taskContext, mock(SpannerDao.class));
+    List<List<String>> chunks = new ArrayList<>();
+
+    long count = reader.readRecordsInChunks(2, null, chunk -> chunks.add(sequencesOf(chunk)));
+
+    assertEquals(5, count);
+    assertEquals(List.of(List.of("0", "1"), List.of("2", "3"), List.of("4")), chunks);
+  }
+
+  @Test
+  public void readRecordsInChunksResumesAfterCheckpoint() {
+    GCSReader reader = new GCSReader(taskContext, mock(SpannerDao.class));
+    List<List<String>> chunks = new ArrayList<>();
+    String checkpoint = GCSReader.checkpointOf(record("2023-06-23T10:15:31Z", "1"));
+
+    long count = reader.readRecordsInChunks(2, checkpoint, chunk -> chunks.add(sequencesOf(chunk)));
+
+    assertEquals(3, count);
+    assertEquals(List.of(List.of("2", "3"), List.of("4")), chunks);
+  }
+
+  @Test
+  public void readRecordsInChunksMergesRunsOfDifferentLengths() {
+    GCSReader reader = new GCSReader(taskContext, mock(SpannerDao.class));
+    List<List<String>> chunks = new ArrayList<>();
+
+    // Runs of 3 and 2 records, handed over in chunks of 3.
+    long count = reader.readRecordsInChunks(3, null, chunk -> chunks.add(sequencesOf(chunk)));
+
+    assertEquals(5, count);
+    assertEquals(List.of(List.of("0", "1", "2"), List.of("3", "4")), chunks);
+  }
+
+  @Test
+  public void getRecordsReturnsAllRecordsSorted() {
+    GCSReader reader = new GCSReader(taskContext, mock(SpannerDao.class));
+
+    assertEquals(List.of("0", "1", "2", "3", "4"), sequencesOf(reader.getRecords()));
+  }
+
+  private static TrimmedShardedDataChangeRecord record(String commitTs, String seq) {
+    return new TrimmedShardedDataChangeRecord(
+        Timestamp.parseTimestamp(commitTs),
+        "txn",
+        seq,
+        "tableName",
+        new ArrayList<>(),
+        ModType.INSERT,
+        1L,
+        "");
+  }
+
+  private static List<String> sequencesOf(List<TrimmedShardedDataChangeRecord> records) {
+    return records.stream()
+        .map(TrimmedShardedDataChangeRecord::getRecordSequence)
+        .collect(Collectors.toList());
+  }
+}
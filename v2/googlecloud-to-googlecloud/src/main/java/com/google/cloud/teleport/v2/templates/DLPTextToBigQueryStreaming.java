@@ -40,18 +40,23 @@ import com.google.privacy.dlp.v2.FieldId;
 import com.google.privacy.dlp.v2.ProjectName;
 import com.google.privacy.dlp.v2.Table;
 import com.google.privacy.dlp.v2.Value;
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
 import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -88,7 +93,6 @@ import org.apache.beam.sdk.transforms.windowing.Repeatedly;
 import org.apache.beam.sdk.transforms.windowing.Window;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
-import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TypeDescriptor;
 import org.apache.beam.sdk.values.ValueInSingleWindow;
 import org.apache.commons.csv.CSVFormat;
@@ -379,73 +383,101 @@ public class DLPTextToBigQueryStreaming {
   }
 
   /**
-   * The {@link CSVReader} class uses experimental Split DoFn to split each csv file contents in
-   * chunks and process it in non-monolithic fashion. For example: if a CSV file has 100 rows and
-   * batch size is set to 15, then initial restrictions for the SDF will be 1 to 7 and split
-   * restriction will be {{1-2},{2-3}..{7-8}} for parallel executions.
+   * The {@link CSVReader} class uses a splittable DoFn to split each csv file contents in chunks
+   * and process it in non-monolithic fashion. The restriction of a file is the range of the blocks
+   * of {@link #BLOCK_SIZE_BYTES} of the file, and a block owns the records that start in it. A
+   * restriction seeks to its first block and resyncs on the first record that starts in it, so
+   * files are split, initially and dynamically, without reading the preceding blocks.
    */
   static class CSVReader extends DoFn<KV<String, ReadableFile>, KV<String, Table>> {
 
-    private final Integer batchSize;
-    private PCollectionView<List<KV<String, List<String>>>> headerMap;
+    /**
+     * Size of the blocks of a file, about the largest payload of a DLP API call. The records of a
+     * block are output in DLP tables of up to batch size rows.
+     */
+    static final long BLOCK_SIZE_BYTES = 512 * 1024;
 
-    /** This counter is used to track number of lines processed against batch size. */
-    private Integer lineCount;
+    private final Integer batchSize;
 
     public CSVReader(Integer batchSize) {
-      lineCount = 1;
       this.batchSize = batchSize;
     }
 
     @ProcessElement
     public void processElement(ProcessContext c, RestrictionTracker<OffsetRange, Long> tracker)
         throws IOException {
-      for (long i = tracker.currentRestriction().getFrom(); tracker.tryClaim(i); ++i) {
-        String fileKey = c.element().getKey();
-        try (BufferedReader br = getReader(c.element().getValue())) {
-          List<Table.Row> rows = new ArrayList<>();
-          Table dlpTable = null;
-          /** finding out EOL for this restriction so that we know the SOL */
-          int endOfLine = (int) (i * batchSize.intValue());
-          int startOfLine = (endOfLine - batchSize.intValue());
-
-          // getting the DLP table headers
-          Iterator<CSVRecord> csvRows = CSVFormat.DEFAULT.parse(br).iterator();
-          if (!csvRows.hasNext()) {
-            LOG.info("File `" + c.element().getKey() + "` is empty");
-            continue;
-          }
-          List<FieldId> dlpTableHeaders = toDlpTableHeaders(csvRows.next());
+      String fileKey = c.element().getKey();
+      long firstBlock = tracker.currentRestriction().getFrom();
+      try (SeekableByteChannel channel = c.element().getValue().openSeekable()) {
+        /** getting the DLP table headers from the first record of the file */
+        CsvRecordScanner scanner = new CsvRecordScanner(channel, 0);
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        if (!scanner.nextRecord(batch)) {
+          LOG.info("File `" + fileKey + "` is empty");
+          return;
+        }
+        List<CSVRecord> headerRows = parseRecords(batch);
+        List<FieldId> dlpTableHeaders =
+            headerRows.isEmpty() ? new ArrayList<>() : toDlpTableHeaders(headerRows.get(0));
+
+        /** finding out the first record of the first block of this restriction */
+        long blockStart = firstBlock * BLOCK_SIZE_BYTES;
+        if (blockStart > scanner.position()) {
+          scanner =
+              new CsvRecordScanner(
+                  channel, CsvRecordScanner.firstRecordStartFrom(channel, blockStart));
+        }
 
-          /** skipping all the rows that's not part of this restriction */
-          for (int line = 0; line < startOfLine; line++) {
-            if (csvRows.hasNext()) {
-              csvRows.next();
+        /** the records of a block continue where the ones of the previous block ended */
+        for (long block = firstBlock; tracker.tryClaim(block); ++block) {
+          long blockEnd = (block + 1) * BLOCK_SIZE_BYTES;
+          batch.reset();
+          int batchRecords = 0;
+          while (scanner.position() < blockEnd && scanner.nextRecord(batch)) {
+            batchRecords += 1;
+            if (batchRecords == batchSize) {
+              outputDlpTable(c, fileKey, dlpTableHeaders, batch);
+              batch.reset();
+              batchRecords = 0;
             }
           }
-          /** looping through buffered reader and creating DLP Table Rows equals to batch */
-          while (csvRows.hasNext() && lineCount <= batchSize) {
-
-            CSVRecord csvRow = csvRows.next();
-            rows.add(convertCsvRowToTableRow(csvRow));
-            lineCount += 1;
+          if (batchRecords > 0) {
+            outputDlpTable(c, fileKey, dlpTableHeaders, batch);
           }
-          /** creating DLP table and output for next transformation */
-          dlpTable = Table.newBuilder().addAllHeaders(dlpTableHeaders).addAllRows(rows).build();
-          c.output(KV.of(fileKey, dlpTable));
-
-          LOG.debug(
-              "Current Restriction From: {}, Current Restriction To: {},"
-                  + " StartofLine: {}, End Of Line {}, BatchData {}",
-              tracker.currentRestriction().getFrom(),
-              tracker.currentRestriction().getTo(),
-              startOfLine,
-              endOfLine,
-              dlpTable.getRowsCount());
         }
+
+        LOG.debug(
+            "Current Restriction From: {}, Current Restriction To: {}",
+            firstBlock,
+            tracker.currentRestriction().getTo());
       }
     }
 
+    private void outputDlpTable(
+        ProcessContext c,
+        String fileKey,
+        List<FieldId> dlpTableHeaders,
+        ByteArrayOutputStream batch)
+        throws IOException {
+      List<Table.Row> rows = new ArrayList<>();
+      for (CSVRecord csvRow : parseRecords(batch)) {
+        rows.add(convertCsvRowToTableRow(csvRow));
+      }
+      /** empty lines are skipped by the parser, so the batch can be empty */
+      if (rows.isEmpty()) {
+        return;
+      }
+      /** creating DLP table and output for next transformation */
+      Table dlpTable = Table.newBuilder().addAllHeaders(dlpTableHeaders).addAllRows(rows).build();
+      c.output(KV.of(fileKey, dlpTable));
+    }
+
+    private static List<CSVRecord> parseRecords(ByteArrayOutputStream records) throws IOException {
+      return CSVFormat.DEFAULT
+          .parse(new StringReader(records.toString(StandardCharsets.UTF_8.name())))
+          .getRecords();
+    }
+
     private static List<FieldId> toDlpTableHeaders(CSVRecord headerRow) {
       List<FieldId> result = new ArrayList<>();
       for (String header : headerRow) {
@@ -456,43 +488,21 @@ public class DLPTextToBigQueryStreaming {
 
     /**
      * SDF needs to define a @GetInitialRestriction method that can create a restriction describing
-     * the complete work for a given element. For our case this would be the total number of rows
-     * for each CSV file. We will calculate the number of split required based on total number of
-     * rows and batch size provided.
+     * the complete work for a given element. For our case this would be the blocks of each CSV
+     * file.
      */
     @GetInitialRestriction
-    public OffsetRange getInitialRestriction(@Element KV<String, ReadableFile> csvFile)
-        throws IOException {
-
-      int rowCount = 0;
-      int totalSplit = 0;
-      try (BufferedReader br = getReader(csvFile.getValue())) {
-        /** assume first row is header */
-        int checkRowCount = (int) br.lines().count() - 1;
-        rowCount = (checkRowCount < 1) ? 1 : checkRowCount;
-        totalSplit = rowCount / batchSize.intValue();
-        int remaining = rowCount % batchSize.intValue();
-        /**
-         * Adjusting the total number of split based on remaining rows. For example: batch size of
-         * 15 for 100 rows will have total 7 splits. As it's a range last split will have offset
-         * range {7,8}
-         */
-        if (remaining > 0) {
-          totalSplit = totalSplit + 2;
-
-        } else {
-          totalSplit = totalSplit + 1;
-        }
-      }
-
-      LOG.debug("Initial Restriction range from 1 to: {}", totalSplit);
-      return new OffsetRange(1, totalSplit);
+    public OffsetRange getInitialRestriction(@Element KV<String, ReadableFile> csvFile) {
+      long sizeBytes = csvFile.getValue().getMetadata().sizeBytes();
+      long totalBlocks = (sizeBytes + BLOCK_SIZE_BYTES - 1) / BLOCK_SIZE_BYTES;
+      LOG.debug("Initial Restriction range from 0 to: {}", totalBlocks);
+      return new OffsetRange(0, totalBlocks);
     }
 
     /**
-     * SDF needs to define a @SplitRestriction method that can split the intital restriction to a
-     * number of smaller restrictions. For example: a intital rewstriction of (x, N) as input and
-     * produces pairs (x, 0), (x, 1), …, (x, N-1) as output.
+     * SDF needs to define a @SplitRestriction method that can split the initial restriction to a
+     * number of smaller restrictions. For example: a initial restriction of (x, N) as input and
+     * produces pairs (x, x + 1), (x + 1, x + 2), …, (N - 1, N) as output.
      */
     @SplitRestriction
     public void splitRestriction(
@@ -510,7 +520,7 @@ public class DLPTextToBigQueryStreaming {
       return new OffsetRangeTracker(new OffsetRange(range.getFrom(), range.getTo()));
     }
 
-    private Table.Row convertCsvRowToTableRow(CSVRecord csvRow) {
+    private static Table.Row convertCsvRowToTableRow(CSVRecord csvRow) {
       /** convert from CSV row to DLP Table Row */
       Iterator<String> valueIterator = csvRow.iterator();
       Table.Row.Builder tableRowBuilder = Table.Row.newBuilder();
@@ -525,13 +535,208 @@ public class DLPTextToBigQueryStreaming {
 
       return tableRowBuilder.build();
     }
+  }
+
+  /**
+   * The {@link CsvRecordScanner} class splits the bytes of a CSV file in records, following the
+   * quoting of RFC 4180: a line break inside a quoted field does not end the record.
+   *
+   * <p>The first record that starts after an offset is found exactly as long as the quotes of the
+   * file follow RFC 4180 and its quoted fields are at most {@link #MAX_QUOTED_FIELD_BYTES} long, so
+   * the scanner fails the read of the files that do not.
+   */
+  static class CsvRecordScanner {
+
+    /** States of the scanner before reading a byte. */
+    private static final int FIELD_START = 0;
 
-    private List<String> getHeaders(List<KV<String, List<String>>> headerMap, String fileKey) {
-      return headerMap.stream()
-          .filter(map -> map.getKey().equalsIgnoreCase(fileKey))
-          .findFirst()
-          .map(e -> e.getValue())
-          .orElse(null);
+    private static final int UNQUOTED = 1;
+    private static final int QUOTE_IN_QUOTED = 2;
+    private static final int QUOTED = 3;
+
+    /**
+     * Maximum length of a quoted field, which bounds how far the scanner looks ahead when resyncing
+     * from an arbitrary offset.
+     */
+    static final int MAX_QUOTED_FIELD_BYTES = 64 * 1024;
+
+    private final InputStream in;
+    private long position;
+
+    CsvRecordScanner(SeekableByteChannel channel, long position) throws IOException {
+      channel.position(position);
+      this.in = new BufferedInputStream(Channels.newInputStream(channel));
+      this.position = position;
+    }
+
+    /** Returns the offset of the next byte to read. */
+    long position() {
+      return position;
+    }
+
+    /**
+     * Reads the next record, including its line break, into the given stream. Returns false at the
+     * end of the file.
+     */
+    boolean nextRecord(ByteArrayOutputStream out) throws IOException {
+      Reading reading = new Reading(FIELD_START, -1);
+      boolean read = false;
+      int b;
+      while ((b = in.read()) != -1) {
+        read = true;
+        out.write(b);
+        boolean recordEnd = reading.read(b, position++);
+        if (reading.rejected) {
+          throw new IOException(
+              String.format(
+                  "Malformed quote or quoted field longer than %d bytes at offset %d",
+                  MAX_QUOTED_FIELD_BYTES, position - 1));
+        }
+        if (recordEnd) {
+          return true;
+        }
+      }
+      if (reading.state == QUOTED) {
+        throw new IOException("Quoted field not closed at the end of the file");
+      }
+      return read;
+    }
+
+    /**
+     * Returns the offset of the first record that starts at or after the given offset, which must
+     * be after the start of the file.
+     *
+     * <p>Whether the offset is inside a quoted field is not known, so every state is followed from
+     * the byte before the offset. The readings that run into a malformed quote, a quoted field that
+     * is too long or the end of the file inside a quoted field are rejected, until the remaining
+     * ones agree on the first record. If none remains, or the remaining ones coincide without
+     * agreeing, the file can not be split at the offset and the read fails.
+     */
+    static long firstRecordStartFrom(SeekableByteChannel channel, long offset) throws IOException {
+      CsvRecordScanner scanner = new CsvRecordScanner(channel, offset - 1);
+      List<Reading> readings =
+          new ArrayList<>(
+              Arrays.asList(
+                  new Reading(FIELD_START, -1),
+                  new Reading(UNQUOTED, -1),
+                  new Reading(QUOTE_IN_QUOTED, offset - 1),
+                  new Reading(QUOTED, offset - 1)));
+      int b;
+      while ((b = scanner.in.read()) != -1) {
+        long byteOffset = scanner.position++;
+        for (Reading reading : readings) {
+          if (reading.read(b, byteOffset) && reading.recordStart < 0) {
+            reading.recordStart = scanner.position;
+          }
+        }
+        readings.removeIf(reading -> reading.rejected);
+        if (readings.isEmpty()) {
+          break;
+        }
+        /** the readings that coincide read the rest of the file alike, so one of them is kept */
+        for (int i = readings.size() - 1; i > 0; i--) {
+          for (int j = 0; j < i; j++) {
+            if (readings.get(i).coincidesWith(readings.get(j))) {
+              if (readings.get(i).recordStart != readings.get(j).recordStart) {
+                throw notSplittable(offset);
+              }
+              readings.remove(i);
+              break;
+            }
+          }
+        }
+        long recordStart = readings.get(0).recordStart;
+        if (recordStart >= 0 && readings.stream().allMatch(r -> r.recordStart == recordStart)) {
+          return recordStart;
+        }
+      }
+      /** a quoted field can not end the file, and no record starts after the last one */
+      readings.removeIf(reading -> reading.state == QUOTED);
+      long fileEnd = scanner.position;
+      Set<Long> recordStarts = new HashSet<>();
+      for (Reading reading : readings) {
+        recordStarts.add(reading.recordStart >= 0 ? reading.recordStart : fileEnd);
+      }
+      if (recordStarts.size() != 1) {
+        throw notSplittable(offset);
+      }
+      return recordStarts.iterator().next();
+    }
+
+    private static IOException notSplittable(long offset) {
+      return new IOException(
+          String.format(
+              "Can not find the first record after offset %d: the quotes of the file do not follow"
+                  + " RFC 4180, or its quoted fields are longer than %d bytes",
+              offset, MAX_QUOTED_FIELD_BYTES));
+    }
+
+    private static int next(int state, int b) {
+      switch (state) {
+        case QUOTED:
+          return (b == '"') ? QUOTE_IN_QUOTED : QUOTED;
+        case QUOTE_IN_QUOTED:
+          if (b == '"') {
+            return QUOTED;
+          }
+          return (b == ',' || b == '\n') ? FIELD_START : UNQUOTED;
+        default:
+          if (b == ',' || b == '\n') {
+            return FIELD_START;
+          }
+          return (b == '"' && state == FIELD_START) ? QUOTED : UNQUOTED;
+      }
+    }
+
+    /** Returns whether the byte is a quote out of place as per RFC 4180 in the given state. */
+    private static boolean isMalformed(int state, int b) {
+      if (state == UNQUOTED) {
+        return b == '"';
+      }
+      if (state == QUOTE_IN_QUOTED) {
+        return b != '"' && b != ',' && b != '\r' && b != '\n';
+      }
+      return false;
+    }
+
+    /** Reading of the bytes of a file from a given state. */
+    private static class Reading {
+      private int state;
+
+      /** Offset of the opening quote of the current quoted field. */
+      private long quotedFrom;
+
+      /** Offset of the first record that starts after the first byte read, or -1. */
+      private long recordStart = -1;
+
+      private boolean rejected;
+
+      Reading(int state, long quotedFrom) {
+        this.state = state;
+        this.quotedFrom = quotedFrom;
+      }
+
+      /** Reads the byte at the given offset, and returns whether it ends a record. */
+      boolean read(int b, long offset) {
+        if (isMalformed(state, b)) {
+          rejected = true;
+          return false;
+        }
+        boolean recordEnd = b == '\n' && state != QUOTED;
+        int nextState = next(state, b);
+        if (state == FIELD_START && nextState == QUOTED) {
+          quotedFrom = offset;
+        }
+        state = nextState;
+        if (state == QUOTED && offset - quotedFrom >= MAX_QUOTED_FIELD_BYTES) {
+          rejected = true;
+        }
+        return recordEnd;
+      }
+
+      boolean coincidesWith(Reading other) {
+        return state == other.state && (state != QUOTED || quotedFrom == other.quotedFrom);
+      }
     }
   }
 
@@ -730,26 +935,6 @@ public class DLPTextToBigQueryStreaming {
     return fileKey[0];
   }
 
-  private static BufferedReader getReader(ReadableFile csvFile) {
-    BufferedReader br = null;
-    ReadableByteChannel channel = null;
-    /** read the file and create buffered reader */
-    try {
-      channel = csvFile.openSeekable();
-
-    } catch (IOException e) {
-      LOG.error("Failed to Read File {}", e.getMessage());
-      throw new RuntimeException(e);
-    }
-
-    if (channel != null) {
-
-      br = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.name()));
-    }
-
-    return br;
-  }
-
   private static String checkHeaderName(String name) {
     /** some checks to make sure BQ column names don't fail e.g. special characters */
     String checkedHeader = name.replaceAll("\\s", "_");
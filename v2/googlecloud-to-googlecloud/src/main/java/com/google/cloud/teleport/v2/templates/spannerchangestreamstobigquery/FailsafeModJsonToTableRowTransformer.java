@@ -24,6 +24,8 @@ import com.google.api.gax.grpc.GrpcCallContext;
 import com.google.api.gax.rpc.ApiCallContext;
 import com.google.api.services.bigquery.model.TableRow;
 import com.google.auto.value.AutoValue;
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
 import com.google.cloud.spanner.DatabaseClient;
 import com.google.cloud.spanner.Dialect;
 import com.google.cloud.spanner.Key.Builder;
@@ -32,6 +34,7 @@ import com.google.cloud.spanner.Options;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.SpannerOptions;
 import com.google.cloud.spanner.SpannerOptions.CallContextConfigurator;
+import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TimestampBound;
 import com.google.cloud.teleport.v2.coders.FailsafeElementCoder;
 import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.model.Mod;
@@ -43,12 +46,17 @@ import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.sch
 import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.schemautils.SpannerToBigQueryUtils;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import io.grpc.CallOptions;
 import io.grpc.Context;
 import io.grpc.MethodDescriptor;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -61,11 +69,14 @@ import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ValueCaptureType;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.TupleTagList;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Throwables;
+import org.joda.time.Instant;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,6 +90,8 @@ public final class FailsafeModJsonToTableRowTransformer {
   private static final Logger LOG =
       LoggerFactory.getLogger(FailsafeModJsonToTableRowTransformer.class);
 
+  private static final int MAX_KEYS_PER_READ = 1000;
+
   /**
    * Primary class for taking a {@link FailsafeElement} {@link Mod} JSON input and converting to a
    * {@link TableRow}.
@@ -135,6 +148,9 @@ public final class FailsafeModJsonToTableRowTransformer {
       private Boolean useStorageWriteApi;
       private Dialect dialect;
 
+      /* UPDATE mods of the current bundle waiting for the snapshot read of their row. */
+      private transient List<PendingSnapshotRead> pendingSnapshotReads;
+
       public FailsafeModJsonToTableRowFn(
           SpannerConfig spannerConfig,
           String spannerChangeStream,
@@ -193,36 +209,124 @@ public final class FailsafeModJsonToTableRowTransformer {
         spannerAccessor.close();
       }
 
+      @StartBundle
+      public void startBundle() {
+        pendingSnapshotReads = new ArrayList<>();
+      }
+
+      /**
+       * Converts the mod to a {@link TableRow}. UPDATE mods that need a snapshot read of the row
+       * are buffered and resolved with batched reads when the bundle finishes, see {@link
+       * #finishBundle(FinishBundleContext)}.
+       */
       @ProcessElement
-      public void processElement(ProcessContext context) {
+      public void processElement(ProcessContext context, BoundedWindow window) {
         FailsafeElement<String, String> failsafeModJsonString = context.element();
 
         try {
-          TableRow tableRow = modJsonStringToTableRow(failsafeModJsonString.getPayload());
-          for (String ignoreField : ignoreFields) {
-            if (tableRow.containsKey(ignoreField)) {
-              tableRow.remove(ignoreField);
-            }
+          TableRow tableRow =
+              modJsonStringToTableRow(
+                  failsafeModJsonString.getPayload(),
+                  failsafeModJsonString,
+                  context.timestamp(),
+                  window);
+          if (tableRow != null) {
+            context.output(removeIgnoreFields(tableRow));
           }
-          context.output(tableRow);
         } catch (Exception e) {
-          if (!seenException) {
-            LOG.error(
-                String.format(
-                    "Caught exception when processing element and storing into dead letter queue,"
-                        + " message: %s, cause: %s",
-                    Optional.ofNullable(e.getMessage()), e.getCause()));
-            seenException = true;
+          context.output(transformDeadLetterOut, toDeadLetter(failsafeModJsonString, e));
+        }
+      }
+
+      /**
+       * Completes the {@link TableRow}s of the buffered UPDATE mods. The mods of a table committed
+       * at the same time, like the ones of a bulk UPDATE, are read with a single multi-key snapshot
+       * read of up to {@link #MAX_KEYS_PER_READ} keys. A mod whose row is not returned by the
+       * batched read falls back to the point read with retries.
+       */
+      @FinishBundle
+      public void finishBundle(FinishBundleContext context) {
+        Map<KV<TrackedSpannerTable, com.google.cloud.Timestamp>, List<PendingSnapshotRead>>
+            readsPerTable = new LinkedHashMap<>();
+        for (PendingSnapshotRead pendingRead : pendingSnapshotReads) {
+          readsPerTable
+              .computeIfAbsent(
+                  KV.of(pendingRead.spannerTable, pendingRead.commitTimestamp),
+                  k -> new ArrayList<>())
+              .add(pendingRead);
+        }
+        pendingSnapshotReads.clear();
+
+        for (Map.Entry<
+                KV<TrackedSpannerTable, com.google.cloud.Timestamp>, List<PendingSnapshotRead>>
+            entry : readsPerTable.entrySet()) {
+          TrackedSpannerTable spannerTable = entry.getKey().getKey();
+          com.google.cloud.Timestamp spannerCommitTimestamp = entry.getKey().getValue();
+          for (List<PendingSnapshotRead> batch :
+              Lists.partition(entry.getValue(), MAX_KEYS_PER_READ)) {
+            Map<List<Object>, Struct> rows =
+                batch.size() > 1
+                    ? readSpannerRows(spannerTable, spannerCommitTimestamp, batch)
+                    : Collections.emptyMap();
+            for (PendingSnapshotRead pendingRead : batch) {
+              try {
+                Struct row = rows.get(pendingRead.keyValues);
+                if (row != null) {
+                  SpannerToBigQueryUtils.spannerSnapshotRowToBigQueryTableRow(
+                      row, spannerTable.getNonPkColumns(), pendingRead.tableRow);
+                } else {
+                  readSpannerRowWithRetries(
+                      spannerTable, pendingRead.key, spannerCommitTimestamp, pendingRead.tableRow);
+                }
+                context.output(
+                    removeIgnoreFields(pendingRead.tableRow),
+                    pendingRead.timestamp,
+                    pendingRead.window);
+              } catch (Exception e) {
+                context.output(
+                    transformDeadLetterOut,
+                    toDeadLetter(pendingRead.element, e),
+                    pendingRead.timestamp,
+                    pendingRead.window);
+              }
+            }
+          }
+        }
+      }
+
+      private TableRow removeIgnoreFields(TableRow tableRow) {
+        for (String ignoreField : ignoreFields) {
+          if (tableRow.containsKey(ignoreField)) {
+            tableRow.remove(ignoreField);
           }
-          context.output(
-              transformDeadLetterOut,
-              FailsafeElement.of(failsafeModJsonString)
-                  .setErrorMessage(e.getMessage())
-                  .setStacktrace(Throwables.getStackTraceAsString(e)));
         }
+        return tableRow;
       }
 
-      private TableRow modJsonStringToTableRow(String modJsonString) {
+      private FailsafeElement<String, String> toDeadLetter(
+          FailsafeElement<String, String> failsafeModJsonString, Exception e) {
+        if (!seenException) {
+          LOG.error(
+              String.format(
+                  "Caught exception when processing element and storing into dead letter queue,"
+                      + " message: %s, cause: %s",
+                  Optional.ofNullable(e.getMessage()), e.getCause()));
+          seenException = true;
+        }
+        return FailsafeElement.of(failsafeModJsonString)
+            .setErrorMessage(e.getMessage())
+            .setStacktrace(Throwables.getStackTraceAsString(e));
+      }
+
+      /**
+       * Converts the mod JSON string to a {@link TableRow}. Returns null if the row needs a
+       * snapshot read, in which case the mod is added to the pending snapshot reads of the bundle.
+       */
+      private TableRow modJsonStringToTableRow(
+          String modJsonString,
+          FailsafeElement<String, String> element,
+          Instant timestamp,
+          BoundedWindow window) {
         String deadLetterMessage =
             "check dead letter queue for unprocessed records that failed to be processed";
         ObjectNode modObjectNode = null;
@@ -336,6 +440,24 @@ public final class FailsafeModJsonToTableRowTransformer {
           }
         }
 
+        pendingSnapshotReads.add(
+            new PendingSnapshotRead(
+                element,
+                tableRow,
+                spannerTable,
+                keyBuilder.build(),
+                keyValues(spannerTable, keysJsonObject),
+                spannerCommitTimestamp,
+                timestamp,
+                window));
+        return null;
+      }
+
+      private void readSpannerRowWithRetries(
+          TrackedSpannerTable spannerTable,
+          com.google.cloud.spanner.Key key,
+          com.google.cloud.Timestamp spannerCommitTimestamp,
+          TableRow tableRow) {
         List<TrackedSpannerColumn> spannerNonPkColumns = spannerTable.getNonPkColumns();
         List<String> spannerNonPkColumnNames =
             spannerNonPkColumns.stream()
@@ -347,7 +469,7 @@ public final class FailsafeModJsonToTableRowTransformer {
           try {
             readSpannerRow(
                 spannerTable.getTableName(),
-                keyBuilder.build(),
+                key,
                 spannerNonPkColumns,
                 spannerNonPkColumnNames,
                 spannerCommitTimestamp,
@@ -376,8 +498,135 @@ public final class FailsafeModJsonToTableRowTransformer {
             }
           }
         }
+      }
 
-        return tableRow;
+      /**
+       * Snapshot reads the rows of a batch of UPDATE mods of a table with a single read, keyed by
+       * {@link #keyValues}. Rows that can not be matched back to their key, or a failed read, are
+       * left out, and are then read individually.
+       */
+      private Map<List<Object>, Struct> readSpannerRows(
+          TrackedSpannerTable spannerTable,
+          com.google.cloud.Timestamp spannerCommitTimestamp,
+          List<PendingSnapshotRead> batch) {
+        Map<List<Object>, Struct> rows = new HashMap<>();
+        List<String> columnNames =
+            spannerTable.getAllColumns().stream()
+                .map(TrackedSpannerColumn::getName)
+                .collect(Collectors.toList());
+        KeySet.Builder keySet = KeySet.newBuilder();
+        batch.forEach(pendingRead -> keySet.addKey(pendingRead.key));
+        Options.ReadQueryUpdateTransactionOption options =
+            Options.priority(spannerConfig.getRpcPriority().get());
+        Context context =
+            Context.current()
+                .withValue(SpannerOptions.CALL_CONTEXT_CONFIGURATOR_KEY, callContextConfigurator);
+        try {
+          context.run(
+              () -> {
+                try (ResultSet resultSet =
+                    spannerAccessor
+                        .getDatabaseClient()
+                        .singleUseReadOnlyTransaction(
+                            TimestampBound.ofReadTimestamp(spannerCommitTimestamp))
+                        .read(spannerTable.getTableName(), keySet.build(), columnNames, options)) {
+                  while (resultSet.next()) {
+                    Struct row = resultSet.getCurrentRowAsStruct();
+                    rows.put(keyValues(spannerTable, row), row);
+                  }
+                }
+              });
+        } catch (Exception e) {
+          LOG.warn(
+              "Batched snapshot read failed for table {}, reading rows individually: {}",
+              spannerTable.getTableName(),
+              e.getMessage());
+          return Collections.emptyMap();
+        }
+        return rows;
+      }
+
+      /**
+       * Returns the primary key values of the keys JSON of a mod, normalized so that they compare
+       * equal to the ones of the row read back from Spanner.
+       */
+      private static List<Object> keyValues(
+          TrackedSpannerTable spannerTable, JSONObject keysJsonObject) {
+        List<Object> values = new ArrayList<>();
+        for (TrackedSpannerColumn spannerColumn : spannerTable.getPkColumns()) {
+          String name = spannerColumn.getName();
+          if (keysJsonObject.isNull(name)) {
+            values.add(null);
+            continue;
+          }
+          switch (spannerColumn.getType().getCode()) {
+            case BOOL:
+              values.add(keysJsonObject.getBoolean(name));
+              break;
+            case FLOAT64:
+              values.add(keysJsonObject.getDouble(name));
+              break;
+            case INT64:
+              values.add(keysJsonObject.getLong(name));
+              break;
+            case NUMERIC:
+              values.add(keysJsonObject.getBigDecimal(name).stripTrailingZeros());
+              break;
+            case BYTES:
+              values.add(ByteArray.fromBase64(keysJsonObject.getString(name)));
+              break;
+            case DATE:
+              values.add(Date.parseDate(keysJsonObject.getString(name)));
+              break;
+            case TIMESTAMP:
+              values.add(com.google.cloud.Timestamp.parseTimestamp(keysJsonObject.getString(name)));
+              break;
+            default:
+              values.add(keysJsonObject.getString(name));
+          }
+        }
+        return values;
+      }
+
+      /**
+       * Returns the primary key values of a row, as per {@link #keyValues(TrackedSpannerTable,
+       * JSONObject)}.
+       */
+      private static List<Object> keyValues(TrackedSpannerTable spannerTable, Struct row) {
+        List<Object> values = new ArrayList<>();
+        for (TrackedSpannerColumn spannerColumn : spannerTable.getPkColumns()) {
+          String name = spannerColumn.getName();
+          if (row.isNull(name)) {
+            values.add(null);
+            continue;
+          }
+          switch (spannerColumn.getType().getCode()) {
+            case BOOL:
+              values.add(row.getBoolean(name));
+              break;
+            case FLOAT64:
+              values.add(row.getDouble(name));
+              break;
+            case INT64:
+              values.add(row.getLong(name));
+              break;
+            case NUMERIC:
+              values.add(row.getBigDecimal(name).stripTrailingZeros());
+              break;
+            case BYTES:
+              values.add(row.getBytes(name));
+              break;
+            case DATE:
+              values.add(row.getDate(name));
+              break;
+            case TIMESTAMP:
+              values.add(row.getTimestamp(name));
+              break;
+            default:
+              values.add(row.getString(name));
+          }
+        }
+        return values;
       }
 
       // Do a Spanner read to retrieve full row. Schema can change while the pipeline is running.
@@ -412,6 +661,37 @@ public final class FailsafeModJsonToTableRowTransformer {
               }
             });
       }
+
+      /** An UPDATE mod waiting for the snapshot read of its row. */
+      private static class PendingSnapshotRead {
+        final FailsafeElement<String, String> element;
+        final TableRow tableRow;
+        final TrackedSpannerTable spannerTable;
+        final com.google.cloud.spanner.Key key;
+        final List<Object> keyValues;
+        final com.google.cloud.Timestamp commitTimestamp;
+        final Instant timestamp;
+        final BoundedWindow window;
+
+        PendingSnapshotRead(
+            FailsafeElement<String, String> element,
+            TableRow tableRow,
+            TrackedSpannerTable spannerTable,
+            com.google.cloud.spanner.Key key,
+            List<Object> keyValues,
+            com.google.cloud.Timestamp commitTimestamp,
+            Instant timestamp,
+            BoundedWindow window) {
+          this.element = element;
+          this.tableRow = tableRow;
+          this.spannerTable = spannerTable;
+          this.key = key;
+          this.keyValues = keyValues;
+          this.commitTimestamp = commitTimestamp;
+          this.timestamp = timestamp;
+          this.window = window;
+        }
+      }
     }
   }
 
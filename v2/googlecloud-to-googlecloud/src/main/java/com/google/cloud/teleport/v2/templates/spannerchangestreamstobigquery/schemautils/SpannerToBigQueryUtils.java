@@ -19,6 +19,7 @@ import com.google.api.services.bigquery.model.TableFieldSchema;
 import com.google.api.services.bigquery.model.TableRow;
 import com.google.cloud.bigquery.Field;
 import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.StructReader;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.model.TrackedSpannerColumn;
 import java.util.ArrayList;
@@ -150,11 +151,7 @@ public class SpannerToBigQueryUtils {
   public static void spannerSnapshotRowToBigQueryTableRow(
       ResultSet resultSet, List<TrackedSpannerColumn> spannerNonPkColumns, TableRow tableRow) {
     if (resultSet.next()) {
-      for (TrackedSpannerColumn spannerNonPkColumn : spannerNonPkColumns) {
-        tableRow.set(
-            spannerNonPkColumn.getName(),
-            getColumnValueFromResultSet(spannerNonPkColumn, resultSet));
-      }
+      spannerSnapshotRowToBigQueryTableRow((StructReader) resultSet, spannerNonPkColumns, tableRow);
     } else {
       throw new IllegalArgumentException(
           "Received zero row from the result set of Spanner snapshot row");
@@ -166,8 +163,17 @@ public class SpannerToBigQueryUtils {
     }
   }
 
+  /** Sets the non-key columns of the {@link TableRow} from a single row of a snapshot read. */
+  public static void spannerSnapshotRowToBigQueryTableRow(
+      StructReader row, List<TrackedSpannerColumn> spannerNonPkColumns, TableRow tableRow) {
+    for (TrackedSpannerColumn spannerNonPkColumn : spannerNonPkColumns) {
+      tableRow.set(
+          spannerNonPkColumn.getName(), getColumnValueFromResultSet(spannerNonPkColumn, row));
+    }
+  }
+
   private static Object getColumnValueFromResultSet(
-      TrackedSpannerColumn spannerColumn, ResultSet resultSet) {
+      TrackedSpannerColumn spannerColumn, StructReader resultSet) {
     String columnName = spannerColumn.getName();
     Type columnType = spannerColumn.getType();
 
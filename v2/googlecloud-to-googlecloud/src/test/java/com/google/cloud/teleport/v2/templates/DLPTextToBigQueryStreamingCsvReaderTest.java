@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.teleport.v2.templates.DLPTextToBigQueryStreaming.CSVReader;
+import com.google.cloud.teleport.v2.templates.DLPTextToBigQueryStreaming.CsvRecordScanner;
+import com.google.privacy.dlp.v2.Table;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.io.Compression;
+import org.apache.beam.sdk.io.FileIO;
+import org.apache.beam.sdk.io.ReadableFileCoder;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.WithKeys;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test cases for the {@link CSVReader} and {@link CsvRecordScanner} of {@link
+ * DLPTextToBigQueryStreaming}.
+ */
+@RunWith(JUnit4.class)
+public class DLPTextToBigQueryStreamingCsvReaderTest {
+
+  @Rule public final transient TestPipeline p = TestPipeline.create();
+
+  @Rule public final transient TemporaryFolder testFolder = new TemporaryFolder();
+
+  private static final String QUOTED_NEWLINES_CONTENTS =
+      "id,name\n" + "1,\"a \"\"b\"\"\nc\"\n" + "2,d\r\n" + "3,\"e,\n\nf\"\n" + "4,g";
+
+  /**
+   * End of the quoted field that spans the boundary of the first two blocks of {@link
+   * #blockBoundaryContents()}, as written in the file and as read.
+   */
+  private static final String BOUNDARY_FIELD_END = "x\n\"\"y\"\",\nz\"";
+
+  private static final String BOUNDARY_VALUE_END = "x\n\"y\",\nz";
+
+  /**
+   * Returns the contents of a file of two blocks, where the second block starts inside {@link
+   * #BOUNDARY_FIELD_END}, right after its first line break.
+   */
+  private static String blockBoundaryContents() {
+    StringBuilder contents = new StringBuilder("id,name\n");
+    int id = 0;
+    while (contents.length() < CSVReader.BLOCK_SIZE_BYTES - 100) {
+      contents.append(id++).append(",filler\n");
+    }
+    contents.append(id++).append(",\"");
+    while (contents.length() < CSVReader.BLOCK_SIZE_BYTES - 2) {
+      contents.append('w');
+    }
+    contents.append(BOUNDARY_FIELD_END).append('\n');
+    for (int i = 0; i < 10; i++) {
+      contents.append(id++).append(",filler\n");
+    }
+    return contents.toString();
+  }
+
+  /**
+   * Tests that the scanner resyncs from any offset on the next record boundary, including offsets
+   * inside quoted fields with line breaks.
+   */
+  @Test
+  public void testCsvRecordScannerFirstRecordStartFrom() throws IOException {
+    File file = testFolder.newFile("quoted_newlines.csv");
+    Files.write(file.toPath(), QUOTED_NEWLINES_CONTENTS.getBytes(StandardCharsets.UTF_8));
+
+    try (SeekableByteChannel channel = Files.newByteChannel(file.toPath())) {
+      CsvRecordScanner scanner = new CsvRecordScanner(channel, 0);
+      List<Long> recordStarts = new ArrayList<>();
+      while (scanner.nextRecord(new ByteArrayOutputStream())) {
+        recordStarts.add(scanner.position());
+      }
+      assertThat(recordStarts.size(), is(equalTo(5)));
+
+      long headerEnd = recordStarts.get(0);
+      for (long offset = headerEnd + 1; offset <= channel.size(); offset++) {
+        final long from = offset;
+        long expected = recordStarts.stream().filter(start -> start >= from).findFirst().get();
+        assertThat(
+            "offset " + offset,
+            CsvRecordScanner.firstRecordStartFrom(channel, offset),
+            is(equalTo(expected)));
+      }
+    }
+  }
+
+  /** Tests that a block boundary inside a quoted field resyncs on the end of its record. */
+  @Test
+  public void testCsvRecordScannerBlockBoundaryInQuotedNewline() throws IOException {
+    File file = testFolder.newFile("block_boundary.csv");
+    String contents = blockBoundaryContents();
+    Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+
+    try (SeekableByteChannel channel = Files.newByteChannel(file.toPath())) {
+      long recordEnd = contents.indexOf(BOUNDARY_FIELD_END) + BOUNDARY_FIELD_END.length() + 1;
+      assertThat(
+          CsvRecordScanner.firstRecordStartFrom(channel, CSVReader.BLOCK_SIZE_BYTES),
+          is(equalTo(recordEnd)));
+    }
+  }
+
+  /**
+   * Tests that the records of a file whose block boundary falls inside a quoted field with line
+   * breaks are read exactly once.
+   */
+  @Test
+  public void testCsvReaderBlockBoundaryInQuotedNewline() throws IOException {
+    File file = testFolder.newFile("block_boundary_reader.csv");
+    String contents = blockBoundaryContents();
+    Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    long expectedRows = contents.split("\n").length - 3;
+    Integer batchSize = 100;
+
+    PCollection<KV<String, Table>> dlpTable =
+        p.apply("Match", FileIO.match().filepattern(file.getAbsolutePath()))
+            .apply("Read File", FileIO.readMatches().withCompression(Compression.AUTO))
+            .apply("Add Keys", WithKeys.of(key -> "block_boundary"))
+            .setCoder(KvCoder.of(StringUtf8Coder.of(), ReadableFileCoder.of()))
+            .apply("Create DLP Table", ParDo.of(new CSVReader(batchSize)));
+
+    PAssert.that(dlpTable)
+        .satisfies(
+            collection -> {
+              Set<String> ids = new HashSet<>();
+              List<String> boundaryValues = new ArrayList<>();
+              for (KV<String, Table> tableData : collection) {
+                for (Table.Row row : tableData.getValue().getRowsList()) {
+                  assertThat(ids.add(row.getValues(0).getStringValue()), is(true));
+                  if (row.getValues(1).getStringValue().startsWith("w")) {
+                    boundaryValues.add(row.getValues(1).getStringValue());
+                  }
+                }
+              }
+              assertThat((long) ids.size(), is(equalTo(expectedRows)));
+              assertThat(boundaryValues.size(), is(equalTo(1)));
+              assertThat(boundaryValues.get(0).endsWith("w" + BOUNDARY_VALUE_END), is(true));
+              return null;
+            });
+    p.run();
+  }
+
+  /** Tests that quotes that do not follow RFC 4180 fail the read instead of misplacing records. */
+  @Test
+  public void testCsvRecordScannerMalformedQuotes() throws IOException {
+    File file = testFolder.newFile("malformed_quotes.csv");
+    Files.write(file.toPath(), "id,name\n1,a\"b\n2,\"c\"d\n".getBytes(StandardCharsets.UTF_8));
+
+    try (SeekableByteChannel channel = Files.newByteChannel(file.toPath())) {
+      CsvRecordScanner scanner = new CsvRecordScanner(channel, 0);
+      assertThat(scanner.nextRecord(new ByteArrayOutputStream()), is(true));
+      assertThrows(IOException.class, () -> scanner.nextRecord(new ByteArrayOutputStream()));
+      assertThrows(IOException.class, () -> CsvRecordScanner.firstRecordStartFrom(channel, 11));
+    }
+  }
+
+  /** Tests that records with quoted line breaks are read in batches of the batch size. */
+  @Test
+  public void testCsvReaderQuotedNewlinesInBatches() throws IOException {
+    File file = testFolder.newFile("quoted_newlines_batches.csv");
+    Files.write(file.toPath(), QUOTED_NEWLINES_CONTENTS.getBytes(StandardCharsets.UTF_8));
+    Integer batchSize = 2;
+
+    PCollection<KV<String, Table>> dlpTable =
+        p.apply("Match", FileIO.match().filepattern(file.getAbsolutePath()))
+            .apply("Read File", FileIO.readMatches().withCompression(Compression.AUTO))
+            .apply("Add Keys", WithKeys.of(key -> "quoted_newlines"))
+            .setCoder(KvCoder.of(StringUtf8Coder.of(), ReadableFileCoder.of()))
+            .apply("Create DLP Table", ParDo.of(new CSVReader(batchSize)));
+
+    PAssert.that(dlpTable)
+        .satisfies(
+            collection -> {
+              List<String> names = new ArrayList<>();
+              for (KV<String, Table> tableData : collection) {
+                assertThat(tableData.getValue().getHeadersCount(), is(equalTo(2)));
+                assertThat(tableData.getValue().getRowsCount() <= 2, is(true));
+                for (Table.Row row : tableData.getValue().getRowsList()) {
+                  names.add(row.getValues(1).getStringValue());
+                }
+              }
+              Collections.sort(names);
+              assertThat(names, is(equalTo(Arrays.asList("a \"b\"\nc", "d", "e,\n\nf", "g"))));
+              return null;
+            });
+    p.run();
+  }
+}
@@ -108,6 +108,7 @@ import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.beam.sdk.Pipeline;
@@ -424,6 +425,164 @@ public final class FailsafeModJsonToTableRowTransformerTest implements Serializa
     p.run().waitUntilFinish();
   }
 
+  // Test the case where the UPDATE Mods of a multi-row UPDATE are resolved with a single batched
+  // snapshot read: each Mod gets the row of its own key, and the Mod whose row does not exist
+  // falls back to the point read and ends up in transformDeadLetterOut.
+  @Test
+  public void testFailsafeModJsonToTableRowMultiRowUpdate() throws Exception {
+    String multiRowDatabaseName = createSpannerDatabase(SPANNER_SERVER);
+    try {
+      List<Object[]> keys = new ArrayList<>();
+      keys.add(
+          new Object[] {
+            1L, new BigDecimal("1.5"), "a", Timestamp.ofTimeSecondsAndNanos(1650908264L, 1000)
+          });
+      keys.add(
+          new Object[] {
+            2L, new BigDecimal("10.50"), "b", Timestamp.ofTimeSecondsAndNanos(1650908265L, 0)
+          });
+      keys.add(
+          new Object[] {
+            3L, new BigDecimal("20"), "c", Timestamp.ofTimeSecondsAndNanos(1650908266L, 123456789)
+          });
+      List<Mutation> mutations = new ArrayList<>();
+      for (Object[] key : keys) {
+        mutations.add(
+            Mutation.newInsertBuilder(TEST_SPANNER_TABLE)
+                .set(BOOLEAN_PK_COL)
+                .to(BOOLEAN_VAL)
+                .set(BYTES_PK_COL)
+                .to(BYTES_VAL)
+                .set(DATE_PK_COL)
+                .to(DATE_VAL)
+                .set(FLOAT64_PK_COL)
+                .to(FLOAT64_VAL)
+                .set(INT64_PK_COL)
+                .to((Long) key[0])
+                .set(NUMERIC_PK_COL)
+                .to((BigDecimal) key[1])
+                .set(STRING_PK_COL)
+                .to((String) key[2])
+                .set(TIMESTAMP_PK_COL)
+                .to((Timestamp) key[3])
+                .set(INT64_COL)
+                .to((Long) key[0] * 100)
+                .set(STRING_COL)
+                .to("value-" + key[2])
+                .build());
+      }
+      SPANNER_SERVER.getDbClient(multiRowDatabaseName).write(mutations);
+      SPANNER_SERVER
+          .getDbClient(multiRowDatabaseName)
+          .readWriteTransaction()
+          .run(
+              transaction -> {
+                transaction.executeUpdate(
+                    Statement.of(
+                        "UPDATE AllTypes SET TimestampCol = PENDING_COMMIT_TIMESTAMP(), StringCol"
+                            + " = CONCAT(StringCol, '-updated') WHERE BooleanPkCol = true"));
+                return null;
+              });
+      Timestamp commitTimestamp = getCommitTimestamp(multiRowDatabaseName);
+
+      List<String> modJsons = new ArrayList<>();
+      for (Object[] key : keys) {
+        modJsons.add(
+            getMultiRowUpdateMod(
+                    (Long) key[0],
+                    (BigDecimal) key[1],
+                    (String) key[2],
+                    (Timestamp) key[3],
+                    "value-" + key[2] + "-updated",
+                    commitTimestamp)
+                .toJson());
+      }
+      Mod missingRowMod =
+          getMultiRowUpdateMod(
+              4L,
+              new BigDecimal("1.5"),
+              "a",
+              Timestamp.ofTimeSecondsAndNanos(1650908264L, 1000),
+              "value-missing",
+              commitTimestamp);
+      modJsons.add(missingRowMod.toJson());
+
+      TestStream<String> testSream =
+          TestStream.create(SerializableCoder.of(String.class))
+              .addElements(
+                  modJsons.get(0), modJsons.subList(1, modJsons.size()).toArray(new String[0]))
+              .advanceWatermarkTo(Instant.now())
+              .advanceWatermarkToInfinity();
+      Pipeline p = Pipeline.create();
+      PCollection<FailsafeElement<String, String>> input =
+          p.apply(testSream)
+              .apply(
+                  ParDo.of(
+                      new DoFn<String, FailsafeElement<String, String>>() {
+                        @ProcessElement
+                        public void process(
+                            @Element String input,
+                            OutputReceiver<FailsafeElement<String, String>> receiver) {
+                          receiver.output(FailsafeElement.of(input, input));
+                        }
+                      }))
+              .setCoder(SpannerChangeStreamsToBigQuery.FAILSAFE_ELEMENT_CODER);
+      failsafeModJsonToTableRow = getFailsafeModJsonToTableRow(multiRowDatabaseName, false);
+      PCollectionTuple out = input.apply("Mod JSON To TableRow", failsafeModJsonToTableRow);
+      PAssert.that(
+              out.get(failsafeModJsonToTableRow.transformOut)
+                  .apply(
+                      ParDo.of(
+                          new DoFn<TableRow, String>() {
+                            @ProcessElement
+                            public void process(
+                                @Element TableRow input, OutputReceiver<String> receiver) {
+                              receiver.output(
+                                  String.format(
+                                      "%s/%s/%s: %s, %s, %s",
+                                      input.get(INT64_PK_COL),
+                                      input.get(STRING_PK_COL),
+                                      input.get(TIMESTAMP_PK_COL),
+                                      input.get(INT64_COL),
+                                      input.get(STRING_COL),
+                                      input.get(TIMESTAMP_COL)));
+                            }
+                          })))
+          .containsInAnyOrder(
+              ImmutableList.of(
+                  String.format(
+                      "1/a/%s: 100, value-a-updated, %s", keys.get(0)[3], commitTimestamp),
+                  String.format(
+                      "2/b/%s: 200, value-b-updated, %s", keys.get(1)[3], commitTimestamp),
+                  String.format(
+                      "3/c/%s: 300, value-c-updated, %s", keys.get(2)[3], commitTimestamp)));
+      PAssert.that(
+              out.get(failsafeModJsonToTableRow.transformDeadLetterOut)
+                  .apply(
+                      ParDo.of(
+                          new DoFn<FailsafeElement<String, String>, String>() {
+                            @ProcessElement
+                            public void process(
+                                @Element FailsafeElement<String, String> input,
+                                OutputReceiver<String> receiver) {
+                              receiver.output(
+                                  String.format(
+                                      "payload=%s, errorMessage=%s",
+                                      input.getPayload(), input.getErrorMessage()));
+                            }
+                          })))
+          .containsInAnyOrder(
+              ImmutableList.of(
+                  String.format(
+                      "payload=%s, errorMessage=Received zero row from the result set of Spanner"
+                          + " snapshot row",
+                      missingRowMod.toJson())));
+      p.run().waitUntilFinish();
+    } finally {
+      dropSpannerDatabase(SPANNER_SERVER, multiRowDatabaseName);
+    }
+  }
+
   private void fillNullNonPkColsForDelete(TableRow expectedTableRow) {
     expectedTableRow.set(BOOLEAN_ARRAY_COL, null);
     expectedTableRow.set("_type_" + BOOLEAN_ARRAY_COL, "ARRAY<BOOL>");
@@ -800,6 +959,40 @@ public final class FailsafeModJsonToTableRowTransformerTest implements Serializa
     return jsonNode.toString();
   }
 
+  private Mod getMultiRowUpdateMod(
+      Long int64Key,
+      BigDecimal numericKey,
+      String stringKey,
+      Timestamp timestampKey,
+      String stringValue,
+      Timestamp commitTimestamp) {
+    ObjectNode keysJsonNode = new ObjectNode(JsonNodeFactory.instance);
+    keysJsonNode.put(BOOLEAN_PK_COL, BOOLEAN_RAW_VAL);
+    keysJsonNode.put(BYTES_PK_COL, BYTES_RAW_VAL.toBase64());
+    keysJsonNode.put(DATE_PK_COL, DATE_RAW_VAL.toString());
+    keysJsonNode.put(FLOAT64_PK_COL, FLOAT64_RAW_VAL);
+    keysJsonNode.put(INT64_PK_COL, int64Key);
+    keysJsonNode.put(NUMERIC_PK_COL, numericKey);
+    keysJsonNode.put(STRING_PK_COL, stringKey);
+    keysJsonNode.put(TIMESTAMP_PK_COL, timestampKey.toString());
+    ObjectNode newValuesJsonNode = new ObjectNode(JsonNodeFactory.instance);
+    newValuesJsonNode.put(STRING_COL, stringValue);
+    newValuesJsonNode.put(TIMESTAMP_COL, commitTimestamp.toString());
+    return new Mod(
+        keysJsonNode.toString(),
+        newValuesJsonNode.toString(),
+        commitTimestamp,
+        "1",
+        true,
+        "00000001",
+        TEST_SPANNER_TABLE,
+        getRowType(false),
+        ModType.UPDATE,
+        ValueCaptureType.OLD_AND_NEW_VALUES,
+        4L,
+        1L);
+  }
+
   private List<ModColumnType> getRowType(Boolean deleteModType) {
     List<ModColumnType> rowTypes = new ArrayList<>();
     rowTypes.add(new ModColumnType(BOOLEAN_PK_COL, new TypeCode("BOOLEAN"), true, 1));
@@ -24,8 +24,12 @@ import com.google.cloud.teleport.v2.neo4j.telemetry.ReportedSourceType;
 import com.google.cloud.teleport.v2.neo4j.utils.DataCastingUtils;
 import com.google.cloud.teleport.v2.neo4j.utils.SerializableSupplier;
 import com.google.common.annotations.VisibleForTesting;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import org.apache.beam.sdk.transforms.GroupIntoBatches;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
@@ -39,6 +43,9 @@ import org.neo4j.importer.v1.ImportSpecification;
 import org.neo4j.importer.v1.sources.Source;
 import org.neo4j.importer.v1.targets.CustomQueryTarget;
 import org.neo4j.importer.v1.targets.EntityTarget;
+import org.neo4j.importer.v1.targets.NodeTarget;
+import org.neo4j.importer.v1.targets.PropertyMapping;
+import org.neo4j.importer.v1.targets.RelationshipTarget;
 import org.neo4j.importer.v1.targets.Target;
 import org.neo4j.importer.v1.targets.TargetType;
 import org.slf4j.Logger;
@@ -118,15 +125,76 @@ public class Neo4jRowWriterTransform extends PTransform<PCollection<Row>, PColle
             getRowCastingFunction(),
             connectionSupplier);
 
+    String writeStepName =
+        targetSequence.getSequenceNumber(target) + ": Neo4j write " + target.getName();
+    int parallelism = parallelismFactor(targetType, config);
+    if (targetType == TargetType.RELATIONSHIP && parallelism > 1) {
+      var relationship = (RelationshipTarget) target;
+      NodeTarget startNode = nodeTarget(relationship.getStartNodeReference());
+      NodeTarget endNode = nodeTarget(relationship.getEndNodeReference());
+      List<String> startNodeKeyFields = nodeKeyFields(startNode);
+      List<String> endNodeKeyFields = nodeKeyFields(endNode);
+      boolean sharedNodes = !Collections.disjoint(startNode.getLabels(), endNode.getLabels());
+      if (sharedNodes && !startNode.getKeyProperties().equals(endNode.getKeyProperties())) {
+        // start and end node keys cannot tell whether two rows lock the same node
+        LOG.warn(
+            "Start and end nodes of relationship target {} share a label but not their keys, its"
+                + " batches are written serially",
+            target.getName());
+        parallelism = 1;
+      } else if (!startNodeKeyFields.isEmpty() && !endNodeKeyFields.isEmpty()) {
+        // concurrent relationship batches must not lock the same nodes, see
+        // PartitionedRelationshipWriteTransform
+        return input
+            .apply(
+                "Partitioned write",
+                PartitionedRelationshipWriteTransform.of(
+                    parallelism,
+                    sharedNodes,
+                    startNodeKeyFields,
+                    endNodeKeyFields,
+                    batchSize(targetType, config),
+                    writeStepName,
+                    neo4jUnwindFn))
+            .setRowSchema(input.getSchema());
+      } else {
+        LOG.warn(
+            "Relationship target {} does not define start and end node keys, its batches are not"
+                + " partitioned by node",
+            target.getName());
+      }
+    }
+
     return input
-        .apply("Create KV pairs", CreateKvTransform.of(parallelismFactor(targetType, config)))
+        .apply("Create KV pairs", CreateKvTransform.of(parallelism))
         .apply("Group into batches", GroupIntoBatches.ofSize(batchSize(targetType, config)))
-        .apply(
-            targetSequence.getSequenceNumber(target) + ": Neo4j write " + target.getName(),
-            ParDo.of(neo4jUnwindFn))
+        .apply(writeStepName, ParDo.of(neo4jUnwindFn))
         .setRowSchema(input.getSchema());
   }
 
+  private NodeTarget nodeTarget(String nodeReference) {
+    return importSpecification.getTargets().getNodes().stream()
+        .filter(candidate -> nodeReference.equals(candidate.getName()))
+        .findFirst()
+        .orElseThrow(
+            () ->
+                new IllegalArgumentException(
+                    String.format("Could not resolve node target reference %s", nodeReference)));
+  }
+
+  /** Returns the source fields of the key properties of the node target. */
+  private static List<String> nodeKeyFields(NodeTarget node) {
+    Map<String, String> fieldsByProperty =
+        node.getProperties().stream()
+            .collect(
+                Collectors.toMap(
+                    PropertyMapping::getTargetProperty, PropertyMapping::getSourceField));
+    return node.getKeyProperties().stream()
+        .map(fieldsByProperty::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
   private ReportedSourceType determineReportedSourceType() {
     Source source = importSpecification.findSourceByName(target.getSource());
     return ReportedSourceType.reportedSourceTypeOf(source);
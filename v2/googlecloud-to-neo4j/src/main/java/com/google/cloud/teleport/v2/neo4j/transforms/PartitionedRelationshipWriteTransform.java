@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.neo4j.transforms;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.beam.sdk.coders.BigEndianIntegerCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.Flatten;
+import org.apache.beam.sdk.transforms.GroupIntoBatches;
+import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.Partition;
+import org.apache.beam.sdk.transforms.Wait;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionList;
+import org.apache.beam.sdk.values.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes relationship rows in rounds of batches that never lock the same nodes concurrently.
+ *
+ * <p>The key fields of the start node and of the end node of every row are hashed into buckets, and
+ * each {@code (startBucket, endBucket)} cell is assigned to a round. The rows of a round are keyed
+ * so that up to {@code partitions} batches run concurrently, each batch touching nodes of its own
+ * buckets only. Each round waits for the previous one to complete.
+ *
+ * <p>If the start and end nodes are distinct sets of nodes, there are {@code partitions} buckets
+ * and the {@code partitions x partitions} grid is processed one diagonal at a time: round {@code r}
+ * contains the cells {@code (i, (i + r) % partitions)}, which share neither a start bucket nor an
+ * end bucket. The rows of a round are keyed by their start bucket.
+ *
+ * <p>If the start and end nodes can be the same nodes, a start bucket and an end bucket identify
+ * the same set of nodes, so the cells of a round must not share any bucket at all. There are then
+ * {@code 2 * partitions - 1} buckets, and round {@code r} contains the cells whose buckets add up
+ * to {@code r}: each bucket is paired with exactly one other bucket, or with itself. The rows of a
+ * round are keyed by the smaller bucket of their cell, so that the cells {@code (a, b)} and {@code
+ * (b, a)}, which touch the same nodes, are written by the same batch.
+ *
+ * <p>This avoids the lock contention and deadlock retries that randomly keyed relationship batches
+ * cause, without having to fall back to a parallelism of 1.
+ */
+public class PartitionedRelationshipWriteTransform
+    extends PTransform<PCollection<Row>, PCollection<Row>> {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(PartitionedRelationshipWriteTransform.class);
+
+  private final int buckets;
+  private final boolean sharedNodes;
+  private final List<String> startNodeKeyFields;
+  private final List<String> endNodeKeyFields;
+  private final int batchSize;
+  private final String writeStepName;
+  private final DoFn<KV<Integer, Iterable<Row>>, Row> unwindFn;
+
+  private PartitionedRelationshipWriteTransform(
+      int buckets,
+      boolean sharedNodes,
+      List<String> startNodeKeyFields,
+      List<String> endNodeKeyFields,
+      int batchSize,
+      String writeStepName,
+      DoFn<KV<Integer, Iterable<Row>>, Row> unwindFn) {
+    this.buckets = buckets;
+    this.sharedNodes = sharedNodes;
+    this.startNodeKeyFields = startNodeKeyFields;
+    this.endNodeKeyFields = endNodeKeyFields;
+    this.batchSize = batchSize;
+    this.writeStepName = writeStepName;
+    this.unwindFn = unwindFn;
+  }
+
+  /**
+   * Creates the transform.
+   *
+   * @param partitions the max number of batches written concurrently.
+   * @param sharedNodes whether start and end nodes can be the same nodes, i.e. they share a label,
+   *     in which case the start and end node key fields must identify nodes the same way.
+   */
+  public static PartitionedRelationshipWriteTransform of(
+      int partitions,
+      boolean sharedNodes,
+      List<String> startNodeKeyFields,
+      List<String> endNodeKeyFields,
+      int batchSize,
+      String writeStepName,
+      DoFn<KV<Integer, Iterable<Row>>, Row> unwindFn) {
+    if (partitions < 1) {
+      throw new IllegalArgumentException(
+          String.format("Expected at least 1 partition, got %d", partitions));
+    }
+    int buckets = buckets(partitions, sharedNodes);
+    LOG.info(
+        "Writing relationships of {} in {} rounds of up to {} concurrent batches",
+        writeStepName,
+        buckets,
+        partitions);
+    return new PartitionedRelationshipWriteTransform(
+        buckets,
+        sharedNodes,
+        new ArrayList<>(startNodeKeyFields),
+        new ArrayList<>(endNodeKeyFields),
+        batchSize,
+        writeStepName,
+        unwindFn);
+  }
+
+  @Override
+  public PCollection<Row> expand(PCollection<Row> input) {
+    int bucketCount = buckets;
+    boolean shared = sharedNodes;
+    List<String> startFields = startNodeKeyFields;
+    List<String> endFields = endNodeKeyFields;
+    PCollectionList<Row> rounds =
+        input.apply(
+            "Split into rounds",
+            Partition.of(
+                bucketCount,
+                (Row row, int numPartitions) ->
+                    round(
+                        bucket(row, startFields, numPartitions),
+                        bucket(row, endFields, numPartitions),
+                        numPartitions,
+                        shared)));
+
+    List<PCollection<Row>> written = new ArrayList<>(bucketCount);
+    PCollection<Row> previous = null;
+    for (int round = 0; round < bucketCount; round++) {
+      PCollection<Row> rows = rounds.get(round);
+      if (previous != null) {
+        rows =
+            rows.apply("Wait for round " + (round - 1), Wait.on(previous))
+                .setCoder(input.getCoder());
+      }
+      previous =
+          rows.apply(
+                  "Key round " + round + " by cell",
+                  ParDo.of(new KeyByCellFn(startFields, endFields, bucketCount, shared)))
+              .setCoder(KvCoder.of(BigEndianIntegerCoder.of(), input.getCoder()))
+              .apply("Group round " + round + " into batches", GroupIntoBatches.ofSize(batchSize))
+              .apply(writeStepName + " (round " + round + ")", ParDo.of(unwindFn))
+              .setCoder(input.getCoder());
+      written.add(previous);
+    }
+    return PCollectionList.of(written)
+        .apply("Flatten rounds", Flatten.pCollections())
+        .setCoder(input.getCoder());
+  }
+
+  /**
+   * Returns the number of buckets, which is also the number of rounds, for which the cells of each
+   * round cover at most {@code partitions} batch keys.
+   */
+  @VisibleForTesting
+  static int buckets(int partitions, boolean sharedNodes) {
+    return sharedNodes ? 2 * partitions - 1 : partitions;
+  }
+
+  /**
+   * Returns the bucket of the node identified by the given key fields of the row. The hash does not
+   * depend on the JVM, so that the rows of a given node are assigned to the same bucket by every
+   * worker.
+   */
+  @VisibleForTesting
+  static int bucket(Row row, List<String> keyFields, int buckets) {
+    Hasher hasher = Hashing.murmur3_32_fixed().newHasher();
+    for (String keyField : keyFields) {
+      Object value = row.getValue(keyField);
+      if (value instanceof byte[]) {
+        hasher.putBytes((byte[]) value);
+      } else {
+        hasher.putString(String.valueOf(value), StandardCharsets.UTF_8);
+      }
+      hasher.putByte((byte) 0);
+    }
+    return Math.floorMod(hasher.hash().asInt(), buckets);
+  }
+
+  /** Returns the round of the cell {@code (startBucket, endBucket)}. */
+  @VisibleForTesting
+  static int round(int startBucket, int endBucket, int buckets, boolean sharedNodes) {
+    return sharedNodes
+        ? Math.floorMod(startBucket + endBucket, buckets)
+        : Math.floorMod(endBucket - startBucket, buckets);
+  }
+
+  /** Returns the key of the batches of the cell {@code (startBucket, endBucket)} in its round. */
+  @VisibleForTesting
+  static int batchKey(int startBucket, int endBucket, boolean sharedNodes) {
+    return sharedNodes ? Math.min(startBucket, endBucket) : startBucket;
+  }
+
+  private static class KeyByCellFn extends DoFn<Row, KV<Integer, Row>> {
+
+    private final List<String> startNodeKeyFields;
+    private final List<String> endNodeKeyFields;
+    private final int buckets;
+    private final boolean sharedNodes;
+
+    KeyByCellFn(
+        List<String> startNodeKeyFields,
+        List<String> endNodeKeyFields,
+        int buckets,
+        boolean sharedNodes) {
+      this.startNodeKeyFields = startNodeKeyFields;
+      this.endNodeKeyFields = endNodeKeyFields;
+      this.buckets = buckets;
+      this.sharedNodes = sharedNodes;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      Row row = context.element();
+      int key =
+          batchKey(
+              bucket(row, startNodeKeyFields, buckets),
+              bucket(row, endNodeKeyFields, buckets),
+              sharedNodes);
+      context.output(KV.of(key, row));
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.neo4j.transforms;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.apache.beam.sdk.schemas.Schema;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.Row;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class PartitionedRelationshipWriteTransformTest {
+
+  @Rule public final transient TestPipeline pipeline = TestPipeline.create();
+
+  private static final Schema SCHEMA =
+      Schema.builder()
+          .addStringField("source_id")
+          .addInt64Field("target_id")
+          .addStringField("since")
+          .build();
+
+  @Test
+  public void assigns_rows_of_the_same_node_to_the_same_bucket() {
+    Row row1 = Row.withSchema(SCHEMA).addValues("a", 1L, "2020").build();
+    Row row2 = Row.withSchema(SCHEMA).addValues("a", 2L, "2021").build();
+
+    assertThat(PartitionedRelationshipWriteTransform.bucket(row1, List.of("source_id"), 8))
+        .isEqualTo(PartitionedRelationshipWriteTransform.bucket(row2, List.of("source_id"), 8));
+  }
+
+  @Test
+  public void spreads_nodes_over_all_buckets() {
+    Set<Integer> buckets = new HashSet<>();
+    for (long id = 0; id < 1000; id++) {
+      Row row = Row.withSchema(SCHEMA).addValues("a", id, "2020").build();
+      int bucket = PartitionedRelationshipWriteTransform.bucket(row, List.of("target_id"), 4);
+      assertThat(bucket).isAtLeast(0);
+      assertThat(bucket).isLessThan(4);
+      buckets.add(bucket);
+    }
+
+    assertThat(buckets).containsExactly(0, 1, 2, 3);
+  }
+
+  @Test
+  public void cells_of_a_round_share_no_start_or_end_bucket() {
+    int partitions = 5;
+    for (int round = 0; round < partitions; round++) {
+      Set<Integer> startBuckets = new HashSet<>();
+      Set<Integer> endBuckets = new HashSet<>();
+      for (int start = 0; start < partitions; start++) {
+        for (int end = 0; end < partitions; end++) {
+          if (PartitionedRelationshipWriteTransform.round(start, end, partitions, false) == round) {
+            assertThat(startBuckets.add(start)).isTrue();
+            assertThat(endBuckets.add(end)).isTrue();
+          }
+        }
+      }
+      assertThat(startBuckets).hasSize(partitions);
+      assertThat(endBuckets).hasSize(partitions);
+    }
+  }
+
+  @Test
+  public void cells_of_a_round_share_no_bucket_when_nodes_are_shared() {
+    int partitions = 4;
+    int buckets = PartitionedRelationshipWriteTransform.buckets(partitions, true);
+    for (int round = 0; round < buckets; round++) {
+      Map<Integer, Set<Integer>> bucketsByKey = new HashMap<>();
+      for (int start = 0; start < buckets; start++) {
+        for (int end = 0; end < buckets; end++) {
+          if (PartitionedRelationshipWriteTransform.round(start, end, buckets, true) == round) {
+            Set<Integer> cellBuckets =
+                bucketsByKey.computeIfAbsent(
+                    PartitionedRelationshipWriteTransform.batchKey(start, end, true),
+                    key -> new HashSet<>());
+            cellBuckets.add(start);
+            cellBuckets.add(end);
+          }
+        }
+      }
+      assertThat(bucketsByKey).hasSize(partitions);
+      Set<Integer> roundBuckets = new HashSet<>();
+      for (Set<Integer> cellBuckets : bucketsByKey.values()) {
+        for (int bucket : cellBuckets) {
+          assertThat(roundBuckets.add(bucket)).isTrue();
+        }
+      }
+      assertThat(roundBuckets).hasSize(buckets);
+    }
+  }
+
+  @Test
+  public void concurrent_batches_of_a_round_lock_distinct_nodes() {
+    Schema schema =
+        Schema.builder().addStringField("source_id").addStringField("target_id").build();
+    List<Row> rows = new ArrayList<>();
+    for (int source = 0; source < 20; source++) {
+      for (int target = 0; target < 20; target += 3) {
+        rows.add(Row.withSchema(schema).addValues("p" + source, "p" + target).build());
+      }
+    }
+    int partitions = 3;
+    int buckets = PartitionedRelationshipWriteTransform.buckets(partitions, true);
+    RecordingWriteFn.BATCHES.clear();
+
+    PCollection<Row> written =
+        pipeline
+            .apply(Create.of(rows).withRowSchema(schema))
+            .apply(
+                PartitionedRelationshipWriteTransform.of(
+                    partitions,
+                    true,
+                    List.of("source_id"),
+                    List.of("target_id"),
+                    5,
+                    "Write",
+                    new RecordingWriteFn()));
+    PAssert.that(written).containsInAnyOrder(rows);
+    pipeline.run().waitUntilFinish();
+
+    int lastRound = 0;
+    Map<Integer, Map<String, Integer>> batchKeyByNodeByRound = new HashMap<>();
+    for (KV<Integer, List<Row>> batch : RecordingWriteFn.BATCHES) {
+      for (Row row : batch.getValue()) {
+        int start =
+            PartitionedRelationshipWriteTransform.bucket(row, List.of("source_id"), buckets);
+        int end = PartitionedRelationshipWriteTransform.bucket(row, List.of("target_id"), buckets);
+        int round = PartitionedRelationshipWriteTransform.round(start, end, buckets, true);
+        // rounds are written one after the other
+        assertThat(round).isAtLeast(lastRound);
+        lastRound = round;
+        Map<String, Integer> batchKeyByNode =
+            batchKeyByNodeByRound.computeIfAbsent(round, r -> new HashMap<>());
+        for (String node : List.of(row.getString("source_id"), row.getString("target_id"))) {
+          Integer batchKey = batchKeyByNode.putIfAbsent(node, batch.getKey());
+          // a node is only locked by the batches of a single key within a round
+          assertThat(batchKey == null ? batch.getKey() : batchKey).isEqualTo(batch.getKey());
+        }
+      }
+    }
+  }
+
+  /** Records the written batches, in the order they are written. */
+  private static class RecordingWriteFn extends DoFn<KV<Integer, Iterable<Row>>, Row> {
+
+    private static final Queue<KV<Integer, List<Row>>> BATCHES = new ConcurrentLinkedQueue<>();
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      List<Row> batch = new ArrayList<>();
+      context.element().getValue().forEach(batch::add);
+      BATCHES.add(KV.of(context.element().getKey(), batch));
+      batch.forEach(context::output);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.coders;
+
+import com.google.cloud.teleport.v2.kafka.utils.FileAwareSchemaRegistryFactoryFn;
+import com.google.common.annotations.VisibleForTesting;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.beam.sdk.coders.AtomicCoder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.extensions.avro.coders.AvroCoder;
+import org.apache.beam.sdk.values.KV;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A coder for {@link GenericRecord}s keyed by the Schema Registry id of their Avro schema.
+ *
+ * <p>Unlike {@link GenericRecordCoder}, the schema is not written with every element. Only the
+ * schema id and the Avro binary encoding of the record are written, and the schema of an id is
+ * looked up in the Schema Registry once per worker when decoding.
+ */
+public class SchemaRegistryGenericRecordCoder extends AtomicCoder<KV<Integer, GenericRecord>> {
+
+  private static final int DEFAULT_CACHE_CAPACITY = 1000;
+
+  private final String schemaRegistryConnectionUrl;
+
+  private final Map<String, Object> schemaRegistryAuthenticationConfig;
+
+  private transient @Nullable SchemaRegistryClient schemaRegistryClient;
+
+  private transient @Nullable Map<Integer, AvroCoder<GenericRecord>> avroCoders;
+
+  /** Constructs a new {@link SchemaRegistryGenericRecordCoder} for the given Schema Registry. */
+  public static SchemaRegistryGenericRecordCoder of(
+      String schemaRegistryConnectionUrl, Map<String, Object> schemaRegistryAuthenticationConfig) {
+    return new SchemaRegistryGenericRecordCoder(
+        schemaRegistryConnectionUrl, schemaRegistryAuthenticationConfig);
+  }
+
+  private SchemaRegistryGenericRecordCoder(
+      String schemaRegistryConnectionUrl, Map<String, Object> schemaRegistryAuthenticationConfig) {
+    this.schemaRegistryConnectionUrl = schemaRegistryConnectionUrl;
+    this.schemaRegistryAuthenticationConfig = schemaRegistryAuthenticationConfig;
+  }
+
+  @VisibleForTesting
+  SchemaRegistryGenericRecordCoder withSchemaRegistryClient(
+      SchemaRegistryClient schemaRegistryClient) {
+    this.schemaRegistryClient = schemaRegistryClient;
+    return this;
+  }
+
+  @Override
+  public void encode(KV<Integer, GenericRecord> value, OutputStream outStream) throws IOException {
+    int schemaId = value.getKey();
+    VarIntCoder.of().encode(schemaId, outStream);
+    // The record was deserialized with the schema of its id, so the schema of the record is used
+    // rather than looking it up.
+    getAvroCoders()
+        .computeIfAbsent(schemaId, id -> AvroCoder.of(value.getValue().getSchema()))
+        .encode(value.getValue(), outStream);
+  }
+
+  @Override
+  public KV<Integer, GenericRecord> decode(InputStream inStream) throws IOException {
+    int schemaId = VarIntCoder.of().decode(inStream);
+    AvroCoder<GenericRecord> avroCoder = getAvroCoders().get(schemaId);
+    if (avroCoder == null) {
+      avroCoder = AvroCoder.of(getAvroSchema(schemaId));
+      getAvroCoders().putIfAbsent(schemaId, avroCoder);
+    }
+    return KV.of(schemaId, avroCoder.decode(inStream));
+  }
+
+  private synchronized Map<Integer, AvroCoder<GenericRecord>> getAvroCoders() {
+    if (avroCoders == null) {
+      avroCoders = new ConcurrentHashMap<>();
+    }
+    return avroCoders;
+  }
+
+  private synchronized Schema getAvroSchema(int schemaId) throws IOException {
+    if (schemaRegistryClient == null) {
+      FileAwareSchemaRegistryFactoryFn processor = new FileAwareSchemaRegistryFactoryFn();
+      schemaRegistryClient =
+          new CachedSchemaRegistryClient(
+              this.schemaRegistryConnectionUrl,
+              DEFAULT_CACHE_CAPACITY,
+              processor.apply(this.schemaRegistryAuthenticationConfig));
+    }
+    try {
+      return (Schema) schemaRegistryClient.getSchemaById(schemaId).rawSchema();
+    } catch (RestClientException e) {
+      throw new CoderException(
+          "Failed to get the Avro schema with id " + schemaId + " from the Schema Registry", e);
+    }
+  }
+}
@@ -409,6 +409,8 @@ public class KafkaToBigQueryFlex {
               options.getOutputProject(),
               options.getOutputDataset(),
               options.getBqTableNamePrefix(),
+              options.getSchemaRegistryConnectionUrl(),
+              KafkaConfig.fromSchemaRegistryOptions(options),
               options.getWriteDisposition(),
               options.getCreateDisposition(),
               options.getNumStorageWriteApiStreams(),
@@ -422,6 +424,8 @@ public class KafkaToBigQueryFlex {
               options.getOutputProject(),
               options.getOutputDataset(),
               options.getBqTableNamePrefix(),
+              options.getSchemaRegistryConnectionUrl(),
+              KafkaConfig.fromSchemaRegistryOptions(options),
               options.getWriteDisposition(),
               options.getCreateDisposition(),
               options.getNumStorageWriteApiStreams(),
@@ -523,6 +527,7 @@ public class KafkaToBigQueryFlex {
                     .setFunctionName(options.getJavascriptTextTransformFunctionName())
                     .setReloadIntervalMinutes(
                         options.getJavascriptTextTransformReloadIntervalMinutes())
+                    .setBatchSize(options.getJavascriptTextTransformBatchSize())
                     .setSuccessTag(TRANSFORM_OUT)
                     .setFailureTag(TRANSFORM_DEADLETTER_OUT)
                     .build());
@@ -15,19 +15,36 @@
  */
 package com.google.cloud.teleport.v2.transforms;
 
-import com.google.api.services.bigquery.model.TableRow;
 import com.google.api.services.bigquery.model.TableSchema;
-import com.google.cloud.teleport.v2.coders.GenericRecordCoder;
+import com.google.cloud.teleport.v2.kafka.utils.FileAwareSchemaRegistryFactoryFn;
 import com.google.cloud.teleport.v2.utils.BigQueryAvroUtils;
-import org.apache.avro.generic.GenericRecord;
+import com.google.common.annotations.VisibleForTesting;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.avro.Schema;
 import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.VarIntCoder;
 import org.apache.beam.sdk.io.gcp.bigquery.DynamicDestinations;
 import org.apache.beam.sdk.io.gcp.bigquery.TableDestination;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.ValueInSingleWindow;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-public class BigQueryDynamicDestination
-    extends DynamicDestinations<KV<GenericRecord, TableRow>, GenericRecord> {
+/**
+ * The {@link BigQueryDynamicDestination} routes the records of a Schema Registry to the BigQuery
+ * table of their Avro schema. The destination of an element is the Schema Registry id of its
+ * schema, and the Avro schema, table spec and {@link TableSchema} of an id are looked up once per
+ * worker.
+ *
+ * @param <T> the type of the records written, keyed by the Schema Registry id of their schema
+ */
+public class BigQueryDynamicDestination<T> extends DynamicDestinations<KV<Integer, T>, Integer> {
+
+  private static final int DEFAULT_CACHE_CAPACITY = 1000;
 
   private String projectName;
 
@@ -37,49 +54,120 @@ public class BigQueryDynamicDestination
 
   private boolean persistKafkaKey;
 
-  public static BigQueryDynamicDestination of(
-      String projectName, String datasetName, String tableNamePrefix, boolean persistKafkaKey) {
-    return new BigQueryDynamicDestination(
-        projectName, datasetName, tableNamePrefix, persistKafkaKey);
+  private String schemaRegistryConnectionUrl;
+
+  private Map<String, Object> schemaRegistryAuthenticationConfig;
+
+  private transient @Nullable SchemaRegistryClient schemaRegistryClient;
+
+  private transient @Nullable Map<Integer, TableDestination> tables;
+
+  private transient @Nullable Map<Integer, TableSchema> tableSchemas;
+
+  private transient @Nullable Map<Integer, Schema> avroSchemas;
+
+  public static <T> BigQueryDynamicDestination<T> of(
+      String projectName,
+      String datasetName,
+      String tableNamePrefix,
+      boolean persistKafkaKey,
+      String schemaRegistryConnectionUrl,
+      Map<String, Object> schemaRegistryAuthenticationConfig) {
+    return new BigQueryDynamicDestination<>(
+        projectName,
+        datasetName,
+        tableNamePrefix,
+        persistKafkaKey,
+        schemaRegistryConnectionUrl,
+        schemaRegistryAuthenticationConfig);
   }
 
   private BigQueryDynamicDestination(
-      String projectName, String datasetName, String tableNamePrefix, boolean persistKafkaKey) {
+      String projectName,
+      String datasetName,
+      String tableNamePrefix,
+      boolean persistKafkaKey,
+      String schemaRegistryConnectionUrl,
+      Map<String, Object> schemaRegistryAuthenticationConfig) {
     this.projectName = projectName;
     this.datasetName = datasetName;
     this.tableNamePrefix = tableNamePrefix;
     this.persistKafkaKey = persistKafkaKey;
+    this.schemaRegistryConnectionUrl = schemaRegistryConnectionUrl;
+    this.schemaRegistryAuthenticationConfig = schemaRegistryAuthenticationConfig;
+  }
+
+  @VisibleForTesting
+  BigQueryDynamicDestination<T> withSchemaRegistryClient(
+      SchemaRegistryClient schemaRegistryClient) {
+    this.schemaRegistryClient = schemaRegistryClient;
+    return this;
   }
 
   @Override
-  public GenericRecord getDestination(ValueInSingleWindow<KV<GenericRecord, TableRow>> element) {
+  public Integer getDestination(ValueInSingleWindow<KV<Integer, T>> element) {
     return element.getValue().getKey();
   }
 
   @Override
-  public TableDestination getTable(GenericRecord element) {
-    String sanitizedNamespace =
-        BigQueryAvroUtils.sanitizeString(element.getSchema().getNamespace());
-    String sanitizedName = BigQueryAvroUtils.sanitizeString(element.getSchema().getName());
+  public synchronized TableDestination getTable(Integer schemaId) {
+    if (tables == null) {
+      tables = new HashMap<>();
+    }
+    return tables.computeIfAbsent(
+        schemaId, id -> new TableDestination(getTableSpec(getAvroSchema(id)), null));
+  }
+
+  @Override
+  public synchronized TableSchema getSchema(Integer schemaId) {
+    if (tableSchemas == null) {
+      tableSchemas = new HashMap<>();
+    }
+    return tableSchemas.computeIfAbsent(
+        schemaId,
+        id ->
+            BigQueryAvroUtils.convertAvroSchemaToTableSchema(
+                getAvroSchema(id), this.persistKafkaKey));
+  }
+
+  @Override
+  public Coder<Integer> getDestinationCoder() {
+    return VarIntCoder.of();
+  }
+
+  private String getTableSpec(Schema avroSchema) {
+    String sanitizedNamespace = BigQueryAvroUtils.sanitizeString(avroSchema.getNamespace());
+    String sanitizedName = BigQueryAvroUtils.sanitizeString(avroSchema.getName());
 
     String bqQualifiedFullName =
         sanitizedNamespace + (sanitizedNamespace.isBlank() ? "" : "-") + sanitizedName;
 
     String tableName =
         this.tableNamePrefix + (this.tableNamePrefix.isBlank() ? "" : "-") + bqQualifiedFullName;
-    String tableSpec = this.projectName + ":" + this.datasetName + "." + tableName;
-    return new TableDestination(tableSpec, null);
+    return this.projectName + ":" + this.datasetName + "." + tableName;
   }
 
-  @Override
-  public TableSchema getSchema(GenericRecord element) {
-    // TODO: Test if sending null can work here, might be more efficient.
-    return BigQueryAvroUtils.convertAvroSchemaToTableSchema(
-        element.getSchema(), this.persistKafkaKey);
+  private Schema getAvroSchema(int schemaId) {
+    if (avroSchemas == null) {
+      avroSchemas = new HashMap<>();
+    }
+    return avroSchemas.computeIfAbsent(schemaId, this::fetchAvroSchema);
   }
 
-  @Override
-  public Coder<GenericRecord> getDestinationCoder() {
-    return GenericRecordCoder.of();
+  private Schema fetchAvroSchema(int schemaId) {
+    if (schemaRegistryClient == null) {
+      FileAwareSchemaRegistryFactoryFn processor = new FileAwareSchemaRegistryFactoryFn();
+      schemaRegistryClient =
+          new CachedSchemaRegistryClient(
+              this.schemaRegistryConnectionUrl,
+              DEFAULT_CACHE_CAPACITY,
+              processor.apply(this.schemaRegistryAuthenticationConfig));
+    }
+    try {
+      return (Schema) schemaRegistryClient.getSchemaById(schemaId).rawSchema();
+    } catch (IOException | RestClientException e) {
+      throw new RuntimeException(
+          "Failed to get the Avro schema with id " + schemaId + " from the Schema Registry", e);
+    }
   }
 }
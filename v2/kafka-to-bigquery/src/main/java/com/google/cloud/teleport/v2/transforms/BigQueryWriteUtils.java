@@ -17,17 +17,21 @@ package com.google.cloud.teleport.v2.transforms;
 
 import com.google.api.services.bigquery.model.TableRow;
 import com.google.cloud.teleport.v2.coders.FailsafeElementCoder;
-import com.google.cloud.teleport.v2.coders.GenericRecordCoder;
+import com.google.cloud.teleport.v2.coders.SchemaRegistryGenericRecordCoder;
 import com.google.cloud.teleport.v2.kafka.transforms.AvroTransform;
 import com.google.cloud.teleport.v2.utils.BigQueryAvroUtils;
 import com.google.cloud.teleport.v2.utils.BigQueryConstants;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
+import com.google.common.annotations.VisibleForTesting;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Map;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.beam.sdk.coders.ByteArrayCoder;
 import org.apache.beam.sdk.coders.KvCoder;
 import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
 import org.apache.beam.sdk.extensions.avro.schemas.utils.AvroUtils;
 import org.apache.beam.sdk.io.gcp.bigquery.BigQueryIO;
 import org.apache.beam.sdk.io.gcp.bigquery.BigQueryUtils;
@@ -246,12 +250,19 @@ public class BigQueryWriteUtils {
       extends PTransform<
           PCollection<FailsafeElement<KafkaRecord<byte[], byte[]>, GenericRecord>>, WriteResult> {
 
+    // The first byte of a message in the Confluent wire format.
+    private static final byte MAGIC_BYTE = 0x0;
+
     private String outputProject;
 
     private String outputDataset;
 
     private String outputTableNamePrefix;
 
+    private String schemaRegistryConnectionUrl;
+
+    private Map<String, Object> schemaRegistryAuthenticationConfig;
+
     private Boolean persistKafkaKey;
 
     private String writeDisposition;
@@ -270,6 +281,8 @@ public class BigQueryWriteUtils {
         String outputProject,
         String outputDataset,
         String outputTableNamePrefix,
+        String schemaRegistryConnectionUrl,
+        Map<String, Object> schemaRegistryAuthenticationConfig,
         String writeDisposition,
         String createDisposition,
         Integer numStorageWriteApiStreams,
@@ -279,6 +292,8 @@ public class BigQueryWriteUtils {
       this.outputProject = outputProject;
       this.outputDataset = outputDataset;
       this.outputTableNamePrefix = outputTableNamePrefix;
+      this.schemaRegistryConnectionUrl = schemaRegistryConnectionUrl;
+      this.schemaRegistryAuthenticationConfig = schemaRegistryAuthenticationConfig;
       this.writeDisposition = writeDisposition;
       this.createDisposition = createDisposition;
       this.numStorageWriteApiStreams = numStorageWriteApiStreams;
@@ -292,6 +307,8 @@ public class BigQueryWriteUtils {
         String outputProject,
         String outputDataset,
         String outputTableNamePrefix,
+        String schemaRegistryConnectionUrl,
+        Map<String, Object> schemaRegistryAuthenticationConfig,
         String writeDisposition,
         String createDisposition,
         Integer numStorageWriteApiStreams,
@@ -302,6 +319,8 @@ public class BigQueryWriteUtils {
       this.outputProject = outputProject;
       this.outputDataset = outputDataset;
       this.outputTableNamePrefix = outputTableNamePrefix;
+      this.schemaRegistryConnectionUrl = schemaRegistryConnectionUrl;
+      this.schemaRegistryAuthenticationConfig = schemaRegistryAuthenticationConfig;
       this.writeDisposition = writeDisposition;
       this.createDisposition = createDisposition;
       this.numStorageWriteApiStreams = numStorageWriteApiStreams;
@@ -315,6 +334,8 @@ public class BigQueryWriteUtils {
         String outputProject,
         String outputDataset,
         String outputTableNamePrefix,
+        String schemaRegistryConnectionUrl,
+        Map<String, Object> schemaRegistryAuthenticationConfig,
         String writeDisposition,
         String createDisposition,
         Integer numStorageWriteApiStreams,
@@ -325,6 +346,8 @@ public class BigQueryWriteUtils {
           outputProject,
           outputDataset,
           outputTableNamePrefix,
+          schemaRegistryConnectionUrl,
+          schemaRegistryAuthenticationConfig,
           writeDisposition,
           createDisposition,
           numStorageWriteApiStreams,
@@ -337,6 +360,8 @@ public class BigQueryWriteUtils {
         String outputProject,
         String outputDataset,
         String outputTableNamePrefix,
+        String schemaRegistryConnectionUrl,
+        Map<String, Object> schemaRegistryAuthenticationConfig,
         String writeDisposition,
         String createDisposition,
         Integer numStorageWriteApiStreams,
@@ -348,6 +373,8 @@ public class BigQueryWriteUtils {
           outputProject,
           outputDataset,
           outputTableNamePrefix,
+          schemaRegistryConnectionUrl,
+          schemaRegistryAuthenticationConfig,
           writeDisposition,
           createDisposition,
           numStorageWriteApiStreams,
@@ -359,21 +386,43 @@ public class BigQueryWriteUtils {
 
     public WriteResult expand(
         PCollection<FailsafeElement<KafkaRecord<byte[], byte[]>, GenericRecord>> input) {
-      WriteResult writeResult;
-      BigQueryIO.Write<KV<GenericRecord, TableRow>> writeToBigQuery =
-          BigQueryIO.<KV<GenericRecord, TableRow>>write()
+      // The Kafka key is not a field of the Avro records, so persisting it needs TableRows.
+      if (this.persistKafkaKey) {
+        return input
+            .apply(
+                "ConvertGenericRecordToTableRow",
+                ParDo.of(new GenericRecordToTableRowFn(this.persistKafkaKey)))
+            .setCoder(KvCoder.of(VarIntCoder.of(), TableRowJsonCoder.of()))
+            .apply(
+                configure(BigQueryIO.<KV<Integer, TableRow>>write())
+                    .withFormatFunction(kv -> kv.getValue()));
+      }
+      return input
+          .apply("KeyGenericRecordBySchemaId", ParDo.of(new KeyGenericRecordBySchemaIdFn()))
+          .setCoder(
+              SchemaRegistryGenericRecordCoder.of(
+                  this.schemaRegistryConnectionUrl, this.schemaRegistryAuthenticationConfig))
+          .apply(
+              configure(BigQueryIO.<KV<Integer, GenericRecord>>write())
+                  .withAvroFormatFunction(request -> request.getElement().getValue()));
+    }
+
+    private <T> BigQueryIO.Write<KV<Integer, T>> configure(BigQueryIO.Write<KV<Integer, T>> write) {
+      BigQueryIO.Write<KV<Integer, T>> writeToBigQuery =
+          write
               .to(
-                  BigQueryDynamicDestination.of(
+                  BigQueryDynamicDestination.<T>of(
                       this.outputProject,
                       this.outputDataset,
                       this.outputTableNamePrefix,
-                      this.persistKafkaKey))
+                      this.persistKafkaKey,
+                      this.schemaRegistryConnectionUrl,
+                      this.schemaRegistryAuthenticationConfig))
               .withWriteDisposition(
                   BigQueryIO.Write.WriteDisposition.valueOf(this.writeDisposition))
               .withCreateDisposition(
                   BigQueryIO.Write.CreateDisposition.valueOf(this.createDisposition))
               .withFailedInsertRetryPolicy(InsertRetryPolicy.retryTransientErrors())
-              .withFormatFunction(kv -> kv.getValue())
               .withExtendedErrorInfo()
               .withMethod(BigQueryIO.Write.Method.STORAGE_WRITE_API)
               .withNumStorageWriteApiStreams(this.numStorageWriteApiStreams)
@@ -387,25 +436,12 @@ public class BigQueryWriteUtils {
       if (this.useAutoSharding) {
         writeToBigQuery = writeToBigQuery.withAutoSharding();
       }
-      writeResult =
-          input
-              .apply(
-                  "ConvertGenericRecordToTableRow",
-                  ParDo.of(new GenericRecordToTableRowFn(this.persistKafkaKey)))
-              .setCoder(
-                  FailsafeElementCoder.of(
-                      KafkaRecordCoder.of(
-                          NullableCoder.of(ByteArrayCoder.of()), ByteArrayCoder.of()),
-                      KvCoder.of(GenericRecordCoder.of(), TableRowJsonCoder.of())))
-              .apply(ParDo.of(new FailsafeElementGetPayloadFn()))
-              .apply(writeToBigQuery);
-      return writeResult;
+      return writeToBigQuery;
     }
 
     private static class GenericRecordToTableRowFn
         extends DoFn<
-            FailsafeElement<KafkaRecord<byte[], byte[]>, GenericRecord>,
-            FailsafeElement<KafkaRecord<byte[], byte[]>, KV<GenericRecord, TableRow>>>
+            FailsafeElement<KafkaRecord<byte[], byte[]>, GenericRecord>, KV<Integer, TableRow>>
         implements Serializable {
 
       private boolean persistKafkaKey;
@@ -425,20 +461,43 @@ public class BigQueryWriteUtils {
         if (this.persistKafkaKey) {
           row.set(BigQueryConstants.KAFKA_KEY_FIELD, element.getOriginalPayload().getKV().getKey());
         }
-        context.output(
-            FailsafeElement.of(element.getOriginalPayload(), KV.of(element.getPayload(), row)));
+        context.output(KV.of(getSchemaId(element.getOriginalPayload().getKV().getValue()), row));
       }
     }
 
-    private static class FailsafeElementGetPayloadFn
+    private static class KeyGenericRecordBySchemaIdFn
         extends DoFn<
-            FailsafeElement<KafkaRecord<byte[], byte[]>, KV<GenericRecord, TableRow>>,
-            KV<GenericRecord, TableRow>> {
+            FailsafeElement<KafkaRecord<byte[], byte[]>, GenericRecord>,
+            KV<Integer, GenericRecord>> {
 
       @ProcessElement
       public void processElement(ProcessContext context) {
-        context.output(context.element().getPayload());
+        FailsafeElement<KafkaRecord<byte[], byte[]>, GenericRecord> element = context.element();
+        context.output(
+            KV.of(
+                getSchemaId(element.getOriginalPayload().getKV().getValue()),
+                element.getPayload()));
+      }
+    }
+
+    /**
+     * Returns the Schema Registry id of a message value in the Confluent wire format, which follows
+     * the magic byte of the value.
+     */
+    @VisibleForTesting
+    static int getSchemaId(byte[] value) {
+      if (value == null || value.length < 1 + Integer.BYTES) {
+        throw new IllegalArgumentException(
+            "The message value is too short to hold a Schema Registry id in the Confluent wire"
+                + " format");
+      }
+      if (value[0] != MAGIC_BYTE) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown magic byte %d, the message value is not in the Confluent wire format",
+                value[0]));
       }
+      return ByteBuffer.wrap(value, 1, Integer.BYTES).getInt();
     }
   }
 }
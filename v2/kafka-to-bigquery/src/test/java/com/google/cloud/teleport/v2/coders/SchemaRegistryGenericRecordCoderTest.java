@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.coders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.apache.beam.sdk.values.KV;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test cases for the {@link SchemaRegistryGenericRecordCoder} class. */
+@RunWith(JUnit4.class)
+public class SchemaRegistryGenericRecordCoderTest {
+
+  private static final Schema USER_SCHEMA =
+      SchemaBuilder.record("User")
+          .namespace("com.example")
+          .fields()
+          .requiredString("name")
+          .requiredLong("id")
+          .endRecord();
+
+  @Test
+  public void testEncodeDecodeLooksUpSchemaById() throws Exception {
+    MockSchemaRegistryClient schemaRegistryClient = spy(new MockSchemaRegistryClient());
+    int schemaId = schemaRegistryClient.register("users-value", new AvroSchema(USER_SCHEMA));
+    GenericRecord user =
+        new GenericRecordBuilder(USER_SCHEMA).set("name", "a").set("id", 1L).build();
+
+    byte[] encoded =
+        CoderUtils.encodeToByteArray(
+            SchemaRegistryGenericRecordCoder.of("http://schema-registry:8081", new HashMap<>()),
+            KV.of(schemaId, user));
+    SchemaRegistryGenericRecordCoder decoder =
+        SchemaRegistryGenericRecordCoder.of("http://schema-registry:8081", new HashMap<>())
+            .withSchemaRegistryClient(schemaRegistryClient);
+
+    assertEquals(KV.of(schemaId, user), CoderUtils.decodeFromByteArray(decoder, encoded));
+    assertEquals(KV.of(schemaId, user), CoderUtils.decodeFromByteArray(decoder, encoded));
+    verify(schemaRegistryClient, times(1)).getSchemaById(schemaId);
+    // Only the schema id is written, not the schema.
+    assertFalse(new String(encoded, StandardCharsets.UTF_8).contains("com.example"));
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.api.services.bigquery.model.TableFieldSchema;
+import com.google.api.services.bigquery.model.TableSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import java.util.HashMap;
+import java.util.stream.Collectors;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
+import org.apache.beam.sdk.transforms.windowing.PaneInfo;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.ValueInSingleWindow;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test cases for the {@link BigQueryDynamicDestination} class. */
+@RunWith(JUnit4.class)
+public class BigQueryDynamicDestinationTest {
+
+  private static final Schema USER_SCHEMA =
+      SchemaBuilder.record("User")
+          .namespace("com.example")
+          .fields()
+          .requiredString("name")
+          .requiredLong("id")
+          .endRecord();
+
+  private static final Schema ORDER_SCHEMA =
+      SchemaBuilder.record("Order")
+          .namespace("com.example")
+          .fields()
+          .requiredDouble("amount")
+          .endRecord();
+
+  private MockSchemaRegistryClient schemaRegistryClient;
+  private int userSchemaId;
+  private int orderSchemaId;
+  private BigQueryDynamicDestination<GenericRecord> destination;
+
+  @Before
+  public void setUp() throws Exception {
+    schemaRegistryClient = spy(new MockSchemaRegistryClient());
+    userSchemaId = schemaRegistryClient.register("users-value", new AvroSchema(USER_SCHEMA));
+    orderSchemaId = schemaRegistryClient.register("orders-value", new AvroSchema(ORDER_SCHEMA));
+    destination =
+        BigQueryDynamicDestination.<GenericRecord>of(
+                "test-project",
+                "test_dataset",
+                "prefix",
+                false,
+                "http://schema-registry:8081",
+                new HashMap<>())
+            .withSchemaRegistryClient(schemaRegistryClient);
+  }
+
+  @Test
+  public void testGetDestinationIsSchemaId() {
+    GenericRecord user =
+        new GenericRecordBuilder(USER_SCHEMA).set("name", "a").set("id", 1L).build();
+
+    assertEquals(
+        Integer.valueOf(userSchemaId),
+        destination.getDestination(
+            ValueInSingleWindow.of(
+                KV.of(userSchemaId, user),
+                Instant.now(),
+                GlobalWindow.INSTANCE,
+                PaneInfo.NO_FIRING)));
+  }
+
+  @Test
+  public void testGetTableAndSchemaPerSchemaId() {
+    assertEquals(
+        "test-project:test_dataset.prefix-com-example-User",
+        destination.getTable(userSchemaId).getTableSpec());
+    assertEquals(
+        "test-project:test_dataset.prefix-com-example-Order",
+        destination.getTable(orderSchemaId).getTableSpec());
+    assertEquals("[name, id]", fieldNames(destination.getSchema(userSchemaId)));
+    assertEquals("[amount]", fieldNames(destination.getSchema(orderSchemaId)));
+  }
+
+  @Test
+  public void testLooksUpEachSchemaIdOnce() throws Exception {
+    assertSame(destination.getTable(userSchemaId), destination.getTable(userSchemaId));
+    assertSame(destination.getSchema(userSchemaId), destination.getSchema(userSchemaId));
+    assertNotEquals(destination.getTable(userSchemaId), destination.getTable(orderSchemaId));
+    destination.getSchema(orderSchemaId);
+
+    verify(schemaRegistryClient, times(1)).getSchemaById(userSchemaId);
+    verify(schemaRegistryClient, times(1)).getSchemaById(orderSchemaId);
+  }
+
+  private static String fieldNames(TableSchema tableSchema) {
+    return tableSchema.getFields().stream()
+        .map(TableFieldSchema::getName)
+        .collect(Collectors.toList())
+        .toString();
+  }
+}
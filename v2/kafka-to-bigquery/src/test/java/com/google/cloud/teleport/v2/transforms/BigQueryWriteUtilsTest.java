@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.teleport.v2.transforms.BigQueryWriteUtils.BigQueryDynamicWrite;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test cases for the {@link BigQueryWriteUtils} class. */
+@RunWith(JUnit4.class)
+public class BigQueryWriteUtilsTest {
+
+  @Test
+  public void testGetSchemaId() {
+    assertEquals(
+        42, BigQueryDynamicWrite.getSchemaId(new byte[] {0x0, 0x0, 0x0, 0x0, 0x2A, 0x2, 0x4}));
+    assertEquals(
+        0x01020304, BigQueryDynamicWrite.getSchemaId(new byte[] {0x0, 0x1, 0x2, 0x3, 0x4}));
+  }
+
+  @Test
+  public void testGetSchemaIdShortPayload() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> BigQueryDynamicWrite.getSchemaId(new byte[] {0x0, 0x0, 0x0, 0x2A}));
+    assertThrows(
+        IllegalArgumentException.class, () -> BigQueryDynamicWrite.getSchemaId(new byte[0]));
+    assertThrows(IllegalArgumentException.class, () -> BigQueryDynamicWrite.getSchemaId(null));
+  }
+
+  @Test
+  public void testGetSchemaIdWithoutMagicByte() {
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BigQueryDynamicWrite.getSchemaId(new byte[] {0x1, 0x0, 0x0, 0x0, 0x2A, 0x2}));
+    assertEquals(
+        "Unknown magic byte 1, the message value is not in the Confluent wire format",
+        e.getMessage());
+  }
+}
@@ -25,6 +25,7 @@ import com.google.cloud.teleport.v2.kafka.options.SchemaRegistryOptions;
 import com.google.cloud.teleport.v2.kafka.transforms.KafkaTransform;
 import com.google.cloud.teleport.v2.kafka.utils.KafkaConfig;
 import com.google.cloud.teleport.v2.kafka.utils.KafkaTopicUtils;
+import com.google.cloud.teleport.v2.kafka.values.KafkaTemplateParameters.MessageFormatConstants;
 import com.google.cloud.teleport.v2.transforms.WriteTransform;
 import java.util.HashMap;
 import java.util.List;
@@ -124,6 +125,27 @@ public class KafkaToGcsFlex {
     Integer getNumShards();
 
     void setNumShards(Integer numShards);
+
+    @TemplateParameter.Enum(
+        order = 24,
+        optional = true,
+        groupName = "Destination",
+        parentName = "messageFormat",
+        parentTriggerValues = {
+          MessageFormatConstants.AVRO_CONFLUENT_WIRE_FORMAT,
+          MessageFormatConstants.AVRO_BINARY_ENCODING
+        },
+        enumOptions = {
+          @TemplateParameter.TemplateEnumOption("AVRO"),
+          @TemplateParameter.TemplateEnumOption("PARQUET")
+        },
+        description = "Output file format",
+        helpText =
+            "The format of the files written for Avro messages. The supported values are AVRO and PARQUET. Default is AVRO.")
+    @Default.String("AVRO")
+    String getOutputFileFormat();
+
+    void setOutputFileFormat(String outputFileFormat);
   }
 
   public static PipelineResult run(KafkaToGcsOptions options) throws Exception {
@@ -15,25 +15,78 @@
  */
 package com.google.cloud.teleport.v2.transforms;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
 import org.apache.beam.sdk.coders.DefaultCoder;
 import org.apache.beam.sdk.extensions.avro.coders.AvroCoder;
 
+/**
+ * The destination of the records of an Avro schema, keyed by the 64-bit fingerprint of the schema
+ * rather than by the schema itself. The schema of a destination is taken from its records when its
+ * files are written, see {@link SchemaFromRecordSink}.
+ */
 @DefaultCoder(AvroCoder.class)
 public class AvroDestination {
+  private static final Integer MAX_CACHE_SIZE = 1000;
+
+  // Records of a schema share its instance, so the fingerprint is computed once per schema.
+  private static final Cache<Schema, AvroDestination> destinationCache =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHE_SIZE).build();
+
+  // The schemas of the destinations seen on this worker, by fingerprint, for the files of a
+  // destination that have no record to take the schema from.
+  private static final Cache<Long, Schema> schemaCache =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHE_SIZE).build();
+
   public String name;
-  public String jsonSchema;
+  public long fingerprint;
 
   // Needed for serialization
   public AvroDestination() {}
 
-  public AvroDestination(String name, String jsonSchema) {
+  public AvroDestination(String name, long fingerprint) {
     this.name = name;
-    this.jsonSchema = jsonSchema;
+    this.fingerprint = fingerprint;
+  }
+
+  public static AvroDestination of(String name, long fingerprint) {
+    return new AvroDestination(name, fingerprint);
+  }
+
+  /**
+   * Returns the destination of the records of a schema, keyed by the fingerprint of its JSON so
+   * that schemas which differ only in their logical types or properties are kept apart.
+   */
+  public static AvroDestination of(Schema schema) {
+    try {
+      return destinationCache.get(
+          schema,
+          () -> {
+            AvroDestination destination =
+                of(
+                    schema.getName(),
+                    SchemaNormalization.fingerprint64(
+                        schema.toString().getBytes(StandardCharsets.UTF_8)));
+            schemaCache.put(destination.fingerprint, schema);
+            return destination;
+          });
+    } catch (ExecutionException e) {
+      throw new AssertionError("impossible; loader can't throw.");
+    }
   }
 
-  public static AvroDestination of(String name, String jsonSchema) {
-    return new AvroDestination(name, jsonSchema);
+  /**
+   * Returns the schema of a destination if a record of the destination, or its schema, has been
+   * seen on this worker with {@link #of(Schema)}, and null otherwise.
+   */
+  static @Nullable Schema schemaOf(AvroDestination destination) {
+    return schemaCache.getIfPresent(destination.fingerprint);
   }
 
   @Override
@@ -45,11 +98,11 @@ public class AvroDestination {
       return false;
     }
     AvroDestination that = (AvroDestination) o;
-    return Objects.equals(name, that.name) && Objects.equals(jsonSchema, that.jsonSchema);
+    return fingerprint == that.fingerprint && Objects.equals(name, that.name);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(name, jsonSchema);
+    return Objects.hash(name, fingerprint);
   }
 }
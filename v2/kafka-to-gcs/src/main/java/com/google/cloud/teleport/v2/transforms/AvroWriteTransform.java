@@ -21,6 +21,9 @@ import com.google.cloud.teleport.v2.kafka.transforms.AvroTransform;
 import com.google.cloud.teleport.v2.kafka.values.KafkaTemplateParameters;
 import com.google.cloud.teleport.v2.kafka.values.KafkaTemplateParameters.MessageFormatConstants;
 import com.google.cloud.teleport.v2.utils.DurationUtils;
+import com.google.cloud.teleport.v2.utils.SchemaUtils;
+import com.google.cloud.teleport.v2.utils.WriteToGCSUtility;
+import com.google.cloud.teleport.v2.utils.WriteToGCSUtility.FileFormat;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import java.util.Map;
 import java.util.Objects;
@@ -33,6 +36,7 @@ import org.apache.beam.sdk.io.Compression;
 import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.WriteFilesResult;
 import org.apache.beam.sdk.io.kafka.KafkaRecord;
+import org.apache.beam.sdk.io.parquet.ParquetIO;
 import org.apache.beam.sdk.transforms.Contextful;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
@@ -46,13 +50,13 @@ import org.apache.beam.sdk.transforms.windowing.FixedWindows;
 import org.apache.beam.sdk.transforms.windowing.PaneInfo;
 import org.apache.beam.sdk.transforms.windowing.Window;
 import org.apache.beam.sdk.values.PCollection;
-import org.apache.commons.codec.digest.DigestUtils;
 
 /**
  * {@link PTransform} for converting the {@link KafkaRecord} into {@link GenericRecord} using Schema
  * Registry or using static schema provided during build time. After converting the bytes to {@link
  * GenericRecord}, {@link FileIO#writeDynamic()} is used to write the records to {@link
- * #outputDirectory()} using the {@link AvroFileNaming} class.
+ * #outputDirectory()} using the {@link AvroFileNaming} class, as Avro or Parquet files depending on
+ * {@link #outputFileFormat()}.
  */
 @AutoValue
 public abstract class AvroWriteTransform
@@ -83,6 +87,8 @@ public abstract class AvroWriteTransform
 
   public abstract String outputFilenamePrefix();
 
+  public abstract String outputFileFormat();
+
   public static AvroWriteTransformBuilder newBuilder() {
     return new AutoValue_AvroWriteTransform.Builder();
   }
@@ -173,44 +179,76 @@ public abstract class AvroWriteTransform
 
     public abstract AvroWriteTransformBuilder setWindowDuration(String windowDuration);
 
+    public abstract AvroWriteTransformBuilder setOutputFileFormat(String value);
+
     public AvroWriteTransform build() {
       return autoBuild();
     }
   }
 
   public WriteFilesResult<AvroDestination> writeToGCS(PCollection<GenericRecord> genericRecords) {
+    FileFormat fileFormat = FileFormat.valueOf(outputFileFormat());
+    SerializableFunction<Schema, FileIO.Sink<GenericRecord>> sinkFn = getSinkFn(fileFormat);
+    String knownSchema = getKnownSchema();
+    String suffix = WriteToGCSUtility.FILE_SUFFIX_MAP.get(fileFormat);
     // FileIO sinks needs a Windowed PCollection.
     genericRecords =
         genericRecords.apply(
             Window.into(FixedWindows.of(DurationUtils.parseDuration(windowDuration()))));
     return genericRecords.apply(
         FileIO.<AvroDestination, GenericRecord>writeDynamic()
-            .by(
-                (record) -> {
-                  Schema schema = record.getSchema();
-                  String name1 = schema.getName();
-                  // TODO: Build destination based on the schema ID or something compact than schema
-                  // itself.
-                  return AvroDestination.of(name1, schema.toString());
-                })
+            .by(record -> AvroDestination.of(record.getSchema()))
             .via(
                 Contextful.fn(record -> record),
-                Contextful.fn(destination -> AvroIO.sink(destination.jsonSchema)))
+                Contextful.fn(
+                    destination -> new SchemaFromRecordSink(sinkFn, destination, knownSchema)))
             .withDestinationCoder(AvroCoder.of(AvroDestination.class))
             .to(outputDirectory())
             .withNumShards(numShards())
             .withNaming(
                 (SerializableFunction<AvroDestination, FileIO.Write.FileNaming>)
-                    AvroFileNaming::new));
+                    destination -> new AvroFileNaming(destination, suffix)));
+  }
+
+  /**
+   * Returns the JSON of the schema of all the records when the pipeline is configured with a single
+   * schema file, and null when the schemas come from the Schema Registry.
+   */
+  private @Nullable String getKnownSchema() {
+    String schemaPath;
+    if (messageFormat().equals(MessageFormatConstants.AVRO_BINARY_ENCODING)) {
+      schemaPath = binaryAvroSchemaPath();
+    } else if (schemaFormat().equals(KafkaTemplateParameters.SchemaFormat.SINGLE_SCHEMA_FILE)) {
+      schemaPath = confluentSchemaPath();
+    } else {
+      return null;
+    }
+    if (schemaPath == null || schemaPath.isEmpty()) {
+      return null;
+    }
+    return SchemaUtils.getAvroSchema(schemaPath).toString();
+  }
+
+  private static SerializableFunction<Schema, FileIO.Sink<GenericRecord>> getSinkFn(
+      FileFormat fileFormat) {
+    switch (fileFormat) {
+      case AVRO:
+        return schema -> AvroIO.sink(schema);
+      case PARQUET:
+        return schema -> ParquetIO.sink(schema);
+      default:
+        throw new IllegalArgumentException(
+            "Unsupported output file format for Avro messages: " + fileFormat);
+    }
   }
 
   class AvroFileNaming implements FileIO.Write.FileNaming {
     private final FileIO.Write.FileNaming defaultNaming;
     private final AvroDestination avroDestination;
 
-    public AvroFileNaming(AvroDestination avroDestination) {
+    public AvroFileNaming(AvroDestination avroDestination, String suffix) {
       defaultNaming =
-          FileIO.Write.defaultNaming(DigestUtils.md5Hex(avroDestination.jsonSchema), ".avro");
+          FileIO.Write.defaultNaming(String.format("%016x", avroDestination.fingerprint), suffix);
       this.avroDestination = avroDestination;
     }
 
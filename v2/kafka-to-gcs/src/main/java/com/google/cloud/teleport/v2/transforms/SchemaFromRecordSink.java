@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import javax.annotation.Nullable;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.beam.sdk.io.FileIO;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link FileIO.Sink} of {@link GenericRecord} which creates the sink of a file for the schema of
+ * the first record written to it, so that the destinations of the records do not need to carry
+ * their schema. All the records of a file are written with the schema of its first record.
+ *
+ * <p>A file without records, like the empty files written by {@link FileIO} for a shard or a pane
+ * without output, is written with the known schema of its destination, see {@link
+ * AvroDestination#schemaOf(AvroDestination)}, so that it is still a valid Avro or Parquet file.
+ */
+class SchemaFromRecordSink implements FileIO.Sink<GenericRecord> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SchemaFromRecordSink.class);
+
+  private final SerializableFunction<Schema, FileIO.Sink<GenericRecord>> sinkFn;
+
+  private final AvroDestination destination;
+
+  // The JSON of the schema configured for the pipeline, if any.
+  private final @Nullable String knownSchema;
+
+  private transient WritableByteChannel channel;
+
+  private transient FileIO.Sink<GenericRecord> sink;
+
+  SchemaFromRecordSink(
+      SerializableFunction<Schema, FileIO.Sink<GenericRecord>> sinkFn,
+      AvroDestination destination,
+      @Nullable String knownSchema) {
+    this.sinkFn = sinkFn;
+    this.destination = destination;
+    this.knownSchema = knownSchema;
+  }
+
+  @Override
+  public void open(WritableByteChannel channel) throws IOException {
+    this.channel = channel;
+    this.sink = null;
+  }
+
+  @Override
+  public void write(GenericRecord element) throws IOException {
+    if (sink == null) {
+      sink = sinkFn.apply(element.getSchema());
+      sink.open(channel);
+    }
+    sink.write(element);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (sink == null) {
+      Schema schema = getDestinationSchema();
+      if (schema == null) {
+        LOG.warn(
+            "No schema is known for destination {} with fingerprint {}, writing an empty file.",
+            destination.name,
+            String.format("%016x", destination.fingerprint));
+        return;
+      }
+      sink = sinkFn.apply(schema);
+      sink.open(channel);
+    }
+    sink.flush();
+  }
+
+  private @Nullable Schema getDestinationSchema() {
+    if (knownSchema != null && AvroDestination.schemaOf(destination) == null) {
+      // Registers the configured schema with its fingerprint.
+      AvroDestination.of(new Schema.Parser().parse(knownSchema));
+    }
+    return AvroDestination.schemaOf(destination);
+  }
+}
@@ -73,6 +73,7 @@ public abstract class WriteTransform
                   .setBinaryAvroSchemaPath(options().getBinaryAvroSchemaPath())
                   .setSchemaFormat(options().getSchemaFormat())
                   .setWindowDuration(options().getWindowDuration())
+                  .setOutputFileFormat(options().getOutputFileFormat())
                   .setErrorHandler(badRecordErrorHandler())
                   .setBadRecordRouter(badRecordRouter())
                   .build());
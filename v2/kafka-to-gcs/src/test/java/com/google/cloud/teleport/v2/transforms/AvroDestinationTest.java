@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.SchemaNormalization;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test cases for the {@link AvroDestination} class. */
+@RunWith(JUnit4.class)
+public class AvroDestinationTest {
+
+  private static Schema userSchema(String idType) {
+    return new Schema.Parser()
+        .parse(
+            "{\"type\":\"record\",\"name\":\"User\",\"namespace\":\"com.example\",\"fields\":["
+                + "{\"name\":\"name\",\"type\":\"string\"},"
+                + "{\"name\":\"id\",\"type\":"
+                + idType
+                + "}]}");
+  }
+
+  @Test
+  public void testOfSchemaIsKeyedByFingerprint() {
+    Schema schema = userSchema("\"long\"");
+
+    AvroDestination destination = AvroDestination.of(schema);
+
+    assertEquals("User", destination.name);
+    assertEquals(
+        SchemaNormalization.fingerprint64(schema.toString().getBytes(StandardCharsets.UTF_8)),
+        destination.fingerprint);
+    assertEquals(AvroDestination.of("User", destination.fingerprint), destination);
+  }
+
+  @Test
+  public void testOfSchemaIsCachedPerSchema() {
+    Schema schema = userSchema("\"long\"");
+
+    assertSame(AvroDestination.of(schema), AvroDestination.of(schema));
+    // A schema parsed again is equal to the first one and has the same destination.
+    assertEquals(AvroDestination.of(schema), AvroDestination.of(userSchema("\"long\"")));
+    assertSame(schema, AvroDestination.schemaOf(AvroDestination.of(schema)));
+  }
+
+  @Test
+  public void testOfSchemaKeepsLogicalTypesApart() {
+    Schema timestampSchema = userSchema("{\"type\":\"long\",\"logicalType\":\"timestamp-millis\"}");
+    Schema otherSchema =
+        SchemaBuilder.record("User")
+            .namespace("com.example")
+            .fields()
+            .requiredString("name")
+            .name("id")
+            .type(LogicalTypes.timeMicros().addToSchema(Schema.create(Schema.Type.LONG)))
+            .noDefault()
+            .endRecord();
+
+    assertNotEquals(
+        AvroDestination.of(userSchema("\"long\"")), AvroDestination.of(timestampSchema));
+    assertNotEquals(AvroDestination.of(timestampSchema), AvroDestination.of(otherSchema));
+    assertEquals(
+        AvroDestination.of(userSchema("\"long\"")).name, AvroDestination.of(otherSchema).name);
+  }
+
+  @Test
+  public void testSchemaOfUnknownDestination() {
+    assertNull(AvroDestination.schemaOf(AvroDestination.of("Unknown", 42L)));
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.teleport.v2.kafka.values.KafkaTemplateParameters.MessageFormatConstants;
+import com.google.cloud.teleport.v2.kafka.values.KafkaTemplateParameters.SchemaFormat;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.beam.sdk.extensions.avro.coders.AvroCoder;
+import org.apache.beam.sdk.io.parquet.ParquetIO;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.errorhandling.BadRecordRouter;
+import org.apache.beam.sdk.transforms.errorhandling.ErrorHandler;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test cases for the {@link AvroWriteTransform} class. */
+@RunWith(JUnit4.class)
+public class AvroWriteTransformTest {
+
+  @Rule public final transient TestPipeline writePipeline = TestPipeline.create();
+
+  @Rule public final transient TestPipeline readPipeline = TestPipeline.create();
+
+  @Rule public final transient TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final Schema USER_SCHEMA =
+      SchemaBuilder.record("User")
+          .namespace("com.example")
+          .fields()
+          .requiredString("name")
+          .requiredLong("id")
+          .endRecord();
+
+  private static final List<GenericRecord> RECORDS =
+      Arrays.asList(
+          new GenericRecordBuilder(USER_SCHEMA).set("name", "a").set("id", 1L).build(),
+          new GenericRecordBuilder(USER_SCHEMA).set("name", "b").set("id", 2L).build());
+
+  /** Tests that the records are written as non-empty Parquet files of their destination. */
+  @Test
+  public void testWriteToGcsParquet() throws IOException {
+    File outputDirectory = tempFolder.newFolder("parquet");
+
+    getTransform(outputDirectory, "PARQUET")
+        .setSchemaFormat(SchemaFormat.SCHEMA_REGISTRY)
+        .setSchemaRegistryURL("http://schema-registry:8081")
+        .build()
+        .writeToGCS(writePipeline.apply(Create.of(RECORDS).withCoder(AvroCoder.of(USER_SCHEMA))));
+    writePipeline.run().waitUntilFinish();
+
+    File[] files = new File(outputDirectory, "User").listFiles();
+    assertTrue(files.length > 0 && files.length <= 4);
+    for (File file : files) {
+      assertTrue(file.getName(), file.getName().endsWith(".parquet"));
+      assertTrue(file.getName(), file.length() > 0);
+    }
+    PAssert.that(
+            readPipeline.apply(
+                ParquetIO.read(USER_SCHEMA)
+                    .from(new File(outputDirectory, "User").getAbsolutePath() + "/*")))
+        .containsInAnyOrder(RECORDS);
+    readPipeline.run().waitUntilFinish();
+  }
+
+  /** Tests that the records are written as Avro files with the schema of the schema file. */
+  @Test
+  public void testWriteToGcsAvroSchemaFile() throws IOException {
+    File outputDirectory = tempFolder.newFolder("avro");
+    File schemaFile = tempFolder.newFile("user.avsc");
+    Files.write(schemaFile.toPath(), USER_SCHEMA.toString().getBytes(StandardCharsets.UTF_8));
+
+    getTransform(outputDirectory, "AVRO")
+        .setSchemaFormat(SchemaFormat.SINGLE_SCHEMA_FILE)
+        .setConfluentSchemaPath(schemaFile.getAbsolutePath())
+        .build()
+        .writeToGCS(writePipeline.apply(Create.of(RECORDS).withCoder(AvroCoder.of(USER_SCHEMA))));
+    writePipeline.run().waitUntilFinish();
+
+    File[] files = new File(outputDirectory, "User").listFiles();
+    assertTrue(files.length > 0 && files.length <= 4);
+    List<GenericRecord> records = new ArrayList<>();
+    for (File file : files) {
+      assertTrue(file.getName(), file.getName().endsWith(".avro"));
+      try (DataFileReader<GenericRecord> reader =
+          new DataFileReader<>(file, new GenericDatumReader<>())) {
+        assertEquals(USER_SCHEMA, reader.getSchema());
+        reader.forEach(records::add);
+      }
+    }
+    assertEquals(new HashSet<>(RECORDS), new HashSet<>(records));
+  }
+
+  private static AvroWriteTransform.AvroWriteTransformBuilder getTransform(
+      File outputDirectory, String outputFileFormat) {
+    return AvroWriteTransform.newBuilder()
+        .setBadRecordRouter(BadRecordRouter.THROWING_ROUTER)
+        .setErrorHandler(new ErrorHandler.DefaultErrorHandler<>())
+        .setOutputDirectory(outputDirectory.getAbsolutePath())
+        .setNumShards(4)
+        .setMessageFormat(MessageFormatConstants.AVRO_CONFLUENT_WIRE_FORMAT)
+        .setWindowDuration("1m")
+        .setSchemaRegistryAuthenticationConfig(new HashMap<>())
+        .setOutputFilenamePrefix("output")
+        .setOutputFileFormat(outputFileFormat);
+  }
+}
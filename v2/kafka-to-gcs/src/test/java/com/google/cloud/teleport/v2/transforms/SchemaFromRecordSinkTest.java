@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.beam.sdk.extensions.avro.io.AvroIO;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test cases for the {@link SchemaFromRecordSink} class. */
+@RunWith(JUnit4.class)
+public class SchemaFromRecordSinkTest {
+
+  private static final Schema ORDER_SCHEMA =
+      SchemaBuilder.record("Order")
+          .namespace("com.example.sink")
+          .fields()
+          .requiredDouble("amount")
+          .endRecord();
+
+  /** Tests that a file without records is written with the known schema of its destination. */
+  @Test
+  public void testEmptyFileHasKnownSchema() throws Exception {
+    // The destination is not created from the schema, so only the known schema can resolve it.
+    AvroDestination destination =
+        AvroDestination.of(
+            "Order",
+            SchemaNormalization.fingerprint64(
+                ORDER_SCHEMA.toString().getBytes(StandardCharsets.UTF_8)));
+    SchemaFromRecordSink sink =
+        new SchemaFromRecordSink(
+            schema -> AvroIO.sink(schema), destination, ORDER_SCHEMA.toString());
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (WritableByteChannel channel = Channels.newChannel(output)) {
+      sink.open(channel);
+      sink.flush();
+    }
+
+    try (DataFileStream<GenericRecord> reader =
+        new DataFileStream<>(
+            new SeekableByteArrayInput(output.toByteArray()), new GenericDatumReader<>())) {
+      assertEquals(ORDER_SCHEMA, reader.getSchema());
+      assertFalse(reader.hasNext());
+    }
+  }
+}
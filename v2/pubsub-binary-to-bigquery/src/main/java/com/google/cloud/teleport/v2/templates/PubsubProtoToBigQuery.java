@@ -433,6 +433,7 @@ public final class PubsubProtoToBigQuery {
                   .setFunctionName(options.getJavascriptTextTransformFunctionName())
                   .setReloadIntervalMinutes(
                       options.getJavascriptTextTransformReloadIntervalMinutes())
+                  .setBatchSize(options.getJavascriptTextTransformBatchSize())
                   .setSuccessTag(UDF_SUCCESS_TAG)
                   .setFailureTag(UDF_FAILURE_TAG)
                   .build());
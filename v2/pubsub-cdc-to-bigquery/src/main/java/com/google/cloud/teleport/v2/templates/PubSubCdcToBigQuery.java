@@ -300,13 +300,17 @@ public class PubSubCdcToBigQuery {
 
     InputUDFToTableRow<String> failsafeTableRowTransformer =
         new InputUDFToTableRow<String>(
-            options.getJavascriptTextTransformGcsPath(),
-            options.getJavascriptTextTransformFunctionName(),
-            options.getJavascriptTextTransformReloadIntervalMinutes(),
-            options.getPythonTextTransformGcsPath(),
-            options.getPythonTextTransformFunctionName(),
-            options.getRuntimeRetries(),
-            FAILSAFE_ELEMENT_CODER);
+                options.getJavascriptTextTransformGcsPath(),
+                options.getJavascriptTextTransformFunctionName(),
+                options.getJavascriptTextTransformReloadIntervalMinutes(),
+                options.getPythonTextTransformGcsPath(),
+                options.getPythonTextTransformFunctionName(),
+                options.getRuntimeRetries(),
+                FAILSAFE_ELEMENT_CODER)
+            .withJavascriptTransformBatchSize(options.getJavascriptTextTransformBatchSize())
+            .withPythonTransformWorkers(
+                options.getPythonTextTransformWorkerPoolSize(),
+                options.getPythonTextTransformWorkerTimeoutSeconds());
 
     BigQueryTableConfigManager bqConfigManager =
         new BigQueryTableConfigManager(
@@ -393,6 +393,8 @@ public class PubSubToMongoDB {
                   .setJavascriptTextTransformGcsPath(options.getJavascriptTextTransformGcsPath())
                   .setJavascriptTextTransformReloadIntervalMinutes(
                       options.getJavascriptTextTransformReloadIntervalMinutes())
+                  .setJavascriptTextTransformBatchSize(
+                      options.getJavascriptTextTransformBatchSize())
                   .build());
     }
 
@@ -482,6 +484,9 @@ public class PubSubToMongoDB {
     @Nullable
     public abstract Integer javascriptTextTransformReloadIntervalMinutes();
 
+    @Nullable
+    public abstract Integer javascriptTextTransformBatchSize();
+
     @Override
     public PCollectionTuple expand(PCollection<PubsubMessage> input) {
 
@@ -525,6 +530,7 @@ public class PubSubToMongoDB {
                 .setFileSystemPath(javascriptTextTransformGcsPath())
                 .setFunctionName(javascriptTextTransformFunctionName())
                 .setReloadIntervalMinutes(javascriptTextTransformReloadIntervalMinutes())
+                .setBatchSize(javascriptTextTransformBatchSize())
                 .setSuccessTag(TRANSFORM_OUT)
                 .setFailureTag(TRANSFORM_DEADLETTER_OUT)
                 .build());
@@ -554,6 +560,9 @@ public class PubSubToMongoDB {
       public abstract Builder setJavascriptTextTransformReloadIntervalMinutes(
           Integer javascriptTextTransformReloadIntervalMinutes);
 
+      public abstract Builder setJavascriptTextTransformBatchSize(
+          Integer javascriptTextTransformBatchSize);
+
       public abstract PubSubMessageToJsonDocument build();
     }
   }
@@ -32,6 +32,10 @@ public class MetricCounters {
   // SQLExceptions etc.
   public static final String READER_SCHEMA_DISCOVERY_ERRORS = "reader_schema_discovery_errors";
 
+  // Prefix for the per shard counter of rows read by the sharded reader. The logical shard id is
+  // appended to the prefix.
+  public static final String READER_ROWS_READ = "reader_rows_read_";
+
   // Counter for number of mutations that failed writing to Spanner
   public static final String FAILED_MUTATION_ERRORS = "failed_mutation_errors";
 
@@ -76,6 +76,8 @@ public final class OptionsToConfigBuilder {
         jdbcDriverJars,
         maxConnections,
         numPartitions,
+        options.getSplitWithColumnStatistics(),
+        options.getSplittableReads(),
         waitOn);
   }
 
@@ -95,6 +97,8 @@ public final class OptionsToConfigBuilder {
       String jdbcDriverJars,
       long maxConnections,
       Integer numPartitions,
+      boolean splitWithColumnStatistics,
+      boolean splittableReads,
       Wait.OnSignal<?> waitOn) {
     JdbcIOWrapperConfig.Builder builder = builderWithDefaultsFor(sqlDialect);
     SourceSchemaReference sourceSchemaReference =
@@ -148,6 +152,8 @@ public final class OptionsToConfigBuilder {
     }
 
     builder.setMaxPartitions(numPartitions);
+    builder.setSplitWithColumnStatistics(splitWithColumnStatistics);
+    builder.setSplittableReads(splittableReads);
     builder = builder.setTables(ImmutableList.copyOf(tables));
     return builder.build();
   }
@@ -234,4 +234,46 @@ public interface SourceDbToSpannerOptions extends CommonTemplateOptions {
   String getNamespace();
 
   void setNamespace(String value);
+
+  @TemplateParameter.Boolean(
+      order = 20,
+      optional = true,
+      description = "Resume a previous migration",
+      helpText =
+          "If true, the tables that a previous run of the migration with the same output directory"
+              + " has completed are not migrated again. Each table is recorded in the `checkpoints/`"
+              + " path within the `outputDirectory` as soon as its writes are committed. Defaults to:"
+              + " false.")
+  @Default.Boolean(false)
+  Boolean getResumeMigration();
+
+  void setResumeMigration(Boolean value);
+
+  @TemplateParameter.Boolean(
+      order = 21,
+      optional = true,
+      description = "Split tables using column statistics",
+      helpText =
+          "If true, the initial split of a table is taken from the histogram the source database"
+              + " keeps for its first partition column, so that skewed keys yield ranges of similar"
+              + " sizes with fewer count queries. Falls back to a uniform split if the histogram is"
+              + " not available. Defaults to: false.")
+  @Default.Boolean(false)
+  Boolean getSplitWithColumnStatistics();
+
+  void setSplitWithColumnStatistics(Boolean value);
+
+  @TemplateParameter.Boolean(
+      order = 22,
+      optional = true,
+      description = "Read ranges with splittable reads",
+      helpText =
+          "If true, the ranges of a table are read in the order of their partition columns, which"
+              + " lets Dataflow split off the unread remainder of a slow range to another worker"
+              + " while it is being read. Applies to partition columns of integer and string types."
+              + " Defaults to: false.")
+  @Default.Boolean(false)
+  Boolean getSplittableReads();
+
+  void setSplittableReads(Boolean value);
 }
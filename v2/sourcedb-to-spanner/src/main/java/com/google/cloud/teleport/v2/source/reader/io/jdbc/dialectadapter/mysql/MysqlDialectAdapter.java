@@ -591,6 +591,37 @@ public final class MysqlDialectAdapter implements DialectAdapter {
     return addWhereClause("select * from " + tableName, partitionColumns);
   }
 
+  /**
+   * Get query for the prepared statement to read columns within a range, ordered by {@code
+   * orderByColumn}, with the value of {@code orderByColumn} appended as the last column.
+   *
+   * @param tableName name of the table to read
+   * @param partitionColumns partition columns.
+   * @param orderByColumn column to order the rows by.
+   * @return Query Statement.
+   */
+  @Override
+  public String getOrderedReadQuery(
+      String tableName, ImmutableList<String> partitionColumns, String orderByColumn) {
+    return addWhereClause(
+            String.format("select %1$s.*, %2$s from %1$s", tableName, orderByColumn),
+            partitionColumns)
+        + " order by "
+        + orderByColumn;
+  }
+
+  /**
+   * Get the fetch size that makes MySQL Connector/J stream the result set row by row. Unless {@code
+   * useCursorFetch=true} is set on the connection URL, the driver ignores a positive fetch size and
+   * buffers the whole result set in memory.
+   *
+   * @return {@link Integer#MIN_VALUE}.
+   */
+  @Override
+  public int getStreamingFetchSize() {
+    return Integer.MIN_VALUE;
+  }
+
   /**
    * Get query for the prepared statement to count a given range.
    *
@@ -624,6 +655,45 @@ public final class MysqlDialectAdapter implements DialectAdapter {
         partitionColumns);
   }
 
+  /**
+   * Get query that returns the bucket bounds of the histogram maintained in {@code
+   * information_schema.COLUMN_STATISTICS} for a column. Histograms are available from MySQL 8.0 and
+   * are created by {@code ANALYZE TABLE ... UPDATE HISTOGRAM}. For singleton histograms every
+   * bucket is a single value, while for equi-height histograms the upper bound of every bucket is
+   * used.
+   *
+   * @param tableName name of the table, optionally delimited.
+   * @param colName name of the column, optionally delimited.
+   */
+  @Override
+  public String getColumnStatisticsQuery(String tableName, String colName) {
+    return "SELECT IF(JSON_UNQUOTE(JSON_EXTRACT(cs.HISTOGRAM, '$.\"histogram-type\"')) = 'singleton',"
+        + " b.lower_bound, b.upper_bound)"
+        + " FROM information_schema.COLUMN_STATISTICS cs,"
+        + " JSON_TABLE(cs.HISTOGRAM, '$.buckets[*]' COLUMNS("
+        + "lower_bound VARCHAR(1024) PATH '$[0]', upper_bound VARCHAR(1024) PATH '$[1]')) b"
+        + " WHERE cs.SCHEMA_NAME = DATABASE()"
+        + " AND cs.TABLE_NAME = "
+        + toStringLiteral(tableName)
+        + " AND cs.COLUMN_NAME = "
+        + toStringLiteral(colName);
+  }
+
+  /**
+   * Convert an identifier, which might be delimited with double quotes or back ticks, to a string
+   * literal.
+   */
+  private static String toStringLiteral(String identifier) {
+    String name = identifier;
+    if (name.length() >= 2
+        && ((name.startsWith("\"") && name.endsWith("\""))
+            || (name.startsWith("`") && name.endsWith("`")))) {
+      String delimiter = name.substring(0, 1);
+      name = name.substring(1, name.length() - 1).replace(delimiter + delimiter, delimiter);
+    }
+    return "'" + name.replace("\\", "\\\\").replace("'", "''") + "'";
+  }
+
   /**
    * Check if a given {@link SQLException} is a timeout. The implementation needs to check for
    * dialect specific {@link SQLException#getSQLState() SqlState} and {@link
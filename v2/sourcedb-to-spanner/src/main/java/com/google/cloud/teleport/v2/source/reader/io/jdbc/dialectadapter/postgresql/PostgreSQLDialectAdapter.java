@@ -407,6 +407,25 @@ public class PostgreSQLDialectAdapter implements DialectAdapter {
     return addWhereClause("SELECT * FROM " + tableName, partitionColumns);
   }
 
+  /**
+   * Get query for the prepared statement to read columns within a range, ordered by {@code
+   * orderByColumn}, with the value of {@code orderByColumn} appended as the last column.
+   *
+   * @param tableName name of the table to read
+   * @param partitionColumns partition columns.
+   * @param orderByColumn column to order the rows by.
+   * @return Query Statement.
+   */
+  @Override
+  public String getOrderedReadQuery(
+      String tableName, ImmutableList<String> partitionColumns, String orderByColumn) {
+    return addWhereClause(
+            String.format("SELECT %1$s.*, %2$s FROM %1$s", tableName, orderByColumn),
+            partitionColumns)
+        + " ORDER BY "
+        + orderByColumn;
+  }
+
   /**
    * Get query for the prepared statement to count a given range.
    *
@@ -440,6 +459,34 @@ public class PostgreSQLDialectAdapter implements DialectAdapter {
         partitionColumns);
   }
 
+  /**
+   * Get query that returns the bucket bounds of {@code pg_stats.histogram_bounds} for a column. The
+   * statistics are maintained by {@code ANALYZE}, which is also run by autovacuum. Note that the
+   * histogram excludes the most common values of the column, the ranges containing them are refined
+   * by counting.
+   *
+   * @param tableName name of the table, optionally delimited.
+   * @param colName name of the column, optionally delimited.
+   */
+  @Override
+  public String getColumnStatisticsQuery(String tableName, String colName) {
+    return "SELECT unnest(histogram_bounds::text::text[]) FROM pg_catalog.pg_stats"
+        + " WHERE schemaname = current_schema()"
+        + " AND tablename = "
+        + toStringLiteral(tableName)
+        + " AND attname = "
+        + toStringLiteral(colName);
+  }
+
+  /** Convert an identifier, which might be delimited with double quotes, to a string literal. */
+  private static String toStringLiteral(String identifier) {
+    String name = identifier;
+    if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+      name = name.substring(1, name.length() - 1).replace("\"\"", "\"");
+    }
+    return "'" + name.replace("'", "''") + "'";
+  }
+
   /**
    * Check if a given {@link SQLException} is a timeout. The implementation needs to check for
    * dialect specific {@link SQLException#getSQLState() SqlState} to check if the exception
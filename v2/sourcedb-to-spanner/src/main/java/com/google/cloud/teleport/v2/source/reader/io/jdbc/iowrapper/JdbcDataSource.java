@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URLClassLoader;
+import javax.annotation.Nullable;
 import javax.sql.DataSource;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.lang3.StringUtils;
@@ -134,10 +135,36 @@ public final class JdbcDataSource extends BasicDataSource implements Serializabl
     this.validationQuery = jdbcIOWrapperConfig.validationQuery();
     this.removeAbandonedTimeout = jdbcIOWrapperConfig.removeAbandonedTimeout();
     this.minEvictableIdleTimeMillis = jdbcIOWrapperConfig.minEvictableIdleTimeMillis();
-    this.initializeSuper();
+    this.initializeSuper(null);
   }
 
-  private void initializeSuper() {
+  /**
+   * Construct a data source for another database of the same source, like another logical shard,
+   * with the pool settings and the driver of {@code base}. The driver jars loaded by {@code base}
+   * are not loaded again.
+   *
+   * @param base data source to take the settings and the driver from.
+   * @param sourceDbURL url of the database.
+   * @param dbAuth credentials of the database.
+   */
+  JdbcDataSource(JdbcDataSource base, String sourceDbURL, DbAuth dbAuth) {
+    this.sourceDbURL = sourceDbURL;
+    this.dbAuth = dbAuth;
+    this.initSql = base.initSql;
+    this.maxConnections = base.maxConnections;
+    this.jdbcDriverClassName = base.jdbcDriverClassName;
+    this.jdbcDriverJars = base.jdbcDriverJars;
+    this.testOnBorrow = base.testOnBorrow;
+    this.testOnCreate = base.testOnCreate;
+    this.testOnReturn = base.testOnReturn;
+    this.testWhileIdle = base.testWhileIdle;
+    this.validationQuery = base.validationQuery;
+    this.removeAbandonedTimeout = base.removeAbandonedTimeout;
+    this.minEvictableIdleTimeMillis = base.minEvictableIdleTimeMillis;
+    this.initializeSuper(base.getDriverClassLoader());
+  }
+
+  private void initializeSuper(@Nullable ClassLoader driverClassLoader) {
 
     Log.info("Initializing {}", this);
 
@@ -148,9 +175,11 @@ public final class JdbcDataSource extends BasicDataSource implements Serializabl
      * provided in GCS for UT.
      */
     if (!StringUtils.isBlank(jdbcDriverJars)) {
-      URLClassLoader classLoader =
-          URLClassLoader.newInstance(JarFileReader.saveFilesLocally(jdbcDriverJars));
-      super.setDriverClassLoader(classLoader);
+      if (driverClassLoader == null) {
+        driverClassLoader =
+            URLClassLoader.newInstance(JarFileReader.saveFilesLocally(jdbcDriverJars));
+      }
+      super.setDriverClassLoader(driverClassLoader);
     }
     super.setUrl(sourceDbURL);
     super.setUsername(dbAuth.getUserName().get());
@@ -175,7 +204,7 @@ public final class JdbcDataSource extends BasicDataSource implements Serializabl
   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
     in.defaultReadObject();
     // Call initializeSuper after deserialization
-    initializeSuper();
+    initializeSuper(null);
   }
 
   @Override
@@ -39,6 +39,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -65,6 +66,7 @@ public final class JdbcIoWrapper implements IoWrapper {
   private final ImmutableMap<SourceTableReference, PTransform<PBegin, PCollection<SourceRow>>>
       tableReaders;
   private final SourceSchema sourceSchema;
+  private final ImmutableList<TableConfig> tableConfigs;
 
   private static final Logger logger = LoggerFactory.getLogger(JdbcIoWrapper.class);
 
@@ -80,19 +82,66 @@ public final class JdbcIoWrapper implements IoWrapper {
   public static JdbcIoWrapper of(JdbcIOWrapperConfig config) throws SuitableIndexNotFoundException {
     DataSourceConfiguration dataSourceConfiguration = getDataSourceConfiguration(config);
 
-    javax.sql.DataSource dataSource = dataSourceConfiguration.buildDatasource();
-    setDataSourceLoginTimeout((BasicDataSource) dataSource, config);
-
-    SchemaDiscovery schemaDiscovery =
-        new SchemaDiscoveryImpl(config.dialectAdapter(), config.schemaDiscoveryBackOff());
-
-    ImmutableList<TableConfig> tableConfigs =
-        autoInferTableConfigs(config, schemaDiscovery, DataSource.ofJdbc(dataSource));
-    SourceSchema sourceSchema =
-        getSourceSchema(config, schemaDiscovery, DataSource.ofJdbc(dataSource), tableConfigs);
+    ImmutableList<TableConfig> tableConfigs;
+    SourceSchema sourceSchema;
+    // The data source is used only for the discoveries, the readers connect through their own
+    // pools at runtime.
+    BasicDataSource dataSource = (BasicDataSource) dataSourceConfiguration.buildDatasource();
+    try {
+      setDataSourceLoginTimeout(dataSource, config);
+
+      SchemaDiscovery schemaDiscovery =
+          new SchemaDiscoveryImpl(config.dialectAdapter(), config.schemaDiscoveryBackOff());
+
+      tableConfigs = autoInferTableConfigs(config, schemaDiscovery, DataSource.ofJdbc(dataSource));
+      sourceSchema =
+          getSourceSchema(
+              config,
+              schemaDiscovery,
+              DataSource.ofJdbc(dataSource),
+              tableConfigs.stream()
+                  .map(TableConfig::tableName)
+                  .collect(ImmutableList.toImmutableList()));
+    } finally {
+      closeDataSource(dataSource);
+    }
     ImmutableMap<SourceTableReference, PTransform<PBegin, PCollection<SourceRow>>> tableReaders =
         buildTableReaders(config, tableConfigs, dataSourceConfiguration, sourceSchema);
-    return new JdbcIoWrapper(tableReaders, sourceSchema);
+    return new JdbcIoWrapper(tableReaders, sourceSchema, tableConfigs);
+  }
+
+  /**
+   * Discover the schema of the tables of the reader configuration, without inferring the table
+   * configurations or building the readers. This can be used to check that another database, like
+   * another logical shard, has the schema of the database the readers are built for.
+   *
+   * @param config configuration for reading from a JDBC source.
+   * @return SourceSchema of the tables found at the source.
+   */
+  public static SourceSchema discoverSourceSchema(JdbcIOWrapperConfig config) {
+    BasicDataSource dataSource =
+        (BasicDataSource) getDataSourceConfiguration(config).buildDatasource();
+    try {
+      setDataSourceLoginTimeout(dataSource, config);
+      SchemaDiscovery schemaDiscovery =
+          new SchemaDiscoveryImpl(config.dialectAdapter(), config.schemaDiscoveryBackOff());
+      ImmutableList<String> tables =
+          getTablesToMigrate(
+              config.tables(),
+              schemaDiscovery.discoverTables(
+                  DataSource.ofJdbc(dataSource), config.sourceSchemaReference()));
+      return getSourceSchema(config, schemaDiscovery, DataSource.ofJdbc(dataSource), tables);
+    } finally {
+      closeDataSource(dataSource);
+    }
+  }
+
+  private static void closeDataSource(BasicDataSource dataSource) {
+    try {
+      dataSource.close();
+    } catch (SQLException e) {
+      logger.warn("Failed to close the data source {} used for the discoveries", dataSource, e);
+    }
   }
 
   /**
@@ -170,6 +219,15 @@ public final class JdbcIoWrapper implements IoWrapper {
     return this.sourceSchema;
   }
 
+  /**
+   * Configurations of the tables to migrate, as inferred from the source database.
+   *
+   * @return table configurations.
+   */
+  public ImmutableList<TableConfig> getTableConfigs() {
+    return this.tableConfigs;
+  }
+
   static ImmutableMap<SourceTableReference, PTransform<PBegin, PCollection<SourceRow>>>
       buildTableReaders(
           JdbcIOWrapperConfig config,
@@ -216,11 +274,9 @@ public final class JdbcIoWrapper implements IoWrapper {
       JdbcIOWrapperConfig config,
       SchemaDiscovery schemaDiscovery,
       DataSource dataSource,
-      ImmutableList<TableConfig> tableConfigs) {
+      ImmutableList<String> tables) {
     SourceSchema.Builder sourceSchemaBuilder =
         SourceSchema.builder().setSchemaReference(config.sourceSchemaReference());
-    ImmutableList<String> tables =
-        tableConfigs.stream().map(TableConfig::tableName).collect(ImmutableList.toImmutableList());
     ImmutableMap<String, ImmutableMap<String, SourceColumnType>> tableSchemas =
         schemaDiscovery.discoverTableSchema(dataSource, config.sourceSchemaReference(), tables);
     LOG.info("Found table schemas: {}", tableSchemas);
@@ -457,6 +513,8 @@ public final class JdbcIoWrapper implements IoWrapper {
             .setSplitStageCountHint(0L)
             .setDbParallelizationForSplitProcess(config.dbParallelizationForSplitProcess())
             .setDbParallelizationForReads(config.dbParallelizationForReads())
+            .setUseColumnStatisticsForInitialSplit(config.splitWithColumnStatistics())
+            .setSplittableReads(config.splittableReads())
             .setAdditionalOperationsOnRanges(config.additionalOperationsOnRanges());
 
     if (tableConfig.maxPartitions() != null) {
@@ -483,6 +541,7 @@ public final class JdbcIoWrapper implements IoWrapper {
    *
    * @param tableReaders readers constructed from the reader configuration.
    * @param sourceSchema sourceSchema discoverd based on the reader configuration.
+   * @param tableConfigs table configurations inferred based on the reader configuration.
    *     <p>Note (implementation detail):
    *     <p>The external code should use the {@link JdbcIoWrapper#of} static method to construct the
    *     {@link JdbcIoWrapper} from the configuration. A private constructor and a public `of`
@@ -491,8 +550,10 @@ public final class JdbcIoWrapper implements IoWrapper {
    */
   private JdbcIoWrapper(
       ImmutableMap<SourceTableReference, PTransform<PBegin, PCollection<SourceRow>>> tableReaders,
-      SourceSchema sourceSchema) {
+      SourceSchema sourceSchema,
+      ImmutableList<TableConfig> tableConfigs) {
     this.tableReaders = tableReaders;
     this.sourceSchema = sourceSchema;
+    this.tableConfigs = tableConfigs;
   }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import com.google.auto.value.AutoValue;
+import com.google.cloud.teleport.v2.source.reader.auth.dbauth.DbAuth;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.JdbcIOWrapperConfig;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+
+/**
+ * Data sources of the logical shards read by a {@link ShardedJdbcReader}.
+ *
+ * <p>Only the connection details of the shards, that is the url and the credentials, are serialized
+ * with the reader, along with a single {@link JdbcDataSource} holding the pool settings and the
+ * driver common to all the shards. The pooled {@link DataSource} of a shard is built on the worker
+ * the first time the shard is read, and is shared by all the DoFns of the worker that read the
+ * shard, similar to {@link org.apache.beam.sdk.io.jdbc.JdbcIO.PoolableDataSourceProvider}.
+ */
+public final class ShardDataSources implements Serializable {
+
+  private static final Map<ImmutableList<String>, DataSource> DATA_SOURCES =
+      new ConcurrentHashMap<>();
+
+  /** Data source whose pool settings and driver are used for all the shards. */
+  private final JdbcDataSource baseDataSource;
+
+  private final ImmutableMap<String, ShardConnection> shardConnections;
+
+  private ShardDataSources(
+      JdbcDataSource baseDataSource, ImmutableMap<String, ShardConnection> shardConnections) {
+    this.baseDataSource = baseDataSource;
+    this.shardConnections = shardConnections;
+  }
+
+  /**
+   * Create the data sources of the logical shards.
+   *
+   * @param shardConfigs reader configuration of every logical shard, keyed by the shard id. The
+   *     pool settings and the driver of the first shard are used for all the shards.
+   * @return data sources of the logical shards.
+   */
+  public static ShardDataSources create(ImmutableMap<String, JdbcIOWrapperConfig> shardConfigs) {
+    Preconditions.checkArgument(!shardConfigs.isEmpty(), "No logical shards to read.");
+    ImmutableMap.Builder<String, ShardConnection> shardConnections = ImmutableMap.builder();
+    shardConfigs.forEach(
+        (shardId, config) ->
+            shardConnections.put(
+                shardId, ShardConnection.create(config.sourceDbURL(), config.dbAuth())));
+    return new ShardDataSources(
+        new JdbcDataSource(shardConfigs.values().iterator().next()),
+        shardConnections.buildOrThrow());
+  }
+
+  /** Ids of the logical shards. */
+  public ImmutableList<String> shardIds() {
+    return shardConnections.keySet().asList();
+  }
+
+  /**
+   * Get the pooled data source of a logical shard, building it if it does not exist on the worker.
+   *
+   * @param shardId logical shard id.
+   * @return data source of the shard.
+   * @throws IllegalArgumentException if the shard is not known.
+   */
+  public DataSource get(String shardId) {
+    ShardConnection connection = shardConnections.get(shardId);
+    if (connection == null) {
+      throw new IllegalArgumentException("No data source registered for shard " + shardId);
+    }
+    return DATA_SOURCES.computeIfAbsent(
+        ImmutableList.of(shardId, connection.sourceDbURL()),
+        key -> new JdbcDataSource(baseDataSource, connection.sourceDbURL(), connection.dbAuth()));
+  }
+
+  /**
+   * Provider of the data source of a logical shard, for transforms that read a single database.
+   *
+   * @param shardId logical shard id.
+   * @return provider of the data source.
+   */
+  public SerializableFunction<Void, DataSource> providerFn(String shardId) {
+    return unused -> get(shardId);
+  }
+
+  /** Url and credentials of a logical shard. */
+  @AutoValue
+  abstract static class ShardConnection implements Serializable {
+
+    abstract String sourceDbURL();
+
+    abstract DbAuth dbAuth();
+
+    static ShardConnection create(String sourceDbURL, DbAuth dbAuth) {
+      return new AutoValue_ShardDataSources_ShardConnection(sourceDbURL, dbAuth);
+    }
+  }
+}
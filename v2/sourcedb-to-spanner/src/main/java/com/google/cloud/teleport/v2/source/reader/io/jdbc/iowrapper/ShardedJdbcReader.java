@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import com.google.auto.value.AutoValue;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.TableConfig;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.JdbcValueMappingsProvider;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.UniformSplitterDBAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundaryTypeMapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.PartitionColumn;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangeRestrictionTracker;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.BoundaryTypeMapperImpl;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationMapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationReference;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms.CollationMapperTransform;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms.ReadWithUniformPartitions;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRowCoder;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.Reshuffle;
+import org.apache.beam.sdk.transforms.Wait.OnSignal;
+import org.apache.beam.sdk.values.PBegin;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+
+/**
+ * Reader for sharded migrations, where the same set of tables is read from a large number of
+ * logical shards.
+ *
+ * <p>Unlike the per table readers of {@link JdbcIoWrapper}, which add a read transform for every
+ * table of every shard, the shards and tables to read are passed as data, that is, as a {@link
+ * PCollection} of {@link ShardedTableRead}. The work items are redistributed and split at runtime
+ * into {@link ShardedRange ranges} by a single {@link ShardedRangeSplitDoFn}, and the ranges are
+ * redistributed and read by a single read DoFn, so the size of the pipeline graph does not depend
+ * on the number of shards.
+ *
+ * <p>The split follows the initial split of {@link ReadWithUniformPartitions}, including the {@link
+ * #useColumnStatisticsForInitialSplit() column statistics based split}, and the ranges are read by
+ * a splittable DoFn if {@link #splittableReads()} is set.
+ *
+ * <p><b>Note:</b>
+ *
+ * <ol>
+ *   <li>All the shards are expected to share the {@link #sourceSchema()} and the {@link
+ *       #tableConfigs()}, as is the case for the sharded migrations. The schema is typically
+ *       discovered from one of the shards. The rows of all the shards carry the {@link
+ *       SourceSchema#schemaReference()} of this schema, and are told apart by their {@link
+ *       SourceRow#shardId()}.
+ *   <li>Like {@link JdbcIoWrapper}, which sets no split stages for {@link
+ *       ReadWithUniformPartitions}, the ranges are not refined by counting them.
+ *   <li>The collations of the string partition columns are mapped on the first shard.
+ * </ol>
+ */
+@AutoValue
+public abstract class ShardedJdbcReader extends PTransform<PBegin, PCollection<SourceRow>> {
+
+  /** Data sources of the logical shards. */
+  abstract ShardDataSources shardDataSources();
+
+  /** Schema of the tables, common to all the shards. */
+  abstract SourceSchema sourceSchema();
+
+  /**
+   * Configuration of the tables, like the partition columns, common to all the shards. Must contain
+   * every table of the {@link #tableReads()}.
+   */
+  abstract ImmutableList<TableConfig> tableConfigs();
+
+  /** Work items, that is, the tables to read from each of the shards. */
+  abstract ImmutableList<ShardedTableRead> tableReads();
+
+  abstract JdbcValueMappingsProvider valueMappingsProvider();
+
+  abstract UniformSplitterDBAdapter dbAdapter();
+
+  /**
+   * Fetch size of the reads. Defaults to the {@link
+   * UniformSplitterDBAdapter#getStreamingFetchSize() streaming fetch size} of the dialect.
+   */
+  @Nullable
+  abstract Integer fetchSize();
+
+  /** See {@link ReadWithUniformPartitions#useColumnStatisticsForInitialSplit()}. */
+  abstract Boolean useColumnStatisticsForInitialSplit();
+
+  /**
+   * If set to true, the ranges are read by a splittable DoFn, if the dialect supports ordered reads
+   * and the restriction tracker supports the partition columns of all the tables. See {@link
+   * ReadWithUniformPartitions#splittableReads()}. Defaults to false.
+   */
+  abstract Boolean splittableReads();
+
+  /** Optional signal to wait on before beginning the reads. */
+  @Nullable
+  abstract OnSignal<?> waitOn();
+
+  public static Builder builder() {
+    return new AutoValue_ShardedJdbcReader.Builder()
+        .setFetchSize(null)
+        .setUseColumnStatisticsForInitialSplit(false)
+        .setSplittableReads(false)
+        .setWaitOn(null);
+  }
+
+  @Override
+  public PCollection<SourceRow> expand(PBegin input) {
+    ImmutableMap<String, ImmutableList<PartitionColumn>> partitionColumns =
+        tableConfigs().stream()
+            .collect(
+                ImmutableMap.toImmutableMap(TableConfig::tableName, TableConfig::partitionColumns));
+    PCollectionView<Map<CollationReference, CollationMapper>> collationMapperView =
+        input.apply(
+            "ShardedCollationMappers",
+            CollationMapperTransform.builder()
+                .setCollationReferences(
+                    partitionColumns.values().stream()
+                        .flatMap(ImmutableList::stream)
+                        .filter(c -> c.stringCollation() != null)
+                        .map(PartitionColumn::stringCollation)
+                        .collect(ImmutableList.toImmutableList()))
+                .setDbAdapter(dbAdapter())
+                .setDataSourceProviderFn(
+                    shardDataSources().providerFn(shardDataSources().shardIds().get(0)))
+                .build());
+    BoundaryTypeMapper typeMapper =
+        BoundaryTypeMapperImpl.builder().setCollationMapperView(collationMapperView).build();
+
+    PCollection<ShardedTableRead> tableReads =
+        input.apply(
+            "CreateShardedTableReads",
+            Create.of(tableReads()).withCoder(SerializableCoder.of(ShardedTableRead.class)));
+    PCollection<ShardedRange> ranges =
+        wait(tableReads)
+            .apply("ReshuffleShardedTableReads", Reshuffle.viaRandomKey())
+            .apply(
+                "SplitShardedTables",
+                ParDo.of(
+                        new ShardedRangeSplitDoFn(
+                            shardDataSources(),
+                            dbAdapter(),
+                            partitionColumns,
+                            getSplitHeights(),
+                            useColumnStatisticsForInitialSplit(),
+                            typeMapper))
+                    .withSideInputs(collationMapperView))
+            .setCoder(SerializableCoder.of(ShardedRange.class))
+            .apply("ReshuffleShardedRanges", Reshuffle.viaRandomKey());
+
+    ShardedRangeReader reader =
+        new ShardedRangeReader(
+            shardDataSources(),
+            sourceSchema(),
+            valueMappingsProvider(),
+            dbAdapter(),
+            partitionColumns.entrySet().stream()
+                .collect(
+                    ImmutableMap.toImmutableMap(
+                        Map.Entry::getKey,
+                        e ->
+                            e.getValue().stream()
+                                .map(PartitionColumn::columnName)
+                                .collect(ImmutableList.toImmutableList()))),
+            fetchSize());
+    PCollection<SourceRow> rows;
+    if (splittableReads() && supportsSplittableReads(partitionColumns)) {
+      rows =
+          ranges.apply(
+              "ReadShardedRanges",
+              ParDo.of(new SplittableShardedRangeReadDoFn(reader))
+                  .withSideInput(
+                      SplittableShardedRangeReadDoFn.COLLATION_MAPPER_SIDE_INPUT,
+                      collationMapperView));
+    } else {
+      rows = ranges.apply("ReadShardedRanges", ParDo.of(new ShardedRangeReadDoFn(reader)));
+    }
+    return rows.setCoder(SourceRowCoder.of(sourceSchema()));
+  }
+
+  /**
+   * Split height of the initial split of every table, as inferred by {@link
+   * ReadWithUniformPartitions} from the max partitions or the approximate row count of the table.
+   */
+  private ImmutableMap<String, Long> getSplitHeights() {
+    return tableConfigs().stream()
+        .collect(
+            ImmutableMap.toImmutableMap(
+                TableConfig::tableName,
+                tableConfig ->
+                    ReadWithUniformPartitions.initialSplitHeight(
+                        (tableConfig.maxPartitions() != null)
+                            ? tableConfig.maxPartitions()
+                            : ReadWithUniformPartitions.inferMaxPartitions(
+                                tableConfig.approxRowCount()))));
+  }
+
+  /**
+   * Splittable reads need the dialect to support ordered reads and the restriction tracker to
+   * support the classes of all the partition columns.
+   */
+  private boolean supportsSplittableReads(
+      ImmutableMap<String, ImmutableList<PartitionColumn>> partitionColumns) {
+    return partitionColumns.entrySet().stream()
+        .allMatch(
+            e ->
+                dbAdapter()
+                            .getOrderedReadQuery(
+                                e.getKey(), ImmutableList.of(), e.getValue().get(0).columnName())
+                        != null
+                    && e.getValue().stream()
+                        .allMatch(c -> RangeRestrictionTracker.isSupported(c.columnClass())));
+  }
+
+  private <V extends PCollection> V wait(V input) {
+    if (waitOn() == null) {
+      return input;
+    } else {
+      return (V) input.apply("WaitOnSignal", waitOn());
+    }
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+
+    public abstract Builder setShardDataSources(ShardDataSources value);
+
+    public abstract Builder setSourceSchema(SourceSchema value);
+
+    public abstract Builder setTableConfigs(ImmutableList<TableConfig> value);
+
+    public abstract Builder setTableReads(ImmutableList<ShardedTableRead> value);
+
+    public abstract Builder setValueMappingsProvider(JdbcValueMappingsProvider value);
+
+    public abstract Builder setDbAdapter(UniformSplitterDBAdapter value);
+
+    public abstract Builder setFetchSize(@Nullable Integer value);
+
+    public abstract Builder setUseColumnStatisticsForInitialSplit(Boolean value);
+
+    public abstract Builder setSplittableReads(Boolean value);
+
+    public abstract Builder setWaitOn(@Nullable OnSignal<?> value);
+
+    public abstract ShardedJdbcReader build();
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import com.google.auto.value.AutoValue;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import java.io.Serializable;
+
+/**
+ * A unit of read for {@link ShardedJdbcReader}, identifying a {@link Range} of a table to be read
+ * from a given logical shard. The ranges are generated by splitting the {@link ShardedTableRead
+ * ShardedTableReads}.
+ */
+@AutoValue
+public abstract class ShardedRange implements Serializable {
+
+  /**
+   * Logical shard id of the source database.
+   *
+   * @return shardId.
+   */
+  public abstract String shardId();
+
+  /**
+   * Name of the source table.
+   *
+   * @return tableName.
+   */
+  public abstract String tableName();
+
+  /**
+   * Range of the partition columns of the table to read.
+   *
+   * @return range.
+   */
+  public abstract Range range();
+
+  public static ShardedRange create(String shardId, String tableName, Range range) {
+    return new AutoValue_ShardedRange(shardId, tableName, range);
+  }
+}
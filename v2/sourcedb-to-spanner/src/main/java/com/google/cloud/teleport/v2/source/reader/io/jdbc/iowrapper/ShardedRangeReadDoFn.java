@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import java.io.Serializable;
+import org.apache.beam.sdk.transforms.DoFn;
+
+/** DoFn to read a {@link ShardedRange} of a table of a logical shard with a single query. */
+final class ShardedRangeReadDoFn extends DoFn<ShardedRange, SourceRow> implements Serializable {
+
+  private final ShardedRangeReader reader;
+
+  ShardedRangeReadDoFn(ShardedRangeReader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Read all the rows of a range.
+   *
+   * @param input the shard, the table and the range to read.
+   * @param out output receiver for the rows read.
+   * @throws Exception - Exception while reading from the shard. The bundle is retried by the
+   *     runner.
+   */
+  @ProcessElement
+  public void processElement(@Element ShardedRange input, OutputReceiver<SourceRow> out)
+      throws Exception {
+    reader.read(input, null, out);
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.cloud.teleport.v2.constants.MetricCounters;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.JdbcSourceRowMapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.JdbcValueMappingsProvider;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.UniformSplitterDBAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangePreparedStatementSetter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangeRestrictionTracker;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn.OutputReceiver;
+import org.apache.beam.sdk.transforms.splittabledofn.RestrictionTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a {@link ShardedRange} for the read DoFns of {@link ShardedJdbcReader}. The row mappers and
+ * the counters of the shards are created lazily on the worker.
+ */
+final class ShardedRangeReader implements Serializable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ShardedRangeReader.class);
+
+  private final ShardDataSources dataSources;
+
+  private final SourceSchema sourceSchema;
+
+  private final JdbcValueMappingsProvider valueMappingsProvider;
+
+  private final UniformSplitterDBAdapter dbAdapter;
+
+  /** Names of the partition columns of every table. */
+  private final ImmutableMap<String, ImmutableList<String>> partitionColumns;
+
+  @Nullable private final Integer fetchSize;
+
+  @JsonIgnore private transient @Nullable Map<ShardedTableRead, JdbcSourceRowMapper> rowMappers;
+
+  @JsonIgnore private transient @Nullable Map<String, Counter> rowsReadCounters;
+
+  ShardedRangeReader(
+      ShardDataSources dataSources,
+      SourceSchema sourceSchema,
+      JdbcValueMappingsProvider valueMappingsProvider,
+      UniformSplitterDBAdapter dbAdapter,
+      ImmutableMap<String, ImmutableList<String>> partitionColumns,
+      @Nullable Integer fetchSize) {
+    this.dataSources = dataSources;
+    this.sourceSchema = sourceSchema;
+    this.valueMappingsProvider = valueMappingsProvider;
+    this.dbAdapter = dbAdapter;
+    this.partitionColumns = partitionColumns;
+    this.fetchSize = fetchSize;
+    this.rowMappers = null;
+    this.rowsReadCounters = null;
+  }
+
+  /**
+   * Read the rows of a range of a table from a shard.
+   *
+   * @param input the shard, the table and the range to read.
+   * @param tracker restriction tracker of the range for splittable reads. If not null, the rows are
+   *     read in the order of the {@link Range#leafRange() leaf column}, and the leaf column value
+   *     of every row is claimed before the row is output. If null, the whole range is read.
+   * @param out output receiver for the rows read.
+   * @throws Exception - Exception while reading from the shard. The bundle is retried by the
+   *     runner.
+   */
+  void read(
+      ShardedRange input,
+      @Nullable RestrictionTracker<Range, Serializable> tracker,
+      OutputReceiver<SourceRow> out)
+      throws Exception {
+    Range range = (tracker == null) ? input.range() : tracker.currentRestriction();
+    Range leaf = range.leafRange();
+    ImmutableList<String> colNames = partitionColumns.get(input.tableName());
+    String readQuery =
+        (tracker == null)
+            ? dbAdapter.getReadQuery(input.tableName(), colNames)
+            : dbAdapter.getOrderedReadQuery(input.tableName(), colNames, leaf.colName());
+    JdbcSourceRowMapper rowMapper = getRowMapper(input);
+    long rowCount = 0;
+    boolean cancelled = false;
+    try (Connection conn = dataSources.get(input.shardId()).getConnection()) {
+      // Some drivers (like PostgreSQL) stream the resultSet only outside an auto-commit
+      // transaction.
+      conn.setAutoCommit(false);
+      try (PreparedStatement stmt =
+          conn.prepareStatement(
+              readQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        stmt.setFetchSize((fetchSize == null) ? dbAdapter.getStreamingFetchSize() : fetchSize);
+        new RangePreparedStatementSetter(colNames.size()).setParameters(range, stmt);
+        try (ResultSet rs = stmt.executeQuery()) {
+          int keyIndex = rs.getMetaData().getColumnCount();
+          while (rs.next()) {
+            if (tracker != null
+                && !tracker.tryClaim(
+                    RangeRestrictionTracker.readKey(rs, keyIndex, leaf.colClass()))) {
+              cancelled = true;
+              RangeRestrictionTracker.cancelRead(stmt);
+              return;
+            }
+            out.output(rowMapper.mapRow(rs));
+            rowCount++;
+          }
+          if (tracker != null) {
+            tracker.tryClaim(null);
+          }
+        }
+      }
+    } catch (SQLException e) {
+      if (cancelled) {
+        // All the claimed rows are output, the error is from closing the cancelled read.
+        logger.debug(
+            "Ignoring SQL Exception = {} while closing the read of table {} from shard {}, range = {} at the split point.",
+            e,
+            input.tableName(),
+            input.shardId(),
+            range);
+        return;
+      }
+      logger.error(
+          "SQL Exception while reading table {} from shard {}, range = {}, Query = {}, exception {}, sqlState {}, errorCode {}",
+          input.tableName(),
+          input.shardId(),
+          range,
+          readQuery,
+          e,
+          e.getSQLState(),
+          e.getErrorCode());
+      throw e;
+    } finally {
+      getRowsReadCounter(input.shardId()).inc(rowCount);
+    }
+  }
+
+  private JdbcSourceRowMapper getRowMapper(ShardedRange input) {
+    if (rowMappers == null) {
+      rowMappers = new HashMap<>();
+    }
+    return rowMappers.computeIfAbsent(
+        ShardedTableRead.create(input.shardId(), input.tableName()),
+        key ->
+            new JdbcSourceRowMapper(
+                valueMappingsProvider,
+                sourceSchema.schemaReference(),
+                getTableSchema(key.tableName()),
+                key.shardId()));
+  }
+
+  private SourceTableSchema getTableSchema(String tableName) {
+    return sourceSchema.tableSchemas().stream()
+        .filter(schema -> schema.tableName().equals(tableName))
+        .findFirst()
+        .orElseThrow(
+            () ->
+                new IllegalArgumentException(
+                    "Schema not discovered for table " + tableName + " in " + sourceSchema));
+  }
+
+  private Counter getRowsReadCounter(String shardId) {
+    if (rowsReadCounters == null) {
+      rowsReadCounters = new HashMap<>();
+    }
+    return rowsReadCounters.computeIfAbsent(
+        shardId,
+        id -> Metrics.counter(ShardedJdbcReader.class, MetricCounters.READER_ROWS_READ + id));
+  }
+}
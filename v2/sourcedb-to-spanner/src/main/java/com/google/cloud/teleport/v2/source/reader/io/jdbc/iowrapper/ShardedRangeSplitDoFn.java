@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.UniformSplitterDBAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.columnboundary.ColumnForBoundaryQuery;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.columnboundary.ColumnForBoundaryQueryPreparedStatementSetter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundaryExtractorFactory;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundaryTypeMapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.PartitionColumn;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms.InitialSplitRangeDoFn;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms.StatisticsSplitRangeDoFn;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DoFn to split a table of a logical shard, as described by a {@link ShardedTableRead}, into the
+ * {@link ShardedRange ranges} to read.
+ *
+ * <p>This is the initial split of {@link
+ * com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms.ReadWithUniformPartitions}
+ * done at runtime for every shard: the boundary of the first partition column is queried from the
+ * shard, and the boundary is split assuming uniform density, or at the bounds of the column
+ * statistics of the shard if enabled.
+ */
+final class ShardedRangeSplitDoFn extends DoFn<ShardedTableRead, ShardedRange>
+    implements Serializable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ShardedRangeSplitDoFn.class);
+
+  private final ShardDataSources dataSources;
+
+  private final UniformSplitterDBAdapter dbAdapter;
+
+  /** Partition columns of every table. */
+  private final ImmutableMap<String, ImmutableList<PartitionColumn>> partitionColumns;
+
+  /** Split height of the initial split of every table. */
+  private final ImmutableMap<String, Long> splitHeights;
+
+  private final boolean useColumnStatistics;
+
+  private final BoundaryTypeMapper boundaryTypeMapper;
+
+  ShardedRangeSplitDoFn(
+      ShardDataSources dataSources,
+      UniformSplitterDBAdapter dbAdapter,
+      ImmutableMap<String, ImmutableList<PartitionColumn>> partitionColumns,
+      ImmutableMap<String, Long> splitHeights,
+      boolean useColumnStatistics,
+      BoundaryTypeMapper boundaryTypeMapper) {
+    this.dataSources = dataSources;
+    this.dbAdapter = dbAdapter;
+    this.partitionColumns = partitionColumns;
+    this.splitHeights = splitHeights;
+    this.useColumnStatistics = useColumnStatistics;
+    this.boundaryTypeMapper = boundaryTypeMapper;
+  }
+
+  /**
+   * Split a table of a shard.
+   *
+   * @param input the shard and the table to split.
+   * @param out output receiver for the ranges of the table.
+   * @param c process context.
+   * @throws Exception - since this is in the run time, beam will auto retry the exception.
+   */
+  @ProcessElement
+  public void processElement(
+      @Element ShardedTableRead input, OutputReceiver<ShardedRange> out, ProcessContext c)
+      throws Exception {
+    String tableName = input.tableName();
+    ImmutableList<PartitionColumn> tablePartitionColumns = partitionColumns.get(tableName);
+    if (tablePartitionColumns == null) {
+      throw new IllegalArgumentException("No partition columns for table " + tableName);
+    }
+    long splitHeight = splitHeights.get(tableName);
+    DataSource dataSource = dataSources.get(input.shardId());
+
+    Range initialRange = getBoundary(dataSource, input, tablePartitionColumns, c);
+    ImmutableList<Range> ranges =
+        useColumnStatistics
+            ? StatisticsSplitRangeDoFn.split(
+                dataSource, dbAdapter, tableName, splitHeight, initialRange, c)
+            : InitialSplitRangeDoFn.splitUniformly(initialRange, splitHeight, tableName, c);
+    logger.info(
+        "RWUPT - Completed initial split for table {} of shard {} with initial range as {}, and {} split ranges",
+        tableName,
+        input.shardId(),
+        initialRange,
+        ranges.size());
+    for (Range range : ranges) {
+      out.output(ShardedRange.create(input.shardId(), tableName, range));
+    }
+  }
+
+  /** Get the boundary (min, max) of the first partition column of the table in the shard. */
+  private Range getBoundary(
+      DataSource dataSource,
+      ShardedTableRead input,
+      ImmutableList<PartitionColumn> tablePartitionColumns,
+      ProcessContext c)
+      throws Exception {
+    ImmutableList<String> colNames =
+        tablePartitionColumns.stream()
+            .map(PartitionColumn::columnName)
+            .collect(ImmutableList.toImmutableList());
+    ColumnForBoundaryQuery column =
+        ColumnForBoundaryQuery.builder()
+            .setPartitionColumn(tablePartitionColumns.get(0))
+            .setParentRange(null)
+            .build();
+    String boundaryQuery =
+        dbAdapter.getBoundaryQuery(input.tableName(), colNames, column.columnName());
+    try (Connection conn = dataSource.getConnection();
+        PreparedStatement stmt =
+            conn.prepareStatement(
+                boundaryQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+      new ColumnForBoundaryQueryPreparedStatementSetter(colNames).setParameters(column, stmt);
+      try (ResultSet rs = stmt.executeQuery()) {
+        return BoundaryExtractorFactory.create(column.columnClass())
+            .getBoundary(column.partitionColumn(), rs, boundaryTypeMapper)
+            .toRange(null, c);
+      }
+    } catch (SQLException e) {
+      logger.warn(
+          "SQL Exception = {} while getting boundary of table = {} of shard = {}, Query = {}. This will be retried by Beam Runner.",
+          e,
+          input.tableName(),
+          input.shardId(),
+          boundaryQuery);
+      throw e;
+    }
+  }
+}
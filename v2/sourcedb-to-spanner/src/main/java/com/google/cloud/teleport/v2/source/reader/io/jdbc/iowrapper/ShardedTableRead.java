@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import com.google.auto.value.AutoValue;
+import java.io.Serializable;
+
+/**
+ * A unit of work for {@link ShardedJdbcReader}, identifying a table to be read from a given logical
+ * shard.
+ *
+ * <p>The work item only carries the identifiers. The connection details of the shard and the schema
+ * of the table are held by the reader, so that the credentials do not flow through the shuffle.
+ */
+@AutoValue
+public abstract class ShardedTableRead implements Serializable {
+
+  /**
+   * Logical shard id of the source database.
+   *
+   * @return shardId.
+   */
+  public abstract String shardId();
+
+  /**
+   * Name of the source table.
+   *
+   * @return tableName.
+   */
+  public abstract String tableName();
+
+  public static ShardedTableRead create(String shardId, String tableName) {
+    return new AutoValue_ShardedTableRead(shardId, tableName);
+  }
+}
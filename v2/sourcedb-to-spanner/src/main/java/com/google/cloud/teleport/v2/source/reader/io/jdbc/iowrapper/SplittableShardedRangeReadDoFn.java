@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangeRestrictionTracker;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationMapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationReference;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import java.io.Serializable;
+import java.util.Map;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.DoFn.BoundedPerElement;
+import org.apache.beam.sdk.transforms.splittabledofn.RestrictionTracker;
+
+/**
+ * Splittable DoFn to read a {@link ShardedRange} of a table of a logical shard, in the order of the
+ * {@link Range#leafRange() leaf column} of the range. Like the splittable range reads of {@link
+ * com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms.ReadWithUniformPartitions},
+ * this lets the runner split the unread remainder of a range that turns out to be hot.
+ */
+@BoundedPerElement
+final class SplittableShardedRangeReadDoFn extends DoFn<ShardedRange, SourceRow>
+    implements Serializable {
+
+  /** Tag of the side input for {@link CollationMapper CollationMappers}. */
+  static final String COLLATION_MAPPER_SIDE_INPUT = "collationMappers";
+
+  private final ShardedRangeReader reader;
+
+  SplittableShardedRangeReadDoFn(ShardedRangeReader reader) {
+    this.reader = reader;
+  }
+
+  @GetInitialRestriction
+  public Range getInitialRestriction(@Element ShardedRange element) {
+    return element.range();
+  }
+
+  @NewTracker
+  public RangeRestrictionTracker newTracker(
+      @Restriction Range restriction,
+      @SideInput(COLLATION_MAPPER_SIDE_INPUT)
+          Map<CollationReference, CollationMapper> collationMappers) {
+    CollationReference collationReference =
+        restriction.leafRange().partitionColumn().stringCollation();
+    return new RangeRestrictionTracker(
+        restriction,
+        (collationReference == null) ? null : collationMappers.get(collationReference));
+  }
+
+  @GetRestrictionCoder
+  public Coder<Range> getRestrictionCoder() {
+    return SerializableCoder.of(Range.class);
+  }
+
+  /**
+   * Read the rows of the current restriction in the order of the leaf column.
+   *
+   * @param input the shard, the table and the range to read.
+   * @param tracker restriction tracker.
+   * @param out output receiver for the rows read.
+   * @throws Exception - Exception while reading from the shard. The bundle is retried by the
+   *     runner.
+   */
+  @ProcessElement
+  public void processElement(
+      @Element ShardedRange input,
+      RestrictionTracker<Range, Serializable> tracker,
+      OutputReceiver<SourceRow> out)
+      throws Exception {
+    reader.read(input, tracker, out);
+  }
+}
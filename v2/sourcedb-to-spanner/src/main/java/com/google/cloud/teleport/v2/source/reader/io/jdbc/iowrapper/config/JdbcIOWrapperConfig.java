@@ -151,8 +151,10 @@ public abstract class JdbcIOWrapperConfig {
   private static final int DEFAULT_PARALLELIZATION_FOR_SLIT_PROCESS = 100;
 
   /**
-   * If not null, maximum number of parallel queries issued to the DB for reads. Ignored if {@link
-   * JdbcIOWrapperConfig#readWithUniformPartitionsFeatureEnabled()} is false. Defaults to null.
+   * If not null, maximum number of parallel queries issued to the DB for reads. Setting this
+   * disables splitting the ranges while they are read, as the split remainders are read in
+   * parallel. Ignored if {@link JdbcIOWrapperConfig#readWithUniformPartitionsFeatureEnabled()} is
+   * false. Defaults to null.
    */
   @Nullable
   public abstract Integer dbParallelizationForReads();
@@ -165,6 +167,22 @@ public abstract class JdbcIOWrapperConfig {
   @Nullable
   public abstract PTransform<PCollection<ImmutableList<Range>>, ?> additionalOperationsOnRanges();
 
+  /**
+   * If true, the initial split of ranges uses the histograms maintained by the source database in
+   * its column statistics, falling back to assuming uniform density if they are not available.
+   * Ignored if {@link JdbcIOWrapperConfig#readWithUniformPartitionsFeatureEnabled()} is false.
+   * Defaults to false.
+   */
+  public abstract Boolean splitWithColumnStatistics();
+
+  /**
+   * If true, the ranges are read by a splittable DoFn, which lets the runner split off the
+   * remainder of a range while it is being read, for dialects that support ordered reads. Ignored
+   * if {@link JdbcIOWrapperConfig#readWithUniformPartitionsFeatureEnabled()} is false. Defaults to
+   * false.
+   */
+  public abstract Boolean splittableReads();
+
   /**
    * Sets the {@code testOnBorrow} property. This property determines whether or not the pool will
    * validate objects before they are borrowed from the pool. Defaults to True.
@@ -260,6 +278,8 @@ public abstract class JdbcIOWrapperConfig {
         .setDbParallelizationForReads(null)
         .setDbParallelizationForSplitProcess(DEFAULT_PARALLELIZATION_FOR_SLIT_PROCESS)
         .setReadWithUniformPartitionsFeatureEnabled(true)
+        .setSplitWithColumnStatistics(false)
+        .setSplittableReads(false)
         .setTestOnBorrow(DEFAULT_TEST_ON_BORROW)
         .setTestOnCreate(DEFAULT_TEST_ON_CREATE)
         .setTestOnReturn(DEFAULT_TEST_ON_RETURN)
@@ -290,6 +310,8 @@ public abstract class JdbcIOWrapperConfig {
         .setDbParallelizationForReads(null)
         .setDbParallelizationForSplitProcess(DEFAULT_PARALLELIZATION_FOR_SLIT_PROCESS)
         .setReadWithUniformPartitionsFeatureEnabled(true)
+        .setSplitWithColumnStatistics(false)
+        .setSplittableReads(false)
         .setTestOnBorrow(DEFAULT_TEST_ON_BORROW)
         .setTestOnCreate(DEFAULT_TEST_ON_CREATE)
         .setTestOnReturn(DEFAULT_TEST_ON_RETURN)
@@ -351,6 +373,10 @@ public abstract class JdbcIOWrapperConfig {
     public abstract Builder setAdditionalOperationsOnRanges(
         @Nullable PTransform<PCollection<ImmutableList<Range>>, ?> value);
 
+    public abstract Builder setSplitWithColumnStatistics(Boolean value);
+
+    public abstract Builder setSplittableReads(Boolean value);
+
     public abstract Builder setTestOnBorrow(Boolean value);
 
     public abstract Builder setTestOnCreate(Boolean value);
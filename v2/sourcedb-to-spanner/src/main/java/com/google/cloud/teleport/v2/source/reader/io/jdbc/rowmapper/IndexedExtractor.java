@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper;
+
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A {@link ResultSetValueExtractor} that can also extract the value by the column index.
+ *
+ * <p><b>Example</b>
+ *
+ * <pre>{@code
+ * ResultSetValueExtractor<Long> longExtractor =
+ *     IndexedExtractor.of(ResultSet::getLong, ResultSet::getLong);
+ * }</pre>
+ *
+ * @param <T> type of the value extracted.
+ */
+public final class IndexedExtractor<T extends Object>
+    implements ResultSetValueExtractor<T>, IndexedResultSetValueExtractor<T> {
+
+  /* Extractors for the common ResultSet getters. */
+  public static final IndexedExtractor<Long> LONG =
+      IndexedExtractor.of(ResultSet::getLong, ResultSet::getLong);
+  public static final IndexedExtractor<Integer> INT =
+      IndexedExtractor.of(ResultSet::getInt, ResultSet::getInt);
+  public static final IndexedExtractor<Float> FLOAT =
+      IndexedExtractor.of(ResultSet::getFloat, ResultSet::getFloat);
+  public static final IndexedExtractor<Double> DOUBLE =
+      IndexedExtractor.of(ResultSet::getDouble, ResultSet::getDouble);
+  public static final IndexedExtractor<Boolean> BOOLEAN =
+      IndexedExtractor.of(ResultSet::getBoolean, ResultSet::getBoolean);
+  public static final IndexedExtractor<String> STRING =
+      IndexedExtractor.of(ResultSet::getString, ResultSet::getString);
+  public static final IndexedExtractor<BigDecimal> BIG_DECIMAL =
+      IndexedExtractor.of(ResultSet::getBigDecimal, ResultSet::getBigDecimal);
+  public static final IndexedExtractor<byte[]> BYTES =
+      IndexedExtractor.of(ResultSet::getBytes, ResultSet::getBytes);
+  public static final IndexedExtractor<Blob> BLOB =
+      IndexedExtractor.of(ResultSet::getBlob, ResultSet::getBlob);
+  public static final IndexedExtractor<Object> OBJECT =
+      IndexedExtractor.of(ResultSet::getObject, ResultSet::getObject);
+
+  private final ResultSetValueExtractor<T> byName;
+  private final IndexedResultSetValueExtractor<T> byIndex;
+
+  private IndexedExtractor(
+      ResultSetValueExtractor<T> byName, IndexedResultSetValueExtractor<T> byIndex) {
+    this.byName = byName;
+    this.byIndex = byIndex;
+  }
+
+  /**
+   * Construct the {@link IndexedExtractor}. Both the extractors must read the same value.
+   *
+   * @param byName extractor by column name.
+   * @param byIndex extractor by column index.
+   * @return extractor.
+   */
+  public static <T> IndexedExtractor<T> of(
+      ResultSetValueExtractor<T> byName, IndexedResultSetValueExtractor<T> byIndex) {
+    return new IndexedExtractor<>(byName, byIndex);
+  }
+
+  @Override
+  public T extract(ResultSet rs, String fieldName) throws SQLException {
+    return byName.extract(rs, fieldName);
+  }
+
+  @Override
+  public T extract(ResultSet rs, int columnIndex) throws SQLException {
+    return byIndex.extract(rs, columnIndex);
+  }
+}
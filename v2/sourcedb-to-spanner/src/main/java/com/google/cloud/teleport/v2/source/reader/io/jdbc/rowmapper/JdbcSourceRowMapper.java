@@ -20,11 +20,15 @@ import com.google.cloud.teleport.v2.source.reader.io.exception.ValueMappingExcep
 import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
 import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchemaReference;
 import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import com.google.common.collect.ImmutableMap;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.concurrent.TimeUnit;
 import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.beam.sdk.io.jdbc.JdbcIO;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
@@ -47,6 +51,10 @@ public final class JdbcSourceRowMapper implements JdbcIO.RowMapper<SourceRow> {
 
   private static final Logger logger = LoggerFactory.getLogger(JdbcSourceRowMapper.class);
 
+  /* Resolved lazily on the worker, please refer to getColumnMappings and getColumnIndexes. */
+  private transient ColumnMapping[] columnMappings = null;
+  private transient int[] columnIndexes = null;
+
   private final Counter mapperErrors =
       Metrics.counter(JdbcSourceRowMapper.class, MetricCounters.READER_MAPPING_ERRORS);
 
@@ -76,45 +84,104 @@ public final class JdbcSourceRowMapper implements JdbcIO.RowMapper<SourceRow> {
   /**
    * Map {@link java.sql.ResultSet} to {@link SourceRow}.
    *
+   * <p>The column ordinals, {@link JdbcValueMapper value mappers} and Avro field positions are
+   * resolved once per table, so that mapping a row is an indexed loop that reads the columns by
+   * index wherever the value mapper supports it.
+   *
    * @param resultSet the resultSet for a read record.
    * @return SourceRow
    */
   @Override
   public @UnknownKeyFor @Nullable @Initialized SourceRow mapRow(
       @UnknownKeyFor @NonNull @Initialized ResultSet resultSet) {
-    var builder =
-        SourceRow.builder(
-            sourceSchemaReference, sourceTableSchema, shardId, getCurrentTimeMicros());
-    this.sourceTableSchema
-        .sourceColumnNameToSourceColumnType()
-        .entrySet()
-        .forEach(
-            entry -> {
-              try {
-                Schema schema =
-                    this.sourceTableSchema.getAvroPayload().getField(entry.getKey()).schema();
-                // The Unified avro mapping produces a union of the mapped type with null type
-                // except for "Unsupported" case.
-                if (schema.isUnion()) {
-                  schema = schema.getTypes().get(1);
-                }
-                builder.setField(
-                    entry.getKey(),
-                    this.mappingsProvider
-                        .getMappings()
-                        .getOrDefault(
-                            entry.getValue().getName().toUpperCase(), JdbcValueMapper.UNSUPPORTED)
-                        .mapValue(resultSet, entry.getKey(), schema));
-              } catch (SQLException e) {
-                mapperErrors.inc();
-                logger.error(
-                    "Exception while mapping jdbc ResultSet to avro. Check for potential schema changes or unexpected inaccuracy in schema discovery logs. SourceSchemaReference: {},  SourceTableSchema: {}. Exception: {}",
-                    sourceSchemaReference,
-                    sourceTableSchema,
-                    e);
-                throw new ValueMappingException(e);
-              }
-            });
-    return builder.build();
+    ColumnMapping[] mappings = getColumnMappings();
+    GenericRecord payload = new GenericData.Record(this.sourceTableSchema.getAvroPayload());
+    try {
+      int[] indexes = getColumnIndexes(resultSet, mappings);
+      for (int i = 0; i < mappings.length; i++) {
+        ColumnMapping mapping = mappings[i];
+        payload.put(
+            mapping.fieldPosition,
+            mapping.valueMapper.mapValue(
+                resultSet, indexes[i], mapping.fieldName, mapping.fieldSchema));
+      }
+    } catch (SQLException e) {
+      mapperErrors.inc();
+      logger.error(
+          "Exception while mapping jdbc ResultSet to avro. Check for potential schema changes or unexpected inaccuracy in schema discovery logs. SourceSchemaReference: {},  SourceTableSchema: {}. Exception: {}",
+          sourceSchemaReference,
+          sourceTableSchema,
+          e);
+      throw new ValueMappingException(e);
+    }
+    return SourceRow.fromPayload(
+        sourceSchemaReference, sourceTableSchema, shardId, getCurrentTimeMicros(), payload);
+  }
+
+  /** Resolve the per column mapping of the table, once per instance of the row mapper. */
+  private ColumnMapping[] getColumnMappings() {
+    if (this.columnMappings != null) {
+      return this.columnMappings;
+    }
+    Schema payloadSchema = this.sourceTableSchema.getAvroPayload();
+    ImmutableMap<String, JdbcValueMapper<?>> valueMappers = this.mappingsProvider.getMappings();
+    this.columnMappings =
+        this.sourceTableSchema.sourceColumnNameToSourceColumnType().entrySet().stream()
+            .map(
+                entry -> {
+                  Field field = payloadSchema.getField(entry.getKey());
+                  Schema schema = field.schema();
+                  // The Unified avro mapping produces a union of the mapped type with null type
+                  // except for "Unsupported" case.
+                  if (schema.isUnion()) {
+                    schema = schema.getTypes().get(1);
+                  }
+                  return new ColumnMapping(
+                      entry.getKey(),
+                      field.pos(),
+                      schema,
+                      valueMappers.getOrDefault(
+                          entry.getValue().getName().toUpperCase(), JdbcValueMapper.UNSUPPORTED));
+                })
+            .toArray(ColumnMapping[]::new);
+    return this.columnMappings;
+  }
+
+  /**
+   * Resolve the column ordinals of the table on its first row. Every read query of a table selects
+   * the columns of the table first ({@code SELECT *} or {@code SELECT table.*, ...}), so the
+   * ordinals are the same for all the {@link ResultSet ResultSets} of the table and no reference to
+   * a resultSet is kept.
+   */
+  private int[] getColumnIndexes(ResultSet resultSet, ColumnMapping[] mappings)
+      throws SQLException {
+    if (this.columnIndexes != null) {
+      return this.columnIndexes;
+    }
+    int[] indexes = new int[mappings.length];
+    for (int i = 0; i < mappings.length; i++) {
+      indexes[i] =
+          mappings[i].valueMapper.supportsColumnIndex()
+              ? resultSet.findColumn(mappings[i].fieldName)
+              : -1;
+    }
+    this.columnIndexes = indexes;
+    return indexes;
+  }
+
+  /** Pre-resolved mapping of a source column to the payload field. */
+  private static final class ColumnMapping {
+    private final String fieldName;
+    private final int fieldPosition;
+    private final Schema fieldSchema;
+    private final JdbcValueMapper<?> valueMapper;
+
+    private ColumnMapping(
+        String fieldName, int fieldPosition, Schema fieldSchema, JdbcValueMapper<?> valueMapper) {
+      this.fieldName = fieldName;
+      this.fieldPosition = fieldPosition;
+      this.fieldSchema = fieldSchema;
+      this.valueMapper = valueMapper;
+    }
   }
 }
@@ -18,6 +18,7 @@ package com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper;
 import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import javax.annotation.Nullable;
 import org.apache.avro.Schema;
 
 /**
@@ -31,6 +32,9 @@ public class JdbcValueMapper<T extends Object> implements Serializable {
   private ResultSetValueExtractor<T> valueExtractor;
   private ResultSetValueMapper<T> valueMapper;
 
+  /* Set if the valueExtractor can also extract the value by column index. */
+  @Nullable private IndexedResultSetValueExtractor<T> indexedValueExtractor;
+
   /**
    * Construct the {@link JdbcValueMapper}.
    *
@@ -42,6 +46,19 @@ public class JdbcValueMapper<T extends Object> implements Serializable {
       ResultSetValueMapper<?> resultSetValueMapper) {
     this.valueExtractor = (ResultSetValueExtractor<T>) resultSetValueExtractor;
     this.valueMapper = (ResultSetValueMapper<T>) resultSetValueMapper;
+    this.indexedValueExtractor =
+        (resultSetValueExtractor instanceof IndexedResultSetValueExtractor)
+            ? (IndexedResultSetValueExtractor<T>) resultSetValueExtractor
+            : null;
+  }
+
+  /**
+   * Returns true if the value can be extracted by the column index.
+   *
+   * @see #mapValue(ResultSet, int, String, Schema)
+   */
+  public boolean supportsColumnIndex() {
+    return this.indexedValueExtractor != null;
   }
 
   /**
@@ -62,6 +79,32 @@ public class JdbcValueMapper<T extends Object> implements Serializable {
     return valueMapper.map(extractedValue, fieldSchema);
   }
 
+  /**
+   * Map a given column of {@link ResultSet} to an object as per the {@link Schema Avro Schema}. The
+   * value is extracted by the column index if {@link #supportsColumnIndex()}, and by the field name
+   * otherwise.
+   *
+   * @param rs resultSet.
+   * @param columnIndex 1 based index of the column in the resultSet. Ignored if the index is not
+   *     supported.
+   * @param fieldName name of the field to map.
+   * @param fieldSchema {@link Schema Avro Schema} of the field.
+   * @return Mapped value.
+   * @throws SQLException - Exception while extracting value from {@link ResultSet}. Typically,
+   *     indicates change in source schema during migration.
+   */
+  public Object mapValue(ResultSet rs, int columnIndex, String fieldName, Schema fieldSchema)
+      throws SQLException {
+    if (indexedValueExtractor == null) {
+      return mapValue(rs, fieldName, fieldSchema);
+    }
+    var extractedValue = indexedValueExtractor.extract(rs, columnIndex);
+    if (extractedValue == null || rs.wasNull()) {
+      return null;
+    }
+    return valueMapper.map(extractedValue, fieldSchema);
+  }
+
   public static final JdbcValueMapper<?> UNSUPPORTED =
       new JdbcValueMapper<>((rs, field) -> null, (value, schema) -> null);
 }
@@ -15,6 +15,7 @@
  */
 package com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.provider;
 
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.IndexedExtractor;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.JdbcValueMapper;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.JdbcValueMappingsProvider;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.ResultSetValueExtractor;
@@ -77,9 +78,13 @@ public class MysqlJdbcValueMappings implements JdbcValueMappingsProvider {
   /* Extract UTC Values for date and time related types */
   private static final Calendar utcCalendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
   private static final ResultSetValueExtractor<java.sql.Date> utcDateExtractor =
-      (rs, fieldName) -> rs.getDate(fieldName, utcCalendar);
+      IndexedExtractor.of(
+          (rs, fieldName) -> rs.getDate(fieldName, utcCalendar),
+          (rs, columnIndex) -> rs.getDate(columnIndex, utcCalendar));
   private static final ResultSetValueExtractor<java.sql.Timestamp> utcTimeStampExtractor =
-      (rs, fieldName) -> rs.getTimestamp(fieldName, utcCalendar);
+      IndexedExtractor.of(
+          (rs, fieldName) -> rs.getTimestamp(fieldName, utcCalendar),
+          (rs, columnIndex) -> rs.getTimestamp(columnIndex, utcCalendar));
 
   /* Map Date and Time related types to Avro */
   /**
@@ -190,38 +195,38 @@ public class MysqlJdbcValueMappings implements JdbcValueMappingsProvider {
    */
   private static final ImmutableMap<String, JdbcValueMapper<?>> SCHEMA_MAPPINGS =
       ImmutableMap.<String, Pair<ResultSetValueExtractor<?>, ResultSetValueMapper<?>>>builder()
-          .put("BIGINT", Pair.of(ResultSet::getLong, valuePassThrough))
-          .put("BIGINT UNSIGNED", Pair.of(ResultSet::getBigDecimal, bigDecimalToByteArray))
-          .put("BINARY", Pair.of(ResultSet::getBytes, bytesToHexString))
-          .put("BIT", Pair.of(ResultSet::getBytes, bytesToLong))
-          .put("BLOB", Pair.of(ResultSet::getBlob, blobToHexString))
-          .put("BOOL", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("CHAR", Pair.of(ResultSet::getString, valuePassThrough))
+          .put("BIGINT", Pair.of(IndexedExtractor.LONG, valuePassThrough))
+          .put("BIGINT UNSIGNED", Pair.of(IndexedExtractor.BIG_DECIMAL, bigDecimalToByteArray))
+          .put("BINARY", Pair.of(IndexedExtractor.BYTES, bytesToHexString))
+          .put("BIT", Pair.of(IndexedExtractor.BYTES, bytesToLong))
+          .put("BLOB", Pair.of(IndexedExtractor.BLOB, blobToHexString))
+          .put("BOOL", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("CHAR", Pair.of(IndexedExtractor.STRING, valuePassThrough))
           .put("DATE", Pair.of(utcDateExtractor, sqlDateToAvroTimestampMicros))
           .put("DATETIME", Pair.of(utcTimeStampExtractor, sqlTimestampToAvroDateTime))
-          .put("DECIMAL", Pair.of(ResultSet::getBigDecimal, bigDecimalToByteArray))
-          .put("DOUBLE", Pair.of(ResultSet::getDouble, valuePassThrough))
-          .put("ENUM", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("FLOAT", Pair.of(ResultSet::getFloat, valuePassThrough))
-          .put("INTEGER", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("INTEGER UNSIGNED", Pair.of(ResultSet::getLong, valuePassThrough))
-          .put("JSON", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("LONGBLOB", Pair.of(ResultSet::getBlob, blobToHexString))
-          .put("LONGTEXT", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("MEDIUMBLOB", Pair.of(ResultSet::getBlob, blobToHexString))
-          .put("MEDIUMINT", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("MEDIUMTEXT", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("SET", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("SMALLINT", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("TEXT", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("TIME", Pair.of(ResultSet::getString, timeStringToAvroTimeInterval))
+          .put("DECIMAL", Pair.of(IndexedExtractor.BIG_DECIMAL, bigDecimalToByteArray))
+          .put("DOUBLE", Pair.of(IndexedExtractor.DOUBLE, valuePassThrough))
+          .put("ENUM", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("FLOAT", Pair.of(IndexedExtractor.FLOAT, valuePassThrough))
+          .put("INTEGER", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("INTEGER UNSIGNED", Pair.of(IndexedExtractor.LONG, valuePassThrough))
+          .put("JSON", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("LONGBLOB", Pair.of(IndexedExtractor.BLOB, blobToHexString))
+          .put("LONGTEXT", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("MEDIUMBLOB", Pair.of(IndexedExtractor.BLOB, blobToHexString))
+          .put("MEDIUMINT", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("MEDIUMTEXT", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("SET", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("SMALLINT", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("TEXT", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("TIME", Pair.of(IndexedExtractor.STRING, timeStringToAvroTimeInterval))
           .put("TIMESTAMP", Pair.of(utcTimeStampExtractor, sqlTimestampToAvroTimestampMicros))
-          .put("TINYBLOB", Pair.of(ResultSet::getBlob, blobToHexString))
-          .put("TINYINT", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("TINYTEXT", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("VARBINARY", Pair.of(ResultSet::getBytes, bytesToHexString))
-          .put("VARCHAR", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("YEAR", Pair.of(ResultSet::getInt, valuePassThrough))
+          .put("TINYBLOB", Pair.of(IndexedExtractor.BLOB, blobToHexString))
+          .put("TINYINT", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("TINYTEXT", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("VARBINARY", Pair.of(IndexedExtractor.BYTES, bytesToHexString))
+          .put("VARCHAR", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("YEAR", Pair.of(IndexedExtractor.INT, valuePassThrough))
           .build()
           .entrySet()
           .stream()
@@ -15,6 +15,7 @@
  */
 package com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.provider;
 
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.IndexedExtractor;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.JdbcValueMapper;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.JdbcValueMappingsProvider;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.ResultSetValueExtractor;
@@ -22,7 +23,6 @@ import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.ResultSetVal
 import com.google.cloud.teleport.v2.source.reader.io.schema.typemapping.provider.unified.CustomSchema.TimeStampTz;
 import com.google.common.collect.ImmutableMap;
 import java.nio.ByteBuffer;
-import java.sql.ResultSet;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
@@ -67,28 +67,38 @@ public class PostgreSQLJdbcValueMappings implements JdbcValueMappingsProvider {
   private static final ResultSetValueMapper<?> valuePassThrough = (value, schema) -> value;
 
   private static final ResultSetValueExtractor<ByteBuffer> bytesExtractor =
-      (rs, fieldName) -> {
-        byte[] bytes = rs.getBytes(fieldName);
-        if (bytes == null) {
-          return null;
-        }
-        return ByteBuffer.wrap(bytes);
-      };
+      IndexedExtractor.of(
+          (rs, fieldName) -> toByteBuffer(rs.getBytes(fieldName)),
+          (rs, columnIndex) -> toByteBuffer(rs.getBytes(columnIndex)));
 
   private static final ResultSetValueExtractor<java.sql.Date> dateExtractor =
-      (rs, fieldName) -> rs.getDate(fieldName, UTC_CALENDAR);
+      IndexedExtractor.of(
+          (rs, fieldName) -> rs.getDate(fieldName, UTC_CALENDAR),
+          (rs, columnIndex) -> rs.getDate(columnIndex, UTC_CALENDAR));
 
   private static final ResultSetValueExtractor<java.sql.Timestamp> timestampExtractor =
-      (rs, fieldName) -> rs.getTimestamp(fieldName, UTC_CALENDAR);
+      IndexedExtractor.of(
+          (rs, fieldName) -> rs.getTimestamp(fieldName, UTC_CALENDAR),
+          (rs, columnIndex) -> rs.getTimestamp(columnIndex, UTC_CALENDAR));
 
   private static final ResultSetValueExtractor<OffsetDateTime> timestamptzExtractor =
-      (rs, fieldName) -> {
-        String timestampTz = rs.getString(fieldName);
-        if (timestampTz == null) {
-          return null;
-        }
-        return OffsetDateTime.parse(timestampTz, TIMESTAMPTZ_FORMAT);
-      };
+      IndexedExtractor.of(
+          (rs, fieldName) -> toOffsetDateTime(rs.getString(fieldName)),
+          (rs, columnIndex) -> toOffsetDateTime(rs.getString(columnIndex)));
+
+  private static ByteBuffer toByteBuffer(byte[] bytes) {
+    if (bytes == null) {
+      return null;
+    }
+    return ByteBuffer.wrap(bytes);
+  }
+
+  private static OffsetDateTime toOffsetDateTime(String timestampTz) {
+    if (timestampTz == null) {
+      return null;
+    }
+    return OffsetDateTime.parse(timestampTz, TIMESTAMPTZ_FORMAT);
+  }
 
   // Value might be a Double.NaN or a valid BigDecimal
   private static final ResultSetValueMapper<Number> numericToAvro =
@@ -111,47 +121,47 @@ public class PostgreSQLJdbcValueMappings implements JdbcValueMappingsProvider {
 
   private static final ImmutableMap<String, JdbcValueMapper<?>> SCHEMA_MAPPINGS =
       ImmutableMap.<String, Pair<ResultSetValueExtractor<?>, ResultSetValueMapper<?>>>builder()
-          .put("BIGINT", Pair.of(ResultSet::getLong, valuePassThrough))
-          .put("BIGSERIAL", Pair.of(ResultSet::getLong, valuePassThrough))
+          .put("BIGINT", Pair.of(IndexedExtractor.LONG, valuePassThrough))
+          .put("BIGSERIAL", Pair.of(IndexedExtractor.LONG, valuePassThrough))
           .put("BIT", Pair.of(bytesExtractor, valuePassThrough))
           .put("BIT VARYING", Pair.of(bytesExtractor, valuePassThrough))
-          .put("BOOL", Pair.of(ResultSet::getBoolean, valuePassThrough))
-          .put("BOOLEAN", Pair.of(ResultSet::getBoolean, valuePassThrough))
+          .put("BOOL", Pair.of(IndexedExtractor.BOOLEAN, valuePassThrough))
+          .put("BOOLEAN", Pair.of(IndexedExtractor.BOOLEAN, valuePassThrough))
           .put("BYTEA", Pair.of(bytesExtractor, valuePassThrough))
-          .put("CHAR", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("CHARACTER", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("CHARACTER VARYING", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("CITEXT", Pair.of(ResultSet::getString, valuePassThrough))
+          .put("CHAR", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("CHARACTER", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("CHARACTER VARYING", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("CITEXT", Pair.of(IndexedExtractor.STRING, valuePassThrough))
           .put("DATE", Pair.of(dateExtractor, dateToAvro))
-          .put("DECIMAL", Pair.of(ResultSet::getObject, numericToAvro))
-          .put("DOUBLE PRECISION", Pair.of(ResultSet::getDouble, valuePassThrough))
-          .put("FLOAT4", Pair.of(ResultSet::getFloat, valuePassThrough))
-          .put("FLOAT8", Pair.of(ResultSet::getDouble, valuePassThrough))
-          .put("INT", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("INTEGER", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("INT2", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("INT4", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("INT8", Pair.of(ResultSet::getLong, valuePassThrough))
-          .put("JSON", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("JSONB", Pair.of(ResultSet::getString, valuePassThrough))
-          .put("MONEY", Pair.of(ResultSet::getDouble, valuePassThrough))
-          .put("NUMERIC", Pair.of(ResultSet::getObject, numericToAvro))
-          .put("OID", Pair.of(ResultSet::getLong, valuePassThrough))
-          .put("REAL", Pair.of(ResultSet::getFloat, valuePassThrough))
-          .put("SERIAL", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("SERIAL2", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("SERIAL4", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("SERIAL8", Pair.of(ResultSet::getLong, valuePassThrough))
-          .put("SMALLINT", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("SMALLSERIAL", Pair.of(ResultSet::getInt, valuePassThrough))
-          .put("TEXT", Pair.of(ResultSet::getString, valuePassThrough))
+          .put("DECIMAL", Pair.of(IndexedExtractor.OBJECT, numericToAvro))
+          .put("DOUBLE PRECISION", Pair.of(IndexedExtractor.DOUBLE, valuePassThrough))
+          .put("FLOAT4", Pair.of(IndexedExtractor.FLOAT, valuePassThrough))
+          .put("FLOAT8", Pair.of(IndexedExtractor.DOUBLE, valuePassThrough))
+          .put("INT", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("INTEGER", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("INT2", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("INT4", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("INT8", Pair.of(IndexedExtractor.LONG, valuePassThrough))
+          .put("JSON", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("JSONB", Pair.of(IndexedExtractor.STRING, valuePassThrough))
+          .put("MONEY", Pair.of(IndexedExtractor.DOUBLE, valuePassThrough))
+          .put("NUMERIC", Pair.of(IndexedExtractor.OBJECT, numericToAvro))
+          .put("OID", Pair.of(IndexedExtractor.LONG, valuePassThrough))
+          .put("REAL", Pair.of(IndexedExtractor.FLOAT, valuePassThrough))
+          .put("SERIAL", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("SERIAL2", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("SERIAL4", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("SERIAL8", Pair.of(IndexedExtractor.LONG, valuePassThrough))
+          .put("SMALLINT", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("SMALLSERIAL", Pair.of(IndexedExtractor.INT, valuePassThrough))
+          .put("TEXT", Pair.of(IndexedExtractor.STRING, valuePassThrough))
           .put("TIMESTAMP", Pair.of(timestampExtractor, timestampToAvro))
           .put("TIMESTAMPTZ", Pair.of(timestamptzExtractor, timestamptzToAvro))
           .put("TIMESTAMP WITH TIME ZONE", Pair.of(timestamptzExtractor, timestamptzToAvro))
           .put("TIMESTAMP WITHOUT TIME ZONE", Pair.of(timestampExtractor, timestampToAvro))
-          .put("UUID", Pair.of(ResultSet::getString, valuePassThrough))
+          .put("UUID", Pair.of(IndexedExtractor.STRING, valuePassThrough))
           .put("VARBIT", Pair.of(bytesExtractor, valuePassThrough))
-          .put("VARCHAR", Pair.of(ResultSet::getString, valuePassThrough))
+          .put("VARCHAR", Pair.of(IndexedExtractor.STRING, valuePassThrough))
           .build()
           .entrySet()
           .stream()
@@ -23,6 +23,9 @@ import java.sql.SQLException;
 /** Helper Interface to help uniform splitter adapt to the source database. */
 public interface UniformSplitterDBAdapter extends Serializable {
 
+  /** Same as the default fetch size of {@link org.apache.beam.sdk.io.jdbc.JdbcIO}. */
+  int DEFAULT_STREAMING_FETCH_SIZE = 50_000;
+
   /**
    * Get query for the prepared statement to read columns within a range.
    *
@@ -32,6 +35,33 @@ public interface UniformSplitterDBAdapter extends Serializable {
    */
   String getReadQuery(String tableName, ImmutableList<String> partitionColumns);
 
+  /**
+   * Get query for the prepared statement to read columns within a range, ordered by {@code
+   * orderByColumn}. The value of {@code orderByColumn} must be appended as the last column of the
+   * result, so that the reader can track the position of a range without knowing the layout of the
+   * row. This allows splitting a range while it is being read.
+   *
+   * @param tableName name of the table to read
+   * @param partitionColumns partition columns.
+   * @param orderByColumn column to order the rows by.
+   * @return Query Statement, or null if the dialect does not support ordered reads.
+   */
+  default String getOrderedReadQuery(
+      String tableName, ImmutableList<String> partitionColumns, String orderByColumn) {
+    return null;
+  }
+
+  /**
+   * Get the fetch size that makes the driver stream the result set of a read, instead of buffering
+   * all the rows of the result set in memory. The read is done with auto-commit disabled and with a
+   * forward only, read only result set, as some drivers (like PostgreSQL) stream only in that case.
+   *
+   * @return fetch size for streaming reads.
+   */
+  default int getStreamingFetchSize() {
+    return DEFAULT_STREAMING_FETCH_SIZE;
+  }
+
   /**
    * Get query for the prepared statement to count a given range.
    *
@@ -52,6 +82,20 @@ public interface UniformSplitterDBAdapter extends Serializable {
    */
   String getBoundaryQuery(String tableName, ImmutableList<String> partitionColumns, String colName);
 
+  /**
+   * Get query that returns the bucket bounds of the (approximately equi-depth) histogram the
+   * database maintains for a column in its statistics. The query must return one bound per row as a
+   * string in the first column, in any order. The bounds are used as split points for the initial
+   * split of ranges, saving count queries on skewed key spaces.
+   *
+   * @param tableName name of the table.
+   * @param colName name of the column.
+   * @return Query Statement, or null if the dialect does not support column statistics.
+   */
+  default String getColumnStatisticsQuery(String tableName, String colName) {
+    return null;
+  }
+
   /**
    * Check if a given {@link SQLException} is a timeout. The implementation needs to check for
    * dialect specific {@link SQLException#getSQLState() SqlState} and {@link
@@ -19,6 +19,8 @@ import com.google.auto.value.AutoValue;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationReference;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import java.io.Serializable;
 import javax.annotation.Nullable;
 import org.apache.beam.sdk.transforms.DoFn.ProcessContext;
@@ -163,6 +165,34 @@ public abstract class Boundary<T extends Serializable>
         toBuilder().setStart(splitPoint).setSplitIndex(splitIndex() + "-2").build());
   }
 
+  /**
+   * Split a given boundary into {@code splitPoints.size() + 1} boundaries at the given split
+   * points. The caller must ensure that the split points are strictly increasing and lie strictly
+   * between {@link Boundary#start()} and {@link Boundary#end()}. The split indexes of the resulting
+   * boundaries are padded to a fixed width so that they sort in the order of the split points and
+   * continue to sort correctly after any further {@link Boundary#split(ProcessContext) split}.
+   *
+   * @param splitPoints split points.
+   * @return list of boundaries in the order of the split points.
+   */
+  public ImmutableList<Boundary<T>> splitAt(ImmutableList<T> splitPoints) {
+    int width = String.valueOf(splitPoints.size() + 1).length();
+    ImmutableList.Builder<Boundary<T>> boundaries = ImmutableList.builder();
+    T start = start();
+    for (int i = 0; i <= splitPoints.size(); i++) {
+      T end = (i == splitPoints.size()) ? end() : splitPoints.get(i);
+      boundaries.add(
+          toBuilder()
+              .setStart(start)
+              .setEnd(end)
+              .setSplitIndex(
+                  splitIndex() + "-" + Strings.padStart(String.valueOf(i + 1), width, '0'))
+              .build());
+      start = end;
+    }
+    return boundaries.build();
+  }
+
   /**
    * Build a {@link Range} {@link Range#childRange()} from this {@link Boundary}.
    *
@@ -18,6 +18,7 @@ package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import java.io.Serializable;
 import javax.annotation.Nullable;
 import org.apache.beam.sdk.transforms.DoFn.ProcessContext;
@@ -82,6 +83,14 @@ public abstract class Range implements Serializable, Comparable<Range> {
     return this.boundary().colName();
   }
 
+  public Class colClass() {
+    return this.boundary().columnClass();
+  }
+
+  public PartitionColumn partitionColumn() {
+    return this.boundary().partitionColumn();
+  }
+
   @Nullable
   public Object start() {
     return this.boundary().start();
@@ -234,6 +243,67 @@ public abstract class Range implements Serializable, Comparable<Range> {
             .build());
   }
 
+  /**
+   * Split a given range at the given split points of its column. The caller must ensure that the
+   * range does not have a {@link Range#childRange()} and that the split points are strictly
+   * increasing, of the {@link Range#colClass()} and lie strictly between {@link Range#start()} and
+   * {@link Range#end()}.
+   *
+   * @param splitPoints split points.
+   * @return list of uncounted ranges in the order of the split points.
+   * @throws IllegalArgumentException if the range has a child range. This indicates a programming
+   *     error and should not be seen in production.
+   */
+  public ImmutableList<Range> splitAt(ImmutableList<? extends Serializable> splitPoints) {
+    Preconditions.checkArgument(
+        !hasChildRange(), "Trying to split a range with child range at split points: " + this);
+    ImmutableList<? extends Boundary<?>> boundaries = ((Boundary) boundary()).splitAt(splitPoints);
+    ImmutableList.Builder<Range> ranges = ImmutableList.builder();
+    for (int i = 0; i < boundaries.size(); i++) {
+      ranges.add(
+          this.toBuilder()
+              .setBoundary(boundaries.get(i))
+              .setCount(INDETERMINATE_COUNT)
+              .setIsFirst(isFirst() && i == 0)
+              .setIsLast(isLast() && i == boundaries.size() - 1)
+              .build());
+    }
+    return ranges.build();
+  }
+
+  /**
+   * @return the deepest child range, or this range if there's no child range.
+   */
+  public Range leafRange() {
+    return hasChildRange() ? childRange().leafRange() : this;
+  }
+
+  /**
+   * Return a cloned range with the boundary of the {@link Range#leafRange() leaf range} replaced.
+   * The parent ranges are retained as is. The count of the returned range is indeterminate. Unlike
+   * {@link Range#split(ProcessContext)}, this does not need to evaluate the splitter of the parent
+   * ranges, which allows restriction trackers to split a range without a {@link ProcessContext}.
+   *
+   * @param start start of the leaf range.
+   * @param end end of the leaf range.
+   * @param isFirst true if the leaf range is the first range of its column.
+   * @param isLast true if the leaf range is the last range of its column.
+   * @return range with leaf boundary replaced.
+   */
+  public Range withLeafBoundary(
+      @Nullable Serializable start, @Nullable Serializable end, boolean isFirst, boolean isLast) {
+    if (hasChildRange()) {
+      Range child = childRange().withLeafBoundary(start, end, isFirst, isLast);
+      return this.toBuilder().setChildRange(child).setCount(child.count()).build();
+    }
+    return this.toBuilder()
+        .setBoundary(((Boundary) boundary()).toBuilder().setStart(start).setEnd(end).build())
+        .setCount(INDETERMINATE_COUNT)
+        .setIsFirst(isFirst)
+        .setIsLast(isLast)
+        .build();
+  }
+
   /**
    * Checks if two ranges can be merged with each other.
    *
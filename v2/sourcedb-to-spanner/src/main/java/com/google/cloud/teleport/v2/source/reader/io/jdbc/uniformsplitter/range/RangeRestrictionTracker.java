@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationMapper;
+import com.google.common.base.Preconditions;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.annotation.Nullable;
+import org.apache.beam.sdk.transforms.splittabledofn.RestrictionTracker;
+import org.apache.beam.sdk.transforms.splittabledofn.RestrictionTracker.HasProgress;
+import org.apache.beam.sdk.transforms.splittabledofn.SplitResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link RestrictionTracker} for reading a {@link Range} in the order of the column of its {@link
+ * Range#leafRange() leaf range}. The position is the value of the leaf column of the last read row.
+ *
+ * <p>The reader must claim the leaf column value of every row before outputting it, in the order in
+ * which the database returns them, and claim {@code null} once the rows are exhausted. The tracker
+ * can then split the remainder of the range after the last claimed key, allowing the runner to
+ * rebalance a range that turns out to be hot while it's being read.
+ *
+ * <p>For comparisons and split points, keys are mapped to {@link BigInteger}. String keys are
+ * mapped via the {@link CollationMapper} of the column, so that the order and the split points
+ * match the collation of the database.
+ */
+public class RangeRestrictionTracker extends RestrictionTracker<Range, Serializable>
+    implements HasProgress {
+
+  private static final Logger logger = LoggerFactory.getLogger(RangeRestrictionTracker.class);
+
+  private Range range;
+
+  @Nullable private final CollationMapper collationMapper;
+
+  private final int stringLengthToPad;
+
+  @Nullable private Serializable lastClaimedKey = null;
+
+  @Nullable private BigInteger lastClaimedPosition = null;
+
+  private boolean isDone = false;
+
+  /**
+   * Create a tracker for a range.
+   *
+   * @param range range to read.
+   * @param collationMapper collation mapper for the leaf column. Must not be null if the leaf
+   *     column is a string column. Ignored otherwise.
+   */
+  public RangeRestrictionTracker(Range range, @Nullable CollationMapper collationMapper) {
+    this.range = range;
+    Range leaf = range.leafRange();
+    if (leaf.colClass() == String.class) {
+      Preconditions.checkArgument(
+          collationMapper != null, "Tracking a string range without collation mapper: " + range);
+      this.collationMapper = collationMapper;
+      this.stringLengthToPad =
+          Math.max(
+              Math.max(length(leaf.start()), length(leaf.end())),
+              leaf.partitionColumn().stringMaxLength());
+    } else {
+      this.collationMapper = null;
+      this.stringLengthToPad = 0;
+    }
+  }
+
+  /** Returns true if keys of a given column class can be tracked. */
+  public static boolean isSupported(Class columnClass) {
+    return columnClass == Integer.class
+        || columnClass == Long.class
+        || columnClass == BigInteger.class
+        || columnClass == String.class;
+  }
+
+  /**
+   * Read the leaf column value of the current row of a read ordered by the leaf column, as the key
+   * to {@link #tryClaim(Serializable) claim}.
+   *
+   * @param rs result set positioned at the row.
+   * @param keyIndex index of the leaf column in the result set.
+   * @param columnClass class of the leaf column.
+   * @return the key, or null if the column value is null.
+   * @throws SQLException thrown by the resultSet api.
+   */
+  @Nullable
+  public static Serializable readKey(ResultSet rs, int keyIndex, Class columnClass)
+      throws SQLException {
+    Serializable key;
+    if (columnClass == Integer.class) {
+      key = rs.getInt(keyIndex);
+    } else if (columnClass == Long.class) {
+      key = rs.getLong(keyIndex);
+    } else if (columnClass == BigInteger.class) {
+      BigDecimal value = rs.getBigDecimal(keyIndex);
+      key = (value == null) ? null : value.toBigInteger();
+    } else {
+      key = rs.getString(keyIndex);
+    }
+    // Rows with null keys are not selected by the range query.
+    return rs.wasNull() ? null : key;
+  }
+
+  /**
+   * Cancel a read whose next row failed to {@link #tryClaim(Serializable) claim}. Closing a
+   * streaming result set otherwise reads the rest of the rows up to the end of the original range,
+   * which for MySQL means draining the remainder of the range over the network even though it was
+   * split off to be read elsewhere. Failures to cancel are logged, as closing the statement still
+   * completes the read.
+   *
+   * @param stmt statement of the read.
+   */
+  public static void cancelRead(Statement stmt) {
+    try {
+      stmt.cancel();
+    } catch (SQLException e) {
+      logger.debug("Failed to cancel the read at the split point. Exception = {}", e);
+    }
+  }
+
+  /**
+   * Claim the leaf column value of the next row.
+   *
+   * @param key leaf column value of the next row. Pass null once all the rows are read.
+   * @return true if the row belongs to the current restriction and must be output.
+   */
+  @Override
+  public boolean tryClaim(@Nullable Serializable key) {
+    Preconditions.checkState(!isDone, "Trying to claim %s after the range is done.", key);
+    if (key == null) {
+      isDone = true;
+      return false;
+    }
+    Range leaf = range.leafRange();
+    BigInteger position = toPosition(key);
+    if (leaf.end() != null) {
+      int cmp = position.compareTo(toPosition((Serializable) leaf.end()));
+      if (cmp > 0 || (cmp == 0 && !leaf.isLast())) {
+        isDone = true;
+        return false;
+      }
+    }
+    lastClaimedKey = key;
+    lastClaimedPosition = position;
+    return true;
+  }
+
+  @Override
+  public Range currentRestriction() {
+    return range;
+  }
+
+  /**
+   * Split the remainder of the range after the last claimed key. The split point is chosen at
+   * {@code fractionOfRemainder} of the key space between the last claimed key and the end of the
+   * range.
+   */
+  @Override
+  public @Nullable SplitResult<Range> trySplit(double fractionOfRemainder) {
+    Range leaf = range.leafRange();
+    if (isDone || leaf.start() == null || leaf.end() == null) {
+      return null;
+    }
+    // Keys strictly greater than lowerExclusive are not yet claimed.
+    BigInteger lowerExclusive =
+        (lastClaimedPosition == null)
+            ? toPosition((Serializable) leaf.start()).subtract(BigInteger.ONE)
+            : lastClaimedPosition;
+    BigInteger upperExclusive = toPosition((Serializable) leaf.end());
+    if (leaf.isLast()) {
+      upperExclusive = upperExclusive.add(BigInteger.ONE);
+    }
+    BigInteger remainder = upperExclusive.subtract(lowerExclusive).subtract(BigInteger.ONE);
+    if (remainder.signum() <= 0) {
+      return null;
+    }
+    BigInteger splitPosition =
+        lowerExclusive
+            .add(BigInteger.ONE)
+            .add(
+                new BigDecimal(remainder)
+                    .multiply(BigDecimal.valueOf(Math.max(0.0, fractionOfRemainder)))
+                    .toBigInteger());
+    Serializable splitKey = fromPosition(splitPosition, leaf.colClass());
+    if (splitKey == null) {
+      return null;
+    }
+    // The mapping of strings need not round trip exactly, hence check the split key again.
+    BigInteger mappedSplitPosition = toPosition(splitKey);
+    if (mappedSplitPosition.compareTo(lowerExclusive) <= 0
+        || mappedSplitPosition.compareTo(upperExclusive) >= 0) {
+      return null;
+    }
+    Range primary =
+        range.withLeafBoundary((Serializable) leaf.start(), splitKey, leaf.isFirst(), false);
+    Range residual =
+        range.withLeafBoundary(splitKey, (Serializable) leaf.end(), false, leaf.isLast());
+    logger.debug(
+        "Split range {} after {} into primary {} and residual {}",
+        range,
+        lastClaimedKey,
+        primary,
+        residual);
+    this.range = primary;
+    return SplitResult.of(primary, residual);
+  }
+
+  @Override
+  public void checkDone() throws IllegalStateException {
+    Preconditions.checkState(
+        isDone, "Range %s is not completely read. Last claimed key is %s.", range, lastClaimedKey);
+  }
+
+  @Override
+  public IsBounded isBounded() {
+    return IsBounded.BOUNDED;
+  }
+
+  /** Progress in the key space of the leaf column. */
+  @Override
+  public Progress getProgress() {
+    Range leaf = range.leafRange();
+    if (leaf.start() == null || leaf.end() == null) {
+      return Progress.from(0, 1);
+    }
+    BigInteger start = toPosition((Serializable) leaf.start());
+    BigInteger end = toPosition((Serializable) leaf.end());
+    double total = Math.max(1.0, end.subtract(start).doubleValue());
+    if (isDone) {
+      return Progress.from(total, 0);
+    }
+    if (lastClaimedPosition == null) {
+      return Progress.from(0, total);
+    }
+    double completed = Math.min(total, lastClaimedPosition.subtract(start).doubleValue());
+    return Progress.from(completed, total - completed);
+  }
+
+  private BigInteger toPosition(Serializable key) {
+    if (key instanceof Integer) {
+      return BigInteger.valueOf((Integer) key);
+    }
+    if (key instanceof Long) {
+      return BigInteger.valueOf((Long) key);
+    }
+    if (key instanceof BigInteger) {
+      return (BigInteger) key;
+    }
+    if (key instanceof String) {
+      return collationMapper.mapString((String) key, stringLengthToPad);
+    }
+    throw new IllegalArgumentException(
+        "Unsupported key " + key + " of class " + key.getClass() + " for range " + range);
+  }
+
+  @Nullable
+  private Serializable fromPosition(BigInteger position, Class columnClass) {
+    if (columnClass == Integer.class) {
+      return (position.bitLength() < Integer.SIZE) ? position.intValue() : null;
+    }
+    if (columnClass == Long.class) {
+      return (position.bitLength() < Long.SIZE) ? position.longValue() : null;
+    }
+    if (columnClass == BigInteger.class) {
+      return position;
+    }
+    if (columnClass == String.class) {
+      return collationMapper.unMapString(position);
+    }
+    return null;
+  }
+
+  private static int length(@Nullable Object value) {
+    return (value == null) ? 0 : value.toString().length();
+  }
+
+  @Override
+  public String toString() {
+    return "RangeRestrictionTracker{range="
+        + range
+        + ", lastClaimedKey="
+        + lastClaimedKey
+        + ", isDone="
+        + isDone
+        + "}";
+  }
+}
@@ -58,15 +58,35 @@ public abstract class InitialSplitRangeDoFn extends DoFn<Range, ImmutableList<Ra
     logger.info(
         "RWUPT - Began split process for table {} with initial range as {}", tableName(), input);
 
+    ImmutableList<Range> ranges = splitUniformly(input, splitHeight(), tableName(), c);
+    logger.info(
+        "RWUPT - Completed initial split for table {} with initial range as {}, and {} split ranges",
+        tableName(),
+        input,
+        ranges.size());
+    out.output(ranges);
+  }
+
+  /**
+   * Split a range {@code splitHeight} times, assuming uniform density.
+   *
+   * @param input range to split.
+   * @param splitHeight how many iterations of splits to do.
+   * @param tableName name of the table for logging.
+   * @param c process context.
+   * @return sorted list of split ranges.
+   */
+  public static ImmutableList<Range> splitUniformly(
+      Range input, long splitHeight, String tableName, DoFn<?, ?>.ProcessContext c) {
     ArrayList<Range> ranges = new ArrayList<Range>();
     ranges.add(input.toBuilder().build());
     ArrayList<Range> splitRanges = new ArrayList<>();
-    for (long i = 0; i < splitHeight(); i++) {
+    for (long i = 0; i < splitHeight; i++) {
       logger.info(
           "RWUPT - Creating initial split for table {}. Iteration {} of {}",
-          tableName(),
+          tableName,
           i,
-          splitHeight());
+          splitHeight);
       for (Range range : ranges) {
         if (range.isSplittable(c)) {
           Pair<Range, Range> splitPair = range.split(c);
@@ -80,12 +100,7 @@ public abstract class InitialSplitRangeDoFn extends DoFn<Range, ImmutableList<Ra
       splitRanges.clear();
     }
     Collections.sort(ranges);
-    logger.info(
-        "RWUPT - Completed initial split for table {} with initial range as {}, and {} split ranges",
-        tableName(),
-        input,
-        ranges.size());
-    out.output(ImmutableList.copyOf(ranges));
+    return ImmutableList.copyOf(ranges);
   }
 
   public static Builder builder() {
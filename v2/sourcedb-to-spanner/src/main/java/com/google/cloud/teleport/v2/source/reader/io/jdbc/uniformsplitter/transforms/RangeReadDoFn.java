@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms;
+
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.UniformSplitterDBAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangePreparedStatementSetter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangeRestrictionTracker;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationMapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationReference;
+import com.google.common.collect.ImmutableList;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.io.jdbc.JdbcIO;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.DoFn.BoundedPerElement;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.apache.beam.sdk.transforms.splittabledofn.RestrictionTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splittable DoFn to read the rows of a {@link Range}.
+ *
+ * <p>The rows are read in the order of the {@link Range#leafRange() leaf column} of the range, and
+ * the leaf column value of every row is claimed via the {@link RangeRestrictionTracker} before the
+ * row is output. This lets the runner split the unread remainder of a range that turns out to be
+ * hot (for example, a range holding a large customer's rows) while it is being read, instead of the
+ * range pinning a single worker till the end of the read.
+ */
+@BoundedPerElement
+final class RangeReadDoFn<T> extends DoFn<Range, T> implements Serializable {
+
+  private static final Logger logger = LoggerFactory.getLogger(RangeReadDoFn.class);
+
+  /** Tag of the side input for {@link CollationMapper CollationMappers}. */
+  static final String COLLATION_MAPPER_SIDE_INPUT = "collationMappers";
+
+  private final SerializableFunction<Void, DataSource> dataSourceProviderFn;
+
+  private final UniformSplitterDBAdapter dbAdapter;
+
+  private final String tableName;
+
+  private final ImmutableList<String> partitionColumns;
+
+  private final JdbcIO.RowMapper<T> rowMapper;
+
+  @JsonIgnore private transient @Nullable DataSource dataSource;
+
+  RangeReadDoFn(
+      SerializableFunction<Void, DataSource> dataSourceProviderFn,
+      UniformSplitterDBAdapter dbAdapter,
+      String tableName,
+      ImmutableList<String> partitionColumns,
+      JdbcIO.RowMapper<T> rowMapper) {
+    this.dataSourceProviderFn = dataSourceProviderFn;
+    this.dbAdapter = dbAdapter;
+    this.tableName = tableName;
+    this.partitionColumns = partitionColumns;
+    this.rowMapper = rowMapper;
+    this.dataSource = null;
+  }
+
+  @Setup
+  public void setup() throws Exception {
+    dataSource = dataSourceProviderFn.apply(null);
+  }
+
+  private Connection acquireConnection() throws SQLException {
+    return checkStateNotNull(this.dataSource).getConnection();
+  }
+
+  @GetInitialRestriction
+  public Range getInitialRestriction(@Element Range element) {
+    return element;
+  }
+
+  @NewTracker
+  public RangeRestrictionTracker newTracker(
+      @Restriction Range restriction,
+      @SideInput(COLLATION_MAPPER_SIDE_INPUT)
+          Map<CollationReference, CollationMapper> collationMappers) {
+    CollationReference collationReference =
+        restriction.leafRange().partitionColumn().stringCollation();
+    return new RangeRestrictionTracker(
+        restriction,
+        (collationReference == null) ? null : collationMappers.get(collationReference));
+  }
+
+  @GetRestrictionCoder
+  public Coder<Range> getRestrictionCoder() {
+    return SerializableCoder.of(Range.class);
+  }
+
+  /**
+   * Read the rows of the current restriction in the order of the leaf column.
+   *
+   * @param tracker restriction tracker.
+   * @param out output receiver for the mapped rows.
+   * @throws Exception - since this is in the run time, beam will auto retry the exception.
+   */
+  @ProcessElement
+  public void processElement(RestrictionTracker<Range, Serializable> tracker, OutputReceiver<T> out)
+      throws Exception {
+    Range range = tracker.currentRestriction();
+    Range leaf = range.leafRange();
+    String query = dbAdapter.getOrderedReadQuery(tableName, partitionColumns, leaf.colName());
+    boolean cancelled = false;
+    try (Connection conn = acquireConnection();
+        PreparedStatement stmt =
+            conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+      // Stream the results so that the read can stop at the split point, without the driver
+      // buffering the rest of the range.
+      conn.setAutoCommit(false);
+      stmt.setFetchSize(dbAdapter.getStreamingFetchSize());
+      new RangePreparedStatementSetter(partitionColumns.size()).setParameters(range, stmt);
+      try (ResultSet rs = stmt.executeQuery()) {
+        int keyIndex = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+          if (!tracker.tryClaim(RangeRestrictionTracker.readKey(rs, keyIndex, leaf.colClass()))) {
+            cancelled = true;
+            RangeRestrictionTracker.cancelRead(stmt);
+            return;
+          }
+          out.output(rowMapper.mapRow(rs));
+        }
+        tracker.tryClaim(null);
+      }
+    } catch (SQLException e) {
+      if (cancelled) {
+        // All the claimed rows are output, the error is from closing the cancelled read.
+        logger.debug(
+            "Ignoring SQL Exception = {} while closing the read of range = {} at the split point.",
+            e,
+            tracker.currentRestriction());
+        return;
+      }
+      logger.warn(
+          "SQL Exception = {} while reading range = {}, Query = {}, DataSource = {}. This will be retried by Beam Runner.",
+          e,
+          tracker.currentRestriction(),
+          query,
+          dataSource);
+      throw e;
+    }
+  }
+}
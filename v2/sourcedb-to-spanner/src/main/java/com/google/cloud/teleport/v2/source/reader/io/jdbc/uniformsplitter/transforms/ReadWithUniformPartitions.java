@@ -22,6 +22,7 @@ import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.PartitionColumn;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangePreparedStatementSetter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangeRestrictionTracker;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.BoundaryTypeMapperImpl;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationMapper;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationReference;
@@ -32,6 +33,9 @@ import com.google.common.collect.ImmutableList;
 import java.util.Map;
 import javax.annotation.Nullable;
 import javax.sql.DataSource;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.coders.CannotProvideCoderException;
+import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.io.jdbc.JdbcIO;
 import org.apache.beam.sdk.io.jdbc.JdbcIO.PreparedStatementSetter;
 import org.apache.beam.sdk.transforms.Create;
@@ -48,6 +52,8 @@ import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TupleTagList;
+import org.apache.beam.sdk.values.TypeDescriptor;
+import org.apache.beam.sdk.values.TypeDescriptors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -131,6 +137,23 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
    */
   abstract Long initialSplitHint();
 
+  /**
+   * If set to true, the initial split of ranges uses the bucket bounds of the histogram maintained
+   * by the database for the first partition column (see {@link
+   * UniformSplitterDBAdapter#getColumnStatisticsQuery(String, String)}) instead of assuming uniform
+   * density. The initial split falls back to assuming uniform density if the statistics are not
+   * available. Defaults to false.
+   */
+  abstract Boolean useColumnStatisticsForInitialSplit();
+
+  /**
+   * If set to true, the ranges are read by a splittable DoFn which allows the runner to split the
+   * remainder of a range while it's being read, for dialects that support ordered reads. Defaults
+   * to false. Ignored if {@link #dbParallelizationForReads()} is set, as the runner can read the
+   * remainders split off the ranges in parallel to the ranges, beyond the limit.
+   */
+  abstract Boolean splittableReads();
+
   /**
    * Number of stages for the splitting process. This can be set to smaller values like 2/3 for auto
    * incrementing keys. Defaults to log2({@link ReadWithUniformPartitions#maxPartitionsHint()}).
@@ -147,7 +170,7 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
 
   /**
    * If not null, limits the maximum number of parallel operations queued on a DB per transform.
-   * Defaults to null.
+   * Setting this disables the {@link #splittableReads() splittable reads}. Defaults to null.
    */
   @Nullable
   abstract Integer dbParallelizationForReads();
@@ -215,18 +238,58 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
             .apply(
                 ParDo.of(new UnflattenRangesDoFn())
                     .withSideInputs(typeMapper.getCollationMapperView()));
-    return rangesToRead
-        .apply(
+    PCollection<Range> reshuffledRanges =
+        rangesToRead.apply(
             getTransformName("ReshuffleFinal", null),
-            Reshuffle.<Range>viaRandomKey().withNumBuckets(dbParallelizationForReads()))
-        .apply(
-            getTransformName("RangeRead", null),
-            JdbcIO.<Range, T>readAll()
-                .withOutputParallelization(false)
-                .withQuery(dbAdapter().getReadQuery(tableName(), colNames))
-                .withParameterSetter(rangePrepareator)
-                .withDataSourceProviderFn(dataSourceProviderFn())
-                .withRowMapper(rowMapper()));
+            Reshuffle.<Range>viaRandomKey().withNumBuckets(dbParallelizationForReads()));
+    if (splittableReads() && dbParallelizationForReads() == null && supportsSplittableReads()) {
+      return reshuffledRanges
+          .apply(
+              getTransformName("RangeRead", null),
+              ParDo.of(
+                      new RangeReadDoFn<>(
+                          dataSourceProviderFn(), dbAdapter(), tableName(), colNames, rowMapper()))
+                  .withSideInput(
+                      RangeReadDoFn.COLLATION_MAPPER_SIDE_INPUT,
+                      typeMapper.getCollationMapperView()))
+          .setCoder(inferRowCoder(input.getPipeline()));
+    }
+    return reshuffledRanges.apply(
+        getTransformName("RangeRead", null),
+        JdbcIO.<Range, T>readAll()
+            .withOutputParallelization(false)
+            .withQuery(dbAdapter().getReadQuery(tableName(), colNames))
+            .withParameterSetter(rangePrepareator)
+            .withDataSourceProviderFn(dataSourceProviderFn())
+            .withRowMapper(rowMapper()));
+  }
+
+  /**
+   * Splittable reads need the dialect to support ordered reads and the restriction tracker to
+   * support the classes of all the partition columns.
+   */
+  private boolean supportsSplittableReads() {
+    return dbAdapter()
+                .getOrderedReadQuery(
+                    tableName(), ImmutableList.of(), partitionColumns().get(0).columnName())
+            != null
+        && partitionColumns().stream()
+            .allMatch(c -> RangeRestrictionTracker.isSupported(c.columnClass()));
+  }
+
+  /** Infer the coder for the rows from the type of the {@link #rowMapper()}. */
+  private Coder<T> inferRowCoder(Pipeline pipeline) {
+    TypeDescriptor<T> rowType =
+        TypeDescriptors.extractFromTypeParameters(
+            rowMapper(),
+            JdbcIO.RowMapper.class,
+            new TypeDescriptors.TypeVariableExtractor<JdbcIO.RowMapper<T>, T>() {});
+    try {
+      return pipeline.getCoderRegistry().getCoder(rowType);
+    } catch (CannotProvideCoderException e) {
+      throw new IllegalStateException(
+          "Unable to infer a coder for the rows read by the row mapper " + rowMapper(), e);
+    }
   }
 
   public static <T> Builder<T> builder() {
@@ -234,7 +297,20 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
         .setCountQueryTimeoutMillis(SPLITTER_DEFAULT_COUNT_QUERY_TIMEOUT_MILLIS)
         .setDbParallelizationForSplitProcess(null)
         .setDbParallelizationForReads(null)
-        .setAutoAdjustMaxPartitions(true);
+        .setAutoAdjustMaxPartitions(true)
+        .setUseColumnStatisticsForInitialSplit(false)
+        .setSplittableReads(false);
+  }
+
+  /**
+   * Split height of the initial split of a table, as used by default for a given {@link
+   * #maxPartitionsHint()}.
+   *
+   * @param maxPartitionsHint hint for maximum number of partitions of the table.
+   * @return how many iterations of splits the initial split does.
+   */
+  public static long initialSplitHeight(long maxPartitionsHint) {
+    return logToBaseTwo(SPLITTER_MAX_RELATIVE_DEVIATION * maxPartitionsHint);
   }
 
   /** Gives log to the base 2 of a given value rounded up. */
@@ -289,6 +365,18 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
       initialRange = wait(input.apply(Create.of(ImmutableList.of(initialRange()))));
     }
 
+    if (useColumnStatisticsForInitialSplit()) {
+      return initialRange.apply(
+          getTransformName("StatisticsRangeSplit", null),
+          ParDo.of(
+                  new StatisticsSplitRangeDoFn(
+                      dataSourceProviderFn(),
+                      dbAdapter(),
+                      tableName(),
+                      splitHeight,
+                      approxTotalRowCount()))
+              .withSideInputs(typeMapper.getCollationMapperView()));
+    }
     return initialRange.apply(
         getTransformName("InitialRangeSplit", null),
         ParDo.of(
@@ -445,6 +533,10 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
 
     public abstract Builder<T> setSplitStageCountHint(Long value);
 
+    public abstract Builder<T> setUseColumnStatisticsForInitialSplit(Boolean value);
+
+    public abstract Builder<T> setSplittableReads(Boolean value);
+
     public abstract Builder<T> setDbParallelizationForSplitProcess(@Nullable Integer value);
 
     public abstract Builder<T> setDbParallelizationForReads(@Nullable Integer value);
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms;
+
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.UniformSplitterDBAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.TreeSet;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates initial splits for the first partition column from the histogram the database maintains
+ * for the column in its statistics. Since the histogram buckets are approximately equi-depth, the
+ * resulting ranges are close to uniform in their counts even if the key space is skewed. Each of
+ * them is therefore given an equal share of the approximate row count of the table as its estimated
+ * count, which lets the first stage of {@link ReadWithUniformPartitions} retain them without
+ * running a count query per range. Only the ranges the later stages split are counted.
+ *
+ * <p>If the dialect does not support column statistics, the statistics are not available (or not
+ * accessible) for the column, or the column type is not supported, the initial range is split
+ * assuming uniform density like {@link InitialSplitRangeDoFn}.
+ */
+public final class StatisticsSplitRangeDoFn extends DoFn<Range, ImmutableList<Range>>
+    implements Serializable {
+
+  private static final Logger logger = LoggerFactory.getLogger(StatisticsSplitRangeDoFn.class);
+
+  /** Parsers for the string representation of the histogram bounds of supported column types. */
+  private static final ImmutableMap<Class, Function<String, Comparable>> BOUND_PARSERS =
+      ImmutableMap.of(
+          Integer.class, Integer::valueOf,
+          Long.class, Long::valueOf,
+          BigInteger.class, BigInteger::new);
+
+  private final SerializableFunction<Void, DataSource> dataSourceProviderFn;
+
+  private final UniformSplitterDBAdapter dbAdapter;
+
+  private final String tableName;
+
+  /** Split height for the uniform split. The split generates at most 2^splitHeight ranges. */
+  private final long splitHeight;
+
+  /**
+   * Approximate row count of the table, used to estimate the counts of the ranges split from the
+   * statistics. The ranges are left uncounted if this is not positive.
+   */
+  private final long approxTotalRowCount;
+
+  @JsonIgnore private transient @Nullable DataSource dataSource;
+
+  StatisticsSplitRangeDoFn(
+      SerializableFunction<Void, DataSource> dataSourceProviderFn,
+      UniformSplitterDBAdapter dbAdapter,
+      String tableName,
+      long splitHeight,
+      long approxTotalRowCount) {
+    this.dataSourceProviderFn = dataSourceProviderFn;
+    this.dbAdapter = dbAdapter;
+    this.tableName = tableName;
+    this.splitHeight = splitHeight;
+    this.approxTotalRowCount = approxTotalRowCount;
+    this.dataSource = null;
+  }
+
+  @Setup
+  public void setup() throws Exception {
+    dataSource = dataSourceProviderFn.apply(null);
+  }
+
+  /**
+   * @param input Range indicating Min and Max of the first partition column.
+   * @param out output receiver for a list of initial split of ranges. The ranges split from the
+   *     statistics carry estimated counts, the ranges of a uniform split are not counted as yet.
+   * @param c process context
+   */
+  @ProcessElement
+  public void processElement(
+      @Element Range input, OutputReceiver<ImmutableList<Range>> out, ProcessContext c) {
+    // Note Searching for "RWUPT -" for ReadWithUniformPartition gives the most import logs for the
+    // splitting process.
+    logger.info(
+        "RWUPT - Began statistics based split process for table {} with initial range as {}",
+        tableName,
+        input);
+
+    ImmutableList<Range> ranges =
+        split(
+            checkStateNotNull(dataSource),
+            dbAdapter,
+            tableName,
+            splitHeight,
+            approxTotalRowCount,
+            input,
+            c);
+    logger.info(
+        "RWUPT - Completed initial split for table {} with initial range as {}, and {} split ranges",
+        tableName,
+        input,
+        ranges.size());
+    out.output(ranges);
+  }
+
+  /**
+   * Split a range at the bounds of the histogram of its column, falling back to a uniform split if
+   * the statistics can not be used for the range.
+   *
+   * @param dataSource data source of the table.
+   * @param dbAdapter dialect adapter.
+   * @param tableName name of the table.
+   * @param splitHeight the split generates at most 2^splitHeight ranges.
+   * @param input range to split.
+   * @param c process context.
+   * @return sorted list of split ranges.
+   */
+  public static ImmutableList<Range> split(
+      DataSource dataSource,
+      UniformSplitterDBAdapter dbAdapter,
+      String tableName,
+      long splitHeight,
+      Range input,
+      DoFn<?, ?>.ProcessContext c) {
+    return split(dataSource, dbAdapter, tableName, splitHeight, 0L, input, c);
+  }
+
+  private static ImmutableList<Range> split(
+      DataSource dataSource,
+      UniformSplitterDBAdapter dbAdapter,
+      String tableName,
+      long splitHeight,
+      long approxTotalRowCount,
+      Range input,
+      DoFn<?, ?>.ProcessContext c) {
+    ImmutableList<Comparable> splitPoints =
+        getSplitPoints(dataSource, dbAdapter, tableName, splitHeight, input);
+    if (splitPoints.isEmpty()) {
+      logger.info(
+          "RWUPT - Column statistics not available for table {}, range {}. Falling back to uniform split.",
+          tableName,
+          input);
+      return InitialSplitRangeDoFn.splitUniformly(input, splitHeight, tableName, c);
+    }
+    ImmutableList<Range> ranges = input.splitAt((ImmutableList) splitPoints);
+    if (approxTotalRowCount <= 0) {
+      return ranges;
+    }
+    // The histogram buckets are approximately equi-depth, so are the ranges split at their bounds.
+    long estimatedCount = (approxTotalRowCount + ranges.size() - 1) / ranges.size();
+    return ranges.stream()
+        .map(range -> range.withCount(estimatedCount, null))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * Get the sorted, distinct split points within the range from the column statistics, limited to
+   * 2^splitHeight - 1 points. Returns an empty list if statistics can not be used for the range.
+   */
+  @VisibleForTesting
+  ImmutableList<Comparable> getSplitPoints(Range input) {
+    return getSplitPoints(checkStateNotNull(dataSource), dbAdapter, tableName, splitHeight, input);
+  }
+
+  private static ImmutableList<Comparable> getSplitPoints(
+      DataSource dataSource,
+      UniformSplitterDBAdapter dbAdapter,
+      String tableName,
+      long splitHeight,
+      Range input) {
+    Function<String, Comparable> parser = BOUND_PARSERS.get(input.colClass());
+    String query = dbAdapter.getColumnStatisticsQuery(tableName, input.colName());
+    if (parser == null
+        || query == null
+        || input.hasChildRange()
+        || input.start() == null
+        || input.end() == null) {
+      return ImmutableList.of();
+    }
+    Comparable start = (Comparable) input.start();
+    Comparable end = (Comparable) input.end();
+    TreeSet<Comparable> bounds = new TreeSet<>();
+    try (Connection conn = dataSource.getConnection();
+        Statement stmt =
+            conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ResultSet rs = stmt.executeQuery(query)) {
+      while (rs.next()) {
+        String bound = rs.getString(1);
+        if (bound == null) {
+          continue;
+        }
+        try {
+          Comparable value = parser.apply(bound.trim());
+          if (value.compareTo(start) > 0 && value.compareTo(end) < 0) {
+            bounds.add(value);
+          }
+        } catch (NumberFormatException e) {
+          // Bounds of a different type, for example fractional bounds of a decimal column are
+          // ignored.
+          logger.debug("Ignoring bound {} for table {}, range {}", bound, tableName, input);
+        }
+      }
+    } catch (SQLException e) {
+      // Statistics are an optimization. Missing privileges or older versions of the database
+      // should not fail the migration.
+      logger.warn(
+          "SQL Exception = {} while getting column statistics for table = {}, range = {}, Query = {}. Falling back to uniform split.",
+          e,
+          tableName,
+          input,
+          query);
+      return ImmutableList.of();
+    }
+    return sample(new ArrayList<>(bounds), (1L << Math.min(splitHeight, 62)) - 1);
+  }
+
+  /** Pick at most {@code maxPoints} points spread evenly across the sorted {@code points}. */
+  @VisibleForTesting
+  static ImmutableList<Comparable> sample(ArrayList<Comparable> points, long maxPoints) {
+    if (points.size() <= maxPoints) {
+      return ImmutableList.copyOf(points);
+    }
+    ImmutableList.Builder<Comparable> sampled = ImmutableList.builder();
+    for (long i = 1; i <= maxPoints; i++) {
+      sampled.add(points.get((int) ((i * points.size()) / (maxPoints + 1))));
+    }
+    return sampled.build();
+  }
+}
@@ -20,6 +20,7 @@ import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchemaReferenc
 import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
 import java.io.Serializable;
 import javax.annotation.Nullable;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
 
@@ -111,6 +112,54 @@ public abstract class SourceRow implements Serializable {
     return builder;
   }
 
+  /**
+   * Create a {@link SourceRow} from an already populated payload record. This is a cheaper
+   * alternative to the {@link #builder} for readers that populate the payload fields by their
+   * position.
+   *
+   * @param sourceSchemaReference reference for the source table's schema.
+   * @param sourceTableSchema schema of the source table.
+   * @param shardId shard id, null for non-sharded cases.
+   * @param readTimeMicros read time.
+   * @param payload payload as per {@link SourceTableSchema#getAvroPayload()}.
+   * @return SourceRow.
+   */
+  public static SourceRow fromPayload(
+      SourceSchemaReference sourceSchemaReference,
+      SourceTableSchema sourceTableSchema,
+      String shardId,
+      long readTimeMicros,
+      GenericRecord payload) {
+    GenericRecord record = new GenericData.Record(sourceTableSchema.avroSchema());
+    record.put(SourceTableSchema.READ_TIME_STAMP_FIELD_NAME, readTimeMicros);
+    record.put(SourceTableSchema.PAYLOAD_FIELD_NAME, payload);
+    return create(
+        sourceSchemaReference,
+        sourceTableSchema.tableSchemaUUID(),
+        sourceTableSchema.tableName(),
+        shardId,
+        record);
+  }
+
+  /**
+   * Re-create a {@link SourceRow} from an already built avro record. Used by {@link SourceRowCoder}
+   * while decoding.
+   */
+  static SourceRow create(
+      SourceSchemaReference sourceSchemaReference,
+      String tableSchemaUUID,
+      String tableName,
+      String shardId,
+      GenericRecord record) {
+    return new AutoValue_SourceRow.Builder()
+        .setSourceSchemaReference(sourceSchemaReference)
+        .setTableSchemaUUID(tableSchemaUUID)
+        .setTableName(tableName)
+        .setShardId(shardId)
+        .setRecord(new SerializableGenericRecord(record))
+        .autoBuild();
+  }
+
   @AutoValue.Builder
   public abstract static class Builder {
     @SuppressWarnings("CheckReturnValue")
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.row;
+
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchemaReference;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.values.TypeDescriptor;
+
+/**
+ * Schema-aware {@link Coder} for {@link SourceRow}.
+ *
+ * <p>Unlike the java serialization of {@link SerializableGenericRecord}, which writes the complete
+ * Avro {@link Schema} along with every row, this coder encodes only the {@code tableSchemaUUID},
+ * the optional {@code shardId} and the Avro binary body of the record. The schemas are resolved on
+ * the worker from a registry of {@link SourceTableSchema} that is carried by the coder itself, and
+ * hence is serialized once as part of the pipeline graph rather than once per row.
+ *
+ * <p><b>Encoding</b>
+ *
+ * <ol>
+ *   <li>tableSchemaUUID - {@link StringUtf8Coder}.
+ *   <li>shardId - {@link NullableCoder} of {@link StringUtf8Coder}.
+ *   <li>record - Avro binary encoding of the record as per the registered table schema.
+ * </ol>
+ *
+ * <p><b>Note:</b> Encoding a row whose {@code tableSchemaUUID} is not registered with the coder is
+ * an error, as the decoder would not be able to resolve the schema.
+ */
+public class SourceRowCoder extends CustomCoder<SourceRow> {
+
+  private static final StringUtf8Coder UUID_CODER = StringUtf8Coder.of();
+  private static final NullableCoder<String> SHARD_ID_CODER =
+      NullableCoder.of(StringUtf8Coder.of());
+
+  private final SourceSchemaReference sourceSchemaReference;
+
+  /** Registry of tableSchemaUUID to the table schema, shipped to the workers with the coder. */
+  private final ImmutableMap<String, SourceTableSchema> tableSchemas;
+
+  /* Avro readers and writers are not serializable and are lazily initialized on the worker. */
+  private transient volatile Map<String, GenericDatumWriter<GenericRecord>> writers;
+  private transient volatile Map<String, GenericDatumReader<GenericRecord>> readers;
+
+  private SourceRowCoder(
+      SourceSchemaReference sourceSchemaReference,
+      ImmutableMap<String, SourceTableSchema> tableSchemas) {
+    this.sourceSchemaReference = sourceSchemaReference;
+    this.tableSchemas = tableSchemas;
+  }
+
+  /**
+   * Construct a {@link SourceRowCoder} for all the tables of a given {@link SourceSchema}.
+   *
+   * @param sourceSchema schema of the source database.
+   * @return coder.
+   */
+  public static SourceRowCoder of(SourceSchema sourceSchema) {
+    return new SourceRowCoder(
+        sourceSchema.schemaReference(),
+        sourceSchema.tableSchemas().stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    SourceTableSchema::tableSchemaUUID, tableSchema -> tableSchema)));
+  }
+
+  @Override
+  public void encode(SourceRow value, OutputStream outStream) throws IOException {
+    if (value == null) {
+      throw new CoderException("The SourceRowCoder cannot encode a null object!");
+    }
+    String tableSchemaUUID = value.tableSchemaUUID();
+    GenericDatumWriter<GenericRecord> writer = getWriter(tableSchemaUUID);
+    UUID_CODER.encode(tableSchemaUUID, outStream);
+    SHARD_ID_CODER.encode(value.shardId(), outStream);
+    BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(outStream, null);
+    writer.write(value.record().getRecord(), encoder);
+    encoder.flush();
+  }
+
+  @Override
+  public SourceRow decode(InputStream inStream) throws IOException {
+    String tableSchemaUUID = UUID_CODER.decode(inStream);
+    String shardId = SHARD_ID_CODER.decode(inStream);
+    GenericDatumReader<GenericRecord> reader = getReader(tableSchemaUUID);
+    /* A direct decoder does not buffer ahead, leaving the stream positioned for the next coder. */
+    BinaryDecoder decoder = DecoderFactory.get().directBinaryDecoder(inStream, null);
+    GenericRecord record = reader.read(null, decoder);
+    return SourceRow.create(
+        sourceSchemaReference,
+        tableSchemaUUID,
+        tableSchemas.get(tableSchemaUUID).tableName(),
+        shardId,
+        record);
+  }
+
+  @Override
+  public List<? extends Coder<?>> getCoderArguments() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public TypeDescriptor<SourceRow> getEncodedTypeDescriptor() {
+    return TypeDescriptor.of(SourceRow.class);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SourceRowCoder)) {
+      return false;
+    }
+    SourceRowCoder that = (SourceRowCoder) o;
+    return sourceSchemaReference.equals(that.sourceSchemaReference)
+        && tableSchemas.keySet().equals(that.tableSchemas.keySet());
+  }
+
+  @Override
+  public int hashCode() {
+    return tableSchemas.keySet().hashCode();
+  }
+
+  private Schema getSchema(String tableSchemaUUID) throws CoderException {
+    SourceTableSchema tableSchema = tableSchemas.get(tableSchemaUUID);
+    if (tableSchema == null) {
+      throw new CoderException(
+          "The SourceRowCoder does not have a registered schema for tableSchemaUUID "
+              + tableSchemaUUID);
+    }
+    return tableSchema.avroSchema();
+  }
+
+  private GenericDatumWriter<GenericRecord> getWriter(String tableSchemaUUID)
+      throws CoderException {
+    if (writers == null) {
+      synchronized (this) {
+        if (writers == null) {
+          writers = new ConcurrentHashMap<>();
+        }
+      }
+    }
+    GenericDatumWriter<GenericRecord> writer = writers.get(tableSchemaUUID);
+    if (writer == null) {
+      writer = new GenericDatumWriter<>(getSchema(tableSchemaUUID));
+      writers.put(tableSchemaUUID, writer);
+    }
+    return writer;
+  }
+
+  private GenericDatumReader<GenericRecord> getReader(String tableSchemaUUID)
+      throws CoderException {
+    if (readers == null) {
+      synchronized (this) {
+        if (readers == null) {
+          readers = new ConcurrentHashMap<>();
+        }
+      }
+    }
+    GenericDatumReader<GenericRecord> reader = readers.get(tableSchemaUUID);
+    if (reader == null) {
+      reader = new GenericDatumReader<>(getSchema(tableSchemaUUID));
+      readers.put(tableSchemaUUID, reader);
+    }
+    return reader;
+  }
+}
@@ -19,6 +19,7 @@ import com.google.auto.value.AutoValue;
 import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
 import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableReference;
 import java.io.Serializable;
+import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
@@ -98,6 +99,15 @@ public abstract class ReaderTransform implements Serializable {
       this.readTransformBuilder.withTableReader(sourceTableReference, tableReader);
     }
 
+    /**
+     * Set the coder for the {@link SourceRow SourceRows} generated by the reader, typically a
+     * {@link com.google.cloud.teleport.v2.source.reader.io.row.SourceRowCoder}.
+     */
+    public Builder withSourceRowCoder(Coder<SourceRow> sourceRowCoder) {
+      this.readTransformBuilder.setSourceRowCoder(sourceRowCoder);
+      return this;
+    }
+
     public ReaderTransform build() {
       this.setReadTransform(readTransformBuilder.build());
       return autoBuild();
@@ -17,8 +17,12 @@ package com.google.cloud.teleport.v2.templates;
 
 import com.google.cloud.teleport.v2.constants.MetricCounters;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.beam.repackaged.core.org.apache.commons.lang3.StringUtils;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
@@ -47,10 +51,12 @@ public class IncrementTableCounter extends PTransform<PBegin, PCollection<Void>>
 
   private final Map<Integer, Wait.OnSignal<?>> levelWaits;
 
-  private final String shardId;
+  private final List<String> shardIds;
 
   private final Map<Integer, List<String>> levelToSpannerTables;
 
+  private final MigrationCheckpoint checkpoint;
+
   /**
    * @param levelWaits Map of src table name to Wait.OnSignals, denoting which pcollection should a
    *     table wait on to signal completion.
@@ -61,9 +67,67 @@ public class IncrementTableCounter extends PTransform<PBegin, PCollection<Void>>
       Map<Integer, Wait.OnSignal<?>> levelWaits,
       String shardId,
       Map<Integer, List<String>> levelToSpannerTables) {
+    this(levelWaits, Collections.singletonList(shardId), levelToSpannerTables);
+  }
+
+  /**
+   * @param levelWaits Map of src table name to Wait.OnSignals, denoting which pcollection should a
+   *     table wait on to signal completion.
+   * @param shardIds logical shard ids that share the set of tables, as migrated by the same
+   *     pipeline stages. Each table is counted once per shard.
+   * @param levelToSpannerTables level wise list of spanner Tables.
+   */
+  public IncrementTableCounter(
+      Map<Integer, Wait.OnSignal<?>> levelWaits,
+      List<String> shardIds,
+      Map<Integer, List<String>> levelToSpannerTables) {
+    this(levelWaits, shardIds, levelToSpannerTables, null);
+  }
+
+  /**
+   * @param levelWaits Map of src table name to Wait.OnSignals, denoting which pcollection should a
+   *     table wait on to signal completion.
+   * @param shardIds logical shard ids that share the set of tables, as migrated by the same
+   *     pipeline stages. Each table is counted once per shard.
+   * @param levelToSpannerTables level wise list of spanner Tables.
+   * @param checkpoint if not null, the completed tables are recorded in the checkpoint so that a
+   *     resumed migration can skip them.
+   */
+  public IncrementTableCounter(
+      Map<Integer, Wait.OnSignal<?>> levelWaits,
+      List<String> shardIds,
+      Map<Integer, List<String>> levelToSpannerTables,
+      @Nullable MigrationCheckpoint checkpoint) {
     this.levelWaits = levelWaits;
-    this.shardId = shardId;
+    this.shardIds = shardIds;
     this.levelToSpannerTables = levelToSpannerTables;
+    this.checkpoint = checkpoint;
+  }
+
+  /**
+   * Create a transform that signals the completion of each table separately, rather than of a level
+   * of tables.
+   *
+   * @param tableWaits Map of spanner table name to the Wait.OnSignal denoting the completion of the
+   *     writes of the table.
+   * @param shardIds logical shard ids that share the set of tables. Each table is counted once per
+   *     shard.
+   * @param checkpoint if not null, each table is recorded in the checkpoint as soon as its writes
+   *     complete.
+   * @return transform.
+   */
+  public static IncrementTableCounter forTables(
+      Map<String, Wait.OnSignal<?>> tableWaits,
+      List<String> shardIds,
+      @Nullable MigrationCheckpoint checkpoint) {
+    Map<Integer, Wait.OnSignal<?>> waits = new LinkedHashMap<>();
+    Map<Integer, List<String>> tables = new HashMap<>();
+    for (Map.Entry<String, Wait.OnSignal<?>> entry : tableWaits.entrySet()) {
+      int index = waits.size();
+      waits.put(index, entry.getValue());
+      tables.put(index, Collections.singletonList(entry.getKey()));
+    }
+    return new IncrementTableCounter(waits, shardIds, tables, checkpoint);
   }
 
   @Override
@@ -89,13 +153,18 @@ public class IncrementTableCounter extends PTransform<PBegin, PCollection<Void>>
               @ProcessElement
               public void processElement(ProcessContext c) {
                 List<String> spannerTables = levelToSpannerTables.get(c.element());
-                for (String table : spannerTables) {
-                  String msg = String.format("Completed spanner table: %s", table);
-                  if (!StringUtils.isEmpty(shardId)) {
-                    msg += " for shard: " + shardId;
+                for (String shardId : shardIds) {
+                  for (String table : spannerTables) {
+                    String msg = String.format("Completed spanner table: %s", table);
+                    if (!StringUtils.isEmpty(shardId)) {
+                      msg += " for shard: " + shardId;
+                    }
+                    LOG.info(msg);
+                    tablesCompleted.inc();
+                    if (checkpoint != null) {
+                      checkpoint.markCompleted(shardId, table);
+                    }
                   }
-                  LOG.info(msg);
-                  tablesCompleted.inc();
                 }
               }
             }));
@@ -28,16 +28,24 @@ import com.google.cloud.teleport.v2.transformer.SourceRowToMutationDoFn;
 import com.google.cloud.teleport.v2.writer.DeadLetterQueue;
 import com.google.cloud.teleport.v2.writer.SpannerWriter;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.beam.repackaged.core.org.apache.commons.lang3.StringUtils;
-import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.io.gcp.spanner.MutationGroup;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerWriteResult;
+import org.apache.beam.sdk.transforms.Flatten;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.Wait;
 import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTagList;
 import org.slf4j.Logger;
@@ -50,12 +58,20 @@ public class MigrateTableTransform extends PTransform<PBegin, PCollection<Void>>
   private SpannerConfig spannerConfig;
   private Ddl ddl;
   private ISchemaMapper schemaMapper;
-  private ReaderImpl reader;
+  private PTransform<PBegin, PCollection<SourceRow>> sourceRowReader;
   private String shardId;
   private SQLDialect sqlDialect;
 
   private Map<String, String> srcTableToShardIdColumnMap;
 
+  @Nullable private Map<String, String> spannerTableToShardIdColumnMap;
+
+  @Nullable private List<String> spannerTables;
+
+  private List<String> completedShardIds;
+
+  @Nullable private MigrationCheckpoint checkpoint;
+
   public MigrateTableTransform(
       SourceDbToSpannerOptions options,
       SpannerConfig spannerConfig,
@@ -64,22 +80,86 @@ public class MigrateTableTransform extends PTransform<PBegin, PCollection<Void>>
       ReaderImpl reader,
       String shardId,
       Map<String, String> srcTableToShardIdColumnMap) {
+    this(
+        options,
+        spannerConfig,
+        ddl,
+        schemaMapper,
+        new ReadSourceRows(reader),
+        shardId,
+        srcTableToShardIdColumnMap);
+  }
+
+  /**
+   * Construct the transform for a reader that directly generates the {@link SourceRow SourceRows},
+   * like {@link com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.ShardedJdbcReader}.
+   * The coder of the rows generated by the reader is used for the rows passed between the
+   * transformer, writer and the DLQ.
+   */
+  public MigrateTableTransform(
+      SourceDbToSpannerOptions options,
+      SpannerConfig spannerConfig,
+      Ddl ddl,
+      ISchemaMapper schemaMapper,
+      PTransform<PBegin, PCollection<SourceRow>> sourceRowReader,
+      String shardId,
+      Map<String, String> srcTableToShardIdColumnMap) {
     this.options = options;
     this.spannerConfig = spannerConfig;
     this.ddl = ddl;
     this.schemaMapper = schemaMapper;
-    this.reader = reader;
+    this.sourceRowReader = sourceRowReader;
     this.shardId = StringUtils.isEmpty(shardId) ? "" : shardId;
     this.sqlDialect = SQLDialect.valueOf(options.getSourceDbDialect());
     this.srcTableToShardIdColumnMap = srcTableToShardIdColumnMap;
+    this.spannerTableToShardIdColumnMap = null;
+    this.spannerTables = null;
+    this.completedShardIds = Collections.singletonList("");
+    this.checkpoint = null;
+  }
+
+  /**
+   * Route the DLQ records of the rows of many logical shards to the sub directory of the shard of
+   * each row, see {@link DeadLetterQueue#createPerShard}. Used when a single reader reads all the
+   * shards.
+   *
+   * @param spannerTableToShardIdColumnMap shard id columns of the Spanner tables, used to find the
+   *     shard of the mutations that failed to be written.
+   */
+  public MigrateTableTransform withDlqPerShard(Map<String, String> spannerTableToShardIdColumnMap) {
+    this.spannerTableToShardIdColumnMap = spannerTableToShardIdColumnMap;
+    return this;
+  }
+
+  /**
+   * Write every Spanner table separately and signal the completion of each table through {@link
+   * IncrementTableCounter} as soon as its writes are committed. A failure in one table of the level
+   * does not prevent the completed tables from being counted and checkpointed.
+   *
+   * @param spannerTables Spanner tables migrated by this transform.
+   * @param shardIds logical shards migrated by this transform.
+   * @param checkpoint if not null, the completed tables are recorded in the checkpoint.
+   */
+  public MigrateTableTransform withTableCompletion(
+      List<String> spannerTables, List<String> shardIds, @Nullable MigrationCheckpoint checkpoint) {
+    this.spannerTables = spannerTables;
+    this.completedShardIds = shardIds;
+    this.checkpoint = checkpoint;
+    return this;
+  }
+
+  private DeadLetterQueue createDeadLetterQueue(String directory) {
+    if (spannerTableToShardIdColumnMap == null) {
+      return DeadLetterQueue.create(directory, ddl, srcTableToShardIdColumnMap, sqlDialect);
+    }
+    return DeadLetterQueue.createPerShard(
+        directory, ddl, srcTableToShardIdColumnMap, spannerTableToShardIdColumnMap, sqlDialect);
   }
 
   @Override
   public PCollection<Void> expand(PBegin input) {
-    ReaderTransform readerTransform = reader.getReaderTransform();
-
-    PCollectionTuple rowsAndTables = input.apply("Read_rows", readerTransform.readTransform());
-    PCollection<SourceRow> sourceRows = rowsAndTables.get(readerTransform.sourceRowTag());
+    PCollection<SourceRow> sourceRows = input.apply("Read_rows", sourceRowReader);
+    Coder<RowContext> rowContextCoder = RowContextCoder.of(sourceRows.getCoder());
 
     CustomTransformation customTransformation =
         CustomTransformation.builder(
@@ -103,12 +183,38 @@ public class MigrateTableTransform extends PTransform<PBegin, PCollection<Void>>
 
     // Write to Spanner
     SpannerWriter writer = new SpannerWriter(spannerConfig);
-    SpannerWriteResult spannerWriteResult =
-        writer.writeToSpanner(
-            transformationResult
-                .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_SUCCESS)
-                .setCoder(SerializableCoder.of(RowContext.class)));
-    PCollection<MutationGroup> failedMutations = spannerWriteResult.getFailedMutations();
+    PCollection<RowContext> transformedRows =
+        transformationResult
+            .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_SUCCESS)
+            .setCoder(rowContextCoder);
+    PCollection<MutationGroup> failedMutations;
+    PCollection<Void> output;
+    if (spannerTables == null) {
+      SpannerWriteResult spannerWriteResult = writer.writeToSpanner(transformedRows);
+      failedMutations = spannerWriteResult.getFailedMutations();
+      output = spannerWriteResult.getOutput();
+    } else {
+      Map<String, SpannerWriteResult> tableWriteResults =
+          writer.writeToSpannerPerTable(transformedRows, spannerTables);
+      failedMutations =
+          PCollectionList.of(
+                  tableWriteResults.values().stream()
+                      .map(SpannerWriteResult::getFailedMutations)
+                      .collect(Collectors.toList()))
+              .apply("FlattenFailedMutations", Flatten.pCollections());
+      output =
+          PCollectionList.of(
+                  tableWriteResults.values().stream()
+                      .map(SpannerWriteResult::getOutput)
+                      .collect(Collectors.toList()))
+              .apply("FlattenOutputs", Flatten.pCollections());
+      Map<String, Wait.OnSignal<?>> tableWaits = new LinkedHashMap<>();
+      tableWriteResults.forEach(
+          (table, result) -> tableWaits.put(table, Wait.on(result.getOutput())));
+      input.apply(
+          "Increment_table_counters",
+          IncrementTableCounter.forTables(tableWaits, completedShardIds, checkpoint));
+    }
 
     String outputDirectory = options.getOutputDirectory();
     if (!outputDirectory.endsWith("/")) {
@@ -118,25 +224,39 @@ public class MigrateTableTransform extends PTransform<PBegin, PCollection<Void>>
     // Dump Failed rows to DLQ
     String dlqDirectory = outputDirectory + "dlq/severe/" + shardId;
     LOG.info("DLQ directory: {}", dlqDirectory);
-    DeadLetterQueue dlq =
-        DeadLetterQueue.create(dlqDirectory, ddl, srcTableToShardIdColumnMap, sqlDialect);
+    DeadLetterQueue dlq = createDeadLetterQueue(dlqDirectory);
     dlq.failedMutationsToDLQ(failedMutations);
     dlq.failedTransformsToDLQ(
         transformationResult
             .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_ERROR)
-            .setCoder(SerializableCoder.of(RowContext.class)));
+            .setCoder(rowContextCoder));
 
     /*
      * Write filtered records to GCS
      */
     String filterEventsDirectory = outputDirectory + "filteredEvents/" + shardId;
     LOG.info("Filtered events directory: {}", filterEventsDirectory);
-    DeadLetterQueue filteredEventsQueue =
-        DeadLetterQueue.create(filterEventsDirectory, ddl, srcTableToShardIdColumnMap, sqlDialect);
+    DeadLetterQueue filteredEventsQueue = createDeadLetterQueue(filterEventsDirectory);
     filteredEventsQueue.filteredEventsToDLQ(
         transformationResult
             .get(SourceDbToSpannerConstants.FILTERED_EVENT_TAG)
-            .setCoder(SerializableCoder.of(RowContext.class)));
-    return spannerWriteResult.getOutput();
+            .setCoder(rowContextCoder));
+    return output;
+  }
+
+  /** Adapts the {@link ReaderTransform} of a {@link ReaderImpl} to the rows it generates. */
+  private static class ReadSourceRows extends PTransform<PBegin, PCollection<SourceRow>> {
+    private final ReaderImpl reader;
+
+    ReadSourceRows(ReaderImpl reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public PCollection<SourceRow> expand(PBegin input) {
+      ReaderTransform readerTransform = reader.getReaderTransform();
+      PCollectionTuple rowsAndTables = input.apply("Read", readerTransform.readTransform());
+      return rowsAndTables.get(readerTransform.sourceRowTag());
+    }
   }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.beam.repackaged.core.org.apache.commons.lang3.StringUtils;
+import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.fs.EmptyMatchTreatment;
+import org.apache.beam.sdk.io.fs.MatchResult;
+import org.apache.beam.sdk.io.fs.MatchResult.Metadata;
+import org.apache.beam.sdk.io.fs.ResourceId;
+import org.apache.beam.sdk.util.MimeTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the spanner tables whose migration has completed, so that a failed migration can be
+ * resumed without migrating the completed tables again.
+ *
+ * <p>A marker file is written for every completed table of a logical shard, at {@code
+ * <checkpointDirectory>/<shardId>/<spannerTable>}. The markers are written by {@link
+ * IncrementTableCounter} as soon as the writes of a table are committed, independent of the other
+ * tables of its level, and are read by {@link PipelineController} while building a resumed
+ * pipeline.
+ */
+public class MigrationCheckpoint implements Serializable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MigrationCheckpoint.class);
+
+  /** Sub directory of the output directory in which the checkpoints are stored. */
+  public static final String CHECKPOINT_DIRECTORY = "checkpoints/";
+
+  /** Shard directory used for the non-sharded migrations. */
+  private static final String DEFAULT_SHARD = "default";
+
+  private final String checkpointDirectory;
+
+  private MigrationCheckpoint(String checkpointDirectory) {
+    this.checkpointDirectory = checkpointDirectory;
+  }
+
+  /**
+   * Create a {@link MigrationCheckpoint} that stores the checkpoints within the output directory of
+   * the migration.
+   *
+   * @param outputDirectory output directory of the migration.
+   * @return migration checkpoint.
+   */
+  public static MigrationCheckpoint create(String outputDirectory) {
+    if (!outputDirectory.endsWith("/")) {
+      outputDirectory += "/";
+    }
+    return new MigrationCheckpoint(outputDirectory + CHECKPOINT_DIRECTORY);
+  }
+
+  /**
+   * Get the spanner tables that have been completely migrated for a logical shard.
+   *
+   * @param shardId logical shard id. Null or empty for non-sharded migrations.
+   * @return set of completed spanner tables.
+   */
+  public Set<String> completedTables(String shardId) {
+    String pattern = shardDirectory(shardId) + "*";
+    Set<String> completedTables = new HashSet<>();
+    try {
+      List<MatchResult> matchResults =
+          FileSystems.match(List.of(pattern), EmptyMatchTreatment.ALLOW);
+      for (MatchResult matchResult : matchResults) {
+        if (matchResult.status() != MatchResult.Status.OK) {
+          continue;
+        }
+        for (Metadata metadata : matchResult.metadata()) {
+          completedTables.add(metadata.resourceId().getFilename());
+        }
+      }
+    } catch (FileNotFoundException e) {
+      // Nothing is completed yet.
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to read the migration checkpoints at " + pattern, e);
+    }
+    LOG.info("Completed tables for shard: {}, tables: {}", shardId, completedTables);
+    return completedTables;
+  }
+
+  /**
+   * Mark a spanner table as completely migrated for a logical shard.
+   *
+   * @param shardId logical shard id. Null or empty for non-sharded migrations.
+   * @param spannerTable name of the spanner table.
+   */
+  public void markCompleted(String shardId, String spannerTable) {
+    ResourceId marker = FileSystems.matchNewResource(shardDirectory(shardId) + spannerTable, false);
+    try (WritableByteChannel channel = FileSystems.create(marker, MimeTypes.TEXT)) {
+      channel.write(ByteBuffer.wrap(Instant.now().toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to write the migration checkpoint " + marker, e);
+    }
+  }
+
+  private String shardDirectory(String shardId) {
+    return checkpointDirectory + (StringUtils.isEmpty(shardId) ? DEFAULT_SHARD : shardId) + "/";
+  }
+}
@@ -20,19 +20,33 @@ import com.google.cloud.teleport.v2.options.OptionsToConfigBuilder;
 import com.google.cloud.teleport.v2.options.SourceDbToSpannerOptions;
 import com.google.cloud.teleport.v2.source.reader.ReaderImpl;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.JdbcIoWrapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.ShardDataSources;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.ShardedJdbcReader;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.ShardedTableRead;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.JdbcIOWrapperConfig;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.SQLDialect;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.ISchemaMapper;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.IdentityMapper;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.SessionBasedMapper;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceColumnType;
 import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
 import com.google.cloud.teleport.v2.spanner.migrations.spanner.SpannerSchema;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.beam.repackaged.core.org.apache.commons.lang3.StringUtils;
 import org.apache.beam.sdk.Pipeline;
@@ -81,12 +95,6 @@ public class PipelineController {
       Pipeline pipeline,
       List<Shard> shards,
       SpannerConfig spannerConfig) {
-    // TODO
-    // Merge logical shards into 1 physical shard
-    // Populate completion per shard
-    // Take connection properties map
-    // Write to common DLQ ?
-
     Ddl ddl = SpannerSchema.getInformationSchemaAsDdl(spannerConfig);
     ISchemaMapper schemaMapper = PipelineController.getSchemaMapper(options, ddl);
     TableSelector tableSelector = new TableSelector(options.getTables(), ddl, schemaMapper);
@@ -98,30 +106,215 @@ public class PipelineController {
     LOG.info(
         "running migration for shards: {}",
         shards.stream().map(Shard::getHost).collect(Collectors.toList()));
+    List<ShardedDbConfigContainer> dbConfigContainers = new ArrayList<>();
     for (Shard shard : shards) {
       for (Map.Entry<String, String> entry : shard.getDbNameToLogicalShardIdMap().entrySet()) {
-        // Read data from source
         String shardId = entry.getValue();
 
         // If a namespace is configured for a shard uses that, otherwise uses the namespace
         // configured in the options if there is one.
         String namespace = Optional.ofNullable(shard.getNamespace()).orElse(options.getNamespace());
 
-        ShardedDbConfigContainer dbConfigContainer =
+        dbConfigContainers.add(
             new ShardedDbConfigContainer(
-                shard, sqlDialect, namespace, shardId, entry.getKey(), options);
-        setupLogicalDbMigration(
-            options,
-            pipeline,
-            spannerConfig,
-            tableSelector,
-            levelToSpannerTableList,
-            dbConfigContainer);
+                shard, sqlDialect, namespace, shardId, entry.getKey(), options));
       }
     }
+    setupShardedMigration(
+        options,
+        pipeline,
+        spannerConfig,
+        tableSelector,
+        levelToSpannerTableList,
+        dbConfigContainers);
     return pipeline.run();
   }
 
+  /**
+   * Set up the migration of all the logical shards with a single read, transform and write chain
+   * per level of tables. The shards and tables to read are passed as data to the {@link
+   * ShardedJdbcReader}, hence the size of the pipeline graph does not grow with the number of
+   * shards.
+   *
+   * <p>The schema of the tables of all the levels is discovered once from the first logical shard,
+   * as all the shards of a sharded migration are expected to have the same schema. It is checked
+   * once against every other database of the shards.
+   */
+  private static void setupShardedMigration(
+      SourceDbToSpannerOptions options,
+      Pipeline pipeline,
+      SpannerConfig spannerConfig,
+      TableSelector tableSelector,
+      Map<Integer, List<String>> levelToSpannerTableList,
+      List<ShardedDbConfigContainer> configContainers) {
+    if (configContainers.isEmpty()) {
+      LOG.warn("no logical shards found to migrate");
+      return;
+    }
+    ShardedDbConfigContainer schemaConfigContainer = configContainers.get(0);
+    List<String> shardIds =
+        configContainers.stream()
+            .map(ShardedDbConfigContainer::getShardId)
+            .collect(Collectors.toList());
+    MigrationCheckpoint checkpoint = MigrationCheckpoint.create(options.getOutputDirectory());
+    Map<String, Set<String>> shardToCompletedTables = new HashMap<>();
+    if (options.getResumeMigration()) {
+      for (String shardId : shardIds) {
+        shardToCompletedTables.put(shardId, checkpoint.completedTables(shardId));
+      }
+    }
+    Map<Integer, List<String>> levelToSpannerTablesToMigrate = new HashMap<>();
+    Map<String, String> sourceToSpannerTables = new LinkedHashMap<>();
+    for (int currentLevel = 0; currentLevel < levelToSpannerTableList.size(); currentLevel++) {
+      List<String> spannerTables =
+          getPendingSpannerTables(
+              levelToSpannerTableList.get(currentLevel), shardToCompletedTables.values());
+      levelToSpannerTablesToMigrate.put(currentLevel, spannerTables);
+      for (String spannerTable : spannerTables) {
+        sourceToSpannerTables.put(
+            tableSelector.getSchemaMapper().getSourceTableName("", spannerTable), spannerTable);
+      }
+    }
+    if (sourceToSpannerTables.isEmpty()) {
+      LOG.info("all the tables are completed: {}", levelToSpannerTableList);
+      return;
+    }
+    List<String> allSourceTables = new ArrayList<>(sourceToSpannerTables.keySet());
+    JdbcIOWrapperConfig schemaConfig =
+        schemaConfigContainer.getJDBCIOWrapperConfig(allSourceTables, null);
+    JdbcIoWrapper schemaIoWrapper = JdbcIoWrapper.of(schemaConfig);
+    SourceSchema sourceSchema = schemaIoWrapper.discoverTableSchema();
+    ImmutableMap.Builder<String, JdbcIOWrapperConfig> shardConfigs = ImmutableMap.builder();
+    for (ShardedDbConfigContainer configContainer : configContainers) {
+      shardConfigs.put(
+          configContainer.getShardId(),
+          configContainer.getJDBCIOWrapperConfig(allSourceTables, null));
+    }
+    checkShardSchemas(
+        sourceSchema,
+        schemaConfigContainer.getShardId(),
+        schemaConfig,
+        shardConfigs.buildOrThrow());
+    ShardDataSources shardDataSources = ShardDataSources.create(shardConfigs.buildOrThrow());
+
+    Map<Integer, PCollection<Void>> levelVsOutputMap = new HashMap<>();
+    for (int currentLevel = 0; currentLevel < levelToSpannerTableList.size(); currentLevel++) {
+      List<String> spannerTables = levelToSpannerTablesToMigrate.get(currentLevel);
+      if (spannerTables.isEmpty()) {
+        LOG.info(
+            "skipping level: {} as all the tables are completed: {}",
+            currentLevel,
+            levelToSpannerTableList.get(currentLevel));
+        continue;
+      }
+      LOG.info("processing level: {} spanner tables: {}", currentLevel, spannerTables);
+      Set<String> sourceTables =
+          spannerTables.stream()
+              .map(t -> tableSelector.getSchemaMapper().getSourceTableName("", t))
+              .collect(Collectors.toSet());
+      LOG.info("level: {} source tables: {}", currentLevel, sourceTables);
+      SourceSchema.Builder levelSchemaBuilder =
+          SourceSchema.builder().setSchemaReference(sourceSchema.schemaReference());
+      sourceSchema.tableSchemas().stream()
+          .filter(t -> sourceTables.contains(t.tableName()))
+          .forEach(levelSchemaBuilder::addTableSchema);
+      SourceSchema levelSchema = levelSchemaBuilder.build();
+      if (levelSchema.tableSchemas().isEmpty()) {
+        LOG.info("not creating reader as tables are not found at source: {}", sourceTables);
+        // If tables of 1 level are ignored in middle, then the subsequent level will not wait to
+        // begin processing.
+        continue;
+      }
+      PCollection<Void> previousLevelPCollection = levelVsOutputMap.get(currentLevel - 1);
+      if (currentLevel > 0 && previousLevelPCollection == null) {
+        LOG.warn(
+            "proceeding without waiting for parent. current level: {}  tables: {}",
+            currentLevel,
+            spannerTables);
+      }
+      OnSignal<@UnknownKeyFor @Nullable @Initialized Object> waitOnSignal =
+          previousLevelPCollection != null ? Wait.on(previousLevelPCollection) : null;
+
+      ImmutableList.Builder<ShardedTableRead> tableReads = ImmutableList.builder();
+      for (String shardId : shardIds) {
+        Set<String> completedTables = shardToCompletedTables.getOrDefault(shardId, Set.of());
+        for (SourceTableSchema tableSchema : levelSchema.tableSchemas()) {
+          if (completedTables.contains(sourceToSpannerTables.get(tableSchema.tableName()))) {
+            continue;
+          }
+          tableReads.add(ShardedTableRead.create(shardId, tableSchema.tableName()));
+        }
+      }
+      ShardedJdbcReader reader =
+          ShardedJdbcReader.builder()
+              .setShardDataSources(shardDataSources)
+              .setSourceSchema(levelSchema)
+              .setTableConfigs(
+                  schemaIoWrapper.getTableConfigs().stream()
+                      .filter(t -> sourceTables.contains(t.tableName()))
+                      .collect(ImmutableList.toImmutableList()))
+              .setTableReads(tableReads.build())
+              .setValueMappingsProvider(schemaConfig.valueMappingsProvider())
+              .setDbAdapter(schemaConfig.dialectAdapter())
+              .setFetchSize(schemaConfig.maxFetchSize())
+              .setUseColumnStatisticsForInitialSplit(schemaConfig.splitWithColumnStatistics())
+              .setSplittableReads(schemaConfig.splittableReads())
+              .setWaitOn(waitOnSignal)
+              .build();
+
+      Map<String, String> srcTableToShardIdColumnMap =
+          getSrcTableToShardIdColumnMap(
+              tableSelector.getSchemaMapper(), schemaConfigContainer.getNamespace(), spannerTables);
+
+      // The DLQ records of every row are routed to the directory of the shard of the row.
+      PCollection<Void> output =
+          pipeline.apply(
+              "Migrate" + generateSuffix(null, currentLevel + ""),
+              new MigrateTableTransform(
+                      options,
+                      spannerConfig,
+                      tableSelector.getDdl(),
+                      tableSelector.getSchemaMapper(),
+                      reader,
+                      null,
+                      srcTableToShardIdColumnMap)
+                  .withDlqPerShard(
+                      getSpannerTableToShardIdColumnMap(
+                          tableSelector.getSchemaMapper(),
+                          schemaConfigContainer.getNamespace(),
+                          spannerTables))
+                  // Count and checkpoint every table as soon as its writes are committed.
+                  .withTableCompletion(spannerTables, shardIds, checkpoint));
+      levelVsOutputMap.put(currentLevel, output);
+    }
+  }
+
+  /**
+   * Check that the databases of all the logical shards have the schema discovered from the first
+   * shard. The schema of every distinct database is discovered once, as several logical shards can
+   * be configured on the same database.
+   *
+   * @throws IllegalArgumentException if the schemas do not match.
+   */
+  private static void checkShardSchemas(
+      SourceSchema expected,
+      String expectedShardId,
+      JdbcIOWrapperConfig expectedConfig,
+      ImmutableMap<String, JdbcIOWrapperConfig> shardConfigs) {
+    Set<String> checkedDatabases = new HashSet<>();
+    checkedDatabases.add(expectedConfig.sourceDbURL());
+    for (Map.Entry<String, JdbcIOWrapperConfig> shardConfig : shardConfigs.entrySet()) {
+      if (!checkedDatabases.add(shardConfig.getValue().sourceDbURL())) {
+        continue;
+      }
+      checkShardSchema(
+          expected,
+          expectedShardId,
+          JdbcIoWrapper.discoverSourceSchema(shardConfig.getValue()),
+          shardConfig.getKey());
+    }
+  }
+
   private static void setupLogicalDbMigration(
       SourceDbToSpannerOptions options,
       Pipeline pipeline,
@@ -129,9 +322,23 @@ public class PipelineController {
       TableSelector tableSelector,
       Map<Integer, List<String>> levelToSpannerTableList,
       DbConfigContainer configContainer) {
+    MigrationCheckpoint checkpoint = MigrationCheckpoint.create(options.getOutputDirectory());
+    Set<String> completedTables =
+        options.getResumeMigration()
+            ? checkpoint.completedTables(configContainer.getShardId())
+            : Set.of();
     Map<Integer, PCollection<Void>> levelVsOutputMap = new HashMap<>();
     for (int currentLevel = 0; currentLevel < levelToSpannerTableList.size(); currentLevel++) {
-      List<String> spannerTables = levelToSpannerTableList.get(currentLevel);
+      List<String> spannerTables =
+          getPendingSpannerTables(
+              levelToSpannerTableList.get(currentLevel), List.of(completedTables));
+      if (spannerTables.isEmpty()) {
+        LOG.info(
+            "skipping level: {} as all the tables are completed: {}",
+            currentLevel,
+            levelToSpannerTableList.get(currentLevel));
+        continue;
+      }
       LOG.info("processing level: {} spanner tables: {}", currentLevel, spannerTables);
       List<String> sourceTables =
           spannerTables.stream()
@@ -166,23 +373,81 @@ public class PipelineController {
           pipeline.apply(
               "Migrate" + suffix,
               new MigrateTableTransform(
-                  options,
-                  spannerConfig,
-                  tableSelector.getDdl(),
-                  tableSelector.getSchemaMapper(),
-                  reader,
-                  configContainer.getShardId(),
-                  srcTableToShardIdColumnMap));
+                      options,
+                      spannerConfig,
+                      tableSelector.getDdl(),
+                      tableSelector.getSchemaMapper(),
+                      reader,
+                      configContainer.getShardId(),
+                      srcTableToShardIdColumnMap)
+                  // Count and checkpoint every table as soon as its writes are committed.
+                  .withTableCompletion(spannerTables, Collections.singletonList(""), checkpoint));
       levelVsOutputMap.put(currentLevel, output);
     }
+  }
 
-    // Add transform to increment table counter
-    Map<Integer, OnSignal<?>> tableCompletionMap =
-        levelVsOutputMap.entrySet().stream()
-            .collect(Collectors.toMap(e -> e.getKey(), e -> Wait.on(e.getValue())));
-    pipeline.apply(
-        "Increment_table_counters" + generateSuffix(configContainer.getShardId(), null),
-        new IncrementTableCounter(tableCompletionMap, "", levelToSpannerTableList));
+  /**
+   * Returns the spanner tables of a level that are yet to be migrated, that is the tables that are
+   * not completed by at least one of the shards.
+   *
+   * @param spannerTables spanner tables of a level.
+   * @param completedTablesPerShard completed tables of every shard, as recorded by the {@link
+   *     MigrationCheckpoint}. Empty if the migration is not resumed.
+   * @return pending spanner tables, in the order of {@code spannerTables}.
+   */
+  @VisibleForTesting
+  static List<String> getPendingSpannerTables(
+      List<String> spannerTables, Collection<Set<String>> completedTablesPerShard) {
+    if (completedTablesPerShard.isEmpty()) {
+      return spannerTables;
+    }
+    return spannerTables.stream()
+        .filter(t -> completedTablesPerShard.stream().anyMatch(c -> !c.contains(t)))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Check that the schema discovered from a shard matches the schema of the shard whose schema is
+   * used to read all the shards. The tables must match by name, and the columns of every table must
+   * match by name and type. The order of the columns may differ, as the row mapper looks the
+   * columns up by name, once per table.
+   *
+   * @throws IllegalArgumentException if the schemas do not match.
+   */
+  @VisibleForTesting
+  static void checkShardSchema(
+      SourceSchema expected, String expectedShardId, SourceSchema actual, String shardId) {
+    Map<String, ImmutableMap<String, SourceColumnType>> expectedTables = tableColumns(expected);
+    Map<String, ImmutableMap<String, SourceColumnType>> actualTables = tableColumns(actual);
+    if (!expectedTables.keySet().equals(actualTables.keySet())) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Tables of shard %s: %s do not match the tables of shard %s: %s. Sharded migration"
+                  + " requires all the shards to have the same schema.",
+              shardId, actualTables.keySet(), expectedShardId, expectedTables.keySet()));
+    }
+    for (Map.Entry<String, ImmutableMap<String, SourceColumnType>> table :
+        expectedTables.entrySet()) {
+      ImmutableMap<String, SourceColumnType> actualColumns = actualTables.get(table.getKey());
+      if (!table.getValue().equals(actualColumns)) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Columns of table %s of shard %s: %s do not match the columns of shard %s: %s."
+                    + " Sharded migration requires all the shards to have the same schema.",
+                table.getKey(), shardId, actualColumns, expectedShardId, table.getValue()));
+      }
+    }
+  }
+
+  private static Map<String, ImmutableMap<String, SourceColumnType>> tableColumns(
+      SourceSchema schema) {
+    Map<String, ImmutableMap<String, SourceColumnType>> tableColumns = new HashMap<>();
+    for (SourceTableSchema tableSchema : schema.tableSchemas()) {
+      tableColumns.put(
+          tableSchema.tableName(),
+          ImmutableMap.copyOf(tableSchema.sourceColumnNameToSourceColumnType()));
+    }
+    return tableColumns;
   }
 
   /**
@@ -207,6 +472,27 @@ public class PipelineController {
     return srcTableToShardIdMap;
   }
 
+  /**
+   * For the spanner tables that contain the shard id column, returns the spanner table to
+   * shardColumn.
+   *
+   * @param schemaMapper
+   * @param namespace
+   * @param spannerTables
+   * @return
+   */
+  static Map<String, String> getSpannerTableToShardIdColumnMap(
+      ISchemaMapper schemaMapper, String namespace, List<String> spannerTables) {
+    Map<String, String> spannerTableToShardIdMap = new HashMap<>();
+    for (String spTable : spannerTables) {
+      String shardIdColumn = schemaMapper.getShardIdColumnName(namespace, spTable);
+      if (shardIdColumn != null) {
+        spannerTableToShardIdMap.put(spTable, shardIdColumn);
+      }
+    }
+    return spannerTableToShardIdMap;
+  }
+
   private static String generateSuffix(String shardId, String tableName) {
     String suffix = "";
     if (!StringUtils.isEmpty(shardId)) {
@@ -294,6 +580,8 @@ public class PipelineController {
           options.getJdbcDriverJars(),
           options.getMaxConnections(),
           options.getNumPartitions(),
+          options.getSplitWithColumnStatistics(),
+          options.getSplittableReads(),
           waitOnSignal);
     }
 
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates;
+
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.values.TypeDescriptor;
+
+/**
+ * {@link Coder} for {@link RowContext}.
+ *
+ * <p>The {@link SourceRow} is encoded with the given (typically schema-aware) row coder. The
+ * optional {@link Mutation} and error retain java serialization, as mutations do not have a
+ * dedicated Beam coder and errors are rare.
+ */
+public class RowContextCoder extends CustomCoder<RowContext> {
+
+  private static final NullableCoder<Mutation> MUTATION_CODER =
+      NullableCoder.of(SerializableCoder.of(Mutation.class));
+  private static final NullableCoder<Throwable> ERR_CODER =
+      NullableCoder.of(SerializableCoder.of(Throwable.class));
+
+  private final Coder<SourceRow> sourceRowCoder;
+
+  private RowContextCoder(Coder<SourceRow> sourceRowCoder) {
+    this.sourceRowCoder = sourceRowCoder;
+  }
+
+  public static RowContextCoder of(Coder<SourceRow> sourceRowCoder) {
+    return new RowContextCoder(sourceRowCoder);
+  }
+
+  public Coder<SourceRow> getSourceRowCoder() {
+    return sourceRowCoder;
+  }
+
+  @Override
+  public void encode(RowContext value, OutputStream outStream) throws IOException {
+    if (value == null) {
+      throw new CoderException("The RowContextCoder cannot encode a null object!");
+    }
+    sourceRowCoder.encode(value.row(), outStream);
+    MUTATION_CODER.encode(value.mutation(), outStream);
+    ERR_CODER.encode(value.err(), outStream);
+  }
+
+  @Override
+  public RowContext decode(InputStream inStream) throws IOException {
+    SourceRow row = sourceRowCoder.decode(inStream);
+    Mutation mutation = MUTATION_CODER.decode(inStream);
+    Throwable err = ERR_CODER.decode(inStream);
+    return RowContext.builder().setRow(row).setMutation(mutation).setErr(err).build();
+  }
+
+  @Override
+  public List<? extends Coder<?>> getCoderArguments() {
+    return Collections.singletonList(sourceRowCoder);
+  }
+
+  @Override
+  public TypeDescriptor<RowContext> getEncodedTypeDescriptor() {
+    return TypeDescriptor.of(RowContext.class);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RowContextCoder)) {
+      return false;
+    }
+    return sourceRowCoder.equals(((RowContextCoder) o).sourceRowCoder);
+  }
+
+  @Override
+  public int hashCode() {
+    return sourceRowCoder.hashCode();
+  }
+}
@@ -21,6 +21,7 @@ import com.google.cloud.spanner.Value;
 import com.google.cloud.teleport.v2.constants.MetricCounters;
 import com.google.cloud.teleport.v2.constants.SourceDbToSpannerConstants;
 import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import com.google.cloud.teleport.v2.spanner.migrations.avro.GenericRecordConversionPlan;
 import com.google.cloud.teleport.v2.spanner.migrations.avro.GenericRecordTypeConvertor;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.ISchemaMapper;
 import com.google.cloud.teleport.v2.spanner.migrations.transformation.CustomTransformation;
@@ -28,6 +29,7 @@ import com.google.cloud.teleport.v2.spanner.migrations.utils.CustomTransformatio
 import com.google.cloud.teleport.v2.spanner.utils.ISpannerMigrationTransformer;
 import com.google.cloud.teleport.v2.templates.RowContext;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.avro.generic.GenericRecord;
@@ -52,8 +54,14 @@ public abstract class SourceRowToMutationDoFn extends DoFn<SourceRow, RowContext
   public void setSourceDbToSpannerTransformer(
       ISpannerMigrationTransformer sourceDbToSpannerTransformer) {
     this.sourceDbToSpannerTransformer = sourceDbToSpannerTransformer;
+    this.convertors = null;
   }
 
+  /* Convertors per shardId, and conversion plans per tableSchemaUUID, lazily initialized. */
+  private transient Map<String, GenericRecordTypeConvertor> convertors;
+
+  private transient Map<String, GenericRecordConversionPlan> conversionPlans;
+
   private final Counter transformerErrors =
       Metrics.counter(SourceRowToMutationDoFn.class, MetricCounters.TRANSFORMER_ERRORS);
 
@@ -85,12 +93,11 @@ public abstract class SourceRowToMutationDoFn extends DoFn<SourceRow, RowContext
     try {
       // TODO: update namespace in constructor when Spanner namespace support is added.
       GenericRecord record = sourceRow.getPayload();
-      String srcTableName = sourceRow.tableName();
-      GenericRecordTypeConvertor genericRecordTypeConvertor =
-          new GenericRecordTypeConvertor(
-              iSchemaMapper(), "", sourceRow.shardId(), sourceDbToSpannerTransformer);
+      GenericRecordTypeConvertor genericRecordTypeConvertor = getConvertor(sourceRow.shardId());
+      GenericRecordConversionPlan conversionPlan =
+          getConversionPlan(genericRecordTypeConvertor, sourceRow, record);
       Map<String, Value> values =
-          genericRecordTypeConvertor.transformChangeEvent(record, srcTableName);
+          genericRecordTypeConvertor.transformChangeEvent(record, conversionPlan);
       if (values == null) {
         filteredEvents.inc();
         output
@@ -99,7 +106,7 @@ public abstract class SourceRowToMutationDoFn extends DoFn<SourceRow, RowContext
         return;
       }
 
-      String spannerTableName = iSchemaMapper().getSpannerTableName("", srcTableName);
+      String spannerTableName = conversionPlan.spannerTableName();
       // TODO: Move the mutation generation to writer. Create generic record here instead
       Mutation mutation = mutationFromMap(spannerTableName, values);
       output
@@ -114,6 +121,37 @@ public abstract class SourceRowToMutationDoFn extends DoFn<SourceRow, RowContext
     }
   }
 
+  private GenericRecordTypeConvertor getConvertor(String shardId) {
+    if (convertors == null) {
+      convertors = new HashMap<>();
+    }
+    return convertors.computeIfAbsent(
+        shardId,
+        id ->
+            new GenericRecordTypeConvertor(iSchemaMapper(), "", id, sourceDbToSpannerTransformer));
+  }
+
+  /**
+   * Returns the conversion plan for the table of the source row, compiling it on the first row of a
+   * given table schema.
+   */
+  private GenericRecordConversionPlan getConversionPlan(
+      GenericRecordTypeConvertor genericRecordTypeConvertor,
+      SourceRow sourceRow,
+      GenericRecord record) {
+    if (conversionPlans == null) {
+      conversionPlans = new HashMap<>();
+    }
+    GenericRecordConversionPlan conversionPlan = conversionPlans.get(sourceRow.tableSchemaUUID());
+    if (conversionPlan == null) {
+      conversionPlan =
+          genericRecordTypeConvertor.compileConversionPlan(
+              sourceRow.tableName(), record.getSchema());
+      conversionPlans.put(sourceRow.tableSchemaUUID(), conversionPlan);
+    }
+    return conversionPlan;
+  }
+
   private Mutation mutationFromMap(String spannerTableName, Map<String, Value> values) {
     Mutation.WriteBuilder builder = Mutation.newInsertOrUpdateBuilder(spannerTableName);
     for (String spannerColName : values.keySet()) {
@@ -15,6 +15,8 @@
  */
 package com.google.cloud.teleport.v2.writer;
 
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
+
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.Value;
 import com.google.cloud.teleport.v2.cdc.dlq.StringDeadLetterQueueSanitizer;
@@ -32,20 +34,34 @@ import java.time.Instant;
 import java.util.Map;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.beam.repackaged.core.org.apache.commons.lang3.StringUtils;
+import org.apache.beam.sdk.coders.KvCoder;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.TextIO;
 import org.apache.beam.sdk.io.gcp.spanner.MutationGroup;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.Contextful;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.MapElements;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.WithTimestamps;
+import org.apache.beam.sdk.transforms.windowing.AfterProcessingTime;
+import org.apache.beam.sdk.transforms.windowing.FixedWindows;
+import org.apache.beam.sdk.transforms.windowing.Repeatedly;
+import org.apache.beam.sdk.transforms.windowing.Window;
+import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PDone;
+import org.apache.beam.sdk.values.TypeDescriptors;
 import org.checkerframework.checker.initialization.qual.Initialized;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.nullness.qual.UnknownKeyFor;
+import org.joda.time.Duration;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,6 +81,12 @@ public class DeadLetterQueue implements Serializable {
 
   private final SQLDialect sqlDialect;
 
+  /**
+   * Shard id columns of the Spanner tables, keyed by the Spanner table name. Set only for a queue
+   * that routes the records of every shard to the sub directory of the shard.
+   */
+  @Nullable private final Map<String, String> spannerTableToShardIdColumnMap;
+
   public static final Counter FAILED_MUTATION_COUNTER =
       Metrics.counter(SpannerWriter.class, MetricCounters.FAILED_MUTATION_ERRORS);
 
@@ -73,7 +95,24 @@ public class DeadLetterQueue implements Serializable {
       Ddl ddl,
       Map<String, String> srcTableToShardIdColumnMap,
       SQLDialect sqlDialect) {
-    return new DeadLetterQueue(dlqDirectory, ddl, srcTableToShardIdColumnMap, sqlDialect);
+    return new DeadLetterQueue(dlqDirectory, ddl, srcTableToShardIdColumnMap, sqlDialect, null);
+  }
+
+  /**
+   * Create a dead letter queue for the rows of many logical shards, like the rows read by {@link
+   * com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.ShardedJdbcReader}. Every record
+   * is written to the sub directory of {@code dlqDirectory} named after the shard id of the record,
+   * and is counted in a counter of the shard. The shard id of a failed mutation is the value of the
+   * shard id column of its table. Records without a shard id are written to {@code dlqDirectory}.
+   */
+  public static DeadLetterQueue createPerShard(
+      String dlqDirectory,
+      Ddl ddl,
+      Map<String, String> srcTableToShardIdColumnMap,
+      Map<String, String> spannerTableToShardIdColumnMap,
+      SQLDialect sqlDialect) {
+    return new DeadLetterQueue(
+        dlqDirectory, ddl, srcTableToShardIdColumnMap, sqlDialect, spannerTableToShardIdColumnMap);
   }
 
   public String getDlqDirectory() {
@@ -88,12 +127,19 @@ public class DeadLetterQueue implements Serializable {
       String dlqDirectory,
       Ddl ddl,
       Map<String, String> srcTableToShardIdColumnMap,
-      SQLDialect sqlDialect) {
+      SQLDialect sqlDialect,
+      @Nullable Map<String, String> spannerTableToShardIdColumnMap) {
     this.dlqDirectory = dlqDirectory;
-    this.dlqTransform = createDLQTransform(dlqDirectory);
+    this.dlqTransform =
+        (spannerTableToShardIdColumnMap == null) ? createDLQTransform(dlqDirectory) : null;
     this.ddl = ddl;
     this.srcTableToShardIdColumnMap = srcTableToShardIdColumnMap;
     this.sqlDialect = sqlDialect;
+    this.spannerTableToShardIdColumnMap = spannerTableToShardIdColumnMap;
+  }
+
+  private boolean isPerShard() {
+    return spannerTableToShardIdColumnMap != null;
   }
 
   @VisibleForTesting
@@ -138,6 +184,15 @@ public class DeadLetterQueue implements Serializable {
   public void filteredEventsToDLQ(
       PCollection<@UnknownKeyFor @NonNull @Initialized RowContext> filteredRows) {
     LOG.warn("added filtered transformation output to pipeline");
+    if (isPerShard()) {
+      writePerShard(
+          filteredRows.apply(
+              "filteredRowTransformString",
+              ParDo.of(new RowContextToShardedDlqElementFn(this, MetricCounters.FILTERED_EVENTS))),
+          "FilteredRowsDLQ");
+      LOG.info("added per shard filtering dlq stage after transformer");
+      return;
+    }
     DoFn<RowContext, FailsafeElement<String, String>> rowContextToString =
         new DoFn<RowContext, FailsafeElement<String, String>>() {
           @ProcessElement
@@ -161,6 +216,16 @@ public class DeadLetterQueue implements Serializable {
       PCollection<@UnknownKeyFor @NonNull @Initialized RowContext> failedRows) {
     // TODO - add the exception message
     LOG.warn("added failed transformation output to pipeline");
+    if (isPerShard()) {
+      writePerShard(
+          failedRows.apply(
+              "failedRowTransformString",
+              ParDo.of(
+                  new RowContextToShardedDlqElementFn(this, MetricCounters.TRANSFORMER_ERRORS))),
+          "TransformerDLQ");
+      LOG.info("added per shard dlq stage after transformer");
+      return;
+    }
     DoFn<RowContext, FailsafeElement<String, String>> rowContextToString =
         new DoFn<RowContext, FailsafeElement<String, String>>() {
           @ProcessElement
@@ -211,6 +276,14 @@ public class DeadLetterQueue implements Serializable {
     // TODO - add the exception message
     // TODO - Explore windowing with CoGroupByKey to extract source row based on mutation
     LOG.warn("added mutation output to pipeline");
+    if (isPerShard()) {
+      writePerShard(
+          failedMutations.apply(
+              "failedMutationToString", ParDo.of(new MutationToShardedDlqElementFn(this))),
+          "WriterDLQ");
+      LOG.info("added per shard dlq stage after writer");
+      return;
+    }
     failedMutations
         .apply(
             "failedMutationToString",
@@ -253,6 +326,132 @@ public class DeadLetterQueue implements Serializable {
         .setErrorMessage("SpannerWriteFailed");
   }
 
+  /**
+   * Get the shard id of a failed mutation, from the shard id column of its table.
+   *
+   * @return the shard id, or an empty string if the table has no shard id column.
+   */
+  @VisibleForTesting
+  protected String mutationShardId(Mutation m) {
+    String shardIdColumn = checkStateNotNull(spannerTableToShardIdColumnMap).get(m.getTable());
+    if (shardIdColumn == null) {
+      return "";
+    }
+    Value value = m.asMap().get(shardIdColumn);
+    return (value == null || value.isNull()) ? "" : value.getString();
+  }
+
+  private void writePerShard(
+      PCollection<KV<String, FailsafeElement<String, String>>> dlqElements, String name) {
+    StringDeadLetterQueueSanitizer sanitizer = new StringDeadLetterQueueSanitizer();
+    dlqElements
+        .setCoder(
+            KvCoder.of(
+                StringUtf8Coder.of(),
+                FailsafeElementCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of())))
+        .apply(
+            "Sanitize" + name,
+            MapElements.into(
+                    TypeDescriptors.kvs(TypeDescriptors.strings(), TypeDescriptors.strings()))
+                .via(kv -> KV.of(kv.getKey(), sanitizer.apply(kv.getValue()))))
+        .setCoder(KvCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of()))
+        .apply(name, new WritePerShard(dlqDirectory));
+  }
+
+  /**
+   * Converts the {@link RowContext RowContexts} of a per shard queue to the DLQ records keyed by
+   * the shard id of the row.
+   */
+  private static class RowContextToShardedDlqElementFn
+      extends DoFn<RowContext, KV<String, FailsafeElement<String, String>>> {
+    private final DeadLetterQueue dlq;
+    private final String counterPrefix;
+
+    RowContextToShardedDlqElementFn(DeadLetterQueue dlq, String counterPrefix) {
+      this.dlq = dlq;
+      this.counterPrefix = counterPrefix;
+    }
+
+    @ProcessElement
+    public void processElement(
+        @Element RowContext rowContext,
+        OutputReceiver<KV<String, FailsafeElement<String, String>>> out) {
+      String shardId = StringUtils.defaultString(rowContext.row().shardId());
+      Metrics.counter(DeadLetterQueue.class, counterPrefix + "_" + shardId).inc();
+      out.output(KV.of(shardId, dlq.rowContextToDlqElement(rowContext)));
+    }
+  }
+
+  /**
+   * Converts the failed {@link MutationGroup MutationGroups} of a per shard queue to the DLQ
+   * records keyed by the shard id of the mutation.
+   */
+  private static class MutationToShardedDlqElementFn
+      extends DoFn<MutationGroup, KV<String, FailsafeElement<String, String>>> {
+    private final DeadLetterQueue dlq;
+
+    MutationToShardedDlqElementFn(DeadLetterQueue dlq) {
+      this.dlq = dlq;
+    }
+
+    @ProcessElement
+    public void processElement(
+        @Element MutationGroup mg,
+        OutputReceiver<KV<String, FailsafeElement<String, String>>> out) {
+      for (Mutation m : mg) {
+        String shardId = dlq.mutationShardId(m);
+        Metrics.counter(
+                DeadLetterQueue.class, MetricCounters.FAILED_MUTATION_ERRORS + "_" + shardId)
+            .inc();
+        out.output(KV.of(shardId, dlq.mutationToDlqElement(m)));
+      }
+      FAILED_MUTATION_COUNTER.inc(mg.size());
+    }
+  }
+
+  /**
+   * Writes the DLQ records keyed by shard id to the sub directory of the shard, with the same
+   * windowing and file naming as {@link DLQWriteTransform.WriteDLQ}.
+   */
+  public static class WritePerShard extends PTransform<PCollection<KV<String, String>>, PDone> {
+    private final String dlqUri;
+
+    WritePerShard(String dlqDirectory) {
+      this.dlqUri = FileSystems.matchNewResource(dlqDirectory, true).toString();
+    }
+
+    @Override
+    public PDone expand(PCollection<KV<String, String>> input) {
+      String dlqUri = this.dlqUri;
+      input
+          .apply(
+              "Timestamp with processing time",
+              WithTimestamps.of((KV<String, String> kv) -> org.joda.time.Instant.now()))
+          .apply(
+              "Creating 1m Window",
+              Window.<KV<String, String>>into(FixedWindows.of(Duration.standardMinutes(1)))
+                  .triggering(
+                      Repeatedly.forever(
+                          AfterProcessingTime.pastFirstElementInPane()
+                              .plusDelayOf(Duration.standardMinutes(1))))
+                  .withAllowedLateness(Duration.ZERO)
+                  .discardingFiredPanes())
+          .apply(
+              "DLQ: Write File(s)",
+              FileIO.<String, KV<String, String>>writeDynamic()
+                  .by(KV::getKey)
+                  .withDestinationCoder(StringUtf8Coder.of())
+                  .via(Contextful.fn(KV::getValue), TextIO.sink())
+                  .withNaming(
+                      shardId ->
+                          FileIO.Write.defaultNaming(
+                              dlqUri + (shardId.isEmpty() ? "" : shardId + "/") + "error", ".json"))
+                  .withNumShards(20)
+                  .withTempDirectory(dlqUri + "tmp"));
+      return PDone.in(input.getPipeline());
+    }
+  }
+
   private void initializeJsonNode(JSONObject json, String tableName, long timeStamp) {
     json.put(DatastreamConstants.EVENT_CHANGE_TYPE_KEY, DatastreamConstants.UPDATE_INSERT_EVENT);
     json.put(DatastreamConstants.EVENT_TABLE_NAME_KEY, tableName);
@@ -18,13 +18,20 @@ package com.google.cloud.teleport.v2.writer;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.teleport.v2.templates.RowContext;
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerIO;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerIO.FailureMode;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerIO.Write;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerWriteResult;
 import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.transforms.Partition;
+import org.apache.beam.sdk.transforms.Partition.PartitionFn;
 import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.beam.sdk.values.TypeDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,15 +55,59 @@ public class SpannerWriter implements Serializable {
 
   public SpannerWriteResult writeToSpanner(PCollection<RowContext> rows) {
     LOG.info("initiating write to spanner");
+    return write(rows, "");
+  }
+
+  /**
+   * Write the rows of every Spanner table with a write of its own, so that the completion of each
+   * table can be signalled as soon as its rows are committed, rather than once all the tables are.
+   * Rows of tables not in {@code spannerTables} are written along with the first table.
+   *
+   * @param rows rows to write.
+   * @param spannerTables Spanner tables of the rows.
+   * @return results of the writes, by Spanner table, in the order of {@code spannerTables}.
+   */
+  public Map<String, SpannerWriteResult> writeToSpannerPerTable(
+      PCollection<RowContext> rows, List<String> spannerTables) {
+    LOG.info("initiating write to spanner for tables {}", spannerTables);
+    PCollectionList<RowContext> tableRows =
+        rows.apply(
+            "PartitionByTable",
+            Partition.of(spannerTables.size(), new TablePartitionFn(spannerTables)));
+    Map<String, SpannerWriteResult> writeResults = new LinkedHashMap<>();
+    for (int i = 0; i < spannerTables.size(); i++) {
+      String table = spannerTables.get(i);
+      writeResults.put(table, write(tableRows.get(i), "_" + table));
+    }
+    return writeResults;
+  }
+
+  private SpannerWriteResult write(PCollection<RowContext> rows, String suffix) {
     SpannerWriteResult writeResult =
         rows.apply(
-                "extractMutation",
+                "extractMutation" + suffix,
                 MapElements.into(TypeDescriptor.of(Mutation.class))
                     .via((RowContext r) -> r.mutation()))
-            .apply("WriteToSpanner", getSpannerWrite());
+            .apply("WriteToSpanner" + suffix, getSpannerWrite());
 
     // This current returns only the failed mutation.
     // This needs to return the whole RowContext and Exception
     return writeResult;
   }
+
+  /** Partitions the rows by the Spanner table of their mutation. */
+  private static class TablePartitionFn implements PartitionFn<RowContext> {
+    private final Map<String, Integer> tableIndexes = new HashMap<>();
+
+    TablePartitionFn(List<String> spannerTables) {
+      for (int i = 0; i < spannerTables.size(); i++) {
+        tableIndexes.put(spannerTables.get(i), i);
+      }
+    }
+
+    @Override
+    public int partitionFor(RowContext row, int numPartitions) {
+      return tableIndexes.getOrDefault(row.mutation().getTable(), 0);
+    }
+  }
 }
@@ -54,6 +54,8 @@ public class OptionsToConfigBuilderTest {
     sourceDbToSpannerOptions.setUsername(testUser);
     sourceDbToSpannerOptions.setPassword(testPassword);
     sourceDbToSpannerOptions.setTables("table1,table2");
+    sourceDbToSpannerOptions.setSplitWithColumnStatistics(true);
+    sourceDbToSpannerOptions.setSplittableReads(true);
     PCollection<Integer> dummyPCollection = pipeline.apply(Create.of(1));
     pipeline.run();
     JdbcIOWrapperConfig config =
@@ -66,6 +68,8 @@ public class OptionsToConfigBuilderTest {
     assertThat(config.dbAuth().getUserName().get()).isEqualTo(testUser);
     assertThat(config.dbAuth().getPassword().get()).isEqualTo(testPassword);
     assertThat(config.waitOn()).isNotNull();
+    assertThat(config.splitWithColumnStatistics()).isTrue();
+    assertThat(config.splittableReads()).isTrue();
   }
 
   @Test
@@ -89,7 +93,11 @@ public class OptionsToConfigBuilderTest {
             "mysql-jar",
             10,
             0,
+            false,
+            false,
             Wait.on(dummyPCollection));
+    assertThat(configWithConnectionProperties.splitWithColumnStatistics()).isFalse();
+    assertThat(configWithConnectionProperties.splittableReads()).isFalse();
 
     JdbcIOWrapperConfig configWithoutConnectionProperties =
         OptionsToConfigBuilder.getJdbcIOWrapperConfig(
@@ -108,6 +116,8 @@ public class OptionsToConfigBuilderTest {
             "mysql-jar",
             10,
             0,
+            false,
+            false,
             Wait.on(dummyPCollection));
 
     assertThat(configWithConnectionProperties.sourceDbURL())
@@ -172,6 +182,8 @@ public class OptionsToConfigBuilderTest {
             "mysql-jar",
             10,
             0,
+            false,
+            false,
             Wait.on(dummyPCollection));
     JdbcIOWrapperConfig configWithoutConnectionParameters =
         OptionsToConfigBuilder.getJdbcIOWrapperConfig(
@@ -190,6 +202,8 @@ public class OptionsToConfigBuilderTest {
             "mysql-jar",
             10,
             0,
+            false,
+            false,
             Wait.on(dummyPCollection));
     assertThat(configWithoutConnectionParameters.sourceDbURL())
         .isEqualTo("jdbc:postgresql://myhost:5432/mydb?currentSchema=public");
@@ -218,6 +232,8 @@ public class OptionsToConfigBuilderTest {
             "mysql-jar",
             10,
             0,
+            false,
+            false,
             Wait.on(dummyPCollection));
     assertThat(configWithNamespace.sourceDbURL())
         .isEqualTo("jdbc:postgresql://myhost:5432/mydb?currentSchema=mynamespace");
@@ -653,6 +653,38 @@ public class MysqlDialectAdapterTest {
             "select MIN(col3),MAX(col3) from testTable WHERE ((? = FALSE) OR (col_1 >= ? AND (col_1 < ? OR (? = TRUE AND col_1 = ?)))) AND ((? = FALSE) OR (col_2 >= ? AND (col_2 < ? OR (? = TRUE AND col_2 = ?))))");
   }
 
+  @Test
+  public void testGetColumnStatisticsQuery() {
+    assertThat(
+            new MysqlDialectAdapter(MySqlVersion.DEFAULT)
+                .getColumnStatisticsQuery("\"test'Table\"", "\"col\"\"1\""))
+        .isEqualTo(
+            "SELECT IF(JSON_UNQUOTE(JSON_EXTRACT(cs.HISTOGRAM, '$.\"histogram-type\"')) = 'singleton',"
+                + " b.lower_bound, b.upper_bound)"
+                + " FROM information_schema.COLUMN_STATISTICS cs,"
+                + " JSON_TABLE(cs.HISTOGRAM, '$.buckets[*]' COLUMNS("
+                + "lower_bound VARCHAR(1024) PATH '$[0]', upper_bound VARCHAR(1024) PATH '$[1]')) b"
+                + " WHERE cs.SCHEMA_NAME = DATABASE()"
+                + " AND cs.TABLE_NAME = 'test''Table' AND cs.COLUMN_NAME = 'col\"1'");
+  }
+
+  @Test
+  public void testGetOrderedReadQuery() {
+    assertThat(
+            new MysqlDialectAdapter(MySqlVersion.DEFAULT)
+                .getOrderedReadQuery("testTable", ImmutableList.of("col1"), "col1"))
+        .isEqualTo(
+            "select testTable.*, col1 from testTable "
+                + "WHERE ((? = FALSE) OR (col1 >= ? AND (col1 < ? OR (? = TRUE AND col1 = ?)))) "
+                + "order by col1");
+  }
+
+  @Test
+  public void testStreamingFetchSize() {
+    assertThat(new MysqlDialectAdapter(MySqlVersion.DEFAULT).getStreamingFetchSize())
+        .isEqualTo(Integer.MIN_VALUE);
+  }
+
   @Test
   public void testCheckTimeoutException() {
     MysqlDialectAdapter mysqlDialectAdapter = new MysqlDialectAdapter(MySqlVersion.DEFAULT);
@@ -326,6 +326,14 @@ public class PostgreSQLDialectAdapterTest {
                 + "AND ((? = FALSE) OR (col2 >= ? AND (col2 < ? OR (? = TRUE AND col2 = ?))))");
   }
 
+  @Test
+  public void testColumnStatisticsQuery() {
+    assertThat(adapter.getColumnStatisticsQuery("\"table1\"", "\"id\""))
+        .isEqualTo(
+            "SELECT unnest(histogram_bounds::text::text[]) FROM pg_catalog.pg_stats"
+                + " WHERE schemaname = current_schema() AND tablename = 'table1' AND attname = 'id'");
+  }
+
   @Test
   public void testReadQuery() {
     assertThat(adapter.getReadQuery("my_schema.table1", ImmutableList.of()))
@@ -337,6 +345,20 @@ public class PostgreSQLDialectAdapterTest {
                 + "AND ((? = FALSE) OR (col2 >= ? AND (col2 < ? OR (? = TRUE AND col2 = ?))))");
   }
 
+  @Test
+  public void testOrderedReadQuery() {
+    assertThat(adapter.getOrderedReadQuery("my_schema.table1", ImmutableList.of("col1"), "col1"))
+        .isEqualTo(
+            "SELECT my_schema.table1.*, col1 FROM my_schema.table1 "
+                + "WHERE ((? = FALSE) OR (col1 >= ? AND (col1 < ? OR (? = TRUE AND col1 = ?)))) "
+                + "ORDER BY col1");
+  }
+
+  @Test
+  public void testStreamingFetchSize() {
+    assertThat(adapter.getStreamingFetchSize()).isEqualTo(50_000);
+  }
+
   @Test
   public void testCountQuery() {
     assertThat(adapter.getCountQuery("my_schema.table1", ImmutableList.of(), 1000L))
@@ -142,4 +142,45 @@ public class JdbcDataSourceTest {
     assertThat(deserializedDataSource.getValidationQuery())
         .isEqualTo(testJdbcDataSource.getValidationQuery());
   }
+
+  @Test
+  public void testJdbcDataSourceForAnotherDatabase() {
+
+    JdbcIOWrapperConfig jdbcIOWrapperConfig =
+        JdbcIOWrapperConfig.builderWithMySqlDefaults()
+            .setSourceDbURL("jdbc:derby://myhost/memory:TestingDB;create=true")
+            .setSourceSchemaReference(JdbcSchemaReference.builder().setDbName("testDB").build())
+            .setShardID("test")
+            .setDbAuth(
+                LocalCredentialsProvider.builder()
+                    .setUserName("testUser")
+                    .setPassword("testPassword")
+                    .build())
+            .setJdbcDriverJars("")
+            .setJdbcDriverClassName("org.apache.derby.jdbc.EmbeddedDriver")
+            .setDialectAdapter(mockDialectAdapter)
+            .build();
+    JdbcDataSource base = new JdbcDataSource(jdbcIOWrapperConfig);
+
+    JdbcDataSource other =
+        new JdbcDataSource(
+            base,
+            "jdbc:derby://otherhost/memory:OtherDB",
+            LocalCredentialsProvider.builder()
+                .setUserName("otherUser")
+                .setPassword("otherPassword")
+                .build());
+
+    assertThat(other.getUrl()).isEqualTo("jdbc:derby://otherhost/memory:OtherDB");
+    assertThat(other.getUsername()).isEqualTo("otherUser");
+    assertThat(other.getPassword()).isEqualTo("otherPassword");
+    assertThat(other.getConnectionInitSqls()).isEqualTo(base.getConnectionInitSqls());
+    assertThat(other.getDriverClassName()).isEqualTo(base.getDriverClassName());
+    assertThat(other.getMaxTotal()).isEqualTo(base.getMaxTotal());
+    assertThat(other.getTestOnBorrow()).isEqualTo(base.getTestOnBorrow());
+    assertThat(other.getValidationQuery()).isEqualTo(base.getValidationQuery());
+    assertThat(other.getRemoveAbandonedTimeout()).isEqualTo(base.getRemoveAbandonedTimeout());
+    assertThat(other.getMinEvictableIdleTimeMillis())
+        .isEqualTo(base.getMinEvictableIdleTimeMillis());
+  }
 }
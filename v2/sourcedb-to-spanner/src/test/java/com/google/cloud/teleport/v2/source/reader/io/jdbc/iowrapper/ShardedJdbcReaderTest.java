@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.teleport.v2.source.reader.auth.dbauth.LocalCredentialsProvider;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.JdbcSchemaReference;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter.MySqlVersion;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.JdbcIOWrapperConfig;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.TableConfig;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.provider.MysqlJdbcValueMappings;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.PartitionColumn;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SchemaTestUtils;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.typemapping.UnifiedTypeMapper.MapperType;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceColumnType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.util.SerializableUtils;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.TypeDescriptors;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Test class for {@link ShardedJdbcReader}. */
+@RunWith(MockitoJUnitRunner.class)
+public class ShardedJdbcReaderTest {
+  private static final String DERBY_DRIVER = "org.apache.derby.jdbc.EmbeddedDriver";
+  private static final String TABLE_NAME = "SHARDED_READER_TABLE";
+  private static final int ROWS_PER_SHARD = 20;
+  private static final ImmutableMap<String, String> SHARD_URLS =
+      ImmutableMap.of(
+          "shard1", "jdbc:derby:memory:shardedReaderShard1",
+          "shard2", "jdbc:derby:memory:shardedReaderShard2");
+
+  @Rule public final transient TestPipeline testPipeline = TestPipeline.create();
+
+  @BeforeClass
+  public static void beforeClass() throws SQLException, ClassNotFoundException {
+    // by default, derby uses a lock timeout of 60 seconds. In order to speed up the test
+    // and detect the lock faster, we decrease this timeout
+    System.setProperty("derby.locks.waitTimeout", "2");
+    System.setProperty("derby.stream.error.file", "build/derby.log");
+    Class.forName(DERBY_DRIVER);
+    for (var shard : SHARD_URLS.entrySet()) {
+      // The table is created in the schema of the user the readers connect as.
+      try (Connection conn =
+              DriverManager.getConnection(
+                  shard.getValue() + ";create=true", "testUser", "testPassword");
+          Statement stmt = conn.createStatement()) {
+        stmt.executeUpdate(
+            "CREATE TABLE " + TABLE_NAME + " (ID INTEGER PRIMARY KEY, NAME VARCHAR(20))");
+        for (int id = 1; id <= ROWS_PER_SHARD; id++) {
+          stmt.executeUpdate(
+              "INSERT INTO "
+                  + TABLE_NAME
+                  + " VALUES ("
+                  + id
+                  + ", '"
+                  + shard.getKey()
+                  + "_"
+                  + id
+                  + "')");
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testShardedJdbcReader() {
+    readAndAssert(false);
+  }
+
+  @Test
+  public void testShardedJdbcReaderSplittableReads() {
+    readAndAssert(true);
+  }
+
+  @Test
+  public void testShardDataSources() {
+    ShardDataSources dataSources = SerializableUtils.clone(shardDataSources());
+
+    assertThat(dataSources.shardIds()).containsExactly("shard1", "shard2").inOrder();
+    assertThat(dataSources.get("shard1")).isSameInstanceAs(dataSources.get("shard1"));
+    assertThat(dataSources.get("shard1")).isNotSameInstanceAs(dataSources.get("shard2"));
+    assertThat(dataSources.get("shard2").toString()).contains(SHARD_URLS.get("shard2"));
+    assertThrows(IllegalArgumentException.class, () -> dataSources.get("shard3"));
+  }
+
+  private void readAndAssert(boolean splittableReads) {
+    SourceTableSchema tableSchema =
+        SourceTableSchema.builder(MapperType.MYSQL)
+            .setTableName(TABLE_NAME)
+            .addSourceColumnNameToSourceColumnType(
+                "ID", new SourceColumnType("INTEGER", new Long[] {}, null))
+            .addSourceColumnNameToSourceColumnType(
+                "NAME", new SourceColumnType("VARCHAR", new Long[] {20L}, null))
+            .build();
+    SourceSchema sourceSchema =
+        SourceSchema.builder()
+            .setSchemaReference(SchemaTestUtils.generateSchemaReference("public", "shardedDb"))
+            .addTableSchema(tableSchema)
+            .build();
+    TableConfig tableConfig =
+        TableConfig.builder(TABLE_NAME)
+            .withPartitionColum(
+                PartitionColumn.builder().setColumnName("ID").setColumnClass(Integer.class).build())
+            .setApproxRowCount((long) ROWS_PER_SHARD)
+            // Read every shard as 4 ranges.
+            .setMaxPartitions(4)
+            .build();
+
+    ShardedJdbcReader reader =
+        ShardedJdbcReader.builder()
+            .setShardDataSources(shardDataSources())
+            .setSourceSchema(sourceSchema)
+            .setTableConfigs(ImmutableList.of(tableConfig))
+            .setTableReads(
+                ImmutableList.of(
+                    ShardedTableRead.create("shard1", TABLE_NAME),
+                    ShardedTableRead.create("shard2", TABLE_NAME)))
+            .setValueMappingsProvider(new MysqlJdbcValueMappings())
+            .setDbAdapter(new MysqlDialectAdapter(MySqlVersion.DEFAULT))
+            // Derby rejects the negative streaming fetch size of MySQL.
+            .setFetchSize(1)
+            .setSplittableReads(splittableReads)
+            .build();
+
+    PCollection<SourceRow> rows = testPipeline.apply(reader);
+    PCollection<String> rowStrings =
+        rows.apply(
+            MapElements.into(TypeDescriptors.strings())
+                .via(
+                    row ->
+                        row.shardId()
+                            + ":"
+                            + row.tableName()
+                            + ":"
+                            + row.getPayload().get("ID")
+                            + ":"
+                            + row.getPayload().get("NAME")));
+
+    List<String> expected = new ArrayList<>();
+    for (String shardId : SHARD_URLS.keySet()) {
+      for (int id = 1; id <= ROWS_PER_SHARD; id++) {
+        expected.add(shardId + ":" + TABLE_NAME + ":" + id + ":" + shardId + "_" + id);
+      }
+    }
+    PAssert.that(rowStrings).containsInAnyOrder(expected);
+    testPipeline.run().waitUntilFinish();
+  }
+
+  private static ShardDataSources shardDataSources() {
+    ImmutableMap.Builder<String, JdbcIOWrapperConfig> shardConfigs = ImmutableMap.builder();
+    for (var shard : SHARD_URLS.entrySet()) {
+      shardConfigs.put(
+          shard.getKey(),
+          JdbcIOWrapperConfig.builderWithMySqlDefaults()
+              .setSourceDbURL(shard.getValue())
+              .setSourceSchemaReference(
+                  JdbcSchemaReference.builder().setDbName("shardedDb").build())
+              .setShardID(shard.getKey())
+              .setDbAuth(
+                  LocalCredentialsProvider.builder()
+                      .setUserName("testUser")
+                      .setPassword("testPassword")
+                      .build())
+              .setJdbcDriverJars("")
+              .setJdbcDriverClassName(DERBY_DRIVER)
+              .setSqlInitSeq(ImmutableList.of())
+              .setValidationQuery("VALUES 1")
+              .build());
+    }
+    return ShardDataSources.create(shardConfigs.buildOrThrow());
+  }
+
+  @AfterClass
+  public static void exitDerby() throws SQLException {
+    for (String url : SHARD_URLS.values()) {
+      try (Connection conn = DriverManager.getConnection(url, "testUser", "testPassword");
+          Statement stmt = conn.createStatement()) {
+        stmt.executeUpdate("DROP TABLE " + TABLE_NAME);
+      }
+    }
+  }
+}
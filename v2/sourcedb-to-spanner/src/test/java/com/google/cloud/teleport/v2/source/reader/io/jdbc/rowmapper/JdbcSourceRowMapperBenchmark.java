@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.rowmapper.provider.MysqlJdbcValueMappings;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SchemaTestUtils;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchemaReference;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.typemapping.UnifiedTypeMapper.MapperType;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceColumnType;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Map;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+import org.apache.avro.Schema;
+
+/**
+ * Compares mapping JDBC rows with {@link JdbcSourceRowMapper}, which resolves the column mappings
+ * once and reads the columns by index, with the previous per-row lookups by column name.
+ *
+ * <p>The rows are read once from an in-memory Derby table into a {@link CachedRowSet}, so that the
+ * timings are not dominated by the database.
+ *
+ * <p>Usage: {@code JdbcSourceRowMapperBenchmark [rows] [iterations]}.
+ */
+public class JdbcSourceRowMapperBenchmark {
+
+  private static final String TABLE = "benchmark_table";
+
+  private static final Map<String, String> COLUMNS =
+      Map.of(
+          "id", "BIGINT",
+          "name", "VARCHAR",
+          "description", "VARCHAR",
+          "quantity", "INTEGER",
+          "score", "DOUBLE",
+          "price", "DECIMAL",
+          "created", "TIMESTAMP");
+
+  public static void main(String[] args) throws Exception {
+    int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+    SourceTableSchema.Builder schemaBuilder =
+        SourceTableSchema.builder(MapperType.MYSQL).setTableName(TABLE);
+    COLUMNS.forEach(
+        (name, type) ->
+            schemaBuilder.addSourceColumnNameToSourceColumnType(
+                name,
+                new SourceColumnType(
+                    type, type.equals("DECIMAL") ? new Long[] {10L, 2L} : new Long[] {}, null)));
+    SourceTableSchema sourceTableSchema = schemaBuilder.build();
+    SourceSchemaReference schemaReference =
+        SchemaTestUtils.generateSchemaReference("public", "benchmark");
+    JdbcValueMappingsProvider mappingsProvider = new MysqlJdbcValueMappings();
+
+    CachedRowSet rows = readRows(rowCount);
+
+    // The first half of the iterations warms up the JIT.
+    for (int i = 0; i < iterations; i++) {
+      rows.beforeFirst();
+      long start = System.nanoTime();
+      while (rows.next()) {
+        mapRowByName(mappingsProvider, schemaReference, sourceTableSchema, rows);
+      }
+      long byNameNanos = System.nanoTime() - start;
+
+      JdbcSourceRowMapper mapper =
+          new JdbcSourceRowMapper(mappingsProvider, schemaReference, sourceTableSchema, null);
+      rows.beforeFirst();
+      start = System.nanoTime();
+      while (rows.next()) {
+        mapper.mapRow(rows);
+      }
+      long byIndexNanos = System.nanoTime() - start;
+
+      if (i >= iterations / 2) {
+        System.out.printf(
+            "%d rows of %d columns: by name %d ms, by index %d ms (%.2fx)%n",
+            rowCount,
+            COLUMNS.size(),
+            byNameNanos / 1_000_000,
+            byIndexNanos / 1_000_000,
+            (double) byNameNanos / byIndexNanos);
+      }
+    }
+  }
+
+  /** The previous implementation of {@link JdbcSourceRowMapper#mapRow(ResultSet)}. */
+  private static SourceRow mapRowByName(
+      JdbcValueMappingsProvider mappingsProvider,
+      SourceSchemaReference schemaReference,
+      SourceTableSchema sourceTableSchema,
+      ResultSet resultSet)
+      throws SQLException {
+    SourceRow.Builder builder =
+        SourceRow.builder(schemaReference, sourceTableSchema, null, System.currentTimeMillis());
+    for (Map.Entry<String, SourceColumnType> entry :
+        sourceTableSchema.sourceColumnNameToSourceColumnType().entrySet()) {
+      Schema schema = sourceTableSchema.getAvroPayload().getField(entry.getKey()).schema();
+      if (schema.isUnion()) {
+        schema = schema.getTypes().get(1);
+      }
+      builder.setField(
+          entry.getKey(),
+          mappingsProvider
+              .getMappings()
+              .getOrDefault(entry.getValue().getName().toUpperCase(), JdbcValueMapper.UNSUPPORTED)
+              .mapValue(resultSet, entry.getKey(), schema));
+    }
+    return builder.build();
+  }
+
+  private static CachedRowSet readRows(int rowCount) throws Exception {
+    System.setProperty("derby.stream.error.file", "build/derby.log");
+    Class.forName("org.apache.derby.jdbc.EmbeddedDriver");
+    try (Connection conn =
+        DriverManager.getConnection("jdbc:derby:memory:BenchmarkDB;create=true")) {
+      try (Statement statement = conn.createStatement()) {
+        statement.executeUpdate(
+            "CREATE TABLE "
+                + TABLE
+                + " (id BIGINT, name VARCHAR(40), description VARCHAR(200), quantity INTEGER,"
+                + " score DOUBLE, price DECIMAL(10, 2), created TIMESTAMP)");
+      }
+      try (PreparedStatement insert =
+          conn.prepareStatement(
+              "INSERT INTO "
+                  + TABLE
+                  + " (id, name, description, quantity, score, price, created)"
+                  + " VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+        for (int i = 0; i < rowCount; i++) {
+          insert.setLong(1, i);
+          insert.setString(2, "name" + i);
+          insert.setString(3, "a description of the row number " + i);
+          insert.setInt(4, i % 1000);
+          insert.setDouble(5, i / 7.0);
+          insert.setBigDecimal(6, BigDecimal.valueOf(i, 2));
+          insert.setTimestamp(7, new Timestamp(1_700_000_000_000L + i));
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+      try (Statement statement = conn.createStatement();
+          ResultSet resultSet = statement.executeQuery("SELECT * FROM " + TABLE)) {
+        CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+        rows.populate(resultSet);
+        return rows;
+      }
+    }
+  }
+}
@@ -22,6 +22,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -261,6 +264,52 @@ public class JdbcSourceRowMapperTest {
     assertThat(mapper.mapRow(mockResultSet).getPayload().get("unsupported_col")).isNull();
   }
 
+  @Test
+  public void testColumnIndexResolvedOncePerTable() throws SQLException {
+    String testTable = "test_table";
+    var sourceTableSchema =
+        SourceTableSchema.builder(MapperType.MYSQL)
+            .setTableName(testTable)
+            .addSourceColumnNameToSourceColumnType(
+                "id", new SourceColumnType("BIGINT", new Long[] {}, null))
+            .addSourceColumnNameToSourceColumnType(
+                "name", new SourceColumnType("VARCHAR", new Long[] {20L}, null))
+            .build();
+    var sourceSchemaRef = SchemaTestUtils.generateSchemaReference("public", "mydb");
+    JdbcSourceRowMapper mapper =
+        new JdbcSourceRowMapper(
+            new MysqlJdbcValueMappings(), sourceSchemaRef, sourceTableSchema, null);
+
+    ResultSet firstResultSet = Mockito.mock(ResultSet.class);
+    when(firstResultSet.findColumn("id")).thenReturn(1);
+    when(firstResultSet.findColumn("name")).thenReturn(2);
+    when(firstResultSet.getLong(1)).thenReturn(1L, 2L);
+    when(firstResultSet.getString(2)).thenReturn("Albert", "Marie");
+
+    SourceRow firstRow = mapper.mapRow(firstResultSet);
+    SourceRow secondRow = mapper.mapRow(firstResultSet);
+
+    assertThat(firstRow.getPayload().get("id")).isEqualTo(1L);
+    assertThat(firstRow.getPayload().get("name")).isEqualTo("Albert");
+    assertThat(secondRow.getPayload().get("id")).isEqualTo(2L);
+    assertThat(secondRow.getPayload().get("name")).isEqualTo("Marie");
+    verify(firstResultSet, times(1)).findColumn("id");
+    verify(firstResultSet, times(1)).findColumn("name");
+    verify(firstResultSet, never()).getLong(anyString());
+    verify(firstResultSet, never()).getString(anyString());
+
+    // A new resultSet, like the one for the next partition of the table, has the same ordinals.
+    ResultSet secondResultSet = Mockito.mock(ResultSet.class);
+    when(secondResultSet.getLong(1)).thenReturn(3L);
+    when(secondResultSet.getString(2)).thenReturn("Niels");
+
+    SourceRow thirdRow = mapper.mapRow(secondResultSet);
+
+    assertThat(thirdRow.getPayload().get("id")).isEqualTo(3L);
+    assertThat(thirdRow.getPayload().get("name")).isEqualTo("Niels");
+    verify(secondResultSet, never()).findColumn(anyString());
+  }
+
   private static ImmutableList<Column> mySQLColumns() {
     // Unfortunately Derby supports only UTC.
     // TODO (vardhanvthigle): Verify time zone conversion on actual DB.
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationMapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationOrderRow;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationReference;
+import java.math.BigInteger;
+import org.apache.beam.sdk.transforms.splittabledofn.RestrictionTracker.Progress;
+import org.apache.beam.sdk.transforms.splittabledofn.SplitResult;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Test class for {@link RangeRestrictionTracker}. */
+@RunWith(MockitoJUnitRunner.class)
+public class RangeRestrictionTrackerTest {
+
+  private static Range longRange(long start, long end, boolean isLast) {
+    return Range.builder()
+        .setBoundarySplitter(BoundarySplitterFactory.create(Long.class))
+        .setColName("long_col")
+        .setColClass(Long.class)
+        .setStart(start)
+        .setEnd(end)
+        .setIsFirst(true)
+        .setIsLast(isLast)
+        .build();
+  }
+
+  @Test
+  public void testClaimAndSplit() {
+    RangeRestrictionTracker tracker = new RangeRestrictionTracker(longRange(0L, 100L, true), null);
+
+    assertThat(tracker.tryClaim(0L)).isTrue();
+    assertThat(tracker.tryClaim(10L)).isTrue();
+    assertThat(tracker.tryClaim(10L)).isTrue();
+
+    SplitResult<Range> splitResult = tracker.trySplit(0.5);
+    // Keys from 11 to 100 (inclusive as the range is last) remain, split at half of them.
+    assertThat(splitResult.getPrimary().start()).isEqualTo(0L);
+    assertThat(splitResult.getPrimary().end()).isEqualTo(56L);
+    assertThat(splitResult.getPrimary().isFirst()).isTrue();
+    assertThat(splitResult.getPrimary().isLast()).isFalse();
+    assertThat(splitResult.getResidual().start()).isEqualTo(56L);
+    assertThat(splitResult.getResidual().end()).isEqualTo(100L);
+    assertThat(splitResult.getResidual().isFirst()).isFalse();
+    assertThat(splitResult.getResidual().isLast()).isTrue();
+    assertThat(tracker.currentRestriction()).isEqualTo(splitResult.getPrimary());
+
+    assertThat(tracker.tryClaim(55L)).isTrue();
+    assertThat(tracker.tryClaim(56L)).isFalse();
+    tracker.checkDone();
+    assertThat(tracker.trySplit(0.5)).isNull();
+    assertThrows(IllegalStateException.class, () -> tracker.tryClaim(57L));
+  }
+
+  @Test
+  public void testCheckpointBeforeClaim() {
+    RangeRestrictionTracker tracker = new RangeRestrictionTracker(longRange(0L, 100L, false), null);
+
+    SplitResult<Range> splitResult = tracker.trySplit(0.0);
+
+    assertThat(splitResult.getPrimary().start()).isEqualTo(0L);
+    assertThat(splitResult.getPrimary().end()).isEqualTo(0L);
+    assertThat(splitResult.getResidual().start()).isEqualTo(0L);
+    assertThat(splitResult.getResidual().end()).isEqualTo(100L);
+    assertThat(splitResult.getResidual().isLast()).isFalse();
+    assertThat(tracker.tryClaim(0L)).isFalse();
+    tracker.checkDone();
+  }
+
+  @Test
+  public void testNoSplitAtEnd() {
+    RangeRestrictionTracker tracker = new RangeRestrictionTracker(longRange(0L, 10L, false), null);
+
+    assertThat(tracker.tryClaim(9L)).isTrue();
+    assertThat(tracker.trySplit(0.5)).isNull();
+    assertThrows(IllegalStateException.class, tracker::checkDone);
+    assertThat(tracker.tryClaim(null)).isFalse();
+    tracker.checkDone();
+  }
+
+  @Test
+  public void testEndExclusivity() {
+    RangeRestrictionTracker exclusiveTracker =
+        new RangeRestrictionTracker(longRange(0L, 10L, false), null);
+    RangeRestrictionTracker inclusiveTracker =
+        new RangeRestrictionTracker(longRange(0L, 10L, true), null);
+
+    assertThat(exclusiveTracker.tryClaim(10L)).isFalse();
+    assertThat(inclusiveTracker.tryClaim(10L)).isTrue();
+    assertThat(inclusiveTracker.tryClaim(11L)).isFalse();
+  }
+
+  @Test
+  public void testProgress() {
+    RangeRestrictionTracker tracker = new RangeRestrictionTracker(longRange(0L, 100L, false), null);
+
+    Progress progress = tracker.getProgress();
+    assertThat(progress.getWorkCompleted()).isEqualTo(0.0);
+    assertThat(progress.getWorkRemaining()).isEqualTo(100.0);
+
+    tracker.tryClaim(25L);
+    progress = tracker.getProgress();
+    assertThat(progress.getWorkCompleted()).isEqualTo(25.0);
+    assertThat(progress.getWorkRemaining()).isEqualTo(75.0);
+
+    tracker.tryClaim(null);
+    progress = tracker.getProgress();
+    assertThat(progress.getWorkCompleted()).isEqualTo(100.0);
+    assertThat(progress.getWorkRemaining()).isEqualTo(0.0);
+  }
+
+  @Test
+  public void testSplitWithChildRange() {
+    Range parent = longRange(5L, 6L, true).toBuilder().setColName("parent_col").build();
+    Range range = parent.withChildRange(longRange(0L, 100L, true), null);
+    RangeRestrictionTracker tracker = new RangeRestrictionTracker(range, null);
+
+    tracker.tryClaim(49L);
+    SplitResult<Range> splitResult = tracker.trySplit(0.0);
+
+    assertThat(splitResult.getPrimary().start()).isEqualTo(5L);
+    assertThat(splitResult.getPrimary().end()).isEqualTo(6L);
+    assertThat(splitResult.getPrimary().childRange().start()).isEqualTo(0L);
+    assertThat(splitResult.getPrimary().childRange().end()).isEqualTo(50L);
+    assertThat(splitResult.getResidual().start()).isEqualTo(5L);
+    assertThat(splitResult.getResidual().childRange().start()).isEqualTo(50L);
+    assertThat(splitResult.getResidual().childRange().end()).isEqualTo(100L);
+    assertThat(splitResult.getResidual().childRange().isLast()).isTrue();
+  }
+
+  @Test
+  public void testStringSplit() {
+    CollationReference collationReference =
+        CollationReference.builder()
+            .setDbCharacterSet("testCharSet")
+            .setDbCollation("testCollation")
+            .setPadSpace(false)
+            .build();
+    CollationMapper.Builder collationMapperBuilder = CollationMapper.builder(collationReference);
+    for (char c = 'a'; c <= 'z'; c++) {
+      collationMapperBuilder.addCharacter(
+          CollationOrderRow.builder()
+              .setCharsetChar(c)
+              .setEquivalentChar(c)
+              .setEquivalentCharPadSpace(c)
+              .setCodepointRank((long) (c - 'a'))
+              .setCodepointRankPadSpace((long) (c - 'a'))
+              .setIsEmpty(false)
+              .setIsSpace(false)
+              .build());
+    }
+    CollationMapper collationMapper = collationMapperBuilder.build();
+    Range range =
+        Range.builder()
+            .setBoundary(
+                Boundary.<String>builder()
+                    .setBoundarySplitter(BoundarySplitterFactory.create(String.class))
+                    .setColName("string_col")
+                    .setColClass(String.class)
+                    .setCollation(collationReference)
+                    .setStringMaxLength(2)
+                    .setStart("aa")
+                    .setEnd("zz")
+                    .build())
+            .setIsFirst(true)
+            .setIsLast(true)
+            .build();
+    RangeRestrictionTracker tracker = new RangeRestrictionTracker(range, collationMapper);
+    assertThrows(IllegalArgumentException.class, () -> new RangeRestrictionTracker(range, null));
+
+    assertThat(tracker.tryClaim("ab")).isTrue();
+    assertThat(tracker.tryClaim("mm")).isTrue();
+    SplitResult<Range> splitResult = tracker.trySplit(0.5);
+
+    String splitKey = (String) splitResult.getPrimary().end();
+    assertThat(splitResult.getResidual().start()).isEqualTo(splitKey);
+    assertThat(collationMapper.mapString(splitKey, 2))
+        .isGreaterThan(collationMapper.mapString("mm", 2));
+    assertThat(collationMapper.mapString(splitKey, 2))
+        .isLessThan(collationMapper.mapString("zz", 2));
+    assertThat(tracker.tryClaim("zz")).isFalse();
+    tracker.checkDone();
+  }
+
+  @Test
+  public void testIsSupported() {
+    assertThat(RangeRestrictionTracker.isSupported(Long.class)).isTrue();
+    assertThat(RangeRestrictionTracker.isSupported(Integer.class)).isTrue();
+    assertThat(RangeRestrictionTracker.isSupported(BigInteger.class)).isTrue();
+    assertThat(RangeRestrictionTracker.isSupported(String.class)).isTrue();
+    assertThat(RangeRestrictionTracker.isSupported(Double.class)).isFalse();
+  }
+}
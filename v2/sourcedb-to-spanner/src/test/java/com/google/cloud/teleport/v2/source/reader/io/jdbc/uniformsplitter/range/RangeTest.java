@@ -18,6 +18,7 @@ package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import com.google.common.collect.ImmutableList;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -165,6 +166,63 @@ public class RangeTest {
     assertThrows(IllegalArgumentException.class, () -> rangeBase.split(null));
   }
 
+  @Test
+  public void testRangeSplitAt() {
+    Range range =
+        Range.builder()
+            .setBoundarySplitter(BoundarySplitterFactory.create(Long.class))
+            .setColName("long_col")
+            .setColClass(Long.class)
+            .setStart(0L)
+            .setEnd(100L)
+            .setIsFirst(true)
+            .setIsLast(true)
+            .build();
+    ImmutableList<Long> splitPoints = ImmutableList.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 90L);
+
+    ImmutableList<Range> ranges = range.splitAt(splitPoints);
+
+    assertThat(ranges.size()).isEqualTo(11);
+    assertThat(ranges.get(0).start()).isEqualTo(0L);
+    assertThat(ranges.get(0).end()).isEqualTo(1L);
+    assertThat(ranges.get(9).start()).isEqualTo(9L);
+    assertThat(ranges.get(9).end()).isEqualTo(90L);
+    assertThat(ranges.get(10).start()).isEqualTo(90L);
+    assertThat(ranges.get(10).end()).isEqualTo(100L);
+    assertThat(ranges.get(0).isFirst()).isTrue();
+    assertThat(ranges.get(10).isLast()).isTrue();
+    for (int i = 0; i < ranges.size(); i++) {
+      assertThat(ranges.get(i).isUncounted()).isTrue();
+      assertThat(ranges.get(i).isFirst()).isEqualTo(i == 0);
+      assertThat(ranges.get(i).isLast()).isEqualTo(i == 10);
+    }
+    // Ranges sort in the order of the split points, also after a further split.
+    assertThat(ranges).isInStrictOrder();
+    Pair<Range, Range> splitPair = ranges.get(9).split(null);
+    assertThat(splitPair.getLeft()).isGreaterThan(ranges.get(8));
+    assertThat(splitPair.getLeft()).isGreaterThan(ranges.get(0));
+    assertThat(splitPair.getLeft()).isLessThan(splitPair.getRight());
+    assertThat(splitPair.getRight()).isLessThan(ranges.get(10));
+    // Merging back the ranges gives the original boundary.
+    Range merged = ranges.get(0);
+    for (int i = 1; i < ranges.size(); i++) {
+      merged = merged.mergeRange(ranges.get(i), null);
+    }
+    assertThat(merged.start()).isEqualTo(0L);
+    assertThat(merged.end()).isEqualTo(100L);
+    assertThat(merged.isFirst()).isTrue();
+    assertThat(merged.isLast()).isTrue();
+    // Ranges with child ranges can not be split at points.
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            range.toBuilder()
+                .setEnd(0L)
+                .build()
+                .withChildRange(range.toBuilder().setColName("long_col_2").build(), null)
+                .splitAt(splitPoints));
+  }
+
   @Test
   public void testAccumulateCount() {
     Range uncountedRange =
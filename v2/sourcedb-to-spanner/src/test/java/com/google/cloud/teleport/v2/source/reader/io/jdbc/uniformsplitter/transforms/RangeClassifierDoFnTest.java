@@ -272,6 +272,56 @@ public class RangeClassifierDoFnTest {
     assertThat(taggedOutputCaptor.toAddColumnAccumulator.build()).isEmpty();
   }
 
+  @Test
+  public void testRangeClassifierStage0WithEstimatedCounts() {
+    TaggedOutputCaptor taggedOutputCaptor = new TaggedOutputCaptor();
+    Mockito.doAnswer(
+            invocationOnMock ->
+                taggedOutputCaptor.out(
+                    invocationOnMock.getArgument(0), invocationOnMock.getArgument(1)))
+        .when(mockProcessContext)
+        .output(any(), any());
+    // Ranges split from column statistics carry estimated counts.
+    Range rangeToRetain =
+        Range.builder()
+            .setColName("col1")
+            .setColClass(Integer.class)
+            .setBoundarySplitter(BoundarySplitterFactory.create(Integer.class))
+            .setStart(0)
+            .setEnd(1000)
+            .setCount(10L)
+            .build();
+    Range rangeToCount =
+        rangeToRetain.toBuilder().setStart(2000).setEnd(3000).setCount(100L).build();
+    RangeClassifierDoFn rangeClassifierDoFn =
+        RangeClassifierDoFn.builder()
+            .setApproxTotalRowCount(120L)
+            .setStageIdx(0L)
+            .setAutoAdjustMaxPartitions(false)
+            .setMaxPartitionHint(3L)
+            .setPartitionColumns(
+                ImmutableList.of(
+                    PartitionColumn.builder()
+                        .setColumnName("col1")
+                        .setColumnClass(Integer.class)
+                        .build()))
+            .build();
+
+    ImmutableList<Range> initialSplit =
+        ImmutableList.of(
+            rangeToRetain,
+            rangeToRetain.toBuilder().setStart(1000).setEnd(2000).build(),
+            rangeToCount);
+
+    rangeClassifierDoFn.processElement(initialSplit, mockProcessContext);
+    // Only the range with an estimated count beyond the allowed deviation is counted.
+    assertThat(taggedOutputCaptor.toRetainAccumulator.build())
+        .isEqualTo(initialSplit.subList(0, 2));
+    assertThat(taggedOutputCaptor.toCountAccumulator.build())
+        .isEqualTo(ImmutableList.of(rangeToCount));
+    assertThat(taggedOutputCaptor.toAddColumnAccumulator.build()).isEmpty();
+  }
+
   // Traditional Argument Captor gets tricky with multiple tags of multiple types.
   private class TaggedOutputCaptor {
     public ImmutableList.Builder toCountAccumulator = ImmutableList.<Range>builder();
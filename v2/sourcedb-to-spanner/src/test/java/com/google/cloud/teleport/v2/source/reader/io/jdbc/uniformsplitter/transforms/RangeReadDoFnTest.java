@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter.MySqlVersion;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundarySplitterFactory;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangeRestrictionTracker;
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.apache.beam.sdk.transforms.DoFn.OutputReceiver;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Test class for {@link RangeReadDoFn}. */
+@RunWith(MockitoJUnitRunner.class)
+public class RangeReadDoFnTest {
+  SerializableFunction<Void, DataSource> mockDataSourceProviderFn =
+      Mockito.mock(SerializableFunction.class, withSettings().serializable());
+  DataSource mockDataSource = Mockito.mock(DataSource.class, withSettings().serializable());
+
+  @Mock Connection mockConnection;
+
+  @Mock PreparedStatement mockPreparedStatement;
+
+  @Mock ResultSet mockResultSet;
+
+  @Mock ResultSetMetaData mockResultSetMetaData;
+
+  @Mock OutputReceiver<Integer> mockOut;
+
+  private static final Range TEST_RANGE =
+      Range.<Integer>builder()
+          .setColName("col1")
+          .setColClass(Integer.class)
+          .setBoundarySplitter(BoundarySplitterFactory.create(Integer.class))
+          .setStart(0)
+          .setEnd(10)
+          .build();
+
+  @Before
+  public void setUp() throws Exception {
+    when(mockDataSourceProviderFn.apply(any())).thenReturn(mockDataSource);
+    when(mockDataSource.getConnection()).thenReturn(mockConnection);
+    when(mockConnection.prepareStatement(anyString(), anyInt(), anyInt()))
+        .thenReturn(mockPreparedStatement);
+    when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+    when(mockResultSet.getMetaData()).thenReturn(mockResultSetMetaData);
+    when(mockResultSetMetaData.getColumnCount()).thenReturn(2);
+  }
+
+  @Test
+  public void testRangeReadDoFnReadsRange() throws Exception {
+    when(mockResultSet.next()).thenReturn(true, true, false);
+    when(mockResultSet.getInt(2)).thenReturn(1, 5);
+    when(mockResultSet.getInt(1)).thenReturn(1, 5);
+
+    getRangeReadDoFn().processElement(new RangeRestrictionTracker(TEST_RANGE, null), mockOut);
+
+    verify(mockOut).output(1);
+    verify(mockOut).output(5);
+    verify(mockPreparedStatement, never()).cancel();
+  }
+
+  @Test
+  public void testRangeReadDoFnCancelsAtSplitPoint() throws Exception {
+    when(mockResultSet.next()).thenReturn(true, true, true, false);
+    when(mockResultSet.getInt(2)).thenReturn(1, 5, 7);
+    when(mockResultSet.getInt(1)).thenReturn(1, 5, 7);
+    // Closing a cancelled read may fail, as the driver sees the query interrupted.
+    doThrow(new SQLException("Query execution was interrupted")).when(mockResultSet).close();
+    RangeRestrictionTracker tracker = new RangeRestrictionTracker(TEST_RANGE, null);
+    // The runner splits the remainder of the range off after the first row.
+    doAnswer(
+            invocationOnMock -> {
+              tracker.trySplit(0.0);
+              return null;
+            })
+        .when(mockOut)
+        .output(any());
+
+    getRangeReadDoFn().processElement(tracker, mockOut);
+
+    verify(mockOut, times(1)).output(any());
+    verify(mockOut).output(1);
+    // The rest of the streaming result set is not drained.
+    verify(mockPreparedStatement).cancel();
+    verify(mockResultSet, times(2)).next();
+  }
+
+  @Test
+  public void testRangeReadDoFnIgnoresCancelFailure() throws Exception {
+    when(mockResultSet.next()).thenReturn(true, true, false);
+    when(mockResultSet.getInt(2)).thenReturn(1, 5);
+    when(mockResultSet.getInt(1)).thenReturn(1, 5);
+    doThrow(new SQLException("test")).when(mockPreparedStatement).cancel();
+    RangeRestrictionTracker tracker = new RangeRestrictionTracker(TEST_RANGE, null);
+    doAnswer(
+            invocationOnMock -> {
+              tracker.trySplit(0.0);
+              return null;
+            })
+        .when(mockOut)
+        .output(any());
+
+    getRangeReadDoFn().processElement(tracker, mockOut);
+
+    verify(mockOut, times(1)).output(any());
+    verify(mockPreparedStatement).cancel();
+  }
+
+  private RangeReadDoFn<Integer> getRangeReadDoFn() throws Exception {
+    RangeReadDoFn<Integer> rangeReadDoFn =
+        new RangeReadDoFn<>(
+            mockDataSourceProviderFn,
+            new MysqlDialectAdapter(MySqlVersion.DEFAULT),
+            "testTable",
+            ImmutableList.of("col1"),
+            resultSet -> resultSet.getInt(1));
+    rangeReadDoFn.setup();
+    return rangeReadDoFn;
+  }
+}
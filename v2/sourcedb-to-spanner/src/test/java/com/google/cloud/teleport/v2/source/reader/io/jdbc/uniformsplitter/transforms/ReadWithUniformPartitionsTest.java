@@ -33,8 +33,6 @@ package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.trans
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
-import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter;
-import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter.MySqlVersion;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundarySplitterFactory;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.PartitionColumn;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
@@ -161,6 +159,56 @@ public class ReadWithUniformPartitionsTest implements Serializable {
     testPipeline.run().waitUntilFinish();
   }
 
+  @Test
+  public void testReadWithUniformPartitionsWithColumnStatistics() throws Exception {
+    // Derby does not maintain column histograms, so the initial split falls back to the uniform
+    // split and the reads are unaffected.
+    TestRangesPeekVerification testRangesPeekVerification =
+        (capturedRanges) -> {
+          long totalCount = 0;
+          for (Range range : capturedRanges) {
+            totalCount = range.accumulateCount(totalCount);
+            assertThat(range.count()).isAtMost(2L);
+          }
+          assertThat(totalCount).isEqualTo(6L);
+        };
+    TestRangesPeek testRangesPeek = new TestRangesPeek(testRangesPeekVerification);
+    ReadWithUniformPartitions readWithUniformPartitions =
+        getReadWithUniformPartitionsForTest(100L, 10L, testRangesPeek, null, null, true);
+
+    PCollection<String> output =
+        (PCollection<String>) testPipeline.apply(readWithUniformPartitions);
+    PAssert.that(output)
+        .containsInAnyOrder("Data A", "Data B", "Data C", "Data D", "Data E", "Data F");
+    testPipeline.run().waitUntilFinish();
+  }
+
+  @Test
+  public void testReadWithUniformPartitionsWithSplittableReads() throws Exception {
+    ReadWithUniformPartitions readWithUniformPartitions =
+        getReadWithUniformPartitionsForTest(100L, 10L, null, null, null, false, null, true);
+
+    PCollection<String> output =
+        (PCollection<String>) testPipeline.apply(readWithUniformPartitions);
+    PAssert.that(output)
+        .containsInAnyOrder("Data A", "Data B", "Data C", "Data D", "Data E", "Data F");
+    testPipeline.run().waitUntilFinish();
+  }
+
+  @Test
+  public void testReadWithUniformPartitionsWithDbParallelizationForReads() throws Exception {
+    // Limiting the parallelization of reads falls back to reading the ranges without splitting
+    // them while they are read.
+    ReadWithUniformPartitions readWithUniformPartitions =
+        getReadWithUniformPartitionsForTest(100L, 10L, null, null, null, false, 2);
+
+    PCollection<String> output =
+        (PCollection<String>) testPipeline.apply(readWithUniformPartitions);
+    PAssert.that(output)
+        .containsInAnyOrder("Data A", "Data B", "Data C", "Data D", "Data E", "Data F");
+    testPipeline.run().waitUntilFinish();
+  }
+
   @Test
   public void testReadWithUniformPartitionsWithWait() throws Exception {
     // We do two reads with the second-one waiting for first.
@@ -273,6 +321,55 @@ public class ReadWithUniformPartitionsTest implements Serializable {
       @Nullable TestRangesPeek testRangesPeek,
       @Nullable Range initialRange,
       Wait.OnSignal<?> waitOnSignal) {
+    return getReadWithUniformPartitionsForTest(
+        approximateTotalCount, maxPartitionHint, testRangesPeek, initialRange, waitOnSignal, false);
+  }
+
+  private ReadWithUniformPartitions getReadWithUniformPartitionsForTest(
+      long approximateTotalCount,
+      @Nullable Long maxPartitionHint,
+      @Nullable TestRangesPeek testRangesPeek,
+      @Nullable Range initialRange,
+      Wait.OnSignal<?> waitOnSignal,
+      boolean useColumnStatistics) {
+    return getReadWithUniformPartitionsForTest(
+        approximateTotalCount,
+        maxPartitionHint,
+        testRangesPeek,
+        initialRange,
+        waitOnSignal,
+        useColumnStatistics,
+        null);
+  }
+
+  private ReadWithUniformPartitions getReadWithUniformPartitionsForTest(
+      long approximateTotalCount,
+      @Nullable Long maxPartitionHint,
+      @Nullable TestRangesPeek testRangesPeek,
+      @Nullable Range initialRange,
+      Wait.OnSignal<?> waitOnSignal,
+      boolean useColumnStatistics,
+      @Nullable Integer dbParallelizationForReads) {
+    return getReadWithUniformPartitionsForTest(
+        approximateTotalCount,
+        maxPartitionHint,
+        testRangesPeek,
+        initialRange,
+        waitOnSignal,
+        useColumnStatistics,
+        dbParallelizationForReads,
+        false);
+  }
+
+  private ReadWithUniformPartitions getReadWithUniformPartitionsForTest(
+      long approximateTotalCount,
+      @Nullable Long maxPartitionHint,
+      @Nullable TestRangesPeek testRangesPeek,
+      @Nullable Range initialRange,
+      Wait.OnSignal<?> waitOnSignal,
+      boolean useColumnStatistics,
+      @Nullable Integer dbParallelizationForReads,
+      boolean splittableReads) {
 
     ReadWithUniformPartitions.Builder<String> readWithPartitionBuilder =
         ReadWithUniformPartitions.<String>builder()
@@ -289,9 +386,12 @@ public class ReadWithUniformPartitionsTest implements Serializable {
                         .setColumnName("col2")
                         .setColumnClass(Integer.class)
                         .build()))
-            .setDbAdapter(new MysqlDialectAdapter(MySqlVersion.DEFAULT))
+            .setDbAdapter(new TransformTestUtils.DerbyCompatibleMysqlDialectAdapter())
             .setDataSourceProviderFn(dataSourceProviderFn)
             .setAdditionalOperationsOnRanges(testRangesPeek)
+            .setUseColumnStatisticsForInitialSplit(useColumnStatistics)
+            .setDbParallelizationForReads(dbParallelizationForReads)
+            .setSplittableReads(splittableReads)
             .setRowMapper(
                 new RowMapper<String>() {
                   @Override
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter.MySqlVersion;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.UniformSplitterDBAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundarySplitterFactory;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import javax.sql.DataSource;
+import org.apache.beam.sdk.transforms.DoFn.OutputReceiver;
+import org.apache.beam.sdk.transforms.DoFn.ProcessContext;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Test class for {@link StatisticsSplitRangeDoFn}. */
+@RunWith(MockitoJUnitRunner.class)
+public class StatisticsSplitRangeDoFnTest {
+  SerializableFunction<Void, DataSource> mockDataSourceProviderFn =
+      Mockito.mock(SerializableFunction.class, withSettings().serializable());
+  DataSource mockDataSource = Mockito.mock(DataSource.class, withSettings().serializable());
+
+  Connection mockConnection = Mockito.mock(Connection.class, withSettings().serializable());
+
+  @Mock Statement mockStatement;
+
+  @Mock ResultSet mockResultSet;
+
+  @Mock OutputReceiver mockOut;
+  @Captor ArgumentCaptor<ImmutableList<Range>> rangeCaptor;
+  @Mock ProcessContext mockProcessContext;
+
+  private static final Range TEST_RANGE =
+      Range.builder()
+          .setColName("col1")
+          .setColClass(Long.class)
+          .setStart(0L)
+          .setEnd(100L)
+          .setBoundarySplitter(BoundarySplitterFactory.create(Long.class))
+          .setIsFirst(true)
+          .setIsLast(true)
+          .build();
+
+  @Test
+  public void testStatisticsSplitBasic() throws Exception {
+    mockStatistics();
+    when(mockResultSet.next()).thenReturn(true, true, true, true, true, true, true, false);
+    // Duplicate, out of range and non-integral bounds are ignored.
+    when(mockResultSet.getString(1)).thenReturn("10", " 20", "20", "0", "150", "1.5", null);
+
+    StatisticsSplitRangeDoFn statisticsSplitRangeDoFn =
+        new StatisticsSplitRangeDoFn(
+            mockDataSourceProviderFn,
+            new MysqlDialectAdapter(MySqlVersion.DEFAULT),
+            "testTable",
+            5L,
+            300L);
+    statisticsSplitRangeDoFn.setup();
+    statisticsSplitRangeDoFn.processElement(TEST_RANGE, mockOut, mockProcessContext);
+
+    verify(mockOut).output(rangeCaptor.capture());
+    ImmutableList<Range> actualRanges = rangeCaptor.getValue();
+    assertThat(actualRanges.size()).isEqualTo(3);
+    assertThat(actualRanges.get(0).start()).isEqualTo(0L);
+    assertThat(actualRanges.get(0).end()).isEqualTo(10L);
+    assertThat(actualRanges.get(1).start()).isEqualTo(10L);
+    assertThat(actualRanges.get(1).end()).isEqualTo(20L);
+    assertThat(actualRanges.get(2).start()).isEqualTo(20L);
+    assertThat(actualRanges.get(2).end()).isEqualTo(100L);
+    assertThat(actualRanges.get(0).isFirst()).isTrue();
+    assertThat(actualRanges.get(2).isLast()).isTrue();
+    // The ranges split from the statistics share the approximate row count of the table.
+    assertThat(actualRanges.stream().map(Range::count)).containsExactly(100L, 100L, 100L);
+  }
+
+  @Test
+  public void testStatisticsSplitFallsBackOnSqlException() throws Exception {
+    mockStatistics();
+    when(mockStatement.executeQuery(anyString())).thenThrow(new SQLException("test"));
+
+    StatisticsSplitRangeDoFn statisticsSplitRangeDoFn =
+        new StatisticsSplitRangeDoFn(
+            mockDataSourceProviderFn,
+            new MysqlDialectAdapter(MySqlVersion.DEFAULT),
+            "testTable",
+            2L,
+            300L);
+    statisticsSplitRangeDoFn.setup();
+    statisticsSplitRangeDoFn.processElement(TEST_RANGE, mockOut, mockProcessContext);
+
+    verify(mockOut).output(rangeCaptor.capture());
+    assertThat(rangeCaptor.getValue())
+        .isEqualTo(
+            InitialSplitRangeDoFn.splitUniformly(TEST_RANGE, 2L, "testTable", mockProcessContext));
+  }
+
+  @Test
+  public void testStatisticsSplitFallsBackWithoutStatistics() throws Exception {
+    when(mockDataSourceProviderFn.apply(any())).thenReturn(mockDataSource);
+    UniformSplitterDBAdapter mockAdapter =
+        Mockito.mock(UniformSplitterDBAdapter.class, withSettings().serializable());
+    when(mockAdapter.getColumnStatisticsQuery(anyString(), anyString())).thenReturn(null);
+
+    StatisticsSplitRangeDoFn statisticsSplitRangeDoFn =
+        new StatisticsSplitRangeDoFn(mockDataSourceProviderFn, mockAdapter, "testTable", 2L, 300L);
+    statisticsSplitRangeDoFn.setup();
+    statisticsSplitRangeDoFn.processElement(TEST_RANGE, mockOut, mockProcessContext);
+
+    verify(mockOut).output(rangeCaptor.capture());
+    assertThat(rangeCaptor.getValue().size()).isEqualTo(4);
+    assertThat(rangeCaptor.getValue().stream().allMatch(Range::isUncounted)).isTrue();
+    verify(mockDataSource, never()).getConnection();
+  }
+
+  @Test
+  public void testSample() {
+    ArrayList<Comparable> points = new ArrayList<>(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+    assertThat(StatisticsSplitRangeDoFn.sample(points, 3L)).containsExactly(2, 5, 7).inOrder();
+    assertThat(StatisticsSplitRangeDoFn.sample(points, 10L)).isEqualTo(points);
+    assertThat(StatisticsSplitRangeDoFn.sample(points, 0L)).isEmpty();
+  }
+
+  private void mockStatistics() throws SQLException {
+    when(mockDataSourceProviderFn.apply(any())).thenReturn(mockDataSource);
+    when(mockDataSource.getConnection()).thenReturn(mockConnection);
+    when(mockConnection.createStatement(anyInt(), anyInt())).thenReturn(mockStatement);
+    when(mockStatement.executeQuery(anyString())).thenReturn(mockResultSet);
+  }
+}
@@ -15,6 +15,10 @@
  */
 package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms;
 
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.dialectadapter.mysql.MysqlDialectAdapter.MySqlVersion;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.UniformSplitterDBAdapter;
+import com.google.common.collect.ImmutableList;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -31,6 +35,57 @@ class TransformTestUtils {
 
   private TransformTestUtils() {}
 
+  /**
+   * Mysql dialect adapter to read from Derby, which rejects the negative streaming fetch size of
+   * MySQL.
+   */
+  static class DerbyCompatibleMysqlDialectAdapter implements UniformSplitterDBAdapter {
+    private final MysqlDialectAdapter delegate = new MysqlDialectAdapter(MySqlVersion.DEFAULT);
+
+    @Override
+    public String getReadQuery(String tableName, ImmutableList<String> partitionColumns) {
+      return delegate.getReadQuery(tableName, partitionColumns);
+    }
+
+    @Override
+    public String getOrderedReadQuery(
+        String tableName, ImmutableList<String> partitionColumns, String orderByColumn) {
+      return delegate.getOrderedReadQuery(tableName, partitionColumns, orderByColumn);
+    }
+
+    @Override
+    public int getStreamingFetchSize() {
+      return DEFAULT_STREAMING_FETCH_SIZE;
+    }
+
+    @Override
+    public String getCountQuery(
+        String tableName, ImmutableList<String> partitionColumns, long timeoutMillis) {
+      return delegate.getCountQuery(tableName, partitionColumns, timeoutMillis);
+    }
+
+    @Override
+    public String getBoundaryQuery(
+        String tableName, ImmutableList<String> partitionColumns, String colName) {
+      return delegate.getBoundaryQuery(tableName, partitionColumns, colName);
+    }
+
+    @Override
+    public String getColumnStatisticsQuery(String tableName, String colName) {
+      return delegate.getColumnStatisticsQuery(tableName, colName);
+    }
+
+    @Override
+    public boolean checkForTimeout(SQLException exception) {
+      return delegate.checkForTimeout(exception);
+    }
+
+    @Override
+    public String getCollationsOrderQuery(String dbCharset, String dbCollation, boolean padSpace) {
+      return delegate.getCollationsOrderQuery(dbCharset, dbCollation, padSpace);
+    }
+  }
+
   static void createDerbyTable(String tableName) throws SQLException {
     try (java.sql.Connection connection = getConnection()) {
       Statement stmtCreateTable = connection.createStatement();
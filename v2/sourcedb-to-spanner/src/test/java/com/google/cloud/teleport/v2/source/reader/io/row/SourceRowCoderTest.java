@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.row;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.teleport.v2.source.reader.io.schema.SchemaTestUtils;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchemaReference;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.apache.beam.sdk.util.SerializableUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Test class for {@link SourceRowCoder}. */
+@RunWith(MockitoJUnitRunner.class)
+public class SourceRowCoderTest {
+
+  @Test
+  public void testRoundTrip() throws CoderException {
+    SourceSchemaReference schemaRef = SchemaTestUtils.generateSchemaReference("public", "mydb");
+    SourceTableSchema firstTable = SchemaTestUtils.generateTestTableSchema("testTable1");
+    SourceTableSchema secondTable = SchemaTestUtils.generateTestTableSchema("testTable2");
+    SourceRowCoder coder =
+        SourceRowCoder.of(
+            SourceSchema.builder()
+                .setSchemaReference(schemaRef)
+                .addTableSchema(firstTable)
+                .addTableSchema(secondTable)
+                .build());
+    SourceRow shardedRow =
+        SourceRow.builder(schemaRef, firstTable, "shard1", 1712751118L)
+            .setField("firstName", "abc")
+            .setField("lastName", "def")
+            .build();
+    SourceRow nonShardedRow =
+        SourceRow.builder(schemaRef, secondTable, null, 1712751119L)
+            .setField("firstName", "ghi")
+            .setField("lastName", "jkl")
+            .build();
+
+    /* Round trip through a serialized coder, as it would happen on a worker. */
+    SourceRowCoder workerCoder = SerializableUtils.clone(coder);
+
+    assertThat(CoderUtils.clone(workerCoder, shardedRow)).isEqualTo(shardedRow);
+    assertThat(CoderUtils.clone(workerCoder, nonShardedRow)).isEqualTo(nonShardedRow);
+    assertThat(workerCoder).isEqualTo(coder);
+  }
+
+  @Test
+  public void testEncodingIsSmallerThanJavaSerialization() throws IOException {
+    SourceSchemaReference schemaRef = SchemaTestUtils.generateSchemaReference("public", "mydb");
+    SourceTableSchema table = SchemaTestUtils.generateTestTableSchema("testTable");
+    SourceRowCoder coder =
+        SourceRowCoder.of(
+            SourceSchema.builder().setSchemaReference(schemaRef).addTableSchema(table).build());
+    SourceRow row =
+        SourceRow.builder(schemaRef, table, null, 1712751118L)
+            .setField("firstName", "abc")
+            .setField("lastName", "def")
+            .build();
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ObjectOutputStream outputStream = new ObjectOutputStream(bos);
+    outputStream.writeObject(row);
+    outputStream.flush();
+
+    assertThat(CoderUtils.encodeToByteArray(coder, row).length).isLessThan(bos.size());
+  }
+
+  @Test
+  public void testUnregisteredSchemaThrows() {
+    SourceSchemaReference schemaRef = SchemaTestUtils.generateSchemaReference("public", "mydb");
+    SourceTableSchema registeredTable = SchemaTestUtils.generateTestTableSchema("testTable1");
+    SourceTableSchema unregisteredTable = SchemaTestUtils.generateTestTableSchema("testTable2");
+    SourceRowCoder coder =
+        SourceRowCoder.of(
+            SourceSchema.builder()
+                .setSchemaReference(schemaRef)
+                .addTableSchema(registeredTable)
+                .build());
+    SourceRow row =
+        SourceRow.builder(schemaRef, unregisteredTable, null, 1712751118L)
+            .setField("firstName", "abc")
+            .setField("lastName", "def")
+            .build();
+
+    assertThrows(CoderException.class, () -> CoderUtils.encodeToByteArray(coder, row));
+  }
+}
@@ -15,25 +15,35 @@
  */
 package com.google.cloud.teleport.v2.templates;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 
 import com.google.cloud.teleport.v2.constants.MetricCounters;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.apache.beam.sdk.Pipeline.PipelineExecutionException;
 import org.apache.beam.sdk.PipelineResult;
 import org.apache.beam.sdk.metrics.MetricResult;
 import org.apache.beam.sdk.metrics.MetricsFilter;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.Wait;
 import org.apache.beam.sdk.values.PCollection;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class IncrementTableCounterTest {
   @Rule public final transient TestPipeline pipeline = TestPipeline.create();
 
+  @Rule public final transient TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testIncrementTableCounter() {
     PCollection<Integer> t1 = pipeline.apply("t1", Create.of(1));
@@ -58,4 +68,67 @@ public class IncrementTableCounterTest {
       }
     }
   }
+
+  @Test
+  public void testIncrementTableCounterWithCheckpoint() throws IOException {
+    MigrationCheckpoint checkpoint =
+        MigrationCheckpoint.create(tempFolder.newFolder("output").getAbsolutePath());
+    PCollection<Integer> t1 = pipeline.apply("t1", Create.of(1));
+    PCollection<Integer> t2 = pipeline.apply("t2", Create.of(1));
+    Map<Integer, Wait.OnSignal<?>> tableWaits = new HashMap<>();
+    tableWaits.put(0, Wait.on(t1));
+    tableWaits.put(1, Wait.on(t2));
+    Map<Integer, List<String>> levelVsTableMap = new HashMap<>();
+    levelVsTableMap.put(0, List.of("t1"));
+    levelVsTableMap.put(1, List.of("t2", "t3"));
+    pipeline.apply(
+        new IncrementTableCounter(
+            tableWaits, List.of("shard1", "shard2"), levelVsTableMap, checkpoint));
+    pipeline.run().waitUntilFinish();
+
+    assertThat(checkpoint.completedTables("shard1")).containsExactly("t1", "t2", "t3");
+    assertThat(checkpoint.completedTables("shard2")).containsExactly("t1", "t2", "t3");
+  }
+
+  @Test
+  public void testIncrementTableCounterForTablesWhenLevelFailsPartway() throws IOException {
+    MigrationCheckpoint checkpoint =
+        MigrationCheckpoint.create(tempFolder.newFolder("output").getAbsolutePath());
+    PCollection<Integer> t1 = pipeline.apply("t1", Create.of(1));
+    // The writes of t2 fail once t1 of the same level is completed.
+    PCollection<Integer> t2 =
+        pipeline
+            .apply("t2", Create.of(1))
+            .apply("FailAfterT1", ParDo.of(new FailAfterCompletion(checkpoint, "shard1", "t1")));
+    Map<String, Wait.OnSignal<?>> tableWaits = new LinkedHashMap<>();
+    tableWaits.put("t1", Wait.on(t1));
+    tableWaits.put("t2", Wait.on(t2));
+    pipeline.apply(IncrementTableCounter.forTables(tableWaits, List.of("shard1"), checkpoint));
+
+    assertThrows(PipelineExecutionException.class, () -> pipeline.run().waitUntilFinish());
+
+    // The table completed before the failure is checkpointed, and the failed one is not.
+    assertThat(checkpoint.completedTables("shard1")).containsExactly("t1");
+  }
+
+  /** Fails once a table is checkpointed, like the writes of a table failing mid-level. */
+  private static class FailAfterCompletion extends DoFn<Integer, Integer> {
+    private final MigrationCheckpoint checkpoint;
+    private final String shardId;
+    private final String table;
+
+    FailAfterCompletion(MigrationCheckpoint checkpoint, String shardId, String table) {
+      this.checkpoint = checkpoint;
+      this.shardId = shardId;
+      this.table = table;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext c) throws InterruptedException {
+      for (int i = 0; i < 600 && !checkpoint.completedTables(shardId).contains(table); i++) {
+        Thread.sleep(100);
+      }
+      throw new IllegalStateException("test failure after completion of " + table);
+    }
+  }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MigrationCheckpointTest {
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testMarkAndReadCompletedTables() throws IOException {
+    String outputDirectory = tempFolder.newFolder("output").getAbsolutePath();
+    MigrationCheckpoint checkpoint = MigrationCheckpoint.create(outputDirectory);
+
+    assertThat(checkpoint.completedTables(null)).isEmpty();
+    assertThat(checkpoint.completedTables("shard1")).isEmpty();
+
+    checkpoint.markCompleted("", "t1");
+    checkpoint.markCompleted("shard1", "t1");
+    checkpoint.markCompleted("shard1", "t2");
+    // Marking a completed table again is a no-op.
+    checkpoint.markCompleted("shard1", "t2");
+
+    assertThat(checkpoint.completedTables(null)).containsExactly("t1");
+    assertThat(checkpoint.completedTables("shard1")).containsExactly("t1", "t2");
+    assertThat(checkpoint.completedTables("shard2")).isEmpty();
+    assertThat(MigrationCheckpoint.create(outputDirectory + "/").completedTables("shard1"))
+        .containsExactly("t1", "t2");
+  }
+}
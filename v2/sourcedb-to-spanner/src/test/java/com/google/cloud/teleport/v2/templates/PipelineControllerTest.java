@@ -17,6 +17,7 @@ package com.google.cloud.teleport.v2.templates;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -24,10 +25,14 @@ import static org.mockito.Mockito.when;
 import com.google.cloud.teleport.v2.options.SourceDbToSpannerOptions;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.JdbcIOWrapperConfig;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.SQLDialect;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SchemaTestUtils;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.ISchemaMapper;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.IdentityMapper;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.SessionBasedMapper;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceColumnType;
 import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
 import com.google.cloud.teleport.v2.templates.PipelineController.ShardedDbConfigContainer;
 import com.google.cloud.teleport.v2.templates.PipelineController.SingleInstanceDbConfigContainer;
@@ -36,6 +41,7 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.Create;
@@ -182,6 +188,28 @@ public class PipelineControllerTest {
         schemaMapper, "", List.of("cart")); // Only accepts spanner table names
   }
 
+  @Test
+  public void pendingSpannerTablesTest() {
+    List<String> spannerTables = List.of("t1", "t2", "t3");
+
+    assertThat(PipelineController.getPendingSpannerTables(spannerTables, List.of()))
+        .containsExactly("t1", "t2", "t3")
+        .inOrder();
+    assertThat(PipelineController.getPendingSpannerTables(spannerTables, List.of(Set.of("t2"))))
+        .containsExactly("t1", "t3")
+        .inOrder();
+    // A table is pending till it is completed for all the shards.
+    assertThat(
+            PipelineController.getPendingSpannerTables(
+                spannerTables, List.of(Set.of("t1", "t2"), Set.of("t2", "t3"))))
+        .containsExactly("t1", "t3")
+        .inOrder();
+    assertThat(
+            PipelineController.getPendingSpannerTables(
+                spannerTables, List.of(Set.of("t1", "t2", "t3"))))
+        .isEmpty();
+  }
+
   private SourceDbToSpannerOptions createOptionsHelper(String sessionFile, String tables) {
     SourceDbToSpannerOptions mockOptions =
         mock(SourceDbToSpannerOptions.class, Mockito.withSettings().serializable());
@@ -264,4 +292,79 @@ public class PipelineControllerTest {
     assertThat(config.waitOn()).isNotNull();
     assertEquals("shard1", dbConfigContainer.getShardId());
   }
+
+  @Test
+  public void checkShardSchemaMatching() {
+    PipelineController.checkShardSchema(
+        shardSchema(SchemaTestUtils.generateTestTableSchema("t1")),
+        "shard1",
+        shardSchema(SchemaTestUtils.generateTestTableSchema("t1")),
+        "shard2");
+  }
+
+  @Test
+  public void checkShardSchemaMissingTable() {
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                PipelineController.checkShardSchema(
+                    shardSchema(
+                        SchemaTestUtils.generateTestTableSchema("t1"),
+                        SchemaTestUtils.generateTestTableSchema("t2")),
+                    "shard1",
+                    shardSchema(SchemaTestUtils.generateTestTableSchema("t1")),
+                    "shard2"));
+    assertThat(e).hasMessageThat().contains("Tables of shard shard2");
+  }
+
+  @Test
+  public void checkShardSchemaColumnOrder() {
+    SourceTableSchema reordered =
+        SourceTableSchema.builder(SQLDialect.MYSQL)
+            .setTableName("t1")
+            .addSourceColumnNameToSourceColumnType(
+                "lastName", new SourceColumnType("varchar", new Long[] {20L}, null))
+            .addSourceColumnNameToSourceColumnType(
+                "firstName", new SourceColumnType("varchar", new Long[] {20L}, null))
+            .build();
+    // The columns are mapped by name, hence the order of the columns does not matter.
+    PipelineController.checkShardSchema(
+        shardSchema(SchemaTestUtils.generateTestTableSchema("t1")),
+        "shard1",
+        shardSchema(reordered),
+        "shard2");
+  }
+
+  @Test
+  public void checkShardSchemaColumnType() {
+    SourceTableSchema retyped =
+        SourceTableSchema.builder(SQLDialect.MYSQL)
+            .setTableName("t1")
+            .addSourceColumnNameToSourceColumnType(
+                "firstName", new SourceColumnType("varchar", new Long[] {20L}, null))
+            .addSourceColumnNameToSourceColumnType(
+                "lastName", new SourceColumnType("varchar", new Long[] {30L}, null))
+            .build();
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                PipelineController.checkShardSchema(
+                    shardSchema(SchemaTestUtils.generateTestTableSchema("t1")),
+                    "shard1",
+                    shardSchema(retyped),
+                    "shard2"));
+    assertThat(e).hasMessageThat().contains("Columns of table t1 of shard shard2");
+  }
+
+  private static SourceSchema shardSchema(SourceTableSchema... tableSchemas) {
+    SourceSchema.Builder builder =
+        SourceSchema.builder()
+            .setSchemaReference(SchemaTestUtils.generateSchemaReference("", "shardDb"));
+    for (SourceTableSchema tableSchema : tableSchemas) {
+      builder.addTableSchema(tableSchema);
+    }
+    return builder.build();
+  }
 }
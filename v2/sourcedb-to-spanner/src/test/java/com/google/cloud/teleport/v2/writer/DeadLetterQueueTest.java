@@ -29,7 +29,13 @@ import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.templates.RowContext;
 import com.google.cloud.teleport.v2.transforms.DLQWriteTransform.WriteDLQ;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.Create;
@@ -37,11 +43,14 @@ import org.apache.beam.sdk.values.PCollection;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class DeadLetterQueueTest {
 
   @Rule public final transient TestPipeline pipeline = TestPipeline.create();
 
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private Ddl spannerDdl;
 
   @Before
@@ -264,4 +273,82 @@ public class DeadLetterQueueTest {
     assertTrue(dlqElement.getOriginalPayload().contains("\"firstName\":\"abc\""));
     assertTrue(dlqElement.getOriginalPayload().contains("\"lastName\":\"def\""));
   }
+
+  @Test
+  public void testFailedRowsPerShard() throws IOException {
+    File dlqDirectory = temporaryFolder.newFolder("dlq");
+    DeadLetterQueue dlq =
+        DeadLetterQueue.createPerShard(
+            dlqDirectory.getAbsolutePath(),
+            spannerDdl,
+            Map.of("srcTable", "migration_shard_id"),
+            Map.of(),
+            SQLDialect.MYSQL);
+    assertNull(dlq.getDlqTransform());
+    var schemaRef = SchemaTestUtils.generateSchemaReference("public", "mydb");
+    SourceTableSchema schema = SchemaTestUtils.generateTestTableSchema("srcTable");
+    RowContext r1 =
+        RowContext.builder()
+            .setRow(
+                SourceRow.builder(schemaRef, schema, "shard1", 12412435345L)
+                    .setField("firstName", "abc")
+                    .setField("lastName", "def")
+                    .build())
+            .build();
+    RowContext r2 =
+        RowContext.builder()
+            .setRow(
+                SourceRow.builder(schemaRef, schema, "shard2", 12412435345L)
+                    .setField("firstName", "ghi")
+                    .setField("lastName", "jkl")
+                    .build())
+            .build();
+
+    PCollection<RowContext> failedRows = pipeline.apply(Create.of(r1, r2));
+    dlq.failedTransformsToDLQ(failedRows);
+    pipeline.run().waitUntilFinish();
+
+    List<String> shard1Records = readRecords(new File(dlqDirectory, "shard1"));
+    assertEquals(1, shard1Records.size());
+    assertTrue(shard1Records.get(0).contains("\"firstName\":\"abc\""));
+    assertTrue(shard1Records.get(0).contains("\"migration_shard_id\":\"shard1\""));
+    List<String> shard2Records = readRecords(new File(dlqDirectory, "shard2"));
+    assertEquals(1, shard2Records.size());
+    assertTrue(shard2Records.get(0).contains("\"firstName\":\"ghi\""));
+    assertTrue(shard2Records.get(0).contains("\"migration_shard_id\":\"shard2\""));
+  }
+
+  private static List<String> readRecords(File directory) throws IOException {
+    List<String> records = new ArrayList<>();
+    File[] files = directory.listFiles(File::isFile);
+    assertNotNull(files);
+    for (File file : files) {
+      records.addAll(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+    return records;
+  }
+
+  @Test
+  public void testMutationShardId() {
+    DeadLetterQueue dlq =
+        DeadLetterQueue.createPerShard(
+            "testDir",
+            spannerDdl,
+            new HashMap<>(),
+            Map.of("new_people", "migration_shard_id"),
+            SQLDialect.MYSQL);
+    assertEquals(
+        "shard1",
+        dlq.mutationShardId(
+            Mutation.newInsertOrUpdateBuilder("new_people")
+                .set("synth_id")
+                .to(1L)
+                .set("migration_shard_id")
+                .to("shard1")
+                .build()));
+    assertEquals(
+        "",
+        dlq.mutationShardId(
+            Mutation.newInsertOrUpdateBuilder("new_cart").set("new_quantity").to(1L).build()));
+  }
 }
@@ -15,10 +15,17 @@
  */
 package com.google.cloud.teleport.v2.writer;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertNotNull;
 
+import com.google.cloud.teleport.v2.templates.RowContext;
+import java.util.List;
+import java.util.Map;
+import org.apache.beam.sdk.coders.SerializableCoder;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
+import org.apache.beam.sdk.io.gcp.spanner.SpannerWriteResult;
 import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
 import org.junit.Rule;
 import org.junit.Test;
 
@@ -39,4 +46,21 @@ public class SpannerWriterTest {
     SpannerWriter writer = new SpannerWriter(null);
     assertNotNull(writer.getSpannerWrite());
   }
+
+  @Test
+  public void testWriteToSpannerPerTable() {
+    pipeline.enableAbandonedNodeEnforcement(false);
+    SpannerConfig conf =
+        SpannerConfig.create().withProjectId("p1").withInstanceId("instance").withDatabaseId("db1");
+    SpannerWriter writer = new SpannerWriter(conf);
+
+    Map<String, SpannerWriteResult> writeResults =
+        writer.writeToSpannerPerTable(
+            pipeline.apply(Create.empty(SerializableCoder.of(RowContext.class))),
+            List.of("t1", "t2"));
+
+    assertThat(writeResults.keySet()).containsExactly("t1", "t2").inOrder();
+    assertThat(writeResults.get("t1").getOutput())
+        .isNotSameInstanceAs(writeResults.get("t2").getOutput());
+  }
 }
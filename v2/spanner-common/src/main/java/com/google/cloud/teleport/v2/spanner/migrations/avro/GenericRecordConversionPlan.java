@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.spanner.migrations.avro;
+
+import com.google.cloud.spanner.Dialect;
+import com.google.cloud.teleport.v2.spanner.migrations.avro.AvroToValueMapper.AvroToValueFunction;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.ISchemaMapper;
+import com.google.cloud.teleport.v2.spanner.type.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * Immutable, precompiled conversion plan from a {@link org.apache.avro.generic.GenericRecord} of a
+ * given source table and Avro schema to the columns of the mapped Spanner table.
+ *
+ * <p>All the lookups that {@link GenericRecordTypeConvertor#transformChangeEvent} would otherwise
+ * perform through the {@link ISchemaMapper} for every column of every row, like resolving the
+ * Spanner table name, the column list, the shard-id and synthetic primary key columns, the source
+ * column name, the Avro field position, and the {@link AvroToValueFunction} for the Spanner type,
+ * are resolved once when the plan is built. The per-row path is then an indexed loop over {@link
+ * #columns()}.
+ *
+ * <p>A plan is only valid for records of the {@link #recordSchema()} it was compiled for. Callers
+ * should build it once per table schema (for example in {@code @Setup} or lazily on the first row
+ * of a table) via {@link GenericRecordTypeConvertor#compileConversionPlan(String, Schema)} and
+ * cache it.
+ */
+public final class GenericRecordConversionPlan {
+
+  /** How the value of a Spanner column is populated. */
+  enum ColumnKind {
+    /** The migration shard id column, populated from the shard id of the convertor. */
+    SHARD_ID,
+    /** Synthetic primary key column, populated with a random UUID. */
+    SYNTHETIC_PK,
+    /** Column converted from a field of the source record. */
+    SOURCE_FIELD
+  }
+
+  /** Precompiled conversion of a single Spanner column. */
+  static final class ColumnConversion {
+    final String spannerColName;
+    final ColumnKind kind;
+
+    // The following are set only for SOURCE_FIELD.
+    final String srcColName;
+    final int fieldPosition;
+    final Type spannerType;
+
+    /**
+     * Non-null schema of the field. Set to the raw field schema if the field is a union that is not
+     * supported, so that the per-row conversion reports the error as before.
+     */
+    final Schema fieldSchema;
+
+    final boolean isSupportedUnion;
+    final boolean isNonPrimitive;
+
+    /** {@code null} if the Spanner type is not supported for the dialect. */
+    final AvroToValueFunction convertor;
+
+    private ColumnConversion(
+        String spannerColName,
+        ColumnKind kind,
+        String srcColName,
+        int fieldPosition,
+        Type spannerType,
+        Schema fieldSchema,
+        boolean isSupportedUnion,
+        AvroToValueFunction convertor) {
+      this.spannerColName = spannerColName;
+      this.kind = kind;
+      this.srcColName = srcColName;
+      this.fieldPosition = fieldPosition;
+      this.spannerType = spannerType;
+      this.fieldSchema = fieldSchema;
+      this.isSupportedUnion = isSupportedUnion;
+      this.isNonPrimitive =
+          fieldSchema != null
+              && (fieldSchema.getLogicalType() != null
+                  || fieldSchema.getProp(GenericRecordTypeConvertor.LOGICAL_TYPE) != null
+                  || fieldSchema.getType().equals(Schema.Type.RECORD));
+      this.convertor = convertor;
+    }
+
+    static ColumnConversion ofShardId(String spannerColName) {
+      return new ColumnConversion(
+          spannerColName, ColumnKind.SHARD_ID, null, -1, null, null, true, null);
+    }
+
+    static ColumnConversion ofSyntheticPrimaryKey(String spannerColName) {
+      return new ColumnConversion(
+          spannerColName, ColumnKind.SYNTHETIC_PK, null, -1, null, null, true, null);
+    }
+
+    static ColumnConversion ofSourceField(
+        String spannerColName,
+        String srcColName,
+        int fieldPosition,
+        Type spannerType,
+        Schema fieldSchema,
+        boolean isSupportedUnion,
+        AvroToValueFunction convertor) {
+      return new ColumnConversion(
+          spannerColName,
+          ColumnKind.SOURCE_FIELD,
+          srcColName,
+          fieldPosition,
+          spannerType,
+          fieldSchema,
+          isSupportedUnion,
+          convertor);
+    }
+  }
+
+  private final String srcTableName;
+  private final String spannerTableName;
+  private final Schema recordSchema;
+  private final long recordSchemaFingerprint;
+  private final Dialect dialect;
+  private final List<ColumnConversion> columns;
+
+  // The last schema instance other than recordSchema found equal to it, so that records decoded
+  // with their own copy of the schema are matched by identity too.
+  private volatile Schema lastMatchedSchema;
+
+  private GenericRecordConversionPlan(
+      String srcTableName,
+      String spannerTableName,
+      Schema recordSchema,
+      Dialect dialect,
+      List<ColumnConversion> columns) {
+    this.srcTableName = srcTableName;
+    this.spannerTableName = spannerTableName;
+    this.recordSchema = recordSchema;
+    this.recordSchemaFingerprint = fingerprint(recordSchema);
+    this.dialect = dialect;
+    this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+  }
+
+  /**
+   * Compile the plan for a source table.
+   *
+   * @param schemaMapper schema mapper.
+   * @param namespace namespace of the source table.
+   * @param srcTableName name of the source table.
+   * @param recordSchema Avro schema of the records of the source table.
+   * @return compiled plan.
+   */
+  static GenericRecordConversionPlan compile(
+      ISchemaMapper schemaMapper, String namespace, String srcTableName, Schema recordSchema) {
+    Dialect dialect = schemaMapper.getDialect();
+    if (dialect == null) {
+      throw new NullPointerException("schemaMapper returned null spanner dialect.");
+    }
+    Map<Type, AvroToValueFunction> dialectConvertors =
+        AvroToValueMapper.convertorMap().get(dialect);
+    String spannerTableName = schemaMapper.getSpannerTableName(namespace, srcTableName);
+    List<String> spannerColNames = schemaMapper.getSpannerColumns(namespace, spannerTableName);
+    // This is null/blank for identity/non-sharded cases.
+    String shardIdCol = schemaMapper.getShardIdColumnName(namespace, spannerTableName);
+    // For identity mapper, the schemaMapper returns null.
+    String syntheticPkCol = schemaMapper.getSyntheticPrimaryKeyColName(namespace, spannerTableName);
+
+    List<ColumnConversion> columns = new ArrayList<>(spannerColNames.size());
+    for (String spannerColName : spannerColNames) {
+      if (spannerColName.equals(shardIdCol)) {
+        columns.add(ColumnConversion.ofShardId(spannerColName));
+        continue;
+      }
+      if (spannerColName.equals(syntheticPkCol)) {
+        columns.add(ColumnConversion.ofSyntheticPrimaryKey(spannerColName));
+        continue;
+      }
+      // Columns that do not exist in the source data are omitted from the mutation. Refer to
+      // GenericRecordTypeConvertor#transformChangeEvent for details.
+      if (!schemaMapper.colExistsAtSource(namespace, spannerTableName, spannerColName)) {
+        continue;
+      }
+      String srcColName =
+          schemaMapper.getSourceColumnName(namespace, spannerTableName, spannerColName);
+      Schema.Field field = recordSchema.getField(srcColName);
+      if (field == null) {
+        continue;
+      }
+      Type spannerType =
+          schemaMapper.getSpannerColumnType(namespace, spannerTableName, spannerColName);
+      Schema fieldSchema = nonNullSchema(field.schema());
+      columns.add(
+          ColumnConversion.ofSourceField(
+              spannerColName,
+              srcColName,
+              field.pos(),
+              spannerType,
+              (fieldSchema == null) ? field.schema() : fieldSchema,
+              fieldSchema != null,
+              dialectConvertors.get(spannerType)));
+    }
+    return new GenericRecordConversionPlan(
+        srcTableName, spannerTableName, recordSchema, dialect, columns);
+  }
+
+  /**
+   * Returns the non-null type of a nullable union, the schema itself if it is not a union and
+   * {@code null} for unsupported unions.
+   */
+  private static Schema nonNullSchema(Schema fieldSchema) {
+    if (!fieldSchema.getType().equals(Schema.Type.UNION)) {
+      return fieldSchema;
+    }
+    List<Schema> types = fieldSchema.getTypes();
+    if (types.size() == 2 && types.stream().anyMatch(s -> s.getType().equals(Schema.Type.NULL))) {
+      return types.stream().filter(s -> !s.getType().equals(Schema.Type.NULL)).findFirst().get();
+    }
+    return null;
+  }
+
+  /**
+   * Returns whether the plan applies to records of the given schema. The schemas are compared by
+   * identity, and by fingerprint only the first time a new schema instance is seen.
+   */
+  boolean matches(Schema schema) {
+    if (schema == recordSchema || schema == lastMatchedSchema) {
+      return true;
+    }
+    if (fingerprint(schema) != recordSchemaFingerprint) {
+      return false;
+    }
+    lastMatchedSchema = schema;
+    return true;
+  }
+
+  /** Fingerprint of the full schema, logical types and properties included. */
+  private static long fingerprint(Schema schema) {
+    return SchemaNormalization.fingerprint64(schema.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  public String srcTableName() {
+    return srcTableName;
+  }
+
+  public String spannerTableName() {
+    return spannerTableName;
+  }
+
+  public Schema recordSchema() {
+    return recordSchema;
+  }
+
+  Dialect dialect() {
+    return dialect;
+  }
+
+  List<ColumnConversion> columns() {
+    return columns;
+  }
+}
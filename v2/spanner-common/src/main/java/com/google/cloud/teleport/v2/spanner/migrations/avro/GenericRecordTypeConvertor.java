@@ -175,6 +175,101 @@ public class GenericRecordTypeConvertor {
     return result;
   }
 
+  /**
+   * Compiles a {@link GenericRecordConversionPlan} for the records of a source table. The plan
+   * should be cached by the caller, for example by table schema, and passed to {@link
+   * #transformChangeEvent(GenericRecord, GenericRecordConversionPlan)}.
+   *
+   * @param srcTableName name of the source table.
+   * @param recordSchema Avro schema of the records of the source table.
+   * @return compiled plan.
+   */
+  public GenericRecordConversionPlan compileConversionPlan(
+      String srcTableName, Schema recordSchema) {
+    return GenericRecordConversionPlan.compile(schemaMapper, namespace, srcTableName, recordSchema);
+  }
+
+  /**
+   * Equivalent of {@link #transformChangeEvent(GenericRecord, String)} using a precompiled {@link
+   * GenericRecordConversionPlan}. The per-column schema mapper lookups are replaced by an indexed
+   * loop over the columns of the plan.
+   *
+   * <p>This method can return 'null' which indicates the change event needs to be skipped.
+   */
+  public Map<String, Value> transformChangeEvent(
+      GenericRecord record, GenericRecordConversionPlan plan)
+      throws InvalidTransformationException {
+    if (!plan.matches(record.getSchema())) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Conversion plan for table %s does not match the schema of the record.",
+              plan.srcTableName()));
+    }
+    List<GenericRecordConversionPlan.ColumnConversion> columns = plan.columns();
+    Map<String, Value> result = new HashMap<>();
+    result = populateCustomTransformations(result, record, plan.srcTableName());
+    // If the row needs to be filtered.
+    if (result == null) {
+      LOG.debug(
+          "Filtered out row based on Customer Transformation response for table {}, record {}",
+          plan.srcTableName(),
+          record);
+      return null;
+    }
+    boolean hasCustomColumns = !result.isEmpty();
+    for (int i = 0; i < columns.size(); i++) {
+      GenericRecordConversionPlan.ColumnConversion column = columns.get(i);
+      try {
+        // Skip if the column was already populated by custom transformation.
+        if (hasCustomColumns && result.containsKey(column.spannerColName)) {
+          continue;
+        }
+        switch (column.kind) {
+          case SHARD_ID:
+            result = populateShardId(result, column.spannerColName);
+            break;
+          case SYNTHETIC_PK:
+            result.put(column.spannerColName, Value.string(getUUID()));
+            break;
+          default:
+            result.put(column.spannerColName, getSpannerValue(record, column));
+        }
+      } catch (NullPointerException e) {
+        throw e;
+      } catch (IllegalArgumentException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new RuntimeException(
+            String.format(
+                "Unable to convert spanner value for spanner col: %s", column.spannerColName),
+            e);
+      }
+    }
+    return result;
+  }
+
+  /** Convert a source field of the record as per its precompiled column conversion. */
+  private Value getSpannerValue(
+      GenericRecord record, GenericRecordConversionPlan.ColumnConversion column) {
+    Object recordValue = record.get(column.fieldPosition);
+    if (!column.isSupportedUnion) {
+      // Report the unsupported union with the same error as the un-compiled path.
+      return getSpannerValue(
+          recordValue, column.fieldSchema, column.srcColName, column.spannerType);
+    }
+    if (column.isNonPrimitive) {
+      recordValue = handleNonPrimitiveAvroTypes(recordValue, column.fieldSchema, column.srcColName);
+    }
+    if (column.convertor == null) {
+      throw new IllegalArgumentException(
+          "Found unsupported Spanner column type("
+              + column.spannerType.getCode()
+              + ") for column "
+              + column.srcColName);
+    }
+    return column.convertor.apply(recordValue, column.fieldSchema);
+  }
+
   private String getUUID() {
     return UUID.randomUUID().toString();
   }
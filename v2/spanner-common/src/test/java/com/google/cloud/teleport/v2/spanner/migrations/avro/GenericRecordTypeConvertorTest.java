@@ -16,6 +16,7 @@
 package com.google.cloud.teleport.v2.spanner.migrations.avro;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
@@ -796,4 +797,143 @@ public class GenericRecordTypeConvertorTest {
     assertTrue(actual.containsKey("synth_id"));
     assertEquals(Value.string("name1"), actual.get("new_name"));
   }
+
+  @Test
+  public void transformChangeEventTest_conversionPlan_identityMapper()
+      throws InvalidTransformationException {
+    GenericRecord genericRecord = new GenericData.Record(getAllSpannerTypesSchema());
+    genericRecord.put("bool_col", true);
+    genericRecord.put("int_col", 10);
+    genericRecord.put("float_col", 10.34);
+    genericRecord.put("string_col", "hello");
+    genericRecord.put(
+        "numeric_col", ByteBuffer.wrap(new BigDecimal("12.34").unscaledValue().toByteArray()));
+    genericRecord.put("bytes_col", ByteBuffer.wrap(new byte[] {10, 20, 30}));
+    genericRecord.put("timestamp_col", 1602599400056483L);
+    genericRecord.put("date_col", 738991);
+    GenericRecordTypeConvertor genericRecordTypeConvertor =
+        new GenericRecordTypeConvertor(new IdentityMapper(getIdentityDdl()), "", null, null);
+    GenericRecordConversionPlan plan =
+        genericRecordTypeConvertor.compileConversionPlan("all_types", genericRecord.getSchema());
+
+    assertEquals("all_types", plan.spannerTableName());
+    assertEquals(
+        genericRecordTypeConvertor.transformChangeEvent(genericRecord, "all_types"),
+        genericRecordTypeConvertor.transformChangeEvent(genericRecord, plan));
+  }
+
+  @Test
+  public void transformChangeEventTest_conversionPlan_shardIdPopulation()
+      throws InvalidTransformationException {
+    Ddl shardedDdl =
+        Ddl.builder()
+            .createTable("new_cart")
+            .column("new_quantity")
+            .int64()
+            .notNull()
+            .endColumn()
+            .column("new_product_id")
+            .string()
+            .size(20)
+            .endColumn()
+            .column("new_user_id")
+            .string()
+            .size(20)
+            .endColumn()
+            .primaryKey()
+            .asc("new_user_id")
+            .asc("new_product_id")
+            .end()
+            .endTable()
+            .createTable("new_people")
+            .column("migration_shard_id")
+            .string()
+            .size(20)
+            .endColumn()
+            .column("new_name")
+            .string()
+            .size(20)
+            .endColumn()
+            .primaryKey()
+            .asc("migration_shard_id")
+            .asc("new_name")
+            .end()
+            .endTable()
+            .build();
+
+    String shardedSessionFilePath =
+        Paths.get(Resources.getResource("session-file-sharded.json").getPath()).toString();
+
+    ISchemaMapper shardedMapper = new SessionBasedMapper(shardedSessionFilePath, shardedDdl);
+    GenericRecord genericRecord =
+        new GenericData.Record(
+            SchemaBuilder.record("people")
+                .namespace("com.test.schema")
+                .fields()
+                .name("name")
+                .type(unionNullType(Schema.create(Schema.Type.STRING)))
+                .noDefault()
+                .endRecord());
+    genericRecord.put("name", "name1");
+
+    GenericRecordTypeConvertor genericRecordTypeConvertor =
+        new GenericRecordTypeConvertor(shardedMapper, "", "id1", null);
+    GenericRecordConversionPlan plan =
+        genericRecordTypeConvertor.compileConversionPlan("people", genericRecord.getSchema());
+
+    assertEquals("new_people", plan.spannerTableName());
+    assertEquals(
+        Map.of("new_name", Value.string("name1"), "migration_shard_id", Value.string("id1")),
+        genericRecordTypeConvertor.transformChangeEvent(genericRecord, plan));
+
+    // The plan does not depend on the shard id and can be shared across convertors.
+    genericRecordTypeConvertor = new GenericRecordTypeConvertor(shardedMapper, "", null, null);
+    assertEquals(
+        Map.of("new_name", Value.string("name1")),
+        genericRecordTypeConvertor.transformChangeEvent(genericRecord, plan));
+  }
+
+  @Test
+  public void transformChangeEventTest_conversionPlan_equalSchemaInstance()
+      throws InvalidTransformationException {
+    GenericRecordTypeConvertor genericRecordTypeConvertor =
+        new GenericRecordTypeConvertor(new IdentityMapper(getIdentityDdl()), "", null, null);
+    GenericRecordConversionPlan plan =
+        genericRecordTypeConvertor.compileConversionPlan("all_types", getAllSpannerTypesSchema());
+    // A record decoded with its own copy of the schema.
+    Schema copy = new Schema.Parser().parse(getAllSpannerTypesSchema().toString());
+    GenericRecord genericRecord = new GenericData.Record(copy);
+    genericRecord.put("bool_col", true);
+    genericRecord.put("string_col", "hello");
+
+    assertTrue(plan.matches(copy));
+    assertTrue(plan.matches(plan.recordSchema()));
+    assertEquals(
+        genericRecordTypeConvertor.transformChangeEvent(genericRecord, "all_types"),
+        genericRecordTypeConvertor.transformChangeEvent(genericRecord, plan));
+    // A schema that differs only in a logical type does not match.
+    assertFalse(
+        plan.matches(
+            new Schema.Parser()
+                .parse(copy.toString().replaceFirst("\"timestamp-micros\"", "\"time-micros\""))));
+  }
+
+  @Test
+  public void transformChangeEventTest_conversionPlan_schemaMismatch() {
+    GenericRecord genericRecord = new GenericData.Record(getAllSpannerTypesSchema());
+    GenericRecordTypeConvertor genericRecordTypeConvertor =
+        new GenericRecordTypeConvertor(new IdentityMapper(getIdentityDdl()), "", null, null);
+    GenericRecordConversionPlan plan =
+        genericRecordTypeConvertor.compileConversionPlan(
+            "all_types",
+            SchemaBuilder.record("all_types")
+                .fields()
+                .name("bool_col")
+                .type(unionNullType(Schema.create(Schema.Type.BOOLEAN)))
+                .noDefault()
+                .endRecord());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> genericRecordTypeConvertor.transformChangeEvent(genericRecord, plan));
+  }
 }
@@ -15,10 +15,21 @@
  */
 package com.google.cloud.teleport.v2.spanner.utils;
 
+import java.util.List;
+
 /** The interface to get the shard identifier. */
 public interface IShardIdFetcher {
 
   void init(String parameters);
 
   ShardIdResponse getShardId(ShardIdRequest shardIdRequest);
+
+  /**
+   * Returns the columns of the given table that {@link #getShardId} reads from the spanner record.
+   * For DELETE events the spanner record is read back from Cloud Spanner, and only these columns
+   * are read. Returns {@code null}, the default, if all the columns of the table are needed.
+   */
+  default List<String> getRequiredColumns(String tableName) {
+    return null;
+  }
 }
@@ -356,6 +356,21 @@ public class SpannerToSourceDb {
     Integer getDlqRetryMinutes();
 
     void setDlqRetryMinutes(Integer value);
+
+    @TemplateParameter.Integer(
+        order = 24,
+        optional = true,
+        description = "Maximum number of records written to a shard in one batch",
+        helpText =
+            "If greater than 1, the change records of a shard are buffered and written in batches"
+                + " of up to this size: the shadow table records are read with a single read, the"
+                + " records are applied to the source database as a single JDBC batch in one"
+                + " transaction, and the shadow table updates are written in a single commit."
+                + " Defaults to 1, which writes every record individually.")
+    @Default.Integer(1)
+    Integer getSourceWriteBatchSize();
+
+    void setSourceWriteBatchSize(Integer value);
   }
 
   /**
@@ -559,7 +574,8 @@ public class SpannerToSourceDb {
                     ddl,
                     options.getShadowTablePrefix(),
                     options.getSkipDirectoryName(),
-                    connectionPoolSizePerWorker));
+                    connectionPoolSizePerWorker,
+                    options.getSourceWriteBatchSize()));
 
     PCollection<FailsafeElement<String, String>> dlqPermErrorRecords =
         reconsumedElements
@@ -18,6 +18,8 @@ package com.google.cloud.teleport.v2.templates.transforms;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.spanner.KeySet;
+import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.SpannerException;
 import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TimestampBound;
@@ -37,12 +39,18 @@ import com.google.cloud.teleport.v2.templates.changestream.TrimmedShardedDataCha
 import com.google.cloud.teleport.v2.templates.constants.Constants;
 import com.google.cloud.teleport.v2.templates.utils.ShardingLogicImplFetcher;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerAccessor;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
@@ -50,6 +58,7 @@ import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
 import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.KV;
 import org.joda.time.Duration;
 import org.joda.time.Instant;
@@ -61,6 +70,10 @@ public class AssignShardIdFn
     extends DoFn<TrimmedShardedDataChangeRecord, KV<Long, TrimmedShardedDataChangeRecord>> {
   private static final Logger LOG = LoggerFactory.getLogger(AssignShardIdFn.class);
 
+  private static final int SHARD_ID_CACHE_SIZE = 100_000;
+
+  private static final int MAX_KEYS_PER_READ = 1000;
+
   private final SpannerConfig spannerConfig;
 
   /* SpannerAccessor must be transient so that its value is not serialized at runtime. */
@@ -90,6 +103,12 @@ public class AssignShardIdFn
 
   private final Long maxConnectionsAcrossAllShards;
 
+  /* Shard id per table and primary key, from the INSERTs and UPDATEs seen by this DoFn. */
+  private transient Map<String, String> shardIdCache;
+
+  /* DELETEs of the current bundle for which the row has to be read back from Cloud Spanner. */
+  private transient List<PendingDelete> pendingDeletes;
+
   public AssignShardIdFn(
       SpannerConfig spannerConfig,
       Schema schema,
@@ -170,13 +189,26 @@ public class AssignShardIdFn
     }
   }
 
+  @StartBundle
+  public void startBundle() {
+    pendingDeletes = new ArrayList<>();
+    if (shardIdCache == null) {
+      shardIdCache = new ShardIdCache(SHARD_ID_CACHE_SIZE);
+    }
+  }
+
   /**
    * Assigns shard id to each spanner record. If custom jar path is specified, loads the custom
    * class locally and then fetches the shard id and if not specified relies on default
    * ShardIdFetcherImpl to fetch the shard id.
+   *
+   * <p>DELETE events do not carry the values of the row, which then has to be read back from Cloud
+   * Spanner. Unless the shard id of the row is known from an earlier INSERT or UPDATE, they are
+   * buffered and resolved with batched reads when the bundle finishes, see {@link
+   * #finishBundle(FinishBundleContext)}.
    */
   @ProcessElement
-  public void processElement(ProcessContext c) throws Exception {
+  public void processElement(ProcessContext c, BoundedWindow window) throws Exception {
     TrimmedShardedDataChangeRecord record = new TrimmedShardedDataChangeRecord(c.element());
     String qualifiedShard = "";
     String tableName = record.getTableName();
@@ -200,71 +232,199 @@ public class AssignShardIdFn
         } else {
 
           JsonNode keysJson = mapper.readTree(keysJsonStr);
-          String newValueJsonStr = record.getMod().getNewValuesJson();
-          JsonNode newValueJson = mapper.readTree(newValueJsonStr);
-          Map<String, Object> spannerRecord = new HashMap<>();
-          // Query the spanner database in case of a DELETE event
+          String cacheKey = tableName + "_" + keysJsonStr;
           if (record.getModType() == ModType.DELETE) {
-            spannerRecord =
-                fetchSpannerRecord(
-                    tableName,
-                    record.getCommitTimestamp(),
-                    record.getServerTransactionId(),
-                    keysJson);
+            // The row is gone after the DELETE, so its cache entry is not needed any more.
+            qualifiedShard = shardIdCache.remove(cacheKey);
+            if (qualifiedShard == null) {
+              pendingDeletes.add(
+                  new PendingDelete(
+                      record, generateKey(tableName, keysJson), c.timestamp(), window));
+              return;
+            }
           } else {
-            spannerRecord = getSpannerRecordFromChangeStreamData(tableName, keysJson, newValueJson);
-          }
-          ShardIdRequest shardIdRequest = new ShardIdRequest(tableName, spannerRecord);
-
-          ShardIdResponse shardIdResponse = getShardIdResponse(shardIdRequest);
-
-          qualifiedShard = shardIdResponse.getLogicalShardId();
-          if (qualifiedShard == null || qualifiedShard.isEmpty() || qualifiedShard.contains("/")) {
-            throw new IllegalArgumentException(
-                "Invalid logical shard id value: "
-                    + qualifiedShard
-                    + " for spanner table: "
-                    + record.getTableName());
+            String newValueJsonStr = record.getMod().getNewValuesJson();
+            JsonNode newValueJson = mapper.readTree(newValueJsonStr);
+            Map<String, Object> spannerRecord =
+                getSpannerRecordFromChangeStreamData(tableName, keysJson, newValueJson);
+            qualifiedShard = getQualifiedShard(record, spannerRecord);
+            shardIdCache.put(cacheKey, qualifiedShard);
           }
         }
       }
 
       record.setShard(qualifiedShard);
-      String finalKeyString = tableName + "_" + keysJsonStr + "_" + qualifiedShard;
-      Long finalKey =
-          finalKeyString.hashCode() % maxConnectionsAcrossAllShards; // The total parallelism is
-      // maxConnectionsAcrossAllShards
-      c.output(KV.of(finalKey, record));
+      c.output(keyedRecord(record, qualifiedShard));
 
     } catch (Exception e) {
       StringWriter errors = new StringWriter();
       e.printStackTrace(new PrintWriter(errors));
       LOG.error("Error fetching shard Id column: " + e.getMessage() + ": " + errors.toString());
       // The record has no shard hence will be sent to DLQ in subsequent steps
-      String finalKeyString = record.getTableName() + "_" + keysJsonStr + "_" + skipDirName;
-      Long finalKey = finalKeyString.hashCode() % maxConnectionsAcrossAllShards;
-      c.output(KV.of(finalKey, record));
+      c.output(keyedRecord(record, skipDirName));
+    }
+  }
+
+  /**
+   * Resolves the shard id of the DELETE events buffered in the bundle. The rows are stale read at 1
+   * second before the commit timestamp of the DELETE, so all the DELETEs of a table committed at
+   * the same time, like a bulk delete, are read with a single multi-key read of the columns the
+   * {@link IShardIdFetcher} needs.
+   */
+  @FinishBundle
+  public void finishBundle(FinishBundleContext c) throws Exception {
+    Map<KV<String, com.google.cloud.Timestamp>, List<PendingDelete>> deletesPerRead =
+        new LinkedHashMap<>();
+    for (PendingDelete pendingDelete : pendingDeletes) {
+      deletesPerRead
+          .computeIfAbsent(
+              KV.of(pendingDelete.record.getTableName(), pendingDelete.record.getCommitTimestamp()),
+              k -> new ArrayList<>())
+          .add(pendingDelete);
+    }
+    pendingDeletes.clear();
+
+    for (Map.Entry<KV<String, com.google.cloud.Timestamp>, List<PendingDelete>> entry :
+        deletesPerRead.entrySet()) {
+      String tableName = entry.getKey().getKey();
+      List<String> columns = getColumnsToRead(tableName);
+      for (List<PendingDelete> batch : Lists.partition(entry.getValue(), MAX_KEYS_PER_READ)) {
+        Map<com.google.cloud.spanner.Key, Struct> rows =
+            batch.size() > 1
+                ? readRows(tableName, entry.getKey().getValue(), batch, columns)
+                : Collections.emptyMap();
+        for (PendingDelete pendingDelete : batch) {
+          TrimmedShardedDataChangeRecord record = pendingDelete.record;
+          String qualifiedShard;
+          try {
+            Struct row = rows.get(pendingDelete.key);
+            Map<String, Object> spannerRecord =
+                (row != null)
+                    ? getRowAsMap(row, columns, tableName)
+                    : fetchSpannerRecord(
+                        tableName,
+                        record.getCommitTimestamp(),
+                        record.getServerTransactionId(),
+                        pendingDelete.key,
+                        columns);
+            qualifiedShard = getQualifiedShard(record, spannerRecord);
+            record.setShard(qualifiedShard);
+          } catch (Exception e) {
+            StringWriter errors = new StringWriter();
+            e.printStackTrace(new PrintWriter(errors));
+            LOG.error(
+                "Error fetching shard Id column: " + e.getMessage() + ": " + errors.toString());
+            // The record has no shard hence will be sent to DLQ in subsequent steps
+            qualifiedShard = skipDirName;
+          }
+          c.output(
+              keyedRecord(record, qualifiedShard), pendingDelete.timestamp, pendingDelete.window);
+        }
+      }
+    }
+  }
+
+  private KV<Long, TrimmedShardedDataChangeRecord> keyedRecord(
+      TrimmedShardedDataChangeRecord record, String qualifiedShard) {
+    String finalKeyString =
+        record.getTableName() + "_" + record.getMod().getKeysJson() + "_" + qualifiedShard;
+    // The total parallelism is maxConnectionsAcrossAllShards
+    Long finalKey = finalKeyString.hashCode() % maxConnectionsAcrossAllShards;
+    return KV.of(finalKey, record);
+  }
+
+  private String getQualifiedShard(
+      TrimmedShardedDataChangeRecord record, Map<String, Object> spannerRecord) throws Exception {
+    ShardIdRequest shardIdRequest = new ShardIdRequest(record.getTableName(), spannerRecord);
+    ShardIdResponse shardIdResponse = getShardIdResponse(shardIdRequest);
+    String qualifiedShard = shardIdResponse.getLogicalShardId();
+    if (qualifiedShard == null || qualifiedShard.isEmpty() || qualifiedShard.contains("/")) {
+      throw new IllegalArgumentException(
+          "Invalid logical shard id value: "
+              + qualifiedShard
+              + " for spanner table: "
+              + record.getTableName());
+    }
+    return qualifiedShard;
+  }
+
+  /**
+   * Returns the columns to read back for a DELETE: the primary key columns, to match the rows of a
+   * multi-key read, and the columns the {@link IShardIdFetcher} needs, or all of them.
+   */
+  private List<String> getColumnsToRead(String tableName) {
+    Table table = ddl.table(tableName);
+    List<String> requiredColumns = shardIdFetcher.getRequiredColumns(tableName);
+    if (requiredColumns == null) {
+      return table.columns().stream().map(Column::name).collect(Collectors.toList());
     }
+    Set<String> columns = new LinkedHashSet<>();
+    table.primaryKeys().forEach(keyColumn -> columns.add(keyColumn.name()));
+    columns.addAll(requiredColumns);
+    return new ArrayList<>(columns);
+  }
+
+  /**
+   * Stale reads the rows of the given DELETEs with a single read, keyed by primary key. Rows that
+   * can not be matched back to their key are left out, and are then read individually.
+   */
+  private Map<com.google.cloud.spanner.Key, Struct> readRows(
+      String tableName,
+      com.google.cloud.Timestamp commitTimestamp,
+      List<PendingDelete> batch,
+      List<String> columns) {
+    Map<com.google.cloud.spanner.Key, Struct> rows = new HashMap<>();
+    try {
+      KeySet.Builder keySet = KeySet.newBuilder();
+      batch.forEach(pendingDelete -> keySet.addKey(pendingDelete.key));
+      Table table = ddl.table(tableName);
+      try (ResultSet resultSet =
+          spannerAccessor
+              .getDatabaseClient()
+              .singleUse(TimestampBound.ofReadTimestamp(staleReadTimestamp(commitTimestamp)))
+              .read(tableName, keySet.build(), columns)) {
+        while (resultSet.next()) {
+          Struct row = resultSet.getCurrentRowAsStruct();
+          com.google.cloud.spanner.Key.Builder key = com.google.cloud.spanner.Key.newBuilder();
+          for (IndexColumn keyColumn : table.primaryKeys()) {
+            Column column = table.column(keyColumn.name());
+            key.appendObject(
+                row.isNull(column.name())
+                    ? null
+                    : getColumnValueFromRow(column, row.getValue(column.name())));
+          }
+          rows.put(key.build(), row);
+        }
+      }
+      Metrics.counter(AssignShardIdFn.class, "delete_rows_read_in_batch").inc(rows.size());
+    } catch (Exception e) {
+      LOG.warn(
+          "Batched stale read on Spanner failed for table: {}, reading rows individually: {}",
+          tableName,
+          e.getMessage());
+    }
+    return rows;
+  }
+
+  private static com.google.cloud.Timestamp staleReadTimestamp(
+      com.google.cloud.Timestamp commitTimestamp) {
+    return com.google.cloud.Timestamp.ofTimeSecondsAndNanos(
+        commitTimestamp.getSeconds() - 1, commitTimestamp.getNanos());
   }
 
   private Map<String, Object> fetchSpannerRecord(
       String tableName,
       com.google.cloud.Timestamp commitTimestamp,
       String serverTxnId,
-      JsonNode keysJson)
+      com.google.cloud.spanner.Key key,
+      List<String> columns)
       throws Exception {
-    com.google.cloud.Timestamp staleReadTs =
-        com.google.cloud.Timestamp.ofTimeSecondsAndNanos(
-            commitTimestamp.getSeconds() - 1, commitTimestamp.getNanos());
-    List<String> columns =
-        ddl.table(tableName).columns().stream().map(Column::name).collect(Collectors.toList());
-    // Stale read the spanner row for all the columns for timestamp 1 second less than the DELETE
-    // event
+    // Stale read the spanner row for timestamp 1 second less than the DELETE event
     Struct row =
         spannerAccessor
             .getDatabaseClient()
-            .singleUse(TimestampBound.ofReadTimestamp(staleReadTs))
-            .readRow(tableName, generateKey(tableName, keysJson), columns);
+            .singleUse(TimestampBound.ofReadTimestamp(staleReadTimestamp(commitTimestamp)))
+            .readRow(tableName, key, columns);
     if (row == null) {
       throw new Exception(
           "stale read on Spanner returned null for table: "
@@ -506,4 +666,38 @@ public class AssignShardIdFn
     }
     return shardIdResponse;
   }
+
+  /** A DELETE event waiting for its row to be read back from Cloud Spanner. */
+  private static class PendingDelete {
+    final TrimmedShardedDataChangeRecord record;
+    final com.google.cloud.spanner.Key key;
+    final Instant timestamp;
+    final BoundedWindow window;
+
+    PendingDelete(
+        TrimmedShardedDataChangeRecord record,
+        com.google.cloud.spanner.Key key,
+        Instant timestamp,
+        BoundedWindow window) {
+      this.record = record;
+      this.key = key;
+      this.timestamp = timestamp;
+      this.window = window;
+    }
+  }
+
+  /** Bounded map that evicts the least recently used entries. */
+  private static class ShardIdCache extends LinkedHashMap<String, String> {
+    private final int maxSize;
+
+    ShardIdCache(int maxSize) {
+      super(16, 0.75f, /* accessOrder= */ true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > maxSize;
+    }
+  }
 }
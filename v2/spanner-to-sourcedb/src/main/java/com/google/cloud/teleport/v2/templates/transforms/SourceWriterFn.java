@@ -32,6 +32,7 @@ import com.google.cloud.teleport.v2.templates.changestream.TrimmedShardedDataCha
 import com.google.cloud.teleport.v2.templates.constants.Constants;
 import com.google.cloud.teleport.v2.templates.utils.ConnectionException;
 import com.google.cloud.teleport.v2.templates.utils.ConnectionHelper;
+import com.google.cloud.teleport.v2.templates.utils.DMLStatement;
 import com.google.cloud.teleport.v2.templates.utils.InputRecordProcessor;
 import com.google.cloud.teleport.v2.templates.utils.MySqlDao;
 import com.google.cloud.teleport.v2.templates.utils.ShadowTableRecord;
@@ -39,8 +40,11 @@ import com.google.cloud.teleport.v2.templates.utils.SpannerDao;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -52,8 +56,10 @@ import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.DoFn.ProcessContext;
 import org.apache.beam.sdk.transforms.DoFn.ProcessElement;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.TupleTag;
+import org.joda.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -87,6 +93,10 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
   private final String shadowTablePrefix;
   private final String skipDirName;
   private final int maxThreadPerDataflowWorker;
+  private final int batchSize;
+
+  /** Change records per shard, buffered for a batched write. */
+  private transient Map<String, List<BufferedRecord>> bufferedRecords;
 
   public SourceWriterFn(
       List<Shard> shards,
@@ -97,6 +107,32 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
       String shadowTablePrefix,
       String skipDirName,
       int maxThreadPerDataflowWorker) {
+    this(
+        shards,
+        schema,
+        spannerConfig,
+        sourceDbTimezoneOffset,
+        ddl,
+        shadowTablePrefix,
+        skipDirName,
+        maxThreadPerDataflowWorker,
+        1);
+  }
+
+  /**
+   * @param batchSize maximum number of change records of a shard that are written to the source in
+   *     one batch. Records are written individually if it is not greater than 1.
+   */
+  public SourceWriterFn(
+      List<Shard> shards,
+      Schema schema,
+      SpannerConfig spannerConfig,
+      String sourceDbTimezoneOffset,
+      Ddl ddl,
+      String shadowTablePrefix,
+      String skipDirName,
+      int maxThreadPerDataflowWorker,
+      int batchSize) {
 
     this.schema = schema;
     this.sourceDbTimezoneOffset = sourceDbTimezoneOffset;
@@ -106,6 +142,7 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
     this.shadowTablePrefix = shadowTablePrefix;
     this.skipDirName = skipDirName;
     this.maxThreadPerDataflowWorker = maxThreadPerDataflowWorker;
+    this.batchSize = batchSize;
   }
 
   // for unit testing purposes
@@ -147,11 +184,17 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
     mySqlDaoMap.clear();
   }
 
+  @StartBundle
+  public void startBundle() {
+    bufferedRecords = new HashMap<>();
+  }
+
   @ProcessElement
-  public void processElement(ProcessContext c) {
+  public void processElement(ProcessContext c, BoundedWindow window) {
     KV<Long, TrimmedShardedDataChangeRecord> element = c.element();
     TrimmedShardedDataChangeRecord spannerRec = element.getValue();
     String shardId = spannerRec.getShard();
+    RecordOutput output = (tag, value, record) -> c.output(tag, value);
     if (shardId == null) {
       // no shard found, move to permanent error
       outputWithTag(
@@ -160,75 +203,251 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
       // the record is skipped
       skippedRecordCountMetric.inc();
       outputWithTag(c, Constants.SKIPPED_TAG, Constants.SKIPPED_TAG_MESSAGE, spannerRec);
+    } else if (batchSize <= 1) {
+      writeRecord(new BufferedRecord(spannerRec, c.timestamp(), window), output);
     } else {
-      // Get the latest commit timestamp processed at source
+      if (bufferedRecords == null) {
+        bufferedRecords = new HashMap<>();
+      }
+      List<BufferedRecord> shardRecords =
+          bufferedRecords.computeIfAbsent(shardId, k -> new ArrayList<>());
+      shardRecords.add(new BufferedRecord(spannerRec, c.timestamp(), window));
+      if (shardRecords.size() >= batchSize) {
+        bufferedRecords.remove(shardId);
+        writeBatch(shardId, shardRecords, output);
+      }
+    }
+  }
+
+  @FinishBundle
+  public void finishBundle(FinishBundleContext c) {
+    if (bufferedRecords == null || bufferedRecords.isEmpty()) {
+      return;
+    }
+    RecordOutput output =
+        (tag, value, record) -> c.output(tag, value, record.timestamp, record.window);
+    for (Map.Entry<String, List<BufferedRecord>> entry : bufferedRecords.entrySet()) {
+      writeBatch(entry.getKey(), entry.getValue(), output);
+    }
+    bufferedRecords.clear();
+  }
+
+  /** Writes a single change record to the source, if the source is not ahead of it. */
+  private void writeRecord(BufferedRecord record, RecordOutput output) {
+    TrimmedShardedDataChangeRecord spannerRec = record.changeRecord;
+    String shardId = spannerRec.getShard();
+    // Get the latest commit timestamp processed at source
+    try {
+      JsonNode keysJson = mapper.readTree(spannerRec.getMod().getKeysJson());
+      String tableName = spannerRec.getTableName();
+      com.google.cloud.spanner.Key primaryKey =
+          ChangeEventSpannerConvertor.changeEventToPrimaryKey(
+              tableName, ddl, keysJson, /* convertNameToLowerCase= */ false);
+      String shadowTableName = shadowTablePrefix + tableName;
+      ShadowTableRecord shadowTableRecord =
+          spannerDao.getShadowTableRecord(shadowTableName, primaryKey);
+      boolean isSourceAhead = isSourceAhead(shadowTableRecord, spannerRec);
+
+      if (!isSourceAhead) {
+        MySqlDao mySqlDao = mySqlDaoMap.get(shardId);
+
+        InputRecordProcessor.processRecord(
+            spannerRec, schema, mySqlDao, shardId, sourceDbTimezoneOffset);
+
+        spannerDao.updateShadowTable(
+            getShadowTableMutation(
+                tableName,
+                shadowTableName,
+                keysJson,
+                spannerRec.getCommitTimestamp(),
+                spannerRec.getRecordSequence()));
+      }
+      outputSuccess(record, output);
+    } catch (ChangeEventConvertorException ex) {
+      outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), record);
+    } catch (SpannerException
+        | IllegalStateException
+        | com.mysql.cj.jdbc.exceptions.CommunicationsException
+        | java.sql.SQLIntegrityConstraintViolationException
+        | java.sql.SQLTransientConnectionException
+        | ConnectionException ex) {
+      outputWithTag(output, Constants.RETRYABLE_ERROR_TAG, ex.getMessage(), record);
+    } catch (java.sql.SQLNonTransientConnectionException ex) {
+      // https://dev.mysql.com/doc/mysql-errors/8.0/en/server-error-reference.html
+      // error codes 1053,1161 and 1159 can be retried
+      if (ex.getErrorCode() == 1053 || ex.getErrorCode() == 1159 || ex.getErrorCode() == 1161) {
+        outputWithTag(output, Constants.RETRYABLE_ERROR_TAG, ex.getMessage(), record);
+      } else {
+        outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), record);
+      }
+    } catch (Exception ex) {
+      LOG.error("Failed to write to source", ex);
+      outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), record);
+    }
+  }
+
+  /**
+   * Writes a batch of change records of a shard to the source. The shadow table records of the
+   * batch are read with one read per shadow table, the records that the source is not ahead of are
+   * applied in the order of their commit timestamp and record sequence as a single JDBC batch, and
+   * the shadow table updates are written in one commit.
+   *
+   * <p>If the batch can not be written, the records are written individually, so that the errors
+   * are reported for the records that caused them.
+   */
+  private void writeBatch(String shardId, List<BufferedRecord> records, RecordOutput output) {
+    List<PreparedRecord> preparedRecords = new ArrayList<>(records.size());
+    for (BufferedRecord record : records) {
       try {
-        JsonNode keysJson = mapper.readTree(spannerRec.getMod().getKeysJson());
-        String tableName = spannerRec.getTableName();
-        com.google.cloud.spanner.Key primaryKey =
-            ChangeEventSpannerConvertor.changeEventToPrimaryKey(
-                tableName, ddl, keysJson, /* convertNameToLowerCase= */ false);
-        String shadowTableName = shadowTablePrefix + tableName;
-        boolean isSourceAhead = false;
-        ShadowTableRecord shadowTableRecord =
-            spannerDao.getShadowTableRecord(shadowTableName, primaryKey);
-        isSourceAhead =
-            shadowTableRecord != null
-                && ((shadowTableRecord
-                            .getProcessedCommitTimestamp()
-                            .compareTo(spannerRec.getCommitTimestamp())
-                        > 0) // either the source already has record with greater commit
-                    // timestamp
-                    || (shadowTableRecord // or the source has the same commit timestamp but
-                                // greater record sequence
-                                .getProcessedCommitTimestamp()
-                                .compareTo(spannerRec.getCommitTimestamp())
-                            == 0
-                        && shadowTableRecord.getRecordSequence()
-                            > Long.parseLong(spannerRec.getRecordSequence())));
-
-        if (!isSourceAhead) {
-          MySqlDao mySqlDao = mySqlDaoMap.get(shardId);
-
-          InputRecordProcessor.processRecord(
-              spannerRec, schema, mySqlDao, shardId, sourceDbTimezoneOffset);
-
-          spannerDao.updateShadowTable(
-              getShadowTableMutation(
-                  tableName,
-                  shadowTableName,
-                  keysJson,
-                  spannerRec.getCommitTimestamp(),
-                  spannerRec.getRecordSequence()));
-        }
-        successRecordCountMetric.inc();
-        if (spannerRec.isRetryRecord()) {
-          retryableRecordCountMetric.dec();
-        }
-        com.google.cloud.Timestamp timestamp = com.google.cloud.Timestamp.now();
-        c.output(Constants.SUCCESS_TAG, timestamp.toString());
+        preparedRecords.add(prepareRecord(record));
       } catch (ChangeEventConvertorException ex) {
-        outputWithTag(c, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
-      } catch (SpannerException
-          | IllegalStateException
-          | com.mysql.cj.jdbc.exceptions.CommunicationsException
-          | java.sql.SQLIntegrityConstraintViolationException
-          | java.sql.SQLTransientConnectionException
-          | ConnectionException ex) {
-        outputWithTag(c, Constants.RETRYABLE_ERROR_TAG, ex.getMessage(), spannerRec);
-      } catch (java.sql.SQLNonTransientConnectionException ex) {
-        // https://dev.mysql.com/doc/mysql-errors/8.0/en/server-error-reference.html
-        // error codes 1053,1161 and 1159 can be retried
-        if (ex.getErrorCode() == 1053 || ex.getErrorCode() == 1159 || ex.getErrorCode() == 1161) {
-          outputWithTag(c, Constants.RETRYABLE_ERROR_TAG, ex.getMessage(), spannerRec);
-        } else {
-          outputWithTag(c, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
-        }
+        outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), record);
       } catch (Exception ex) {
         LOG.error("Failed to write to source", ex);
-        outputWithTag(c, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
+        outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), record);
       }
     }
+    if (preparedRecords.isEmpty()) {
+      return;
+    }
+    List<PreparedRecord> writtenRecords;
+    try {
+      writtenRecords = writePreparedRecords(shardId, preparedRecords);
+    } catch (Exception ex) {
+      LOG.warn(
+          "Failed to write a batch of {} records to shard: {}, writing them individually",
+          preparedRecords.size(),
+          shardId,
+          ex);
+      for (PreparedRecord preparedRecord : preparedRecords) {
+        writeRecord(preparedRecord.record, output);
+      }
+      return;
+    }
+    for (PreparedRecord writtenRecord : writtenRecords) {
+      InputRecordProcessor.updateMetrics(writtenRecord.record.changeRecord, shardId);
+    }
+    for (PreparedRecord preparedRecord : preparedRecords) {
+      outputSuccess(preparedRecord.record, output);
+    }
+  }
+
+  /**
+   * Writes the prepared records of a shard to the source and updates their shadow table records.
+   *
+   * @return records whose DML was applied to the source.
+   */
+  private List<PreparedRecord> writePreparedRecords(
+      String shardId, List<PreparedRecord> preparedRecords) throws Exception {
+    // Latest processed commit timestamp and record sequence per shadow table and primary key.
+    Map<String, Map<com.google.cloud.spanner.Key, ShadowTableRecord>> shadowTableRecords =
+        new HashMap<>();
+    Map<String, List<PreparedRecord>> recordsByShadowTable =
+        preparedRecords.stream().collect(Collectors.groupingBy(r -> r.shadowTableName));
+    for (Map.Entry<String, List<PreparedRecord>> entry : recordsByShadowTable.entrySet()) {
+      List<String> keyColumnNames =
+          ddl.table(entry.getValue().get(0).changeRecord().getTableName()).primaryKeys().stream()
+              .map(IndexColumn::name)
+              .collect(Collectors.toList());
+      Set<com.google.cloud.spanner.Key> primaryKeys =
+          entry.getValue().stream().map(r -> r.primaryKey).collect(Collectors.toSet());
+      shadowTableRecords.put(
+          entry.getKey(),
+          new HashMap<>(
+              spannerDao.getShadowTableRecords(entry.getKey(), keyColumnNames, primaryKeys)));
+    }
+
+    List<PreparedRecord> orderedRecords = new ArrayList<>(preparedRecords);
+    orderedRecords.sort(
+        Comparator.comparing((PreparedRecord r) -> r.changeRecord().getCommitTimestamp())
+            .thenComparingLong(r -> r.recordSequence));
+    List<PreparedRecord> recordsToWrite = new ArrayList<>();
+    List<DMLStatement> dmlStatements = new ArrayList<>();
+    Map<String, Mutation> shadowTableMutations = new LinkedHashMap<>();
+    for (PreparedRecord preparedRecord : orderedRecords) {
+      Map<com.google.cloud.spanner.Key, ShadowTableRecord> tableShadowRecords =
+          shadowTableRecords.get(preparedRecord.shadowTableName);
+      if (isSourceAhead(
+          tableShadowRecords.get(preparedRecord.primaryKey), preparedRecord.changeRecord())) {
+        continue;
+      }
+      if (preparedRecord.dmlStatement.isEmpty()) {
+        LOG.warn(
+            "DML statement is empty for table: " + preparedRecord.changeRecord().getTableName());
+      } else {
+        dmlStatements.add(preparedRecord.dmlStatement);
+        recordsToWrite.add(preparedRecord);
+      }
+      tableShadowRecords.put(
+          preparedRecord.primaryKey,
+          new ShadowTableRecord(
+              preparedRecord.changeRecord().getCommitTimestamp(), preparedRecord.recordSequence));
+      // Only the latest update of a primary key needs to be written to the shadow table.
+      shadowTableMutations.put(
+          preparedRecord.shadowTableName + "/" + preparedRecord.primaryKey,
+          preparedRecord.shadowTableMutation);
+    }
+
+    mySqlDaoMap.get(shardId).writeBatch(dmlStatements);
+    spannerDao.updateShadowTables(new ArrayList<>(shadowTableMutations.values()));
+    return recordsToWrite;
+  }
+
+  /** Converts a change record to its primary key, source DML and shadow table mutation. */
+  private PreparedRecord prepareRecord(BufferedRecord record) throws Exception {
+    TrimmedShardedDataChangeRecord spannerRec = record.changeRecord;
+    JsonNode keysJson = mapper.readTree(spannerRec.getMod().getKeysJson());
+    String tableName = spannerRec.getTableName();
+    com.google.cloud.spanner.Key primaryKey =
+        ChangeEventSpannerConvertor.changeEventToPrimaryKey(
+            tableName, ddl, keysJson, /* convertNameToLowerCase= */ false);
+    String shadowTableName = shadowTablePrefix + tableName;
+    Mutation shadowTableMutation =
+        getShadowTableMutation(
+            tableName,
+            shadowTableName,
+            keysJson,
+            spannerRec.getCommitTimestamp(),
+            spannerRec.getRecordSequence());
+    DMLStatement dmlStatement =
+        InputRecordProcessor.getDmlStatement(spannerRec, schema, sourceDbTimezoneOffset);
+    return new PreparedRecord(
+        record,
+        primaryKey,
+        shadowTableName,
+        shadowTableMutation,
+        dmlStatement,
+        Long.parseLong(spannerRec.getRecordSequence()));
+  }
+
+  /**
+   * Returns true if the source already has a change with a greater commit timestamp, or with the
+   * same commit timestamp but a greater record sequence than the given change record.
+   */
+  private static boolean isSourceAhead(
+      ShadowTableRecord shadowTableRecord, TrimmedShardedDataChangeRecord spannerRec) {
+    return shadowTableRecord != null
+        && ((shadowTableRecord
+                    .getProcessedCommitTimestamp()
+                    .compareTo(spannerRec.getCommitTimestamp())
+                > 0) // either the source already has record with greater commit
+            // timestamp
+            || (shadowTableRecord // or the source has the same commit timestamp but
+                        // greater record sequence
+                        .getProcessedCommitTimestamp()
+                        .compareTo(spannerRec.getCommitTimestamp())
+                    == 0
+                && shadowTableRecord.getRecordSequence()
+                    > Long.parseLong(spannerRec.getRecordSequence())));
+  }
+
+  private void outputSuccess(BufferedRecord record, RecordOutput output) {
+    successRecordCountMetric.inc();
+    if (record.changeRecord.isRetryRecord()) {
+      retryableRecordCountMetric.dec();
+    }
+    com.google.cloud.Timestamp timestamp = com.google.cloud.Timestamp.now();
+    output.output(Constants.SUCCESS_TAG, timestamp.toString(), record);
   }
 
   private Mutation getShadowTableMutation(
@@ -264,6 +483,16 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
       TupleTag<String> tag,
       String message,
       TrimmedShardedDataChangeRecord record) {
+    c.output(tag, toErrorRecordJson(tag, message, record));
+  }
+
+  private void outputWithTag(
+      RecordOutput output, TupleTag<String> tag, String message, BufferedRecord record) {
+    output.output(tag, toErrorRecordJson(tag, message, record.changeRecord), record);
+  }
+
+  private String toErrorRecordJson(
+      TupleTag<String> tag, String message, TrimmedShardedDataChangeRecord record) {
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord = new ChangeStreamErrorRecord(jsonRec, message);
 
@@ -271,6 +500,54 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
     if (!record.isRetryRecord() && tag.equals(Constants.RETRYABLE_ERROR_TAG)) {
       retryableRecordCountMetric.inc();
     }
-    c.output(tag, gson.toJson(errorRecord, ChangeStreamErrorRecord.class));
+    return gson.toJson(errorRecord, ChangeStreamErrorRecord.class);
+  }
+
+  /** Outputs to the tags of the DoFn, from either the process or the finish bundle context. */
+  private interface RecordOutput {
+    void output(TupleTag<String> tag, String value, BufferedRecord record);
+  }
+
+  /** A change record along with the timestamp and window it was received in. */
+  private static class BufferedRecord {
+    final TrimmedShardedDataChangeRecord changeRecord;
+    final Instant timestamp;
+    final BoundedWindow window;
+
+    BufferedRecord(
+        TrimmedShardedDataChangeRecord changeRecord, Instant timestamp, BoundedWindow window) {
+      this.changeRecord = changeRecord;
+      this.timestamp = timestamp;
+      this.window = window;
+    }
+  }
+
+  /** A buffered change record that is converted for writing as a part of a batch. */
+  private static class PreparedRecord {
+    final BufferedRecord record;
+    final com.google.cloud.spanner.Key primaryKey;
+    final String shadowTableName;
+    final Mutation shadowTableMutation;
+    final DMLStatement dmlStatement;
+    final long recordSequence;
+
+    PreparedRecord(
+        BufferedRecord record,
+        com.google.cloud.spanner.Key primaryKey,
+        String shadowTableName,
+        Mutation shadowTableMutation,
+        DMLStatement dmlStatement,
+        long recordSequence) {
+      this.record = record;
+      this.primaryKey = primaryKey;
+      this.shadowTableName = shadowTableName;
+      this.shadowTableMutation = shadowTableMutation;
+      this.dmlStatement = dmlStatement;
+      this.recordSequence = recordSequence;
+    }
+
+    TrimmedShardedDataChangeRecord changeRecord() {
+      return record.changeRecord;
+    }
   }
 }
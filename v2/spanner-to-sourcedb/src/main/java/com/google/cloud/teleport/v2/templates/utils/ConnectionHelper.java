@@ -52,6 +52,12 @@ public class ConnectionHelper {
       config.setMaximumPoolSize(maxConnections);
       config.setConnectionInitSql(
           "SET SESSION net_read_timeout=1200"); // to avoid timeouts at network level layer
+      // The DML statements are parameterized per table and operation, so cache the server side
+      // prepared statements per connection. These can be overridden by the connection properties.
+      config.addDataSourceProperty("useServerPrepStmts", "true");
+      config.addDataSourceProperty("cachePrepStmts", "true");
+      config.addDataSourceProperty("prepStmtCacheSize", "250");
+      config.addDataSourceProperty("prepStmtCacheSqlLimit", "4096");
       Properties jdbcProperties = new Properties();
       if (properties != null && !properties.isEmpty()) {
         try (StringReader reader = new StringReader(properties)) {
@@ -42,35 +42,15 @@ public class InputRecordProcessor {
 
     try {
 
-      String tableName = spannerRecord.getTableName();
-      String modType = spannerRecord.getModType().name();
-      String keysJsonStr = spannerRecord.getMod().getKeysJson();
-      String newValueJsonStr = spannerRecord.getMod().getNewValuesJson();
-      JSONObject newValuesJson = new JSONObject(newValueJsonStr);
-      JSONObject keysJson = new JSONObject(keysJsonStr);
-
-      String dmlStatement =
-          DMLGenerator.getDMLStatement(
-              modType, tableName, schema, newValuesJson, keysJson, sourceDbTimezoneOffset);
+      DMLStatement dmlStatement = getDmlStatement(spannerRecord, schema, sourceDbTimezoneOffset);
       if (dmlStatement.isEmpty()) {
-        LOG.warn("DML statement is empty for table: " + tableName);
+        LOG.warn("DML statement is empty for table: " + spannerRecord.getTableName());
         return;
       }
 
       dao.write(dmlStatement);
 
-      Counter numRecProcessedMetric =
-          Metrics.counter(shardId, "records_written_to_source_" + shardId);
-
-      numRecProcessedMetric.inc(1); // update the number of records processed metric
-      Distribution lagMetric =
-          Metrics.distribution(shardId, "replication_lag_in_seconds_" + shardId);
-
-      Instant instTime = Instant.now();
-      Instant commitTsInst = spannerRecord.getCommitTimestamp().toSqlTimestamp().toInstant();
-      long replicationLag = ChronoUnit.SECONDS.between(commitTsInst, instTime);
-
-      lagMetric.update(replicationLag); // update the lag metric
+      updateMetrics(spannerRecord, shardId);
 
     } catch (Exception e) {
       LOG.error(
@@ -80,4 +60,37 @@ public class InputRecordProcessor {
       throw e; // throw the original exception since it needs to go to DLQ
     }
   }
+
+  /**
+   * Generates the DML statement to apply a change record to the source database.
+   *
+   * @return parameterized DML statement, empty if there is nothing to apply for the record.
+   */
+  public static DMLStatement getDmlStatement(
+      TrimmedShardedDataChangeRecord spannerRecord, Schema schema, String sourceDbTimezoneOffset) {
+    String tableName = spannerRecord.getTableName();
+    String modType = spannerRecord.getModType().name();
+    String keysJsonStr = spannerRecord.getMod().getKeysJson();
+    String newValueJsonStr = spannerRecord.getMod().getNewValuesJson();
+    JSONObject newValuesJson = new JSONObject(newValueJsonStr);
+    JSONObject keysJson = new JSONObject(keysJsonStr);
+
+    return DMLGenerator.getPreparedDMLStatement(
+        modType, tableName, schema, newValuesJson, keysJson, sourceDbTimezoneOffset);
+  }
+
+  /** Updates the shard metrics for a change record that is written to the source database. */
+  public static void updateMetrics(TrimmedShardedDataChangeRecord spannerRecord, String shardId) {
+    Counter numRecProcessedMetric =
+        Metrics.counter(shardId, "records_written_to_source_" + shardId);
+
+    numRecProcessedMetric.inc(1); // update the number of records processed metric
+    Distribution lagMetric = Metrics.distribution(shardId, "replication_lag_in_seconds_" + shardId);
+
+    Instant instTime = Instant.now();
+    Instant commitTsInst = spannerRecord.getCommitTimestamp().toSqlTimestamp().toInstant();
+    long replicationLag = ChronoUnit.SECONDS.between(commitTsInst, instTime);
+
+    lagMetric.update(replicationLag); // update the lag metric
+  }
 }
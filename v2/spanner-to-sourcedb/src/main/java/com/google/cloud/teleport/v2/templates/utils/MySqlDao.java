@@ -17,8 +17,9 @@ package com.google.cloud.teleport.v2.templates.utils;
 
 import java.io.Serializable;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,9 +45,9 @@ public class MySqlDao implements Serializable {
   }
 
   // writes to database
-  public void write(String sqlStatement) throws SQLException, ConnectionException {
+  public void write(DMLStatement dmlStatement) throws SQLException, ConnectionException {
     Connection connObj = null;
-    Statement statement = null;
+    PreparedStatement statement = null;
 
     try {
 
@@ -54,8 +55,9 @@ public class MySqlDao implements Serializable {
       if (connObj == null) {
         throw new ConnectionException("Connection is null");
       }
-      statement = connObj.createStatement();
-      statement.executeUpdate(sqlStatement);
+      statement = connObj.prepareStatement(dmlStatement.getStatement());
+      dmlStatement.bind(statement);
+      statement.executeUpdate();
 
     } finally {
 
@@ -67,4 +69,60 @@ public class MySqlDao implements Serializable {
       }
     }
   }
+
+  /**
+   * Writes a batch of statements to the database in one transaction. Consecutive statements with
+   * the same SQL are sent as a single JDBC batch of one prepared statement. Either all the
+   * statements are applied or the transaction is rolled back and the exception is thrown.
+   *
+   * @param dmlStatements statements to apply, in order.
+   */
+  public void writeBatch(List<DMLStatement> dmlStatements)
+      throws SQLException, ConnectionException {
+    if (dmlStatements.isEmpty()) {
+      return;
+    }
+    Connection connObj = null;
+    PreparedStatement statement = null;
+
+    try {
+
+      connObj = ConnectionHelper.getConnection(this.sqlUrl, this.sqlUser, this.sqlPasswd);
+      if (connObj == null) {
+        throw new ConnectionException("Connection is null");
+      }
+      connObj.setAutoCommit(false);
+      String currentSql = null;
+      for (DMLStatement dmlStatement : dmlStatements) {
+        if (!dmlStatement.getStatement().equals(currentSql)) {
+          if (statement != null) {
+            statement.executeBatch();
+            statement.close();
+          }
+          currentSql = dmlStatement.getStatement();
+          statement = connObj.prepareStatement(currentSql);
+        }
+        dmlStatement.bind(statement);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+      connObj.commit();
+
+    } catch (SQLException e) {
+      if (connObj != null) {
+        connObj.rollback();
+      }
+      throw e;
+    } finally {
+
+      if (statement != null) {
+        statement.close();
+      }
+      if (connObj != null) {
+        // The connection goes back to the pool.
+        connObj.setAutoCommit(true);
+        connObj.close();
+      }
+    }
+  }
 }
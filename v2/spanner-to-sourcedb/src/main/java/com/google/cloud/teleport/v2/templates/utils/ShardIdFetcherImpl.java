@@ -22,6 +22,8 @@ import com.google.cloud.teleport.v2.spanner.utils.ShardIdRequest;
 import com.google.cloud.teleport.v2.spanner.utils.ShardIdResponse;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +65,13 @@ public class ShardIdFetcherImpl implements IShardIdFetcher {
     }
   }
 
+  /** Only the shard id column is needed to get the shard identifier. */
+  @Override
+  public List<String> getRequiredColumns(String tableName) {
+    String shardIdColumn = getShardIdColumnForTableName(tableName);
+    return shardIdColumn.isEmpty() ? null : Collections.singletonList(shardIdColumn);
+  }
+
   private String getShardIdColumnForTableName(String tableName) throws IllegalArgumentException {
     if (!schema.getSpannerToID().containsKey(tableName)) {
       LOG.warn(
@@ -16,12 +16,19 @@
 package com.google.cloud.teleport.v2.templates.utils;
 
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.Struct;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerAccessor;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.slf4j.Logger;
@@ -81,12 +88,123 @@ public class SpannerDao {
     }
   }
 
+  /**
+   * Reads the shadow table records of a set of primary keys with a single read.
+   *
+   * @param tableName name of the shadow table.
+   * @param keyColumnNames primary key columns of the shadow table, in the order of the key.
+   * @param primaryKeys primary keys to read.
+   * @return map of the requested primary key to its shadow table record. Keys that are not found in
+   *     the shadow table are not present in the map.
+   */
+  public Map<Key, ShadowTableRecord> getShadowTableRecords(
+      String tableName, List<String> keyColumnNames, Collection<Key> primaryKeys) {
+    Map<Key, Key> normalizedToRequestedKeys = new HashMap<>();
+    KeySet.Builder keySet = KeySet.newBuilder();
+    for (Key primaryKey : primaryKeys) {
+      normalizedToRequestedKeys.put(normalizeKey(primaryKey), primaryKey);
+      keySet.addKey(primaryKey);
+    }
+    List<String> columns = new ArrayList<>(keyColumnNames);
+    columns.add(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME);
+    columns.add(Constants.RECORD_SEQ_COLUMN_NAME);
+    int numKeyColumns = keyColumnNames.size();
+    Map<Key, ShadowTableRecord> shadowTableRecords = new HashMap<>();
+    try (ResultSet resultSet =
+        spannerAccessor.getDatabaseClient().singleUse().read(tableName, keySet.build(), columns)) {
+      while (resultSet.next()) {
+        Key requestedKey = normalizedToRequestedKeys.get(normalizeKey(keyOf(resultSet)));
+        if (requestedKey != null) {
+          shadowTableRecords.put(
+              requestedKey,
+              new ShadowTableRecord(
+                  resultSet.getTimestamp(numKeyColumns), resultSet.getLong(numKeyColumns + 1)));
+        }
+      }
+    } catch (Exception e) {
+      LOG.warn("The " + tableName + " table could not be read. ", e);
+      // We need to throw the original exception such that the caller can
+      // look at SpannerException class to take decision
+      throw e;
+    }
+    return shadowTableRecords;
+  }
+
+  /** Builds the primary key from the leading key columns of a shadow table row. */
+  private static Key keyOf(ResultSet row) {
+    Key.Builder key = Key.newBuilder();
+    int numKeyColumns = row.getColumnCount() - 2;
+    for (int i = 0; i < numKeyColumns; i++) {
+      if (row.isNull(i)) {
+        key.appendObject(null);
+        continue;
+      }
+      switch (row.getColumnType(i).getCode()) {
+        case BOOL:
+          key.append(row.getBoolean(i));
+          break;
+        case INT64:
+          key.append(row.getLong(i));
+          break;
+        case FLOAT64:
+          key.append(row.getDouble(i));
+          break;
+        case NUMERIC:
+          key.append(row.getBigDecimal(i));
+          break;
+        case PG_NUMERIC:
+          key.append(new BigDecimal(row.getString(i)));
+          break;
+        case BYTES:
+          key.append(row.getBytes(i));
+          break;
+        case TIMESTAMP:
+          key.append(row.getTimestamp(i));
+          break;
+        case DATE:
+          key.append(row.getDate(i));
+          break;
+        case JSON:
+          key.append(row.getJson(i));
+          break;
+        case PG_JSONB:
+          key.append(row.getPgJsonb(i));
+          break;
+        default:
+          key.append(row.getString(i));
+      }
+    }
+    return key.build();
+  }
+
+  /** Normalizes the scale of numeric key parts, so that equal numbers yield equal keys. */
+  private static Key normalizeKey(Key key) {
+    Key.Builder normalized = Key.newBuilder();
+    for (Object part : key.getParts()) {
+      normalized.appendObject(
+          (part instanceof BigDecimal) ? ((BigDecimal) part).stripTrailingZeros() : part);
+    }
+    return normalized.build();
+  }
+
   public void updateShadowTable(Mutation mutation) {
     List<Mutation> mutations = new ArrayList<>();
     mutations.add(mutation);
     spannerAccessor.getDatabaseClient().write(mutations);
   }
 
+  /**
+   * Writes the updates of multiple shadow table records in a single commit.
+   *
+   * @param mutations shadow table mutations.
+   */
+  public void updateShadowTables(List<Mutation> mutations) {
+    if (mutations.isEmpty()) {
+      return;
+    }
+    spannerAccessor.getDatabaseClient().write(mutations);
+  }
+
   public void close() {
     spannerAccessor.close();
   }
@@ -21,6 +21,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,7 +32,10 @@ import com.google.cloud.Date;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
 import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.ReadOnlyTransaction;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
 import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TimestampBound;
 import com.google.cloud.spanner.Value;
@@ -58,6 +62,7 @@ import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.Mod;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.KV;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
@@ -82,6 +87,8 @@ public class AssignShardIdFnTest {
 
   @Mock private DoFn.ProcessContext processContext;
 
+  @Mock private DoFn.FinishBundleContext finishBundleContext;
+
   Struct mockRow = mock(Struct.class);
 
   @Before
@@ -176,11 +183,13 @@ public class AssignShardIdFnTest {
     assignShardIdFn.setShardIdFetcher(
         ShardingLogicImplFetcher.getShardingLogicImpl("", "", "", getSchemaObject(), "skip"));
 
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     String keyStr = "tableName" + "_" + record.getMod().getKeysJson() + "_" + "shard1";
     Long key = keyStr.hashCode() % 10000L;
-    assignShardIdFn.processElement(processContext);
-    verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
+    assignShardIdFn.finishBundle(finishBundleContext);
+    verify(finishBundleContext, atLeast(1)).output(eq(KV.of(key, record)), any(), any());
   }
 
   @Test
@@ -208,11 +217,13 @@ public class AssignShardIdFnTest {
     assignShardIdFn.setShardIdFetcher(
         ShardingLogicImplFetcher.getShardingLogicImpl("", "", "", getSchemaObject(), "skip"));
 
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
+    assignShardIdFn.finishBundle(finishBundleContext);
     String keyStr = "tableName" + "_" + record.getMod().getKeysJson() + "_" + "shard1";
     Long key = keyStr.hashCode() % 10000L;
 
-    verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
+    verify(finishBundleContext, atLeast(1)).output(eq(KV.of(key, record)), any(), any());
   }
 
   @Test
@@ -235,7 +246,8 @@ public class AssignShardIdFnTest {
     record.setShard("test");
     String keyStr = "tableName" + "_" + record.getMod().getKeysJson() + "_" + "test";
     Long key = keyStr.hashCode() % 10000L;
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
   }
 
@@ -322,11 +334,13 @@ public class AssignShardIdFnTest {
     shardIdFetcher.init("just to test this method is called argghhh!!");
     assignShardIdFn.setShardIdFetcher(shardIdFetcher);
 
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
+    assignShardIdFn.finishBundle(finishBundleContext);
     String keyStr = record.getTableName() + "_" + record.getMod().getKeysJson() + "_" + "shard1";
     Long key = keyStr.hashCode() % 10000L;
 
-    verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
+    verify(finishBundleContext, atLeast(1)).output(eq(KV.of(key, record)), any(), any());
   }
 
   @Test
@@ -355,7 +369,8 @@ public class AssignShardIdFnTest {
         new ShardIdFetcherImpl(getSchemaObjectAllDatatypes(), "skip");
     assignShardIdFn.setShardIdFetcher(shardIdFetcher);
 
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     String keyStr = record.getTableName() + "_" + record.getMod().getKeysJson() + "_" + "shard1";
     Long key = keyStr.hashCode() % 10000L;
     assignShardIdFn.teardown();
@@ -385,7 +400,8 @@ public class AssignShardIdFnTest {
     ShardIdFetcherImpl shardIdFetcher =
         new ShardIdFetcherImpl(getSchemaObjectAllDatatypes(), "skip");
     assignShardIdFn.setShardIdFetcher(shardIdFetcher);
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
   }
 
@@ -411,7 +427,8 @@ public class AssignShardIdFnTest {
     ShardIdFetcherImpl shardIdFetcher =
         new ShardIdFetcherImpl(getBotchedSchemaObjectForMissingShardColumn(), "skip");
     assignShardIdFn.setShardIdFetcher(shardIdFetcher);
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
   }
 
@@ -437,7 +454,8 @@ public class AssignShardIdFnTest {
     ShardIdFetcherImpl shardIdFetcher =
         new ShardIdFetcherImpl(getBotchedSchemaObjectForInvalidSpannerToOid(), "skip");
     assignShardIdFn.setShardIdFetcher(shardIdFetcher);
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
   }
 
@@ -463,7 +481,8 @@ public class AssignShardIdFnTest {
     ShardIdFetcherImpl shardIdFetcher =
         new ShardIdFetcherImpl(getBotchedSchemaObjectForInvalidSpSchema(), "skip");
     assignShardIdFn.setShardIdFetcher(shardIdFetcher);
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
   }
 
@@ -492,10 +511,11 @@ public class AssignShardIdFnTest {
     assignShardIdFn.setShardIdFetcher(
         ShardingLogicImplFetcher.getShardingLogicImpl("", "", "", getSchemaObject(), "skip"));
 
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     String keyStr = "tableName" + "_" + record.getMod().getKeysJson() + "_" + "skip";
     Long key = keyStr.hashCode() % 10000L;
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
   }
 
@@ -530,11 +550,115 @@ public class AssignShardIdFnTest {
         new ShardIdFetcherImpl(getSchemaObjectAllDatatypes(), "skip");
     assignShardIdFn.setShardIdFetcher(shardIdFetcher);
 
-    assignShardIdFn.processElement(processContext);
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
+    assignShardIdFn.finishBundle(finishBundleContext);
     String keyStr = record.getTableName() + "_" + record.getMod().getKeysJson() + "_" + "skip";
     Long key = keyStr.hashCode() % 10000L;
 
-    verify(processContext, atLeast(1)).output(eq(KV.of(key, record)));
+    verify(finishBundleContext, atLeast(1)).output(eq(KV.of(key, record)), any(), any());
+  }
+
+  @Test
+  public void testDeletesOfSameCommitReadInOneBatch() throws Exception {
+    TrimmedShardedDataChangeRecord record1 = getDeleteTrimmedDataChangeRecordForKey("Id1");
+    TrimmedShardedDataChangeRecord record2 = getDeleteTrimmedDataChangeRecordForKey("Id2");
+    when(processContext.element()).thenReturn(record1, record2);
+    com.google.cloud.spanner.Type rowType =
+        com.google.cloud.spanner.Type.struct(
+            com.google.cloud.spanner.Type.StructField.of(
+                "accountId", com.google.cloud.spanner.Type.string()),
+            com.google.cloud.spanner.Type.StructField.of(
+                "migration_shard_id", com.google.cloud.spanner.Type.string()));
+    ResultSet resultSet =
+        ResultSets.forRows(
+            rowType,
+            List.of(
+                Struct.newBuilder()
+                    .set("accountId")
+                    .to("Id2")
+                    .set("migration_shard_id")
+                    .to("shard2")
+                    .build(),
+                Struct.newBuilder()
+                    .set("accountId")
+                    .to("Id1")
+                    .set("migration_shard_id")
+                    .to("shard1")
+                    .build()));
+    when(mockReadOnlyTransaction.read(eq("tableName"), any(KeySet.class), any(Iterable.class)))
+        .thenReturn(resultSet);
+    AssignShardIdFn assignShardIdFn =
+        new AssignShardIdFn(
+            SpannerConfig.create(),
+            getSchemaObject(),
+            getTestDdlWithPrimaryKey(),
+            Constants.SHARDING_MODE_MULTI_SHARD,
+            "test",
+            "skip",
+            "",
+            "",
+            "",
+            10000L);
+    assignShardIdFn.setSpannerAccessor(spannerAccessor);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    assignShardIdFn.setMapper(mapper);
+    assignShardIdFn.setShardIdFetcher(new ShardIdFetcherImpl(getSchemaObject(), "skip"));
+
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
+    verify(processContext, never()).output(any());
+    assignShardIdFn.finishBundle(finishBundleContext);
+
+    // Only the primary key and the shard id column are read, with a single read.
+    verify(mockReadOnlyTransaction)
+        .read(eq("tableName"), any(KeySet.class), eq(List.of("accountId", "migration_shard_id")));
+    verify(mockReadOnlyTransaction, never())
+        .readRow(any(String.class), any(Key.class), any(Iterable.class));
+    record1.setShard("shard1");
+    record2.setShard("shard2");
+    String keyStr1 = "tableName_" + record1.getMod().getKeysJson() + "_shard1";
+    String keyStr2 = "tableName_" + record2.getMod().getKeysJson() + "_shard2";
+    verify(finishBundleContext)
+        .output(eq(KV.of(keyStr1.hashCode() % 10000L, record1)), any(), any());
+    verify(finishBundleContext)
+        .output(eq(KV.of(keyStr2.hashCode() % 10000L, record2)), any(), any());
+  }
+
+  @Test
+  public void testDeleteUsesShardIdOfEarlierInsert() throws Exception {
+    TrimmedShardedDataChangeRecord insertRecord = getInsertTrimmedDataChangeRecord("shard2");
+    TrimmedShardedDataChangeRecord deleteRecord = getDeleteTrimmedDataChangeRecord("shard2");
+    when(processContext.element()).thenReturn(insertRecord, deleteRecord);
+    AssignShardIdFn assignShardIdFn =
+        new AssignShardIdFn(
+            SpannerConfig.create(),
+            getSchemaObject(),
+            getTestDdl(),
+            Constants.SHARDING_MODE_MULTI_SHARD,
+            "test",
+            "skip",
+            "",
+            "",
+            "",
+            10000L);
+    assignShardIdFn.setSpannerAccessor(spannerAccessor);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    assignShardIdFn.setMapper(mapper);
+    assignShardIdFn.setShardIdFetcher(new ShardIdFetcherImpl(getSchemaObject(), "skip"));
+
+    assignShardIdFn.startBundle();
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
+    assignShardIdFn.processElement(processContext, GlobalWindow.INSTANCE);
+    assignShardIdFn.finishBundle(finishBundleContext);
+
+    verify(mockDatabaseClient, never()).singleUse(any(TimestampBound.class));
+    deleteRecord.setShard("shard2");
+    String keyStr = "tableName_" + deleteRecord.getMod().getKeysJson() + "_shard2";
+    verify(processContext).output(eq(KV.of(keyStr.hashCode() % 10000L, deleteRecord)));
   }
 
   public TrimmedShardedDataChangeRecord getInsertTrimmedDataChangeRecord(String shardId) {
@@ -566,6 +690,18 @@ public class AssignShardIdFnTest {
         "");
   }
 
+  public TrimmedShardedDataChangeRecord getDeleteTrimmedDataChangeRecordForKey(String accountId) {
+    return new TrimmedShardedDataChangeRecord(
+        Timestamp.parseTimestamp("2020-12-01T10:15:30.000Z"),
+        "serverTxnId",
+        "recordSeq",
+        "tableName",
+        new Mod("{\"accountId\": \"" + accountId + "\"}", "{}", "{}"),
+        ModType.valueOf("DELETE"),
+        1,
+        "");
+  }
+
   public TrimmedShardedDataChangeRecord getInsertTrimmedDataChangeRecordAllDatatypes(
       String shardId) {
     return new TrimmedShardedDataChangeRecord(
@@ -654,6 +790,31 @@ public class AssignShardIdFnTest {
     return spannerToId;
   }
 
+  static Ddl getTestDdlWithPrimaryKey() {
+    return Ddl.builder()
+        .createTable("tableName")
+        .column("accountId")
+        .string()
+        .max()
+        .endColumn()
+        .column("accountName")
+        .string()
+        .max()
+        .endColumn()
+        .column("migration_shard_id")
+        .string()
+        .max()
+        .endColumn()
+        .column("accountNumber")
+        .int64()
+        .endColumn()
+        .primaryKey()
+        .asc("accountId")
+        .end()
+        .endTable()
+        .build();
+  }
+
   static Ddl getTestDdl() {
     Ddl ddl =
         Ddl.builder()
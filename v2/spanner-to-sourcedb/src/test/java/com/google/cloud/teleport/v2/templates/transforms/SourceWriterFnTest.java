@@ -15,19 +15,24 @@
  */
 package com.google.cloud.teleport.v2.templates.transforms;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Mutation;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.ColumnPK;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.NameAndCols;
@@ -42,24 +47,29 @@ import com.google.cloud.teleport.v2.spanner.migrations.utils.SessionFileReader;
 import com.google.cloud.teleport.v2.templates.changestream.ChangeStreamErrorRecord;
 import com.google.cloud.teleport.v2.templates.changestream.TrimmedShardedDataChangeRecord;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
+import com.google.cloud.teleport.v2.templates.utils.DMLStatement;
 import com.google.cloud.teleport.v2.templates.utils.MySqlDao;
 import com.google.cloud.teleport.v2.templates.utils.ShadowTableRecord;
 import com.google.cloud.teleport.v2.templates.utils.SpannerDao;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.Mod;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.KV;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -73,6 +83,7 @@ public class SourceWriterFnTest {
   @Mock HashMap<String, MySqlDao> mockMySqlDaoMap;
   @Mock private SpannerConfig mockSpannerConfig;
   @Mock private DoFn.ProcessContext processContext;
+  @Mock private DoFn.FinishBundleContext finishBundleContext;
   private static Gson gson = new Gson();
 
   private Shard testShard;
@@ -93,23 +104,24 @@ public class SourceWriterFnTest {
     doNothing().when(mockSpannerDao).updateShadowTable(any());
     doThrow(new java.sql.SQLIntegrityConstraintViolationException("a foreign key constraint fails"))
         .when(mockMySqlDao)
-        .write(contains("2300")); // This is the child_id for which we want to test the foreign key
+        .write(
+            dmlContains("2300")); // This is the child_id for which we want to test the foreign key
     // constraint failure.
     doThrow(
             new java.sql.SQLNonTransientConnectionException(
                 "transient connection error", "HY000", 1161))
         .when(mockMySqlDao)
-        .write(contains("1161")); // This is the child_id for which we want to retryable
+        .write(dmlContains("1161")); // This is the child_id for which we want to retryable
     // connection error
     doThrow(
             new java.sql.SQLNonTransientConnectionException(
                 "permanent connection error", "HY000", 4242))
         .when(mockMySqlDao)
-        .write(contains("4242")); // no retryable error
+        .write(dmlContains("4242")); // no retryable error
     doThrow(new RuntimeException("generic exception"))
         .when(mockMySqlDao)
-        .write(contains("12345")); // to test code path of generic exception
-    doNothing().when(mockMySqlDao).write(contains("parent1"));
+        .write(dmlContains("12345")); // to test code path of generic exception
+    doNothing().when(mockMySqlDao).write(dmlContains("parent1"));
     testShard = new Shard();
     testShard.setLogicalShardId("shardA");
     testShard.setUser("test");
@@ -143,7 +155,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     verify(mockMySqlDao, never()).write(any());
     verify(mockSpannerDao, never()).updateShadowTable(any());
@@ -170,7 +182,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     verify(mockMySqlDao, never()).write(any());
     verify(mockSpannerDao, never()).updateShadowTable(any());
@@ -196,7 +208,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     verify(mockMySqlDao, atLeast(1)).write(any());
     verify(mockSpannerDao, atLeast(1)).updateShadowTable(any());
@@ -221,7 +233,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, Constants.SHARD_NOT_PRESENT_ERROR_MESSAGE);
@@ -251,7 +263,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, Constants.SKIPPED_TAG_MESSAGE);
@@ -279,7 +291,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(
@@ -311,7 +323,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord = new ChangeStreamErrorRecord(jsonRec, "Test exception");
     verify(processContext, atLeast(1))
@@ -339,7 +351,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, "a foreign key constraint fails");
@@ -368,7 +380,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, "transient connection error");
@@ -397,7 +409,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, "permanent connection error");
@@ -426,7 +438,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord = new ChangeStreamErrorRecord(jsonRec, "generic exception");
     verify(processContext, atLeast(1))
@@ -454,8 +466,126 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
-    sourceWriterFn.processElement(processContext);
-    verify(mockMySqlDao, never()).write(contains("567890"));
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    verify(mockMySqlDao, never()).write(dmlContains("567890"));
+  }
+
+  @Test
+  public void testBatchedWrite() throws Exception {
+    when(mockSpannerDao.getShadowTableRecords(eq("shadow_parent1"), any(), any()))
+        .thenReturn(
+            Map.of(
+                Key.of(43L),
+                new ShadowTableRecord(Timestamp.parseTimestamp("2025-02-02T00:00:00Z"), 1)));
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn();
+    // Records of the same key arriving out of order, and a record the source is ahead of.
+    TrimmedShardedDataChangeRecord newerRecord =
+        getParent1TrimmedDataChangeRecord("shardA", 42, "2020-12-02T10:15:30.000Z");
+    TrimmedShardedDataChangeRecord olderRecord =
+        getParent1TrimmedDataChangeRecord("shardA", 42, "2020-12-01T10:15:30.000Z");
+    TrimmedShardedDataChangeRecord sourceAheadRecord =
+        getParent1TrimmedDataChangeRecord("shardA", 43, "2020-12-01T10:15:30.000Z");
+    for (TrimmedShardedDataChangeRecord record :
+        List.of(newerRecord, olderRecord, sourceAheadRecord)) {
+      when(processContext.element()).thenReturn(KV.of(1L, record));
+      sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    }
+    verify(mockMySqlDao, never()).writeBatch(any());
+
+    sourceWriterFn.finishBundle(finishBundleContext);
+
+    verify(mockSpannerDao, times(1))
+        .getShadowTableRecords(
+            eq("shadow_parent1"), eq(List.of("id")), eq(Set.of(Key.of(42L), Key.of(43L))));
+    verify(mockSpannerDao, never()).getShadowTableRecord(any(), any());
+    ArgumentCaptor<List<DMLStatement>> dmlCaptor = ArgumentCaptor.forClass(List.class);
+    verify(mockMySqlDao, times(1)).writeBatch(dmlCaptor.capture());
+    assertEquals(2, dmlCaptor.getValue().size());
+    assertTrue(dmlCaptor.getValue().stream().allMatch(dml -> dml.toString().contains("42")));
+    verify(mockMySqlDao, never()).write(any());
+    ArgumentCaptor<List<Mutation>> mutationCaptor = ArgumentCaptor.forClass(List.class);
+    verify(mockSpannerDao, times(1)).updateShadowTables(mutationCaptor.capture());
+    // Only the latest update of the key is written to the shadow table.
+    assertEquals(1, mutationCaptor.getValue().size());
+    assertEquals(
+        Timestamp.parseTimestamp("2020-12-02T10:15:30.000Z"),
+        mutationCaptor.getValue().get(0).asMap().get("processed_commit_ts").getTimestamp());
+    verify(finishBundleContext, times(3))
+        .output(eq(Constants.SUCCESS_TAG), any(String.class), any(), eq(GlobalWindow.INSTANCE));
+  }
+
+  @Test
+  public void testBatchedWriteFallsBackToIndividualWrites() throws Exception {
+    when(mockSpannerDao.getShadowTableRecords(any(), any(), any())).thenReturn(Map.of());
+    doThrow(new java.sql.SQLIntegrityConstraintViolationException("a foreign key constraint fails"))
+        .when(mockMySqlDao)
+        .writeBatch(any());
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn();
+    TrimmedShardedDataChangeRecord parentRecord = getParent1TrimmedDataChangeRecord("shardA");
+    parentRecord.setShard("shardA");
+    TrimmedShardedDataChangeRecord childRecord = getChild21TrimmedDataChangeRecord("shardA", 2300);
+    childRecord.setShard("shardA");
+    for (TrimmedShardedDataChangeRecord record : List.of(parentRecord, childRecord)) {
+      when(processContext.element()).thenReturn(KV.of(1L, record));
+      sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    }
+
+    sourceWriterFn.finishBundle(finishBundleContext);
+
+    verify(mockMySqlDao, times(1)).writeBatch(any());
+    verify(mockMySqlDao, times(2)).write(any());
+    verify(mockSpannerDao, never()).updateShadowTables(any());
+    verify(mockSpannerDao, times(1)).updateShadowTable(any());
+    String jsonRec = gson.toJson(childRecord, TrimmedShardedDataChangeRecord.class);
+    ChangeStreamErrorRecord errorRecord =
+        new ChangeStreamErrorRecord(jsonRec, "a foreign key constraint fails");
+    verify(finishBundleContext, times(1))
+        .output(
+            eq(Constants.RETRYABLE_ERROR_TAG),
+            eq(gson.toJson(errorRecord, ChangeStreamErrorRecord.class)),
+            any(),
+            eq(GlobalWindow.INSTANCE));
+    verify(finishBundleContext, times(1))
+        .output(eq(Constants.SUCCESS_TAG), any(String.class), any(), eq(GlobalWindow.INSTANCE));
+  }
+
+  @Test
+  public void testBatchedWriteFlushesFullBatch() throws Exception {
+    when(mockSpannerDao.getShadowTableRecords(any(), any(), any())).thenReturn(Map.of());
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn();
+    for (int i = 0; i < 10; i++) {
+      when(processContext.element())
+          .thenReturn(
+              KV.of(
+                  1L, getParent1TrimmedDataChangeRecord("shardA", i, "2020-12-01T10:15:30.000Z")));
+      sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    }
+
+    verify(mockMySqlDao, times(1)).writeBatch(any());
+    verify(processContext, times(10)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+    sourceWriterFn.finishBundle(finishBundleContext);
+    verify(mockMySqlDao, times(1)).writeBatch(any());
+  }
+
+  private SourceWriterFn getBatchedSourceWriterFn() {
+    SourceWriterFn sourceWriterFn =
+        new SourceWriterFn(
+            ImmutableList.of(testShard),
+            testSchema,
+            mockSpannerConfig,
+            testSourceDbTimezoneOffset,
+            testDdl,
+            "shadow_",
+            "skip",
+            500,
+            10);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    sourceWriterFn.setObjectMapper(mapper);
+    sourceWriterFn.setSpannerDao(mockSpannerDao);
+    sourceWriterFn.setMySqlDaoMap(mockMySqlDaoMap);
+    sourceWriterFn.startBundle();
+    return sourceWriterFn;
   }
 
   static Ddl getTestDdl() {
@@ -584,6 +714,23 @@ public class SourceWriterFnTest {
         "");
   }
 
+  private TrimmedShardedDataChangeRecord getParent1TrimmedDataChangeRecord(
+      String shardId, long id, String commitTimestamp) {
+    TrimmedShardedDataChangeRecord record =
+        new TrimmedShardedDataChangeRecord(
+            Timestamp.parseTimestamp(commitTimestamp),
+            "serverTxnId",
+            "0",
+            "parent1",
+            new Mod(
+                "{\"id\": \"" + id + "\"}", "{}", "{ \"migration_shard_id\": \"" + shardId + "\"}"),
+            ModType.valueOf("INSERT"),
+            1,
+            "");
+    record.setShard(shardId);
+    return record;
+  }
+
   private TrimmedShardedDataChangeRecord getTrimmedDataChangeRecordToSimulateNullDML(
       String shardId) {
     return new TrimmedShardedDataChangeRecord(
@@ -712,4 +859,9 @@ public class SourceWriterFnTest {
             .build();
     return ddl;
   }
+
+  /** Matches DML statements whose SQL or parameters contain {@code text}. */
+  private static DMLStatement dmlContains(String text) {
+    return argThat(dml -> dml != null && dml.toString().contains(text));
+  }
 }
@@ -15,6 +15,9 @@
  */
 package com.google.cloud.teleport.v2.templates.utils;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -367,6 +370,91 @@ public final class DMLGeneratorTest {
     assertTrue(sql.contains("DELETE FROM `Singers` WHERE"));
   }
 
+  @Test
+  public void preparedUpsertBindsValues() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+    String tableName = "Singers";
+    JSONObject newValuesJson = new JSONObject("{\"FirstName\":\"k'k\",\"LastName\":null}");
+    JSONObject keyValuesJson = new JSONObject("{\"SingerId\":\"999\"}");
+
+    DMLStatement dml =
+        DMLGenerator.getPreparedDMLStatement(
+            "INSERT", tableName, schema, newValuesJson, keyValuesJson, "+00:00");
+
+    String sql = dml.getStatement();
+    assertTrue(sql.startsWith("INSERT INTO `Singers`(`SingerId`,"));
+    assertTrue(sql.contains("VALUES (?,?,?) ON DUPLICATE KEY UPDATE"));
+    assertTrue(sql.contains("`FirstName` = ?"));
+    assertTrue(sql.contains("`LastName` = ?"));
+    assertFalse(sql.contains("k'k"));
+    // The values of the insert followed by the values of the update.
+    assertEquals(5, dml.getParameters().size());
+    assertEquals(999L, dml.getParameters().get(0));
+    assertTrue(dml.getParameters().contains("k'k"));
+    assertTrue(dml.getParameters().contains(null));
+  }
+
+  @Test
+  public void preparedStatementIsSharedAcrossValues() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+    String tableName = "Singers";
+
+    DMLStatement first =
+        DMLGenerator.getPreparedDMLStatement(
+            "UPDATE",
+            tableName,
+            schema,
+            new JSONObject("{\"FirstName\":\"kk\",\"LastName\":\"ll\"}"),
+            new JSONObject("{\"SingerId\":\"999\"}"),
+            "+00:00");
+    DMLStatement second =
+        DMLGenerator.getPreparedDMLStatement(
+            "UPDATE",
+            tableName,
+            schema,
+            new JSONObject("{\"FirstName\":\"aa\",\"LastName\":\"bb\"}"),
+            new JSONObject("{\"SingerId\":\"1\"}"),
+            "+00:00");
+
+    assertEquals(first.getStatement(), second.getStatement());
+    assertNotEquals(first.getParameters(), second.getParameters());
+  }
+
+  @Test
+  public void preparedDeleteMultiplePKColumns() {
+    Schema schema = SessionFileReader.read("src/test/resources/MultiColmPKSession.json");
+    String tableName = "Singers";
+    JSONObject newValuesJson = new JSONObject("{\"LastName\":null}");
+    JSONObject keyValuesJson = new JSONObject("{\"SingerId\":\"999\",\"FirstName\":\"kk\"}");
+
+    DMLStatement dml =
+        DMLGenerator.getPreparedDMLStatement(
+            "DELETE", tableName, schema, newValuesJson, keyValuesJson, "+00:00");
+
+    assertTrue(dml.getStatement().startsWith("DELETE FROM `Singers` WHERE"));
+    assertTrue(dml.getStatement().contains("`FirstName` = ?"));
+    assertTrue(dml.getStatement().contains("`SingerId` = ?"));
+    assertEquals(2, dml.getParameters().size());
+    assertTrue(dml.getParameters().contains("kk"));
+    assertTrue(dml.getParameters().contains(999L));
+  }
+
+  @Test
+  public void preparedStatementForUnknownTableIsEmpty() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+
+    DMLStatement dml =
+        DMLGenerator.getPreparedDMLStatement(
+            "INSERT",
+            "UnknownTable",
+            schema,
+            new JSONObject("{}"),
+            new JSONObject("{\"SingerId\":\"999\"}"),
+            "+00:00");
+
+    assertTrue(dml.isEmpty());
+  }
+
   @Test
   public void testSingleQuoteMatch() {
     Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
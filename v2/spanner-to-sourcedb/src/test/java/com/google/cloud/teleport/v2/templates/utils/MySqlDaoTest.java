@@ -15,22 +15,31 @@
  */
 package com.google.cloud.teleport.v2.templates.utils;
 
+import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.zaxxer.hikari.HikariDataSource;
+import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.Statement;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -42,13 +51,13 @@ public final class MySqlDaoTest {
 
   @Mock private Connection mockConnection;
 
-  @Mock private Statement mockStatement;
+  @Mock private PreparedStatement mockStatement;
 
   @Before
   public void doBeforeEachTest() throws java.sql.SQLException {
     when(mockHikariDataSource.getConnection()).thenReturn(mockConnection);
-    when(mockConnection.createStatement()).thenReturn(mockStatement);
-    when(mockStatement.executeUpdate(any())).thenReturn(1);
+    when(mockConnection.prepareStatement(any())).thenReturn(mockStatement);
+    when(mockStatement.executeUpdate()).thenReturn(1);
     doNothing().when(mockStatement).close();
     doNothing().when(mockConnection).close();
   }
@@ -56,7 +65,52 @@ public final class MySqlDaoTest {
   @Test(expected = ConnectionException.class)
   public void testNullConnection() throws java.sql.SQLException, ConnectionException {
     MySqlDao mySqlDao = new MySqlDao("url", "user", "pass");
-    mySqlDao.write("sql");
+    mySqlDao.write(new DMLStatement("sql", List.of()));
+  }
+
+  @Test
+  public void testWriteBatch() throws java.sql.SQLException, ConnectionException {
+    Map<String, HikariDataSource> connectionPoolMap = new HashMap<>();
+    connectionPoolMap.put("urluserpass", mockHikariDataSource);
+    ConnectionHelper.setConnectionPoolMap(connectionPoolMap);
+    MySqlDao mySqlDao = new MySqlDao("url", "user", "pass");
+    mySqlDao.writeBatch(
+        List.of(
+            new DMLStatement("sql1 ?", List.of(1L)),
+            new DMLStatement("sql1 ?", List.of(2L)),
+            new DMLStatement("sql2 ?", List.of("a"))));
+    InOrder inOrder = inOrder(mockConnection, mockStatement);
+    inOrder.verify(mockConnection).setAutoCommit(false);
+    // Consecutive statements with the same SQL share a prepared statement batch.
+    inOrder.verify(mockConnection).prepareStatement(eq("sql1 ?"));
+    inOrder.verify(mockStatement).setLong(1, 1L);
+    inOrder.verify(mockStatement).addBatch();
+    inOrder.verify(mockStatement).setLong(1, 2L);
+    inOrder.verify(mockStatement).addBatch();
+    inOrder.verify(mockStatement).executeBatch();
+    inOrder.verify(mockConnection).prepareStatement(eq("sql2 ?"));
+    inOrder.verify(mockStatement).setString(1, "a");
+    inOrder.verify(mockStatement).addBatch();
+    inOrder.verify(mockStatement).executeBatch();
+    inOrder.verify(mockConnection).commit();
+    inOrder.verify(mockConnection).setAutoCommit(true);
+    inOrder.verify(mockConnection).close();
+  }
+
+  @Test
+  public void testWriteBatchRollback() throws java.sql.SQLException, ConnectionException {
+    Map<String, HikariDataSource> connectionPoolMap = new HashMap<>();
+    connectionPoolMap.put("urluserpass", mockHikariDataSource);
+    ConnectionHelper.setConnectionPoolMap(connectionPoolMap);
+    when(mockStatement.executeBatch()).thenThrow(new SQLException("batch failed"));
+    MySqlDao mySqlDao = new MySqlDao("url", "user", "pass");
+    assertThrows(
+        SQLException.class,
+        () -> mySqlDao.writeBatch(List.of(new DMLStatement("sql1", List.of()))));
+    verify(mockConnection).rollback();
+    verify(mockConnection, never()).commit();
+    verify(mockConnection).setAutoCommit(true);
+    verify(mockConnection).close();
   }
 
   @Test
@@ -65,7 +119,17 @@ public final class MySqlDaoTest {
     connectionPoolMap.put("urluserpass", mockHikariDataSource);
     ConnectionHelper.setConnectionPoolMap(connectionPoolMap);
     MySqlDao mySqlDao = new MySqlDao("url", "user", "pass");
-    mySqlDao.write("sql");
-    verify(mockStatement).executeUpdate(eq("sql"));
+    List<Object> parameters = new ArrayList<>();
+    parameters.add("a");
+    parameters.add(null);
+    parameters.add(true);
+    parameters.add(new BigDecimal("4.2"));
+    mySqlDao.write(new DMLStatement("sql ? ? ? ?", parameters));
+    verify(mockConnection).prepareStatement(eq("sql ? ? ? ?"));
+    verify(mockStatement).setString(1, "a");
+    verify(mockStatement).setNull(2, Types.NULL);
+    verify(mockStatement).setBoolean(3, true);
+    verify(mockStatement).setBigDecimal(4, new BigDecimal("4.2"));
+    verify(mockStatement).executeUpdate();
   }
 }
@@ -20,17 +20,25 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
 import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.ReadOnlyTransaction;
+import com.google.cloud.spanner.ResultSets;
 import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
 import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerAccessor;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
@@ -98,6 +106,64 @@ public final class SpannerDaoTest {
     ShadowTableRecord response = spannerDao.getShadowTableRecord("error", null);
   }
 
+  @Test
+  public void testGetShadowTableRecords() {
+    SpannerDao spannerDao = new SpannerDao(mockSpannerAccessor);
+    Type rowType =
+        Type.struct(
+            StructField.of("id", Type.int64()),
+            StructField.of("amount", Type.numeric()),
+            StructField.of(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME, Type.timestamp()),
+            StructField.of(Constants.RECORD_SEQ_COLUMN_NAME, Type.int64()));
+    Struct row =
+        Struct.newBuilder()
+            .set("id")
+            .to(1L)
+            .set("amount")
+            .to(new BigDecimal("1.5"))
+            .set(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME)
+            .to(Timestamp.parseTimestamp("2023-05-18T12:01:13.088397258Z"))
+            .set(Constants.RECORD_SEQ_COLUMN_NAME)
+            .to(7L)
+            .build();
+    when(mockReadOnlyTransaction.read(eq("shadow_T"), any(KeySet.class), any(Iterable.class)))
+        .thenReturn(ResultSets.forRows(rowType, List.of(row)));
+    // The scale of the numeric key part differs from the one read from spanner.
+    Key foundKey = Key.of(1L, new BigDecimal("1.50"));
+    Key missingKey = Key.of(2L, new BigDecimal("2"));
+
+    Map<Key, ShadowTableRecord> response =
+        spannerDao.getShadowTableRecords(
+            "shadow_T", List.of("id", "amount"), List.of(foundKey, missingKey));
+
+    assertThat(response.keySet()).containsExactly(foundKey);
+    assertThat(response.get(foundKey).getProcessedCommitTimestamp())
+        .isEqualTo(Timestamp.parseTimestamp("2023-05-18T12:01:13.088397258Z"));
+    assertThat(response.get(foundKey).getRecordSequence()).isEqualTo(7L);
+    verify(mockReadOnlyTransaction)
+        .read(
+            eq("shadow_T"),
+            eq(KeySet.newBuilder().addKey(foundKey).addKey(missingKey).build()),
+            eq(
+                List.of(
+                    "id",
+                    "amount",
+                    Constants.PROCESSED_COMMIT_TS_COLUMN_NAME,
+                    Constants.RECORD_SEQ_COLUMN_NAME)));
+  }
+
+  @Test
+  public void testUpdateShadowTables() {
+    SpannerDao spannerDao = new SpannerDao(mockSpannerAccessor);
+    Mutation mutation1 = Mutation.newInsertBuilder("T").set("C1").to("x").build();
+    Mutation mutation2 = Mutation.newInsertBuilder("T").set("C1").to("y").build();
+    when(mockDatabaseClient.write(any())).thenReturn(null);
+    spannerDao.updateShadowTables(List.of());
+    verify(mockDatabaseClient, never()).write(any());
+    spannerDao.updateShadowTables(List.of(mutation1, mutation2));
+    verify(mockDatabaseClient).write(eq(List.of(mutation1, mutation2)));
+  }
+
   @Test
   public void testUpdateShadowTable() {
     SpannerDao spannerDao = new SpannerDao(mockSpannerAccessor);